@@ -1,13 +1,16 @@
 package com.ensek.Api;
 
+import com.ensek.Api.auth.TokenPool;
+import com.ensek.Api.client.EnsekClient;
+import com.ensek.Api.http.RequestSpecFactory;
 import com.ensek.Api.utils.ConfigUtils;
 import com.ensek.Api.utils.TestReportUtils;
 import io.restassured.RestAssured;
-import io.restassured.builder.RequestSpecBuilder;
 import io.restassured.specification.RequestSpecification;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.testng.ITestResult;
+import org.testng.annotations.AfterClass;
 import org.testng.annotations.AfterMethod;
 import org.testng.annotations.BeforeClass;
 import org.testng.annotations.BeforeMethod;
@@ -23,6 +26,7 @@ public class BaseApiTest {
     protected static final Logger logger = LoggerFactory.getLogger(BaseApiTest.class);
     protected RequestSpecification requestSpec;
     protected RequestSpecification invalidAuthRequestSpec;
+    private EnsekClient client;
     
     @BeforeClass
     public void setupClass() {
@@ -34,8 +38,80 @@ public class BaseApiTest {
         RestAssured.enableLoggingOfRequestAndResponseIfValidationFails();
         
         // Build request specification with valid authentication
-        requestSpec = new RequestSpecBuilder()
-                .addHeader("Authorization", "Bearer " + ConfigUtils.getAuthToken())
-                .addHeader("Content-Type", "application/json")
-                .addHeader("Accept", "application/json")
-                .build();\n        \n        // Build request specification with invalid authentication for negative tests\n        invalidAuthRequestSpec = new RequestSpecBuilder()\n                .addHeader("Authorization", "Bearer INVALID_TOKEN")\n                .addHeader("Content-Type", "application/json")\n                .addHeader("Accept", "application/json")\n                .build();\n        \n        logger.info("API test configuration completed. Base URL: {}", ConfigUtils.getBaseUrl());\n    }\n    \n    @BeforeMethod\n    public void setupMethod(Method method) {\n        logger.info("Starting test: {}", method.getName());\n    }\n    \n    @AfterMethod\n    public void teardownMethod(ITestResult result) {\n        TestReportUtils.logTestStatus(result);\n        \n        if (result.getStatus() == ITestResult.FAILURE) {\n            logger.error("Test failed: {} - {}", result.getMethod().getMethodName(), result.getThrowable().getMessage());\n        } else if (result.getStatus() == ITestResult.SUCCESS) {\n            logger.info("Test passed: {}", result.getMethod().getMethodName());\n        } else if (result.getStatus() == ITestResult.SKIP) {\n            logger.warn("Test skipped: {}", result.getMethod().getMethodName());\n        }\n    }\n    \n    /**\n     * Helper method to get request specification with custom auth token\n     */\n    protected RequestSpecification getRequestSpecWithCustomAuth(String token) {\n        return new RequestSpecBuilder()\n                .addHeader("Authorization", "Bearer " + token)\n                .addHeader("Content-Type", "application/json")\n                .addHeader("Accept", "application/json")\n                .build();\n    }\n    \n    /**\n     * Helper method to log API call details\n     */\n    protected void logApiCall(String method, String endpoint) {\n        logger.info("Making {} request to: {}", method, endpoint);\n    }\n    \n    /**\n     * Helper method to log API response details\n     */\n    protected void logApiResponse(int statusCode, String endpoint) {\n        logger.info("Response from {}: Status Code = {}", endpoint, statusCode);\n    }\n}
\ No newline at end of file
+        requestSpec = RequestSpecFactory.withToken(resolveAuthToken());
+        
+        // Build request specification with invalid authentication for negative tests
+        invalidAuthRequestSpec = RequestSpecFactory.withToken("INVALID_TOKEN");
+        
+        logger.info("API test configuration completed. Base URL: {}", ConfigUtils.getBaseUrl());
+    }
+    
+    @AfterClass(alwaysRun = true)
+    public synchronized void teardownClass() {
+        if (client != null) {
+            client.close();
+            client = null;
+        }
+    }
+    
+    @BeforeMethod
+    public void setupMethod(Method method) {
+        logger.info("Starting test: {}", method.getName());
+    }
+    
+    @AfterMethod
+    public void teardownMethod(ITestResult result) {
+        TestReportUtils.logTestStatus(result);
+        
+        if (result.getStatus() == ITestResult.FAILURE) {
+            logger.error("Test failed: {} - {}", result.getMethod().getMethodName(), result.getThrowable().getMessage());
+        } else if (result.getStatus() == ITestResult.SUCCESS) {
+            logger.info("Test passed: {}", result.getMethod().getMethodName());
+        } else if (result.getStatus() == ITestResult.SKIP) {
+            logger.warn("Test skipped: {}", result.getMethod().getMethodName());
+        }
+    }
+    
+    /**
+     * Access token for the valid request specification: the static auth.token, or a token
+     * obtained through the shared login pool when auth.login.enabled is set
+     */
+    protected String resolveAuthToken() {
+        if (ConfigUtils.getBooleanProperty("auth.login.enabled", false)) {
+            return TokenPool.getShared().tokenFor(0);
+        }
+        return ConfigUtils.getAuthToken();
+    }
+    
+    /**
+     * Client with its own connection pool and the valid token, for tests written against
+     * EnsekClient; created on first use so classes that never call it open no pool
+     */
+    protected synchronized EnsekClient client() {
+        if (client == null) {
+            client = EnsekClient.fromConfig(ConfigUtils.getBaseUrl(), resolveAuthToken());
+        }
+        return client;
+    }
+    
+    /**
+     * Helper method to get request specification with custom auth token
+     */
+    protected RequestSpecification getRequestSpecWithCustomAuth(String token) {
+        return RequestSpecFactory.withToken(token);
+    }
+    
+    /**
+     * Helper method to log API call details
+     */
+    protected void logApiCall(String method, String endpoint) {
+        logger.info("Making {} request to: {}", method, endpoint);
+    }
+    
+    /**
+     * Helper method to log API response details
+     */
+    protected void logApiResponse(int statusCode, String endpoint) {
+        logger.info("Response from {}: Status Code = {}", endpoint, statusCode);
+    }
+}
\ No newline at end of file
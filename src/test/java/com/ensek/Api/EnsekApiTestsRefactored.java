@@ -1,8 +1,16 @@
 package com.ensek.Api;
 
+import com.ensek.Api.orders.OrderEvent;
+import com.ensek.Api.orders.OrderReconciler;
+import com.ensek.Api.orders.OrdersWatcher;
+import com.ensek.Api.orders.ReconciliationReport;
+import com.ensek.Api.slo.Slo;
+import com.ensek.Api.utils.BulkValidationUtils;
 import com.ensek.Api.utils.ConfigUtils;
+import com.ensek.Api.utils.DataProviderUtils;
 import com.ensek.Api.utils.DataUtils;
 import com.ensek.Api.utils.RestAssuredUtils;
+import com.ensek.Api.utils.SchemaValidationUtils;
 import com.ensek.Api.utils.TestReportUtils;
 import io.restassured.response.Response;
 import org.testng.annotations.BeforeClass;
@@ -10,6 +18,14 @@ import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 import org.testng.asserts.SoftAssert;
 
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
 import static io.restassured.RestAssured.given;
 import static org.hamcrest.Matchers.*;
 import static org.testng.Assert.*;
@@ -55,12 +71,7 @@ public class EnsekApiTestsRefactored extends BaseApiTest {
     public void testBuyFuel(int fuelId, int quantity) {
         logApiCall("PUT", String.format("/ENSEK/buy/%d/%d", fuelId, quantity));
         
-        Response response = given()
-                .spec(requestSpec)
-                .pathParam("id", fuelId)
-                .pathParam("quantity", quantity)
-                .when()
-                .put("/ENSEK/buy/{id}/{quantity}")
+        Response response = client().buy(fuelId, quantity)
                 .then()
                 .statusCode(200)
                 .time(lessThan(ConfigUtils.getDefaultTimeout() * 1000L))
@@ -71,6 +82,9 @@ public class EnsekApiTestsRefactored extends BaseApiTest {
         if (contentType != null && contentType.contains("json")) {
             assertNotNull(response.getBody(), "Response body should not be null");
         }
+        if (ConfigUtils.getBooleanProperty("orders.reconcile.enabled", true)) {
+            OrderReconciler.getShared().recordPurchase(fuelId, quantity, response);
+        }
 
         logApiResponse(response.getStatusCode(), String.format("/ENSEK/buy/%d/%d", fuelId, quantity));
     }
@@ -79,10 +93,7 @@ public class EnsekApiTestsRefactored extends BaseApiTest {
     public void testGetOrders() {
         logApiCall("GET", "/ENSEK/orders");
         
-        Response response = given()
-                .spec(requestSpec)
-                .when()
-                .get("/ENSEK/orders")
+        Response response = client().orders()
                 .then()
                 .statusCode(200)
                 .time(lessThan(ConfigUtils.getDefaultTimeout() * 1000L))
@@ -91,6 +102,16 @@ public class EnsekApiTestsRefactored extends BaseApiTest {
 
         // Verify response is a valid JSON array or object
         assertNotNull(response.jsonPath(), "Response should be valid JSON");
+        SchemaValidationUtils.assertMatchesSchema(response, SchemaValidationUtils.ORDERS);
+        BulkValidationUtils.assertAllValid(response,
+                BulkValidationUtils.requireFields("quantity"),
+                BulkValidationUtils.nonNegative("quantity"));
+
+        // Every order placed by testBuyFuel should be listed with its fuel and quantity
+        if (ConfigUtils.getBooleanProperty("orders.reconcile.enabled", true)) {
+            ReconciliationReport reconciliation = OrderReconciler.getShared().reconcile(response);
+            assertTrue(reconciliation.isClean(), "Placed orders do not match the orders listing: " + reconciliation);
+        }
         
         logApiResponse(response.getStatusCode(), "/ENSEK/orders");
         logger.info("Retrieved orders count: {}", 
@@ -98,7 +119,40 @@ public class EnsekApiTestsRefactored extends BaseApiTest {
                    DataUtils.getResponseValueAsList(response, "$").size() : "unknown");
     }
 
+    @Test(groups = {"Positive"}, dependsOnMethods = "testResetTestData")
+    public void testOrdersWatcherSeesPurchase() {
+        int fuelId = ConfigUtils.getValidFuelId();
+        int quantity = ConfigUtils.getValidQuantity();
+        List<OrderEvent> events = new ArrayList<>();
+
+        try (OrdersWatcher watcher = new OrdersWatcher(requestSpec).addListener(events::add)) {
+            // Baseline, then a poll of the same listing: a 304, or a body skipped by its CRC32C
+            watcher.poll();
+            watcher.poll();
+            events.clear();
+
+            logApiCall("PUT", String.format("/ENSEK/buy/%d/%d", fuelId, quantity));
+            Response purchase = client().buy(fuelId, quantity)
+                    .then()
+                    .statusCode(200)
+                    .extract().response();
+            if (ConfigUtils.getBooleanProperty("orders.reconcile.enabled", true)) {
+                OrderReconciler.getShared().recordPurchase(fuelId, quantity, purchase);
+            }
+
+            watcher.poll();
+            assertTrue(events.stream().anyMatch(event -> event.getType() == OrderEvent.Type.ADDED
+                            && (event.getFuelId() == fuelId || event.getFuelId() == OrderReconciler.UNKNOWN_FUEL)
+                            && event.getQuantity() == quantity),
+                    "Orders watcher did not report the purchase as added: " + events.size() + " events");
+            logger.info("Orders watcher: {} polls, {} not modified, {} unchanged, {} parsed, {} bytes",
+                    watcher.getPollCount(), watcher.getNotModifiedCount(), watcher.getUnchangedContentCount(),
+                    watcher.getParsedCount(), watcher.getBytesReceived());
+        }
+    }
+
     @Test(groups = {"Positive"})
+    @Slo(invocations = 20, threads = 2, p95Millis = 2000, p99Millis = 3000, maxErrorRatePercent = 5)
     public void testGetEnergyTypes() {
         logApiCall("GET", "/ENSEK/energy");
         
@@ -114,6 +168,11 @@ public class EnsekApiTestsRefactored extends BaseApiTest {
 
         // Validate response structure
         assertNotNull(response.jsonPath(), "Energy types response should be valid JSON");
+        SchemaValidationUtils.assertMatchesSchema(response, SchemaValidationUtils.ENERGY);
+        BulkValidationUtils.assertAllValid(response,
+                BulkValidationUtils.requireFields("id", "quantity_available"),
+                BulkValidationUtils.nonNegative("quantity_available"),
+                BulkValidationUtils.inRange("unit_cost", 0, ConfigUtils.getIntProperty("energy.unit.cost.max", 100)));
         
         // Check if response is an array or contains energy types
         if (DataUtils.responseContainsKey(response, "$")) {
@@ -145,6 +204,8 @@ public class EnsekApiTestsRefactored extends BaseApiTest {
                 .time(lessThan(ConfigUtils.getDefaultTimeout() * 1000L))
                 .extract().response();
 
+        SchemaValidationUtils.assertMatchesSchema(response, SchemaValidationUtils.LOGIN);
+
         logApiResponse(response.getStatusCode(), "/ENSEK/login");
         TestReportUtils.logApiRequest("POST", "/ENSEK/login", loginBody, response.getStatusCode());
     }
@@ -175,6 +236,23 @@ public class EnsekApiTestsRefactored extends BaseApiTest {
         logApiResponse(response.getStatusCode(), String.format("/ENSEK/buy/%d/%d", invalidId, invalidQuantity));
     }
 
+    @Test(groups = {"Negative"}, dataProvider = "invalidFuelData")
+    public void testInvalidBuyFuelCombinations(int fuelId, int quantity) {
+        logApiCall("PUT", String.format("/ENSEK/buy/%d/%d", fuelId, quantity));
+
+        Response response = given()
+                .spec(requestSpec)
+                .pathParam("id", fuelId)
+                .pathParam("quantity", quantity)
+                .when()
+                .put("/ENSEK/buy/{id}/{quantity}")
+                .then()
+                .statusCode(anyOf(equalTo(400), equalTo(404), equalTo(422)))
+                .extract().response();
+
+        logApiResponse(response.getStatusCode(), String.format("/ENSEK/buy/%d/%d", fuelId, quantity));
+    }
+
     @Test(groups = {"Negative", "Authentication"})
     public void testUnauthorizedAccess() {
         logApiCall("GET", "/ENSEK/orders (unauthorized)");
@@ -192,9 +270,9 @@ public class EnsekApiTestsRefactored extends BaseApiTest {
 
     @Test(groups = {"Negative"})
     public void testBuyMoreThanAvailable() {
-        // First, get available energy types
+        // First, get available energy types; the cache is dropped by every buy, so its stock is current
         Response energyResponse = given()
-                .spec(requestSpec)
+                .spec(RestAssuredUtils.withEnergyCache(requestSpec))
                 .when()
                 .get("/ENSEK/energy")
                 .then()
@@ -225,6 +303,30 @@ public class EnsekApiTestsRefactored extends BaseApiTest {
         }
     }
 
+    @Test(groups = {"Authentication"}, dataProvider = "authenticationData")
+    public void testLoginCredentials(String username, String password, int expectedStatus) {
+        Map<String, String> loginBody = new LinkedHashMap<>();
+        loginBody.put("username", username);
+        loginBody.put("password", password);
+
+        logApiCall("POST", String.format("/ENSEK/login (expecting %d)", expectedStatus));
+
+        // A live API may report a blank field as unauthorised rather than a bad request
+        Response response = given()
+                .spec(requestSpec)
+                .body(loginBody)
+                .when()
+                .post("/ENSEK/login")
+                .then()
+                .statusCode(expectedStatus == 200 ? equalTo(200) : anyOf(equalTo(400), equalTo(401)))
+                .extract().response();
+
+        if (expectedStatus == 200) {
+            SchemaValidationUtils.assertMatchesSchema(response, SchemaValidationUtils.LOGIN);
+        }
+        logApiResponse(response.getStatusCode(), "/ENSEK/login");
+    }
+
     @Test(groups = {"Negative", "Authentication"})
     public void testUnauthorizedLogin() {
         String invalidLoginBody = "{\"username\": \"invalidUser\", \"password\": \"invalidPassword\"}";
@@ -265,6 +367,24 @@ public class EnsekApiTestsRefactored extends BaseApiTest {
         logApiResponse(response.getStatusCode(), String.format("/ENSEK/buy/%d/%d (zero quantity)", validFuelId, zeroQuantity));
     }
 
+    @Test(groups = {"Edge"}, dataProvider = "quantityBoundaryData")
+    public void testBuyQuantityBoundaries(int fuelId, int quantity) {
+        logApiCall("PUT", String.format("/ENSEK/buy/%d/%d (quantity boundary)", fuelId, quantity));
+
+        // Accepted or rejected depending on stock, but never a server error
+        Response response = given()
+                .spec(requestSpec)
+                .pathParam("id", fuelId)
+                .pathParam("quantity", quantity)
+                .when()
+                .put("/ENSEK/buy/{id}/{quantity}")
+                .then()
+                .statusCode(anyOf(equalTo(200), equalTo(400), equalTo(409), equalTo(422)))
+                .extract().response();
+
+        logApiResponse(response.getStatusCode(), String.format("/ENSEK/buy/%d/%d (quantity boundary)", fuelId, quantity));
+    }
+
     @Test(groups = {"Edge"})
     public void testGetOrderByIdNotFound() {
         String nonExistentOrderId = ConfigUtils.getInvalidOrderId();
@@ -313,6 +433,7 @@ public class EnsekApiTestsRefactored extends BaseApiTest {
                         // Verify the response contains the expected order ID
                         assertTrue(DataUtils.responseContainsKey(response, "$"), 
                                  "Response should contain order data");
+                        SchemaValidationUtils.assertMatchesSchema(response, SchemaValidationUtils.ORDER);
                     }
 
                     logApiResponse(response.getStatusCode(), String.format("/ENSEK/orders/%s", orderId));
@@ -329,35 +450,34 @@ public class EnsekApiTestsRefactored extends BaseApiTest {
 
     // ==================== DATA PROVIDERS ====================
 
-    @DataProvider(name = "buyFuelData")
-    public Object[][] buyFuelData() {
-        return new Object[][]{
-                {ConfigUtils.getValidFuelId(), 10},
-                {ConfigUtils.getValidFuelId() + 1, 5},
-                {ConfigUtils.getValidFuelId() + 2, 8}
-        };
+    @DataProvider(name = "buyFuelData", parallel = true)
+    public Iterator<Object[]> buyFuelData() {
+        return DataProviderUtils.lazy(() -> Stream.concat(
+                Stream.of(
+                        new Object[]{ConfigUtils.getValidFuelId(), 10},
+                        new Object[]{ConfigUtils.getValidFuelId() + 1, 5},
+                        new Object[]{ConfigUtils.getValidFuelId() + 2, 8}),
+                DataProviderUtils.randomBuyRows(DataProviderUtils.getSeed(), ConfigUtils.getValidQuantity())
+                        .limit(DataProviderUtils.getRandomRowCount())));
+    }
+
+    @DataProvider(name = "invalidFuelData", parallel = true)
+    public Iterator<Object[]> invalidFuelData() {
+        return DataProviderUtils.lazy(() -> Stream.concat(
+                DataProviderUtils.buyRows(DataProviderUtils::invalidFuelIds,
+                        () -> IntStream.of(ConfigUtils.getValidQuantity(), ConfigUtils.getInvalidQuantity())),
+                DataProviderUtils.buyRows(() -> IntStream.of(ConfigUtils.getValidFuelId()),
+                        DataProviderUtils::invalidQuantities)));
     }
 
-    @DataProvider(name = "invalidFuelData")
-    public Object[][] invalidFuelData() {
-        return new Object[][]{
-                {ConfigUtils.getInvalidFuelId(), ConfigUtils.getValidQuantity()}, // Invalid ID, valid quantity
-                {ConfigUtils.getValidFuelId(), ConfigUtils.getInvalidQuantity()}, // Valid ID, invalid quantity
-                {ConfigUtils.getInvalidFuelId(), ConfigUtils.getInvalidQuantity()}, // Both invalid
-                {0, ConfigUtils.getValidQuantity()}, // Zero ID
-                {ConfigUtils.getValidFuelId(), 0} // Zero quantity
-        };
+    @DataProvider(name = "quantityBoundaryData", parallel = true)
+    public Iterator<Object[]> quantityBoundaryData() {
+        return DataProviderUtils.lazy(() -> DataProviderUtils.buyRows(
+                () -> IntStream.of(ConfigUtils.getValidFuelId()), DataProviderUtils::quantityBoundaries));
     }
 
-    @DataProvider(name = "authenticationData")
-    public Object[][] authenticationData() {
-        return new Object[][]{
-                {"validUser", "validPassword", 200},
-                {"invalidUser", "validPassword", 401},
-                {"validUser", "invalidPassword", 401},
-                {"", "password", 400},
-                {"username", "", 400},
-                {"", "", 400}
-        };
+    @DataProvider(name = "authenticationData", parallel = true)
+    public Iterator<Object[]> authenticationData() {
+        return DataProviderUtils.lazy(DataProviderUtils::credentialPermutations);
     }
-}
\ No newline at end of file
+}
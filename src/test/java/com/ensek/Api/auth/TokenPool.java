@@ -0,0 +1,245 @@
+package com.ensek.Api.auth;
+
+import com.ensek.Api.model.LoginResponse;
+import com.ensek.Api.utils.ConfigUtils;
+import com.ensek.Api.utils.RestAssuredUtils;
+import io.restassured.response.Response;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import static io.restassured.RestAssured.given;
+
+/**
+ * Pool of access tokens for concurrent virtual users.
+ *
+ * Each distinct credential logs in through {@code POST /ENSEK/login} once; the resulting token
+ * is cached with its expiry and handed out to any number of workers with a single volatile read.
+ * A background task re-logs in ahead of expiry so workers never wait on login in the steady state.
+ * If a token does expire before it is refreshed, the first worker to notice performs the login and
+ * concurrent callers for the same credential wait on that one request rather than issuing their own.
+ */
+public class TokenPool implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenPool.class);
+    private static TokenPool shared;
+
+    private final String baseUri;
+    private final List<Credential> credentials;
+    private final AtomicReferenceArray<CachedToken> tokens;
+    private final AtomicReferenceArray<CompletableFuture<CachedToken>> inFlight;
+    private final long defaultTtlMillis;
+    private final long refreshAheadMillis;
+    private final ScheduledExecutorService refresher;
+    private final LongAdder logins = new LongAdder();
+    private final LongAdder loginFailures = new LongAdder();
+
+    public TokenPool(String baseUri, List<Credential> credentials, long defaultTtlMillis, long refreshAheadMillis) {
+        if (credentials.isEmpty()) {
+            throw new IllegalArgumentException("At least one credential is required");
+        }
+        this.baseUri = baseUri;
+        this.credentials = Collections.unmodifiableList(new ArrayList<>(credentials));
+        this.tokens = new AtomicReferenceArray<>(credentials.size());
+        this.inFlight = new AtomicReferenceArray<>(credentials.size());
+        this.defaultTtlMillis = defaultTtlMillis;
+        this.refreshAheadMillis = refreshAheadMillis;
+        this.refresher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "token-pool-refresher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = Math.max(1000, Math.min(10_000, refreshAheadMillis / 2));
+        refresher.scheduleWithFixedDelay(this::refreshExpiring, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Get the pool shared by the whole run, built from configuration on first use
+     */
+    public static synchronized TokenPool getShared() {
+        if (shared == null) {
+            shared = new TokenPool(ConfigUtils.getBaseUrl(), Credential.fromConfig(),
+                    ConfigUtils.getIntProperty("auth.token.ttl.seconds", 3600) * 1000L,
+                    ConfigUtils.getIntProperty("auth.token.refresh.ahead.seconds", 60) * 1000L);
+        }
+        return shared;
+    }
+
+    /**
+     * Log in every credential up front so that the first requests of a run do not pay for it
+     */
+    public TokenPool warmUp() {
+        for (int i = 0; i < credentials.size(); i++) {
+            tokenForSlot(i);
+        }
+        return this;
+    }
+
+    /**
+     * Token for the given virtual user; users are spread round-robin over the credentials
+     */
+    public String tokenFor(int userIndex) {
+        return tokenForSlot(Math.floorMod(userIndex, credentials.size()));
+    }
+
+    public int size() {
+        return credentials.size();
+    }
+
+    public long getLoginCount() {
+        return logins.sum();
+    }
+
+    public long getLoginFailureCount() {
+        return loginFailures.sum();
+    }
+
+    @Override
+    public void close() {
+        refresher.shutdownNow();
+    }
+
+    private String tokenForSlot(int slot) {
+        CachedToken token = tokens.get(slot);
+        if (token != null && !token.isExpired(System.currentTimeMillis())) {
+            return token.value;
+        }
+        return login(slot, false).value;
+    }
+
+    private void refreshExpiring() {
+        long refreshAt = System.currentTimeMillis() + refreshAheadMillis;
+        for (int i = 0; i < credentials.size(); i++) {
+            CachedToken token = tokens.get(i);
+            if (token != null && token.expiresAtMillis <= refreshAt) {
+                try {
+                    login(i, true);
+                } catch (RuntimeException e) {
+                    logger.warn("Background token refresh failed for '{}': {}",
+                            credentials.get(i).username, e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Log in for the given slot, joining a login that is already in flight for it.
+     * Unless forced, a token that another thread refreshed in the meantime is reused.
+     */
+    private CachedToken login(int slot, boolean force) {
+        CompletableFuture<CachedToken> mine = new CompletableFuture<>();
+        CompletableFuture<CachedToken> current = inFlight.compareAndExchange(slot, null, mine);
+        if (current != null) {
+            try {
+                return current.join();
+            } catch (CompletionException e) {
+                throw (RuntimeException) e.getCause();
+            }
+        }
+
+        try {
+            CachedToken existing = tokens.get(slot);
+            if (!force && existing != null && !existing.isExpired(System.currentTimeMillis())) {
+                mine.complete(existing);
+                return existing;
+            }
+            CachedToken token = requestToken(credentials.get(slot));
+            tokens.set(slot, token);
+            mine.complete(token);
+            return token;
+        } catch (RuntimeException e) {
+            loginFailures.increment();
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.set(slot, null);
+        }
+    }
+
+    private CachedToken requestToken(Credential credential) {
+        Map<String, String> body = new LinkedHashMap<>();
+        body.put("username", credential.username);
+        body.put("password", credential.password);
+
+        Response response = given()
+                .spec(RestAssuredUtils.getRequestSpecificationWithoutAuth())
+                .baseUri(baseUri)
+                .body(body)
+                .when()
+                .post("/ENSEK/login");
+        logins.increment();
+
+        LoginResponse login = response.getStatusCode() == 200 ? LoginResponse.from(response) : null;
+        String accessToken = login != null ? login.getAccessToken() : null;
+        if (accessToken == null || accessToken.isEmpty()) {
+            throw new IllegalStateException(String.format("Login failed for '%s': status %d",
+                    credential.username, response.getStatusCode()));
+        }
+        Integer expiresIn = login.getExpiresIn();
+        long ttl = expiresIn != null ? expiresIn * 1000L : defaultTtlMillis;
+        logger.info("Obtained access token for '{}' (expires in {}s)", credential.username, ttl / 1000);
+        return new CachedToken(accessToken, System.currentTimeMillis() + ttl);
+    }
+
+    /**
+     * A username/password pair used to log in
+     */
+    public static class Credential {
+        private final String username;
+        private final String password;
+
+        public Credential(String username, String password) {
+            this.username = username;
+            this.password = password;
+        }
+
+        public String getUsername() {
+            return username;
+        }
+
+        /**
+         * Parse {@code auth.pool.users} ("user:password,user2:password2"), falling back to the
+         * single test.username / test.password pair
+         */
+        public static List<Credential> fromConfig() {
+            List<Credential> credentials = new ArrayList<>();
+            String users = ConfigUtils.getProperty("auth.pool.users", "");
+            for (String entry : users.split(",")) {
+                int separator = entry.indexOf(':');
+                if (separator > 0) {
+                    credentials.add(new Credential(entry.substring(0, separator).trim(), entry.substring(separator + 1).trim()));
+                }
+            }
+            if (credentials.isEmpty()) {
+                credentials.add(new Credential(ConfigUtils.getTestUsername(), ConfigUtils.getTestPassword()));
+            }
+            return credentials;
+        }
+    }
+
+    private static class CachedToken {
+        private final String value;
+        private final long expiresAtMillis;
+
+        CachedToken(String value, long expiresAtMillis) {
+            this.value = value;
+            this.expiresAtMillis = expiresAtMillis;
+        }
+
+        boolean isExpired(long nowMillis) {
+            return nowMillis >= expiresAtMillis;
+        }
+    }
+}
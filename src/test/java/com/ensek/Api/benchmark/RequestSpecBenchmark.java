@@ -0,0 +1,66 @@
+package com.ensek.Api.benchmark;
+
+import com.ensek.Api.http.RequestSpecFactory;
+import io.restassured.builder.RequestSpecBuilder;
+import io.restassured.specification.RequestSpecification;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+import static io.restassured.RestAssured.given;
+
+/**
+ * Per-request cost of obtaining a request specification: building one with
+ * {@link RequestSpecBuilder} on every call, as the utilities used to, versus copying the cached
+ * template in {@link RequestSpecFactory}. The {@code given*} variants include composing
+ * the specification into a request, which is what each API call actually pays.
+ *
+ * Run with: mvn test -Pbenchmark -Dbenchmark=RequestSpecBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RequestSpecBenchmark {
+
+    private final String token = "benchmark-token";
+
+    @Benchmark
+    public RequestSpecification builderPerCall() {
+        return build(token);
+    }
+
+    @Benchmark
+    public RequestSpecification cachedTemplate() {
+        return RequestSpecFactory.withToken(token);
+    }
+
+    @Benchmark
+    public RequestSpecification givenWithBuilderPerCall() {
+        return given().spec(build(token));
+    }
+
+    @Benchmark
+    public RequestSpecification givenWithCachedTemplate() {
+        return given().spec(RequestSpecFactory.withToken(token));
+    }
+
+    private static RequestSpecification build(String authToken) {
+        return new RequestSpecBuilder()
+                .addHeader("Authorization", "Bearer " + authToken)
+                .addHeader("Content-Type", RequestSpecFactory.JSON)
+                .addHeader("Accept", RequestSpecFactory.JSON)
+                .addHeader("User-Agent", RequestSpecFactory.USER_AGENT)
+                .build();
+    }
+}
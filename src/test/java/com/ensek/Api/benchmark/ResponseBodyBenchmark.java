@@ -0,0 +1,82 @@
+package com.ensek.Api.benchmark;
+
+import com.ensek.Api.stub.EnsekStubServer;
+import com.ensek.Api.utils.ConfigUtils;
+import com.ensek.Api.utils.ResponseBodyUtils;
+import com.ensek.Api.utils.RestAssuredUtils;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.restassured.specification.RequestSpecification;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import static io.restassured.RestAssured.given;
+
+/**
+ * Cost of fetching and parsing an {@code /ENSEK/orders} listing from the local stub:
+ * {@code asString()} followed by a tree parse, versus draining the body into a pooled direct
+ * buffer and parsing from there with {@link ResponseBodyUtils}.
+ *
+ * Compare the {@code gc.alloc.rate.norm} rows (bytes allocated per request), which the benchmark
+ * profile reports through {@code -prof gc}.
+ *
+ * Run with: mvn test -Pbenchmark -Dbenchmark=ResponseBodyBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ResponseBodyBenchmark {
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Param({"10", "1000"})
+    public int orderCount;
+
+    private EnsekStubServer server;
+    private RequestSpecification spec;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        server = new EnsekStubServer(0, 2).start();
+        spec = RestAssuredUtils.createRequestSpecification(ConfigUtils.getAuthToken());
+        for (int i = 0; i < orderCount; i++) {
+            given().spec(spec).baseUri(server.getBaseUrl()).basePath("")
+                    .put("/ENSEK/buy/3/1").then().statusCode(200);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        server.close();
+    }
+
+    @Benchmark
+    public JsonNode stringThenParse() throws IOException {
+        String body = given().spec(spec).baseUri(server.getBaseUrl()).basePath("")
+                .get("/ENSEK/orders").asString();
+        return objectMapper.readTree(body);
+    }
+
+    @Benchmark
+    public JsonNode pooledDirectBuffer() {
+        return ResponseBodyUtils.readTree(given().spec(spec).baseUri(server.getBaseUrl()).basePath("")
+                .get("/ENSEK/orders"));
+    }
+}
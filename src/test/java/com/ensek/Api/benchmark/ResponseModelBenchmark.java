@@ -0,0 +1,139 @@
+package com.ensek.Api.benchmark;
+
+import com.ensek.Api.model.EnergyType;
+import com.ensek.Api.model.Order;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import io.restassured.path.json.JsonPath;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of getting fields out of a response body: JsonPath lookups with casts on the resulting
+ * maps, versus binding to the typed models with Jackson, with and without the Blackbird module.
+ *
+ * The bodies are built once in the same shape the stub serves, so only the parsing and field
+ * access are measured, not the HTTP round trip. Compare the {@code gc.alloc.rate.norm} rows
+ * (bytes allocated per body) as well as the time.
+ *
+ * Run with: mvn test -Pbenchmark -Dbenchmark=ResponseModelBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ResponseModelBenchmark {
+
+    private static final TypeReference<List<Order>> ORDERS = new TypeReference<List<Order>>() {
+    };
+    private static final TypeReference<List<EnergyType>> ENERGY_TYPES = new TypeReference<List<EnergyType>>() {
+    };
+    private static final int FUEL_ID = 3;
+
+    @Param({"10", "1000"})
+    public int orderCount;
+
+    private final ObjectMapper reflection = new ObjectMapper();
+    private final ObjectMapper blackbird = new ObjectMapper().registerModule(new BlackbirdModule());
+    private byte[] ordersBody;
+    private byte[] energyBody;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        List<Map<String, Object>> orders = new ArrayList<>();
+        for (int i = 0; i < orderCount; i++) {
+            Map<String, Object> order = new LinkedHashMap<>();
+            order.put("orderId", UUID.randomUUID().toString());
+            order.put("fuelId", 1 + i % 4);
+            order.put("quantity", 1 + i % 50);
+            order.put("timestamp", Instant.now().toString());
+            order.put("status", "COMPLETE");
+            order.put("totalCost", (1 + i % 50) * 0.47);
+            orders.add(order);
+        }
+        ordersBody = reflection.writeValueAsBytes(orders);
+
+        List<Map<String, Object>> energyTypes = new ArrayList<>();
+        String[][] catalogue = {{"Gas", "m³"}, {"Nuclear", "MW"}, {"Electric", "kWh"}, {"Oil", "Litres"}};
+        for (int i = 0; i < catalogue.length; i++) {
+            Map<String, Object> energyType = new LinkedHashMap<>();
+            energyType.put("id", i + 1);
+            energyType.put("name", catalogue[i][0]);
+            energyType.put("type", catalogue[i][0].toLowerCase());
+            energyType.put("unit_cost", 0.34 + i);
+            energyType.put("quantity_available", 3000 - i * 100);
+            energyType.put("unit", catalogue[i][1]);
+            energyTypes.add(energyType);
+        }
+        energyBody = reflection.writeValueAsBytes(energyTypes);
+    }
+
+    @Benchmark
+    public long jsonPathOrders() {
+        List<Map<String, Object>> orders = new JsonPath(new ByteArrayInputStream(ordersBody)).getList("$");
+        long total = 0;
+        for (Map<String, Object> order : orders) {
+            total += (Integer) order.get("quantity") + ((String) order.get("orderId")).length();
+        }
+        return total;
+    }
+
+    @Benchmark
+    public long typedOrdersReflection() throws IOException {
+        return sum(reflection.readValue(ordersBody, ORDERS));
+    }
+
+    @Benchmark
+    public long typedOrdersBlackbird() throws IOException {
+        return sum(blackbird.readValue(ordersBody, ORDERS));
+    }
+
+    @Benchmark
+    public Integer jsonPathEnergyQuantity() {
+        List<Map<String, Object>> energyTypes = new JsonPath(new ByteArrayInputStream(energyBody)).getList("$");
+        for (Map<String, Object> energyType : energyTypes) {
+            Integer id = (Integer) energyType.get("id");
+            if (id != null && id == FUEL_ID) {
+                return (Integer) energyType.get("quantity_available");
+            }
+        }
+        return null;
+    }
+
+    @Benchmark
+    public Integer typedEnergyQuantity() throws IOException {
+        EnergyType energyType = EnergyType.findById(blackbird.readValue(energyBody, ENERGY_TYPES), FUEL_ID);
+        return energyType != null ? energyType.getQuantityAvailable() : null;
+    }
+
+    private static long sum(List<Order> orders) {
+        long total = 0;
+        for (Order order : orders) {
+            total += order.getQuantity() + order.getOrderId().length();
+        }
+        return total;
+    }
+}
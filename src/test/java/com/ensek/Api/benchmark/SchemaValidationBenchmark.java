@@ -0,0 +1,68 @@
+package com.ensek.Api.benchmark;
+
+import com.ensek.Api.utils.SchemaValidationUtils;
+import com.github.fge.jsonschema.core.report.ProcessingReport;
+import io.restassured.module.jsv.JsonSchemaValidator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-response cost of validating an orders payload against its JSON schema:
+ * REST Assured's matcher (schema loaded and compiled on every call) versus the
+ * cached, stream-parsed path in {@link SchemaValidationUtils}.
+ *
+ * Run with: mvn test -Pbenchmark -Dbenchmark=SchemaValidationBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SchemaValidationBenchmark {
+
+    @Param({"10", "1000"})
+    public int orderCount;
+
+    private String body;
+    private byte[] bodyBytes;
+
+    @Setup
+    public void setup() {
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < orderCount; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"orderId\":\"order-").append(i)
+                    .append("\",\"fuelId\":").append(i % 4 + 1)
+                    .append(",\"quantity\":").append(i % 50)
+                    .append(",\"timestamp\":\"2024-01-01T00:00:00Z\",\"status\":\"COMPLETE\"}");
+        }
+        body = json.append(']').toString();
+        bodyBytes = body.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public boolean restAssuredMatcher() {
+        return JsonSchemaValidator.matchesJsonSchemaInClasspath("schemas/orders.json").matches(body);
+    }
+
+    @Benchmark
+    public ProcessingReport cachedStreamingValidator() {
+        return SchemaValidationUtils.validate(new ByteArrayInputStream(bodyBytes), SchemaValidationUtils.ORDERS);
+    }
+}
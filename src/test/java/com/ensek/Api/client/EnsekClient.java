@@ -0,0 +1,224 @@
+package com.ensek.Api.client;
+
+import com.ensek.Api.data.BuyOrder;
+import com.ensek.Api.http.InstrumentedHttpClient;
+import com.ensek.Api.http.RequestSpecFactory;
+import com.ensek.Api.load.LoadResult;
+import com.ensek.Api.metrics.EndpointLabels;
+import com.ensek.Api.utils.ConfigUtils;
+import io.restassured.builder.RequestSpecBuilder;
+import io.restassured.config.HttpClientConfig;
+import io.restassured.config.RestAssuredConfig;
+import io.restassured.filter.Filter;
+import io.restassured.response.Response;
+import io.restassured.specification.RequestSpecification;
+import org.apache.http.conn.ClientConnectionManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static io.restassured.RestAssured.given;
+
+/**
+ * Client for one ENSEK environment, with a method per endpoint.
+ *
+ * Unlike the static helpers, a client carries everything it needs: base URL, token, timeouts, its
+ * own pooled HTTP client (so connections are kept alive between requests) and its own per-endpoint
+ * latency and error counts. Several clients can live side by side in one JVM, e.g. against two
+ * environments, without touching {@code RestAssured.baseURI} or each other's pools. A client is
+ * safe to share between threads: its request template is built once and only read afterwards.
+ *
+ * Global REST Assured filters (response cache, circuit breaker, traffic recorder) still apply
+ * when {@code RestAssuredUtils.setupRestAssuredConfig()} has installed them.
+ */
+public class EnsekClient implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(EnsekClient.class);
+
+    private final String baseUrl;
+    private final String basePath;
+    private final RestAssuredConfig config;
+    private final LoadResult metrics;
+    private final long createdNanos;
+    /**
+     * Null for clients derived with {@link #withToken}, which do not own the pool
+     */
+    @SuppressWarnings("deprecation")
+    private final ClientConnectionManager pool;
+    private final RequestSpecification spec;
+
+    /**
+     * @param baseUrl        scheme, host and optional port, e.g. https://ensek.example.com
+     * @param basePath       prefix for every endpoint path, usually "/" or ""
+     * @param authToken      bearer token, or null to send no Authorization header
+     * @param maxConnections connections kept per host by this client's pool
+     * @param timeoutMillis  connect and read timeout
+     */
+    public EnsekClient(String baseUrl, String basePath, String authToken, int maxConnections, int timeoutMillis) {
+        this(baseUrl, basePath, authToken, InstrumentedHttpClient.connectionManager(maxConnections), timeoutMillis);
+        logger.info("EnsekClient for {} with up to {} connections", baseUrl, maxConnections);
+    }
+
+    @SuppressWarnings("deprecation")
+    private EnsekClient(String baseUrl, String basePath, String authToken, ClientConnectionManager pool, int timeoutMillis) {
+        this(baseUrl, basePath, authToken, InstrumentedHttpClient.pooled(RestAssuredConfig.config(),
+                HttpClientConfig.httpClientConfig()
+                        .setParam("http.connection.timeout", timeoutMillis)
+                        .setParam("http.socket.timeout", timeoutMillis), pool),
+                pool, new LoadResult(), System.nanoTime());
+    }
+
+    @SuppressWarnings("deprecation")
+    private EnsekClient(String baseUrl, String basePath, String authToken, RestAssuredConfig config,
+                        ClientConnectionManager pool, LoadResult metrics, long createdNanos) {
+        this.baseUrl = baseUrl;
+        this.basePath = basePath;
+        this.config = config;
+        this.pool = pool;
+        this.metrics = metrics;
+        this.createdNanos = createdNanos;
+        this.spec = new RequestSpecBuilder()
+                .addRequestSpecification(authToken != null ? RequestSpecFactory.withToken(authToken) : RequestSpecFactory.withoutAuth())
+                .setBaseUri(baseUrl)
+                .setBasePath(basePath)
+                .setConfig(config)
+                .addFilter(metricsFilter(metrics))
+                .build();
+    }
+
+    /**
+     * Client for base.url / base.path with the configured token, client.max.connections and timeout.default
+     */
+    public static EnsekClient fromConfig() {
+        return fromConfig(ConfigUtils.getBaseUrl(), ConfigUtils.getAuthToken());
+    }
+
+    /**
+     * Client for another environment, with the configured pool size and timeout
+     */
+    public static EnsekClient fromConfig(String baseUrl, String authToken) {
+        return new EnsekClient(baseUrl, ConfigUtils.getBasePath(), authToken,
+                ConfigUtils.getIntProperty("client.max.connections", 8),
+                ConfigUtils.getDefaultTimeout() * 1000);
+    }
+
+    /**
+     * A client for the same environment with another token (null for none), sharing this
+     * client's connection pool and metrics; closing it does not close the pool
+     */
+    public EnsekClient withToken(String authToken) {
+        return new EnsekClient(baseUrl, basePath, authToken, config, null, metrics, createdNanos);
+    }
+
+    /**
+     * GET /ENSEK/energy
+     */
+    public Response energy() {
+        return request().get("/ENSEK/energy");
+    }
+
+    /**
+     * PUT /ENSEK/buy/{id}/{quantity}
+     */
+    public Response buy(int fuelId, int quantity) {
+        return request()
+                .pathParam("id", fuelId)
+                .pathParam("quantity", quantity)
+                .put("/ENSEK/buy/{id}/{quantity}");
+    }
+
+    public Response buy(BuyOrder order) {
+        return buy(order.getFuelId(), order.getQuantity());
+    }
+
+    /**
+     * GET /ENSEK/orders
+     */
+    public Response orders() {
+        return request().get("/ENSEK/orders");
+    }
+
+    /**
+     * GET /ENSEK/orders/{orderId}
+     */
+    public Response order(String orderId) {
+        return request().pathParam("orderId", orderId).get("/ENSEK/orders/{orderId}");
+    }
+
+    /**
+     * POST /ENSEK/login
+     */
+    public Response login(String username, String password) {
+        Map<String, String> body = new LinkedHashMap<>();
+        body.put("username", username);
+        body.put("password", password);
+        return request().body(body).post("/ENSEK/login");
+    }
+
+    /**
+     * POST /ENSEK/reset
+     */
+    public Response reset() {
+        return request().post("/ENSEK/reset");
+    }
+
+    /**
+     * A request on this client's template, for anything the typed methods do not cover
+     */
+    public RequestSpecification request() {
+        return given().spec(spec);
+    }
+
+    public String getBaseUrl() {
+        return baseUrl;
+    }
+
+    /**
+     * Latency (to the end of the body) and errors per endpoint for every request made through
+     * this client, and clients derived with {@link #withToken}, so far
+     */
+    public LoadResult getMetrics() {
+        LoadResult copy = new LoadResult();
+        copy.add(metrics);
+        copy.setElapsedMillis(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - createdNanos));
+        return copy;
+    }
+
+    /**
+     * Close the connection pool; derived clients share it and must not be used afterwards
+     */
+    @Override
+    @SuppressWarnings("deprecation")
+    public void close() {
+        if (pool == null) {
+            return;
+        }
+        pool.shutdown();
+        logger.info("EnsekClient for {} closed: {}", baseUrl, getMetrics().summary());
+    }
+
+    private static Filter metricsFilter(LoadResult metrics) {
+        return (requestSpec, responseSpec, ctx) -> {
+            String label = EndpointLabels.of(requestSpec);
+            long start = System.nanoTime();
+            try {
+                Response response = ctx.next(requestSpec, responseSpec);
+                // REST Assured reads bodies lazily and a pooled connection is only released once its
+                // body is read; read (and cache) it here so an unread response cannot hold a connection
+                response.asByteArray();
+                if (response.getStatusCode() >= 400) {
+                    metrics.recordError(label, System.nanoTime() - start);
+                } else {
+                    metrics.recordSuccess(label, System.nanoTime() - start);
+                }
+                return response;
+            } catch (RuntimeException e) {
+                metrics.recordError(label, System.nanoTime() - start);
+                throw e;
+            }
+        };
+    }
+}
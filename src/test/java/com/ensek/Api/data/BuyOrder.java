@@ -0,0 +1,35 @@
+package com.ensek.Api.data;
+
+/**
+ * Path parameters of one PUT /ENSEK/buy/{id}/{quantity} request
+ */
+public final class BuyOrder {
+
+    private final int fuelId;
+    private final int quantity;
+
+    public BuyOrder(int fuelId, int quantity) {
+        this.fuelId = fuelId;
+        this.quantity = quantity;
+    }
+
+    public int getFuelId() {
+        return fuelId;
+    }
+
+    public int getQuantity() {
+        return quantity;
+    }
+
+    /**
+     * As a data provider row: {fuelId, quantity}
+     */
+    public Object[] toRow() {
+        return new Object[]{fuelId, quantity};
+    }
+
+    @Override
+    public String toString() {
+        return quantity + " x fuel " + fuelId;
+    }
+}
@@ -0,0 +1,179 @@
+package com.ensek.Api.data;
+
+import com.ensek.Api.utils.ConfigUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Seeded, reproducible test data: emails, passwords, strings and buy orders.
+ *
+ * A generator is one numbered stream of the run seed and is not thread-safe; {@link #current()}
+ * gives each thread its own, so parallel tests and load workers never share a random source.
+ * Stream n of a seed always produces the same sequence, and every email carries the run, stream
+ * and a per-stream counter, so two streams (or two JVMs with different stream bases) can never
+ * produce the same address. Streams are numbered:
+ * <ul>
+ *     <li>per test invocation from {@link #TEST_STREAMS}, by a hash of the test, its parameters and
+ *     repeat number, see {@link #forKey} and {@link TestDataListener}</li>
+ *     <li>per load-test virtual user from {@link #USER_STREAMS}, see {@link #bindCurrent}</li>
+ *     <li>otherwise per thread from data.stream.base (0 by default; the sharded runner gives each
+ *     shard JVM its own), in the order threads first ask</li>
+ * </ul>
+ * Only the first two are reproducible when threads run in parallel: which thread asks first, and
+ * so gets which per-thread stream, changes from run to run.
+ * The run seed is data.seed (a -Ddata.seed system property wins), or a fresh one that is logged
+ * so a failing run can be repeated.
+ */
+public final class TestDataGenerator {
+
+    private static final Logger logger = LoggerFactory.getLogger(TestDataGenerator.class);
+
+    /**
+     * First stream number used for load-test virtual users, well clear of the per-thread streams
+     */
+    public static final long USER_STREAMS = 1L << 40;
+
+    /**
+     * Start of the stream numbers derived from test keys, above every virtual user stream
+     */
+    public static final long TEST_STREAMS = 1L << 41;
+
+    private static final char[] ALPHANUMERIC = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789".toCharArray();
+    private static final char[] PASSWORD = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789!@#$%^&*".toCharArray();
+    private static final long RUN_SEED = runSeed();
+    private static final String RUN_TAG = Long.toString(RUN_SEED & 0xFFFFFFFFL, 36);
+    private static final AtomicLong nextThreadStream = new AtomicLong(Long.getLong("data.stream.base", 0));
+    private static final ThreadLocal<TestDataGenerator> current =
+            ThreadLocal.withInitial(() -> forStream(nextThreadStream.getAndIncrement()));
+
+    private final long stream;
+    private final String emailPrefix;
+    private final SplittableRandom random;
+    private long sequence;
+
+    private TestDataGenerator(long stream) {
+        this.stream = stream;
+        this.emailPrefix = "test." + RUN_TAG + "." + Long.toString(stream, 36) + ".";
+        this.random = new SplittableRandom(mix(RUN_SEED + stream * 0x9E3779B97F4A7C15L));
+    }
+
+    /**
+     * This thread's generator, assigned the next free stream on first use
+     */
+    public static TestDataGenerator current() {
+        return current.get();
+    }
+
+    /**
+     * A new generator for the given stream of this run's seed
+     */
+    public static TestDataGenerator forStream(long stream) {
+        return new TestDataGenerator(stream);
+    }
+
+    /**
+     * A new generator for the stream derived from a stable key, e.g. a test method and its
+     * parameters; the same key gets the same stream in every run
+     */
+    public static TestDataGenerator forKey(String key) {
+        long hash = 0xCBF29CE484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            hash = (hash ^ (b & 0xFF)) * 0x100000001B3L;
+        }
+        return forStream(TEST_STREAMS + (mix(hash) & (TEST_STREAMS - 1)));
+    }
+
+    /**
+     * Make the given generator this thread's, e.g. a load worker's stream for its virtual user
+     */
+    public static void bindCurrent(TestDataGenerator generator) {
+        current.set(generator);
+    }
+
+    /**
+     * Drop this thread's generator; its next {@link #current()} gets the next per-thread stream
+     */
+    public static void unbindCurrent() {
+        current.remove();
+    }
+
+    public static long getRunSeed() {
+        return RUN_SEED;
+    }
+
+    public long getStream() {
+        return stream;
+    }
+
+    public int nextInt(int origin, int bound) {
+        return random.nextInt(origin, bound);
+    }
+
+    /**
+     * Random letters and digits
+     */
+    public String nextString(int length) {
+        return new String(fill(new char[length], 0, ALPHANUMERIC));
+    }
+
+    /**
+     * Random letters, digits and symbols
+     */
+    public String nextPassword(int length) {
+        return new String(fill(new char[length], 0, PASSWORD));
+    }
+
+    /**
+     * test.&lt;run&gt;.&lt;stream&gt;.&lt;n&gt;&lt;4 random&gt;@example.com, unique within the run
+     */
+    public String nextEmail() {
+        String count = Long.toString(sequence++, 36);
+        char[] email = new char[emailPrefix.length() + count.length() + 4 + "@example.com".length()];
+        emailPrefix.getChars(0, emailPrefix.length(), email, 0);
+        int position = emailPrefix.length();
+        count.getChars(0, count.length(), email, position);
+        position += count.length();
+        fill(email, position, position + 4, ALPHANUMERIC);
+        "@example.com".getChars(0, "@example.com".length(), email, position + 4);
+        return new String(email);
+    }
+
+    /**
+     * One of the given fuel ids with a quantity from 1 to maxQuantity
+     */
+    public BuyOrder nextBuy(int[] fuelIds, int maxQuantity) {
+        return new BuyOrder(fuelIds[random.nextInt(fuelIds.length)], random.nextInt(1, maxQuantity + 1));
+    }
+
+    private char[] fill(char[] chars, int from, char[] alphabet) {
+        return fill(chars, from, chars.length, alphabet);
+    }
+
+    private char[] fill(char[] chars, int from, int to, char[] alphabet) {
+        for (int i = from; i < to; i++) {
+            chars[i] = alphabet[random.nextInt(alphabet.length)];
+        }
+        return chars;
+    }
+
+    private static long runSeed() {
+        String configured = System.getProperty("data.seed", ConfigUtils.getProperty("data.seed", "")).trim();
+        long seed = configured.isEmpty() ? new SplittableRandom().nextLong() : Long.parseLong(configured);
+        logger.info("Test data seed {} (run with -Ddata.seed={} to reproduce)", seed, seed);
+        return seed;
+    }
+
+    /**
+     * Stafford's variant 13 of the MurmurHash3 finaliser, as SplittableRandom uses, so that
+     * neighbouring stream numbers get unrelated seeds
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
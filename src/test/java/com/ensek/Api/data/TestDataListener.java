@@ -0,0 +1,42 @@
+package com.ensek.Api.data;
+
+import org.testng.IInvokedMethod;
+import org.testng.IInvokedMethodListener;
+import org.testng.ITestResult;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Binds each test invocation to its own {@link TestDataGenerator} stream, derived from the test
+ * class, method, parameters and how many times that combination has run before. A data-provider
+ * row therefore gets the same data in every run with the same seed, whichever thread of a
+ * parallel provider picks it up and in whatever order.
+ *
+ * Registered in TestNG.xml. Configuration methods, and threads a test starts itself, keep the
+ * per-thread streams.
+ */
+public class TestDataListener implements IInvokedMethodListener {
+
+    private final ConcurrentMap<String, AtomicLong> repeats = new ConcurrentHashMap<>();
+
+    @Override
+    public void beforeInvocation(IInvokedMethod method, ITestResult testResult) {
+        if (!method.isTestMethod()) {
+            return;
+        }
+        String key = testResult.getTestClass().getName() + "#" + method.getTestMethod().getMethodName()
+                + Arrays.deepToString(testResult.getParameters());
+        long repeat = repeats.computeIfAbsent(key, k -> new AtomicLong()).getAndIncrement();
+        TestDataGenerator.bindCurrent(TestDataGenerator.forKey(key + "#" + repeat));
+    }
+
+    @Override
+    public void afterInvocation(IInvokedMethod method, ITestResult testResult) {
+        if (method.isTestMethod()) {
+            TestDataGenerator.unbindCurrent();
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.ensek.Api.http;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded pool of direct {@link ByteBuffer}s for holding response bodies off-heap.
+ *
+ * Buffers start at {@code initialCapacity} and are grown by doubling while a body is read.
+ * Released buffers are kept for reuse up to {@code maxPooled} of them, and only if they are no
+ * larger than {@code maxPooledCapacity}, so one unusually large response does not pin its
+ * direct memory for the rest of the run.
+ */
+public class ByteBufferPool {
+
+    private final int initialCapacity;
+    private final int maxPooled;
+    private final int maxPooledCapacity;
+    private final ConcurrentLinkedQueue<ByteBuffer> free = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger freeCount = new AtomicInteger();
+    private final LongAdder acquired = new LongAdder();
+    private final LongAdder allocated = new LongAdder();
+
+    public ByteBufferPool(int initialCapacity, int maxPooled, int maxPooledCapacity) {
+        if (initialCapacity < 1 || maxPooledCapacity < initialCapacity) {
+            throw new IllegalArgumentException("Invalid buffer capacities: initial " + initialCapacity
+                    + ", max pooled " + maxPooledCapacity);
+        }
+        this.initialCapacity = initialCapacity;
+        this.maxPooled = maxPooled;
+        this.maxPooledCapacity = maxPooledCapacity;
+    }
+
+    /**
+     * Take a cleared buffer with at least {@code minCapacity} bytes of room
+     */
+    public ByteBuffer acquire(int minCapacity) {
+        acquired.increment();
+        ByteBuffer buffer = free.poll();
+        if (buffer != null) {
+            freeCount.decrementAndGet();
+            if (buffer.capacity() >= minCapacity) {
+                buffer.clear();
+                return buffer;
+            }
+        }
+        return allocate(Math.max(initialCapacity, minCapacity));
+    }
+
+    /**
+     * Replace a buffer that is in write mode with a larger one holding the same content,
+     * releasing the old one
+     */
+    public ByteBuffer grow(ByteBuffer buffer, int minCapacity) {
+        long doubled = Math.min(Integer.MAX_VALUE - 8L, buffer.capacity() * 2L);
+        ByteBuffer larger = allocate((int) Math.max(doubled, minCapacity));
+        buffer.flip();
+        larger.put(buffer);
+        release(buffer);
+        return larger;
+    }
+
+    /**
+     * Return a buffer to the pool; the caller must not touch it afterwards
+     */
+    public void release(ByteBuffer buffer) {
+        if (buffer == null || !buffer.isDirect() || buffer.capacity() > maxPooledCapacity) {
+            return;
+        }
+        if (freeCount.incrementAndGet() <= maxPooled) {
+            free.offer(buffer);
+        } else {
+            freeCount.decrementAndGet();
+        }
+    }
+
+    /**
+     * Number of buffers handed out so far
+     */
+    public long getAcquiredCount() {
+        return acquired.sum();
+    }
+
+    /**
+     * Number of direct buffers allocated so far; stays flat once the pool is warm
+     */
+    public long getAllocatedCount() {
+        return allocated.sum();
+    }
+
+    private ByteBuffer allocate(int capacity) {
+        allocated.increment();
+        return ByteBuffer.allocateDirect(capacity);
+    }
+}
@@ -0,0 +1,172 @@
+package com.ensek.Api.http;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Count-based circuit breaker for one endpoint.
+ *
+ * CLOSED: calls pass and their outcomes fill a sliding window of the last {@code windowSize}
+ * calls. Once at least {@code minimumCalls} are recorded and either the failure rate or the
+ * slow-call rate reaches its threshold, the breaker opens.
+ * OPEN: calls are rejected until {@code openDurationMillis} has passed, then the breaker goes
+ * HALF_OPEN and lets {@code halfOpenProbes} calls through. If they all succeed it closes,
+ * and any failure opens it again.
+ */
+public class CircuitBreaker {
+
+    private static final Logger logger = LoggerFactory.getLogger(CircuitBreaker.class);
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final String name;
+    private final Settings settings;
+    private final boolean[] failedWindow;
+    private final boolean[] slowWindow;
+    private int windowPosition;
+    private int windowCount;
+    private int failures;
+    private int slowCalls;
+    private State state = State.CLOSED;
+    private long openedAtMillis;
+    private int probesInFlight;
+    private int probesSucceeded;
+
+    public CircuitBreaker(String name, Settings settings) {
+        this.name = name;
+        this.settings = settings;
+        this.failedWindow = new boolean[settings.windowSize];
+        this.slowWindow = new boolean[settings.windowSize];
+    }
+
+    /**
+     * Whether a call may proceed now; in HALF_OPEN this reserves one of the probe slots
+     */
+    public synchronized boolean tryAcquire() {
+        if (state == State.OPEN) {
+            if (System.currentTimeMillis() - openedAtMillis < settings.openDurationMillis) {
+                return false;
+            }
+            transition(State.HALF_OPEN);
+        }
+        if (state == State.HALF_OPEN) {
+            if (probesInFlight + probesSucceeded >= settings.halfOpenProbes) {
+                return false;
+            }
+            probesInFlight++;
+        }
+        return true;
+    }
+
+    /**
+     * Record the outcome of a call that was allowed by {@link #tryAcquire()}
+     */
+    public synchronized void record(boolean failed, long latencyMillis) {
+        boolean slow = latencyMillis >= settings.slowCallThresholdMillis;
+        if (state == State.HALF_OPEN) {
+            probesInFlight = Math.max(0, probesInFlight - 1);
+            if (failed || slow) {
+                open();
+            } else if (++probesSucceeded >= settings.halfOpenProbes) {
+                transition(State.CLOSED);
+            }
+            return;
+        }
+        if (state == State.OPEN) {
+            return;
+        }
+
+        if (windowCount == settings.windowSize) {
+            failures -= failedWindow[windowPosition] ? 1 : 0;
+            slowCalls -= slowWindow[windowPosition] ? 1 : 0;
+        } else {
+            windowCount++;
+        }
+        failedWindow[windowPosition] = failed;
+        slowWindow[windowPosition] = slow;
+        failures += failed ? 1 : 0;
+        slowCalls += slow ? 1 : 0;
+        windowPosition = (windowPosition + 1) % settings.windowSize;
+
+        if (windowCount >= settings.minimumCalls
+                && (failures * 100.0 / windowCount >= settings.failureRateThreshold
+                || slowCalls * 100.0 / windowCount >= settings.slowCallRateThreshold)) {
+            open();
+        }
+    }
+
+    /**
+     * Give back a permission from {@link #tryAcquire()} for a call that was never made
+     */
+    public synchronized void release() {
+        if (state == State.HALF_OPEN) {
+            probesInFlight = Math.max(0, probesInFlight - 1);
+        }
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Milliseconds until an open breaker will allow a probe, or 0
+     */
+    public synchronized long getRemainingOpenMillis() {
+        if (state != State.OPEN) {
+            return 0;
+        }
+        return Math.max(0, settings.openDurationMillis - (System.currentTimeMillis() - openedAtMillis));
+    }
+
+    private void open() {
+        openedAtMillis = System.currentTimeMillis();
+        transition(State.OPEN);
+    }
+
+    private void transition(State next) {
+        if (next != state) {
+            logger.warn("Circuit '{}' {} -> {}", name, state, next);
+        }
+        state = next;
+        probesInFlight = 0;
+        probesSucceeded = 0;
+        if (next == State.CLOSED) {
+            windowPosition = 0;
+            windowCount = 0;
+            failures = 0;
+            slowCalls = 0;
+        }
+    }
+
+    /**
+     * Thresholds for a breaker
+     */
+    public static class Settings {
+        private final int windowSize;
+        private final int minimumCalls;
+        private final double failureRateThreshold;
+        private final long slowCallThresholdMillis;
+        private final double slowCallRateThreshold;
+        private final long openDurationMillis;
+        private final int halfOpenProbes;
+
+        public Settings(int windowSize, int minimumCalls, double failureRateThreshold,
+                        long slowCallThresholdMillis, double slowCallRateThreshold,
+                        long openDurationMillis, int halfOpenProbes) {
+            if (windowSize < 1 || minimumCalls < 1 || halfOpenProbes < 1) {
+                throw new IllegalArgumentException("Window size, minimum calls and probes must be at least 1");
+            }
+            this.windowSize = windowSize;
+            this.minimumCalls = Math.min(minimumCalls, windowSize);
+            this.failureRateThreshold = failureRateThreshold;
+            this.slowCallThresholdMillis = slowCallThresholdMillis;
+            this.slowCallRateThreshold = slowCallRateThreshold;
+            this.openDurationMillis = openDurationMillis;
+            this.halfOpenProbes = halfOpenProbes;
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.ensek.Api.http;
+
+import com.ensek.Api.metrics.EndpointLabels;
+import com.ensek.Api.utils.ConfigUtils;
+import io.restassured.filter.Filter;
+import io.restassured.filter.FilterContext;
+import io.restassured.response.Response;
+import io.restassured.specification.FilterableRequestSpecification;
+import io.restassured.specification.FilterableResponseSpecification;
+
+import java.net.ConnectException;
+import java.net.NoRouteToHostException;
+import java.net.URI;
+import java.net.UnknownHostException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * REST Assured filter that guards every request with a per-endpoint {@link CircuitBreaker}
+ * plus a per-host breaker that only counts connection failures.
+ *
+ * Exceptions and 5xx responses count as failures; 4xx responses are expected outcomes of the
+ * negative tests and count as successes. When the environment is unreachable the host breaker
+ * opens after {@code circuit.connect.failures.to.trip} connection failures, so the rest of the
+ * suite is skipped immediately instead of each test waiting out {@code timeout.default}.
+ *
+ * Settings are read from {@code circuit.*} and can be overridden per resource, e.g.
+ * {@code circuit.buy.slow.call.threshold.ms}.
+ */
+public class CircuitBreakerFilter implements Filter {
+
+    private static final CircuitBreakerFilter instance = new CircuitBreakerFilter();
+
+    private final ConcurrentMap<String, CircuitBreaker> breakers = new ConcurrentHashMap<>();
+
+    public static CircuitBreakerFilter getInstance() {
+        return instance;
+    }
+
+    @Override
+    public Response filter(FilterableRequestSpecification requestSpec,
+                           FilterableResponseSpecification responseSpec,
+                           FilterContext ctx) {
+        String endpoint = EndpointLabels.of(requestSpec);
+        CircuitBreaker hostBreaker = hostBreaker(URI.create(requestSpec.getURI()).getAuthority());
+        CircuitBreaker endpointBreaker = breakers.computeIfAbsent(endpoint, this::newEndpointBreaker);
+
+        if (!hostBreaker.tryAcquire()) {
+            reject(hostBreaker);
+        }
+        if (!endpointBreaker.tryAcquire()) {
+            hostBreaker.release();
+            reject(endpointBreaker);
+        }
+
+        long start = System.currentTimeMillis();
+        try {
+            Response response = ctx.next(requestSpec, responseSpec);
+            long latency = System.currentTimeMillis() - start;
+            hostBreaker.record(false, 0);
+            endpointBreaker.record(response.getStatusCode() >= 500, latency);
+            return response;
+        } catch (Exception e) {
+            long latency = System.currentTimeMillis() - start;
+            hostBreaker.record(isConnectionFailure(e), 0);
+            endpointBreaker.record(true, latency);
+            throw e;
+        }
+    }
+
+    /**
+     * Breaker state for an endpoint label, e.g. "GET /ENSEK/orders", or null if never called
+     */
+    public CircuitBreaker.State getState(String endpoint) {
+        CircuitBreaker breaker = breakers.get(endpoint);
+        return breaker != null ? breaker.getState() : null;
+    }
+
+    /**
+     * Forget all breaker state
+     */
+    public void reset() {
+        breakers.clear();
+    }
+
+    private static void reject(CircuitBreaker breaker) {
+        if (breaker.getState() == CircuitBreaker.State.HALF_OPEN) {
+            throw new CircuitOpenException(String.format("Circuit half-open for %s, waiting on recovery probe",
+                    breaker.getName()));
+        }
+        throw new CircuitOpenException(String.format("Circuit open for %s, failing fast (next probe in %ds)",
+                breaker.getName(), (breaker.getRemainingOpenMillis() + 999) / 1000));
+    }
+
+    private CircuitBreaker hostBreaker(String authority) {
+        return breakers.computeIfAbsent("host " + authority, name -> {
+            int trip = ConfigUtils.getIntProperty("circuit.connect.failures.to.trip", 1);
+            return new CircuitBreaker(name, new CircuitBreaker.Settings(trip, trip, 100, Long.MAX_VALUE, 101,
+                    ConfigUtils.getIntProperty("circuit.open.duration.ms", 30000),
+                    ConfigUtils.getIntProperty("circuit.half.open.probes", 1)));
+        });
+    }
+
+    private CircuitBreaker newEndpointBreaker(String endpoint) {
+        String resource = resourceOf(endpoint);
+        return new CircuitBreaker(endpoint, new CircuitBreaker.Settings(
+                setting(resource, "window.size", 10),
+                setting(resource, "minimum.calls", 3),
+                setting(resource, "failure.rate.threshold", 50),
+                setting(resource, "slow.call.threshold.ms", ConfigUtils.getDefaultTimeout() * 1000),
+                setting(resource, "slow.call.rate.threshold", 100),
+                setting(resource, "open.duration.ms", 30000),
+                setting(resource, "half.open.probes", 1)));
+    }
+
+    private static int setting(String resource, String key, int defaultValue) {
+        return ConfigUtils.getIntProperty("circuit." + resource + "." + key,
+                ConfigUtils.getIntProperty("circuit." + key, defaultValue));
+    }
+
+    /**
+     * "PUT /ENSEK/buy/{id}/{quantity}" -> "buy"
+     */
+    private static String resourceOf(String endpoint) {
+        String[] segments = endpoint.substring(endpoint.indexOf(' ') + 1).split("/");
+        return segments.length > 2 ? segments[2].toLowerCase() : "root";
+    }
+
+    private static boolean isConnectionFailure(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConnectException || cause instanceof UnknownHostException
+                    || cause instanceof NoRouteToHostException
+                    || "ConnectTimeoutException".equals(cause.getClass().getSimpleName())) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
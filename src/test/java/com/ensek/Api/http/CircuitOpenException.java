@@ -0,0 +1,17 @@
+package com.ensek.Api.http;
+
+import org.testng.SkipException;
+
+/**
+ * Thrown instead of sending a request while its circuit is open.
+ * Extends {@link SkipException} so that a test hitting an open circuit, and every test that
+ * depends on it, is reported as skipped rather than waiting out the timeout and failing.
+ */
+public class CircuitOpenException extends SkipException {
+
+    private static final long serialVersionUID = 1L;
+
+    public CircuitOpenException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,131 @@
+package com.ensek.Api.http;
+
+import com.ensek.Api.metrics.PayloadSizeMetrics;
+import com.ensek.Api.utils.ConfigUtils;
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpRequestInterceptor;
+import org.apache.http.HttpResponseInterceptor;
+import org.apache.http.client.entity.DeflateInputStream;
+import org.apache.http.entity.HttpEntityWrapper;
+import org.apache.http.impl.client.AbstractHttpClient;
+import org.brotli.dec.BrotliInputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Response compression for every REST Assured request.
+ *
+ * Requests that do not set Accept-Encoding themselves get {@code http.compression.encodings}
+ * ("gzip,deflate" by default, "br" may be added, "identity" asks for uncompressed bodies).
+ * Compressed responses are decoded lazily as the body is read, through a streaming decoder
+ * stacked on the connection stream, and the Content-Encoding header is removed so REST Assured
+ * sees plain content. Bytes read from the wire and bytes after decoding are counted per endpoint
+ * in {@link PayloadSizeMetrics}, for compressed and uncompressed responses alike.
+ *
+ * Installed on every client built by {@link InstrumentedHttpClient}, which also switches REST
+ * Assured's own decoders off so it neither adds its own Accept-Encoding nor decodes a second time.
+ */
+public final class CompressionSupport {
+
+    private static final Logger logger = LoggerFactory.getLogger(CompressionSupport.class);
+    private static final String ACCEPT_ENCODING = "Accept-Encoding";
+    private static final String CONTENT_ENCODING = "Content-Encoding";
+
+    private CompressionSupport() {
+    }
+
+    /**
+     * The Accept-Encoding value sent when a request does not set its own
+     */
+    public static String getAcceptEncoding() {
+        return ConfigUtils.getProperty("http.compression.encodings", "gzip,deflate").replace(" ", "");
+    }
+
+    /**
+     * Add Accept-Encoding negotiation and measured, streaming decoding to a client
+     */
+    @SuppressWarnings("deprecation")
+    static void install(AbstractHttpClient client) {
+        String acceptEncoding = getAcceptEncoding();
+        client.addRequestInterceptor((HttpRequestInterceptor) (request, context) -> {
+            if (!request.containsHeader(ACCEPT_ENCODING)) {
+                request.addHeader(ACCEPT_ENCODING, acceptEncoding);
+            }
+        });
+        client.addResponseInterceptor((HttpResponseInterceptor) (response, context) -> {
+            HttpEntity entity = response.getEntity();
+            if (entity == null) {
+                return;
+            }
+            String endpoint = InstrumentedHttpClient.endpointOf(context);
+            Header encodingHeader = entity.getContentEncoding();
+            String encoding = encodingHeader != null ? encodingHeader.getValue().trim().toLowerCase(Locale.ROOT) : "";
+            if (encoding.isEmpty() || "identity".equals(encoding)) {
+                response.setEntity(new MeasuredEntity(entity, endpoint, null));
+            } else if (isSupported(encoding)) {
+                response.setEntity(new MeasuredEntity(entity, endpoint, encoding));
+                response.removeHeaders(CONTENT_ENCODING);
+                response.removeHeaders("Content-Length");
+            } else {
+                logger.warn("Unsupported Content-Encoding '{}' for {}, body left encoded", encoding, endpoint);
+            }
+        });
+    }
+
+    private static boolean isSupported(String encoding) {
+        return "gzip".equals(encoding) || "x-gzip".equals(encoding) || "deflate".equals(encoding) || "br".equals(encoding);
+    }
+
+    private static InputStream decoder(String encoding, InputStream wire) throws IOException {
+        switch (encoding) {
+            case "gzip":
+            case "x-gzip":
+                return new GZIPInputStream(wire, 8192);
+            case "deflate":
+                // Handles both zlib-wrapped and raw deflate, which servers send interchangeably
+                return new DeflateInputStream(wire);
+            case "br":
+                return new BrotliInputStream(wire);
+            default:
+                throw new IOException("Unsupported Content-Encoding: " + encoding);
+        }
+    }
+
+    /**
+     * Entity whose content is decoded on the fly and measured on both sides of the decoder
+     */
+    private static class MeasuredEntity extends HttpEntityWrapper {
+        private final String endpoint;
+        private final String encoding;
+
+        MeasuredEntity(HttpEntity wrapped, String endpoint, String encoding) {
+            super(wrapped);
+            this.endpoint = endpoint;
+            this.encoding = encoding;
+        }
+
+        @Override
+        public InputStream getContent() throws IOException {
+            CountingInputStream wire = new CountingInputStream(wrappedEntity.getContent(), null);
+            InputStream decoded = encoding != null ? decoder(encoding, wire) : wire;
+            return new CountingInputStream(decoded, decodedBytes ->
+                    PayloadSizeMetrics.getInstance().record(endpoint, encoding, wire.getCount(), decodedBytes));
+        }
+
+        @Override
+        public Header getContentEncoding() {
+            return encoding != null ? null : super.getContentEncoding();
+        }
+
+        @Override
+        public long getContentLength() {
+            return encoding != null ? -1 : super.getContentLength();
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.ensek.Api.http;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Counts bytes read and reports the total once, at end of stream or close
+ */
+class CountingInputStream extends FilterInputStream {
+
+    interface CompletionListener {
+        void completed(long bytes);
+    }
+
+    private final CompletionListener listener;
+    private long count;
+    private boolean reported;
+
+    CountingInputStream(InputStream in, CompletionListener listener) {
+        super(in);
+        this.listener = listener;
+    }
+
+    long getCount() {
+        return count;
+    }
+
+    @Override
+    public int read() throws IOException {
+        int value = super.read();
+        if (value == -1) {
+            report();
+        } else {
+            count++;
+        }
+        return value;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+        int read = super.read(buffer, offset, length);
+        if (read == -1) {
+            report();
+        } else {
+            count += read;
+        }
+        return read;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        long skipped = super.skip(n);
+        count += skipped;
+        return skipped;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            super.close();
+        } finally {
+            report();
+        }
+    }
+
+    private void report() {
+        if (!reported && listener != null) {
+            reported = true;
+            listener.completed(count);
+        }
+    }
+}
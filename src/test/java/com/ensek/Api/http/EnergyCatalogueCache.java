@@ -0,0 +1,223 @@
+package com.ensek.Api.http;
+
+import com.ensek.Api.utils.ConfigUtils;
+import io.restassured.builder.ResponseBuilder;
+import io.restassured.filter.Filter;
+import io.restassured.filter.FilterContext;
+import io.restassured.response.Response;
+import io.restassured.specification.FilterableRequestSpecification;
+import io.restassured.specification.FilterableResponseSpecification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.URI;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * REST Assured filter acting as a shared read-through cache for {@code GET /ENSEK/energy}.
+ *
+ * A 200 catalogue is kept for {@code energy.cache.ttl.ms} and every caller gets its own copy of
+ * the cached response. Concurrent misses for the same key are coalesced: one request goes to the
+ * server and the others wait for its result. A successful buy or reset drops every entry, and a
+ * load that was in flight when that happened is handed to its waiters but not kept.
+ *
+ * Entries are keyed by URI and Authorization header, so an invalid token still reaches the
+ * server and gets its 401. A thread can opt out with {@link #setBypassed}, e.g. while measuring
+ * the endpoint's own latency.
+ */
+public class EnergyCatalogueCache implements Filter {
+
+    private static final Logger logger = LoggerFactory.getLogger(EnergyCatalogueCache.class);
+    private static final String ENERGY_PATH = "/ENSEK/energy";
+    private static final String BUY_PATH = "/ENSEK/buy/";
+    private static final String RESET_PATH = "/ENSEK/reset";
+    private static final ThreadLocal<Boolean> bypassed = ThreadLocal.withInitial(() -> false);
+    private static EnergyCatalogueCache instance;
+
+    private final long ttlNanos;
+    private final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    public EnergyCatalogueCache(long ttlMillis) {
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+    }
+
+    /**
+     * Cache configured from energy.cache.*, shared by the whole run
+     */
+    public static synchronized EnergyCatalogueCache getInstance() {
+        if (instance == null) {
+            instance = new EnergyCatalogueCache(ConfigUtils.getIntProperty("energy.cache.ttl.ms", 5000));
+            Runtime.getRuntime().addShutdownHook(new Thread(
+                    () -> logger.info("Energy catalogue cache: {}", instance), "energy-cache-stats"));
+        }
+        return instance;
+    }
+
+    /**
+     * Send this thread's catalogue reads to the server instead of the cache; buys and resets
+     * still invalidate it
+     */
+    public static void setBypassed(boolean bypass) {
+        bypassed.set(bypass);
+    }
+
+    /**
+     * Catalogue reads answered without a request (hits and coalesced misses) since the shared
+     * cache was created, or 0 if it never was
+     */
+    public static synchronized long servedFromCache() {
+        return instance == null ? 0 : instance.getHits() + instance.getCoalesced();
+    }
+
+    @Override
+    public Response filter(FilterableRequestSpecification requestSpec,
+                           FilterableResponseSpecification responseSpec,
+                           FilterContext ctx) {
+        String method = requestSpec.getMethod();
+        String path = URI.create(requestSpec.getURI()).getPath();
+
+        if ("GET".equals(method) && path.endsWith(ENERGY_PATH) && !bypassed.get()) {
+            return read(requestSpec, responseSpec, ctx);
+        }
+        Response response = ctx.next(requestSpec, responseSpec);
+        boolean changesStock = ("PUT".equals(method) && path.contains(BUY_PATH))
+                || ("POST".equals(method) && path.endsWith(RESET_PATH));
+        if (changesStock && response.getStatusCode() < 300) {
+            invalidate();
+        }
+        return response;
+    }
+
+    /**
+     * Drop every cached catalogue, e.g. after stock was changed outside this JVM
+     */
+    public void invalidate() {
+        generation.incrementAndGet();
+        entries.clear();
+        invalidations.increment();
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * Misses that waited for another thread's request instead of sending their own
+     */
+    public long getCoalesced() {
+        return coalesced.sum();
+    }
+
+    public long getInvalidations() {
+        return invalidations.sum();
+    }
+
+    /**
+     * Share of catalogue reads that did not go to the server, in percent
+     */
+    public double getHitRate() {
+        long served = hits.sum() + coalesced.sum();
+        long total = served + misses.sum();
+        return total == 0 ? 0.0 : served * 100.0 / total;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("hits=%d coalesced=%d misses=%d invalidations=%d hitRate=%.1f%%",
+                getHits(), getCoalesced(), getMisses(), getInvalidations(), getHitRate());
+    }
+
+    private Response read(FilterableRequestSpecification requestSpec,
+                          FilterableResponseSpecification responseSpec,
+                          FilterContext ctx) {
+        String key = requestSpec.getURI() + '|' + requestSpec.getHeaders().getValue("Authorization");
+        while (true) {
+            Entry entry = entries.get(key);
+            if (entry != null && entry.isExpired(System.nanoTime())) {
+                entries.remove(key, entry);
+                continue;
+            }
+            if (entry != null) {
+                if (entry.response.isDone()) {
+                    hits.increment();
+                } else {
+                    coalesced.increment();
+                }
+                return copyOf(await(entry));
+            }
+
+            Entry loading = new Entry(generation.get());
+            if (entries.putIfAbsent(key, loading) != null) {
+                continue;
+            }
+            misses.increment();
+            return load(key, loading, requestSpec, responseSpec, ctx);
+        }
+    }
+
+    private Response load(String key, Entry loading,
+                          FilterableRequestSpecification requestSpec,
+                          FilterableResponseSpecification responseSpec,
+                          FilterContext ctx) {
+        Response response;
+        try {
+            response = ctx.next(requestSpec, responseSpec);
+            // Buffer the body so copies can be made for every waiter
+            response.asByteArray();
+        } catch (RuntimeException e) {
+            entries.remove(key, loading);
+            loading.response.completeExceptionally(e);
+            throw e;
+        }
+        loading.expiresAtNanos = System.nanoTime() + ttlNanos;
+        if (response.getStatusCode() != 200 || loading.generation != generation.get()) {
+            entries.remove(key, loading);
+        }
+        loading.response.complete(response);
+        return response;
+    }
+
+    private static Response await(Entry entry) {
+        try {
+            return entry.response.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private static Response copyOf(Response cached) {
+        return new ResponseBuilder().clone(cached).setBody(cached.asByteArray()).build();
+    }
+
+    private static class Entry {
+        private final long generation;
+        private final CompletableFuture<Response> response = new CompletableFuture<>();
+        private volatile long expiresAtNanos = Long.MAX_VALUE;
+
+        Entry(long generation) {
+            this.generation = generation;
+        }
+
+        boolean isExpired(long nowNanos) {
+            return response.isDone() && nowNanos - expiresAtNanos >= 0;
+        }
+    }
+}
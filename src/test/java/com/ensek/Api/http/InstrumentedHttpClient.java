@@ -0,0 +1,145 @@
+package com.ensek.Api.http;
+
+import com.ensek.Api.metrics.EndpointLabels;
+import com.ensek.Api.metrics.PayloadSizeMetrics;
+import com.ensek.Api.metrics.PhaseTimingMetrics;
+import io.restassured.config.DecoderConfig;
+import io.restassured.config.HttpClientConfig;
+import io.restassured.config.RestAssuredConfig;
+import org.apache.http.ConnectionReuseStrategy;
+import org.apache.http.HttpRequest;
+import org.apache.http.client.AuthenticationStrategy;
+import org.apache.http.client.HttpRequestRetryHandler;
+import org.apache.http.client.RedirectStrategy;
+import org.apache.http.client.RequestDirector;
+import org.apache.http.client.UserTokenHandler;
+import org.apache.http.conn.ClientConnectionManager;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.conn.routing.HttpRoutePlanner;
+import org.apache.http.impl.client.AbstractHttpClient;
+import org.apache.http.impl.client.SystemDefaultHttpClient;
+import org.apache.http.params.HttpParams;
+import org.apache.http.protocol.HttpContext;
+import org.apache.http.protocol.HttpCoreContext;
+import org.apache.http.protocol.HttpProcessor;
+import org.apache.http.protocol.HttpRequestExecutor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.URI;
+
+/**
+ * The Apache HTTP client behind every REST Assured request.
+ *
+ * It is REST Assured's usual system-default client with {@link CompressionSupport} and
+ * {@link PhaseTimingSupport} installed, so each request negotiates compression, has its payload
+ * sizes measured and has its DNS, connect, TLS, first-byte and transfer times recorded per
+ * endpoint. Both sets of figures are logged when the JVM exits; the phase timings are also
+ * reported at the end of each TestNG suite by {@link com.ensek.Api.metrics.HttpMetricsListener}.
+ */
+@SuppressWarnings("deprecation")
+public final class InstrumentedHttpClient {
+
+    private static final Logger logger = LoggerFactory.getLogger(InstrumentedHttpClient.class);
+    private static boolean shutdownSummaryRegistered;
+
+    private InstrumentedHttpClient() {
+    }
+
+    /**
+     * Use instrumented HTTP clients for every request made with the returned configuration
+     */
+    public static synchronized RestAssuredConfig configure(RestAssuredConfig config, HttpClientConfig httpClientConfig) {
+        if (!shutdownSummaryRegistered) {
+            shutdownSummaryRegistered = true;
+            Runtime.getRuntime().addShutdownHook(new Thread(InstrumentedHttpClient::logSummary, "http-metrics-summary"));
+        }
+        return config
+                .httpClient(httpClientConfig.httpClientFactory(InstrumentedHttpClient::create))
+                .decoderConfig(DecoderConfig.decoderConfig().noContentDecoders());
+    }
+
+    /**
+     * Like {@link #configure}, but every request made with the returned configuration goes through
+     * one long-lived client whose pool keeps up to {@code maxConnections} connections per host,
+     * so connections are reused across requests and threads. Each call makes a separate client.
+     */
+    public static RestAssuredConfig pooled(RestAssuredConfig config, HttpClientConfig httpClientConfig, int maxConnections) {
+        return pooled(config, httpClientConfig, connectionManager(maxConnections));
+    }
+
+    /**
+     * Like {@link #pooled(RestAssuredConfig, HttpClientConfig, int)}, on a pool the caller holds
+     * on to and shuts down when done
+     */
+    public static RestAssuredConfig pooled(RestAssuredConfig config, HttpClientConfig httpClientConfig,
+                                           ClientConnectionManager connectionManager) {
+        return configure(config, httpClientConfig)
+                .httpClient(httpClientConfig
+                        .httpClientFactory(() -> create(connectionManager))
+                        .reuseHttpClientInstance());
+    }
+
+    /**
+     * Instrumented connection pool keeping up to {@code maxConnections} connections per host
+     */
+    public static ClientConnectionManager connectionManager(int maxConnections) {
+        return PhaseTimingSupport.createConnectionManager(maxConnections);
+    }
+
+    static AbstractHttpClient create() {
+        return create(null);
+    }
+
+    /**
+     * @param connectionManager pool to use, or null for one sized from the http.* system properties
+     */
+    static AbstractHttpClient create(ClientConnectionManager connectionManager) {
+        AbstractHttpClient client = new SystemDefaultHttpClient() {
+            @Override
+            protected ClientConnectionManager createClientConnectionManager() {
+                return connectionManager != null ? connectionManager : PhaseTimingSupport.createConnectionManager();
+            }
+
+            @Override
+            protected RequestDirector createClientRequestDirector(
+                    HttpRequestExecutor requestExec, ClientConnectionManager conman, ConnectionReuseStrategy reustrat,
+                    ConnectionKeepAliveStrategy kastrat, HttpRoutePlanner rouplan, HttpProcessor httpProcessor,
+                    HttpRequestRetryHandler retryHandler, RedirectStrategy redirectStrategy,
+                    AuthenticationStrategy targetAuthStrategy, AuthenticationStrategy proxyAuthStrategy,
+                    UserTokenHandler userTokenHandler, HttpParams params) {
+                return PhaseTimingSupport.timed(super.createClientRequestDirector(requestExec, conman, reustrat,
+                        kastrat, rouplan, httpProcessor, retryHandler, redirectStrategy, targetAuthStrategy,
+                        proxyAuthStrategy, userTokenHandler, params));
+            }
+        };
+        CompressionSupport.install(client);
+        // Installed last so its response wrapper sits outermost and times the decoded read
+        PhaseTimingSupport.install(client);
+        return client;
+    }
+
+    /**
+     * Endpoint label of the request being executed in the given context
+     */
+    static String endpointOf(HttpContext context) {
+        return endpointOf((HttpRequest) context.getAttribute(HttpCoreContext.HTTP_REQUEST));
+    }
+
+    static String endpointOf(HttpRequest request) {
+        if (request == null) {
+            return "unknown";
+        }
+        String uri = request.getRequestLine().getUri();
+        try {
+            return EndpointLabels.of(request.getRequestLine().getMethod(), URI.create(uri).getPath());
+        } catch (IllegalArgumentException e) {
+            return EndpointLabels.of(request.getRequestLine().getMethod(), uri);
+        }
+    }
+
+    private static void logSummary() {
+        logger.info("Response payload sizes:{}{}", System.lineSeparator(), PayloadSizeMetrics.getInstance().summary());
+        logger.info("Request phase timings:{}{}", System.lineSeparator(), PhaseTimingMetrics.getInstance().summary());
+    }
+}
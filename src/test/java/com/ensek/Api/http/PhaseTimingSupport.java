@@ -0,0 +1,349 @@
+package com.ensek.Api.http;
+
+import com.ensek.Api.metrics.PhaseTimingMetrics;
+import com.ensek.Api.samples.SampleSink;
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpException;
+import org.apache.http.HttpRequestInterceptor;
+import org.apache.http.HttpResponseInterceptor;
+import org.apache.http.client.RequestDirector;
+import org.apache.http.conn.ClientConnectionManager;
+import org.apache.http.conn.ConnectTimeoutException;
+import org.apache.http.conn.DnsResolver;
+import org.apache.http.conn.HttpInetSocketAddress;
+import org.apache.http.conn.scheme.PlainSocketFactory;
+import org.apache.http.conn.scheme.Scheme;
+import org.apache.http.conn.scheme.SchemeLayeredSocketFactory;
+import org.apache.http.conn.scheme.SchemeRegistry;
+import org.apache.http.conn.scheme.SchemeSocketFactory;
+import org.apache.http.conn.ssl.SSLSocketFactory;
+import org.apache.http.entity.HttpEntityWrapper;
+import org.apache.http.impl.client.AbstractHttpClient;
+import org.apache.http.impl.conn.PoolingClientConnectionManager;
+import org.apache.http.params.HttpConnectionParams;
+import org.apache.http.params.HttpParams;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-phase request timings for the Apache HTTP client, recorded in {@link PhaseTimingMetrics}.
+ *
+ * Opening a connection goes through a timed DNS resolver and timed socket factories, which
+ * leave the DNS, connect and TLS handshake times on the calling thread; the request interceptor
+ * picks them up, so they are only recorded for requests that opened a new connection. Time to
+ * first byte runs from handing the request to the connection until the response headers are
+ * parsed, and transfer from there until the body has been read to the end or closed; REST
+ * Assured reads bodies lazily, so a response whose body is never looked at has no transfer time.
+ * Durations the server reports in Server-Timing headers ({@code name;dur=milliseconds}) are
+ * recorded as "server:name" next to them. When a {@link SampleSink} is active, each response is
+ * also handed to it as one raw sample once its body is done (or at the headers if it has none).
+ * A sample starts when the client's request director takes the request, before any DNS lookup
+ * or connect, and a redirect or retry that follows a response starts when that response arrived.
+ * A request that fails without a response is recorded with status 0.
+ */
+@SuppressWarnings("deprecation")
+final class PhaseTimingSupport {
+
+    private static final Logger logger = LoggerFactory.getLogger(PhaseTimingSupport.class);
+    private static final String TIMING_ATTRIBUTE = "ensek.phase.timing";
+    private static final String SAMPLE_START_ATTRIBUTE = "ensek.sample.start";
+    private static final String SERVER_TIMING = "Server-Timing";
+    private static final int DNS = 0;
+    private static final int CONNECT = 1;
+    private static final int TLS = 2;
+    private static final String[] CONNECTION_PHASES = {
+            PhaseTimingMetrics.DNS, PhaseTimingMetrics.CONNECT, PhaseTimingMetrics.TLS};
+
+    /**
+     * Connection phase durations in nanoseconds measured on this thread and not yet claimed, -1 if not measured
+     */
+    private static final ThreadLocal<long[]> pendingPhases = ThreadLocal.withInitial(() -> new long[]{-1, -1, -1});
+
+    private PhaseTimingSupport() {
+    }
+
+    /**
+     * Pooling manager with timed DNS and socket factories, sized as SystemDefaultHttpClient does
+     */
+    static ClientConnectionManager createConnectionManager() {
+        if ("true".equalsIgnoreCase(System.getProperty("http.keepAlive", "true"))) {
+            return createConnectionManager(Integer.parseInt(System.getProperty("http.maxConnections", "5")));
+        }
+        return new PoolingClientConnectionManager(schemeRegistry(), new TimedDnsResolver());
+    }
+
+    /**
+     * Pooling manager with timed DNS and socket factories, keeping up to {@code maxPerRoute}
+     * connections per host
+     */
+    static ClientConnectionManager createConnectionManager(int maxPerRoute) {
+        PoolingClientConnectionManager manager = new PoolingClientConnectionManager(schemeRegistry(), new TimedDnsResolver());
+        manager.setDefaultMaxPerRoute(maxPerRoute);
+        manager.setMaxTotal(2 * maxPerRoute);
+        return manager;
+    }
+
+    private static SchemeRegistry schemeRegistry() {
+        SchemeRegistry registry = new SchemeRegistry();
+        registry.register(new Scheme("http", 80, new TimedPlainSocketFactory()));
+        registry.register(new Scheme("https", 443, new TimedTlsSocketFactory()));
+        return registry;
+    }
+
+    /**
+     * Director that starts the request's sample before the delegate opens or leases a connection,
+     * and records a status 0 sample when the request fails without a response
+     */
+    static RequestDirector timed(RequestDirector director) {
+        return (target, request, context) -> {
+            context.setAttribute(SAMPLE_START_ATTRIBUTE, System.nanoTime());
+            try {
+                return director.execute(target, request, context);
+            } catch (IOException | HttpException | RuntimeException e) {
+                long failedAt = System.nanoTime();
+                SampleSink samples = SampleSink.active();
+                Object startAttribute = context.getAttribute(SAMPLE_START_ATTRIBUTE);
+                if (samples != null && startAttribute instanceof Long) {
+                    long startedAt = (Long) startAttribute;
+                    samples.record(InstrumentedHttpClient.endpointOf(request), 0, startedAt, failedAt - startedAt, 0);
+                }
+                throw e;
+            }
+        };
+    }
+
+    /**
+     * Record first-byte, transfer, connection and Server-Timing phases for every request on the client
+     */
+    static void install(AbstractHttpClient client) {
+        client.addRequestInterceptor((HttpRequestInterceptor) (request, context) -> {
+            String endpoint = InstrumentedHttpClient.endpointOf(request);
+            long[] pending = pendingPhases.get();
+            for (int phase = 0; phase < pending.length; phase++) {
+                if (pending[phase] >= 0) {
+                    record(endpoint, CONNECTION_PHASES[phase], pending[phase]);
+                    pending[phase] = -1;
+                }
+            }
+            context.setAttribute(TIMING_ATTRIBUTE, System.nanoTime());
+        });
+        client.addResponseInterceptor((HttpResponseInterceptor) (response, context) -> {
+            long headersAt = System.nanoTime();
+            String endpoint = InstrumentedHttpClient.endpointOf(context);
+            Object sentAttribute = context.getAttribute(TIMING_ATTRIBUTE);
+            long sentAt = sentAttribute instanceof Long ? (Long) sentAttribute : headersAt;
+            if (sentAttribute instanceof Long) {
+                record(endpoint, PhaseTimingMetrics.TIME_TO_FIRST_BYTE, headersAt - sentAt);
+            }
+            // A redirect or retry sent after this response is timed from here
+            Object startAttribute = context.getAttribute(SAMPLE_START_ATTRIBUTE);
+            long startedAt = startAttribute instanceof Long ? (Long) startAttribute : sentAt;
+            context.setAttribute(SAMPLE_START_ATTRIBUTE, headersAt);
+            for (Header header : response.getHeaders(SERVER_TIMING)) {
+                recordServerTiming(endpoint, header.getValue());
+            }
+            int status = response.getStatusLine().getStatusCode();
+            HttpEntity entity = response.getEntity();
+            if (entity != null) {
+                response.setEntity(new TimedEntity(entity, endpoint, status, startedAt, headersAt));
+            } else {
+                SampleSink samples = SampleSink.active();
+                if (samples != null) {
+                    samples.record(endpoint, status, startedAt, headersAt - startedAt, 0);
+                }
+            }
+        });
+    }
+
+    /**
+     * Record each metric with a duration from one Server-Timing header value
+     */
+    static void recordServerTiming(String endpoint, String value) {
+        for (String metric : splitOutsideQuotes(value, ',')) {
+            List<String> parts = splitOutsideQuotes(metric, ';');
+            String name = parts.get(0).trim();
+            if (name.isEmpty()) {
+                continue;
+            }
+            for (int i = 1; i < parts.size(); i++) {
+                String[] parameter = parts.get(i).split("=", 2);
+                if (parameter.length == 2 && "dur".equalsIgnoreCase(parameter[0].trim())) {
+                    try {
+                        double millis = Double.parseDouble(parameter[1].trim().replace("\"", ""));
+                        PhaseTimingMetrics.getInstance().record(endpoint, PhaseTimingMetrics.SERVER_PREFIX + name,
+                                Math.max(0, Math.round(millis * 1000)));
+                    } catch (NumberFormatException e) {
+                        logger.debug("Ignoring Server-Timing metric '{}' with duration '{}'", name, parameter[1]);
+                    }
+                    break;
+                }
+            }
+        }
+    }
+
+    private static List<String> splitOutsideQuotes(String value, char separator) {
+        List<String> parts = new ArrayList<>();
+        boolean quoted = false;
+        int start = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                quoted = !quoted;
+            } else if (c == separator && !quoted) {
+                parts.add(value.substring(start, i));
+                start = i + 1;
+            }
+        }
+        parts.add(value.substring(start));
+        return parts;
+    }
+
+    private static void record(String endpoint, String phase, long nanos) {
+        PhaseTimingMetrics.getInstance().record(endpoint, phase, TimeUnit.NANOSECONDS.toMicros(nanos));
+    }
+
+    /**
+     * Entity that records the time from the response headers to the end of its body, and the
+     * response's sample once the body is done
+     */
+    private static class TimedEntity extends HttpEntityWrapper {
+        private final String endpoint;
+        private final int status;
+        private final long startedAt;
+        private final long headersAt;
+
+        TimedEntity(HttpEntity wrapped, String endpoint, int status, long startedAt, long headersAt) {
+            super(wrapped);
+            this.endpoint = endpoint;
+            this.status = status;
+            this.startedAt = startedAt;
+            this.headersAt = headersAt;
+        }
+
+        @Override
+        public InputStream getContent() throws IOException {
+            return new CountingInputStream(wrappedEntity.getContent(), bytes -> {
+                long doneAt = System.nanoTime();
+                record(endpoint, PhaseTimingMetrics.TRANSFER, doneAt - headersAt);
+                SampleSink samples = SampleSink.active();
+                if (samples != null) {
+                    samples.record(endpoint, status, startedAt, doneAt - startedAt, bytes);
+                }
+            });
+        }
+    }
+
+    private static class TimedDnsResolver implements DnsResolver {
+        @Override
+        public InetAddress[] resolve(String host) throws UnknownHostException {
+            // A new connection starts here, so anything left over belongs to an attempt that failed
+            long[] pending = pendingPhases.get();
+            pending[DNS] = -1;
+            pending[CONNECT] = -1;
+            pending[TLS] = -1;
+            long start = System.nanoTime();
+            InetAddress[] addresses = InetAddress.getAllByName(host);
+            pending[DNS] = System.nanoTime() - start;
+            return addresses;
+        }
+    }
+
+    private static class TimedPlainSocketFactory implements SchemeSocketFactory {
+        private final PlainSocketFactory delegate = PlainSocketFactory.getSocketFactory();
+
+        @Override
+        public Socket createSocket(HttpParams params) {
+            return delegate.createSocket(params);
+        }
+
+        @Override
+        public Socket connectSocket(Socket socket, InetSocketAddress remoteAddress, InetSocketAddress localAddress,
+                                    HttpParams params) throws IOException {
+            long start = System.nanoTime();
+            Socket connected = delegate.connectSocket(socket, remoteAddress, localAddress, params);
+            pendingPhases.get()[CONNECT] = System.nanoTime() - start;
+            return connected;
+        }
+
+        @Override
+        public boolean isSecure(Socket socket) {
+            return false;
+        }
+    }
+
+    /**
+     * Connects a plain socket and layers TLS on top as a separate step, so the two can be timed apart.
+     * The system SSL context is built on the first https connection rather than with the client:
+     * loading the trust store costs a few hundred milliseconds that plain-http runs never use.
+     */
+    private static class TimedTlsSocketFactory implements SchemeLayeredSocketFactory {
+        private volatile SSLSocketFactory delegate;
+
+        private SSLSocketFactory delegate() {
+            SSLSocketFactory factory = delegate;
+            if (factory == null) {
+                synchronized (this) {
+                    if (delegate == null) {
+                        delegate = SSLSocketFactory.getSystemSocketFactory();
+                    }
+                    factory = delegate;
+                }
+            }
+            return factory;
+        }
+
+        @Override
+        public Socket createSocket(HttpParams params) {
+            return new Socket();
+        }
+
+        @Override
+        public Socket connectSocket(Socket socket, InetSocketAddress remoteAddress, InetSocketAddress localAddress,
+                                    HttpParams params) throws IOException {
+            Socket sock = socket != null ? socket : new Socket();
+            if (localAddress != null) {
+                sock.setReuseAddress(HttpConnectionParams.getSoReuseaddr(params));
+                sock.bind(localAddress);
+            }
+            long[] pending = pendingPhases.get();
+            long start = System.nanoTime();
+            try {
+                sock.setSoTimeout(HttpConnectionParams.getSoTimeout(params));
+                sock.connect(remoteAddress, HttpConnectionParams.getConnectionTimeout(params));
+            } catch (SocketTimeoutException e) {
+                sock.close();
+                throw new ConnectTimeoutException("Connect to " + remoteAddress + " timed out");
+            }
+            long connected = System.nanoTime();
+            pending[CONNECT] = connected - start;
+            String host = remoteAddress instanceof HttpInetSocketAddress
+                    ? ((HttpInetSocketAddress) remoteAddress).getHttpHost().getHostName()
+                    : remoteAddress.getHostName();
+            Socket secured = delegate().createLayeredSocket(sock, host, remoteAddress.getPort(), params);
+            pending[TLS] = System.nanoTime() - connected;
+            return secured;
+        }
+
+        @Override
+        public Socket createLayeredSocket(Socket socket, String target, int port, HttpParams params) throws IOException {
+            return delegate().createLayeredSocket(socket, target, port, params);
+        }
+
+        @Override
+        public boolean isSecure(Socket socket) {
+            return delegate().isSecure(socket);
+        }
+    }
+}
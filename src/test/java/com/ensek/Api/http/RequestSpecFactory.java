@@ -0,0 +1,129 @@
+package com.ensek.Api.http;
+
+import com.ensek.Api.utils.ConfigUtils;
+import io.restassured.builder.RequestSpecBuilder;
+import io.restassured.specification.RequestSpecification;
+
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Request specification templates, built once per token / content type / accept combination and
+ * kept in a bounded concurrent map.
+ *
+ * The templates themselves never leave this class: every call returns a copy of one, which the
+ * caller owns and may add headers, a base path or anything else to without affecting other
+ * callers. Copying a built template only merges its few headers, which is cheaper than building
+ * the specification again.
+ *
+ * When the map is full an arbitrary entry is dropped before a new one is added; with the usual
+ * handful of tokens per run that never happens, it only bounds runs that mint a fresh token per
+ * virtual user.
+ */
+public final class RequestSpecFactory {
+
+    public static final String JSON = "application/json";
+    public static final String USER_AGENT = "Ensek-API-Test-Suite/1.0";
+
+    private static final int MAX_TEMPLATES = ConfigUtils.getIntProperty("http.spec.cache.size", 1024);
+    private static final ConcurrentMap<Key, RequestSpecification> templates = new ConcurrentHashMap<>();
+    private static final LongAdder builds = new LongAdder();
+
+    private RequestSpecFactory() {
+    }
+
+    /**
+     * JSON specification authorised with the given bearer token
+     */
+    public static RequestSpecification withToken(String authToken) {
+        return get(authToken, JSON, JSON);
+    }
+
+    /**
+     * JSON specification without an Authorization header
+     */
+    public static RequestSpecification withoutAuth() {
+        return get(null, JSON, JSON);
+    }
+
+    /**
+     * Specification with the given headers, a fresh copy of the matching template
+     *
+     * @param authToken bearer token, or null for no Authorization header
+     */
+    public static RequestSpecification get(String authToken, String contentType, String accept) {
+        return new RequestSpecBuilder()
+                .addRequestSpecification(template(new Key(authToken, contentType, accept)))
+                .build();
+    }
+
+    /**
+     * Number of templates built so far; stays flat once every combination has been seen
+     */
+    public static long getBuildCount() {
+        return builds.sum();
+    }
+
+    private static RequestSpecification template(Key key) {
+        RequestSpecification template = templates.get(key);
+        if (template != null) {
+            return template;
+        }
+        if (templates.size() >= MAX_TEMPLATES) {
+            Iterator<Key> keys = templates.keySet().iterator();
+            if (keys.hasNext()) {
+                templates.remove(keys.next());
+            }
+        }
+        return templates.computeIfAbsent(key, RequestSpecFactory::build);
+    }
+
+    private static RequestSpecification build(Key key) {
+        builds.increment();
+        RequestSpecBuilder builder = new RequestSpecBuilder();
+        if (key.authToken != null) {
+            builder.addHeader("Authorization", "Bearer " + key.authToken);
+        }
+        return builder
+                .addHeader("Content-Type", key.contentType)
+                .addHeader("Accept", key.accept)
+                .addHeader("User-Agent", USER_AGENT)
+                .build();
+    }
+
+    private static final class Key {
+        private final String authToken;
+        private final String contentType;
+        private final String accept;
+        private final int hash;
+
+        Key(String authToken, String contentType, String accept) {
+            this.authToken = authToken;
+            this.contentType = contentType;
+            this.accept = accept;
+            this.hash = Objects.hash(authToken, contentType, accept);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (this == other) {
+                return true;
+            }
+            if (!(other instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) other;
+            return Objects.equals(authToken, key.authToken)
+                    && Objects.equals(contentType, key.contentType)
+                    && Objects.equals(accept, key.accept);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
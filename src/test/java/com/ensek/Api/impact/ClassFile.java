@@ -0,0 +1,459 @@
+package com.ensek.Api.impact;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Just enough of a class file reader to tell what a method depends on: the constant pool, each
+ * method's bytecode, and the BootstrapMethods table so lambdas and method references resolve to
+ * their target methods.
+ *
+ * Class names are in internal form ("com/ensek/Api/utils/DataUtils").
+ */
+final class ClassFile {
+
+    private static final Pattern DESCRIPTOR_CLASS = Pattern.compile("L([\\w/$]+);");
+
+    private static final int UTF8 = 1;
+    private static final int INTEGER = 3;
+    private static final int FLOAT = 4;
+    private static final int LONG = 5;
+    private static final int DOUBLE = 6;
+    private static final int CLASS = 7;
+    private static final int STRING = 8;
+    private static final int FIELD_REF = 9;
+    private static final int METHOD_REF = 10;
+    private static final int INTERFACE_METHOD_REF = 11;
+    private static final int NAME_AND_TYPE = 12;
+    private static final int METHOD_HANDLE = 15;
+    private static final int METHOD_TYPE = 16;
+    private static final int DYNAMIC = 17;
+    private static final int INVOKE_DYNAMIC = 18;
+
+    private final String name;
+    private final byte[] bytes;
+    private final String superName;
+    private int[] tags;
+    private int[] first;
+    private int[] second;
+    private Object[] values;
+    private int[][] bootstrapMethods = new int[0][];
+    private final Map<String, byte[]> code = new LinkedHashMap<>();
+    private final Map<String, MethodDependencies> dependencies = new LinkedHashMap<>();
+
+    private ClassFile(byte[] bytes) throws IOException {
+        this.bytes = bytes;
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+        if (in.readInt() != 0xCAFEBABE) {
+            throw new IOException("Not a class file");
+        }
+        in.readUnsignedShort();
+        in.readUnsignedShort();
+        readConstantPool(in);
+        in.readUnsignedShort();
+        name = className(in.readUnsignedShort());
+        int superIndex = in.readUnsignedShort();
+        superName = superIndex == 0 ? null : className(superIndex);
+        in.skipBytes(2 * in.readUnsignedShort());
+        int fields = in.readUnsignedShort();
+        for (int i = 0; i < fields; i++) {
+            in.skipBytes(6);
+            skipAttributes(in);
+        }
+        int methods = in.readUnsignedShort();
+        for (int i = 0; i < methods; i++) {
+            in.readUnsignedShort();
+            String key = utf8(in.readUnsignedShort()) + utf8(in.readUnsignedShort());
+            int attributes = in.readUnsignedShort();
+            for (int a = 0; a < attributes; a++) {
+                String attribute = utf8(in.readUnsignedShort());
+                byte[] body = new byte[in.readInt()];
+                in.readFully(body);
+                if ("Code".equals(attribute)) {
+                    DataInputStream codeIn = new DataInputStream(new ByteArrayInputStream(body));
+                    codeIn.skipBytes(4);
+                    byte[] instructions = new byte[codeIn.readInt()];
+                    codeIn.readFully(instructions);
+                    code.put(key, instructions);
+                }
+            }
+            code.putIfAbsent(key, new byte[0]);
+        }
+        int attributes = in.readUnsignedShort();
+        for (int a = 0; a < attributes; a++) {
+            String attribute = utf8(in.readUnsignedShort());
+            int length = in.readInt();
+            if ("BootstrapMethods".equals(attribute)) {
+                bootstrapMethods = new int[in.readUnsignedShort()][];
+                for (int b = 0; b < bootstrapMethods.length; b++) {
+                    int handle = in.readUnsignedShort();
+                    int[] entry = new int[in.readUnsignedShort() + 1];
+                    entry[0] = handle;
+                    for (int arg = 1; arg < entry.length; arg++) {
+                        entry[arg] = in.readUnsignedShort();
+                    }
+                    bootstrapMethods[b] = entry;
+                }
+            } else {
+                in.skipBytes(length);
+            }
+        }
+    }
+
+    /**
+     * Read a class through the given loader, or null if it is not on the classpath
+     */
+    static ClassFile load(String internalName, ClassLoader loader) throws IOException {
+        try (InputStream in = loader.getResourceAsStream(internalName + ".class")) {
+            return in != null ? new ClassFile(in.readAllBytes()) : null;
+        }
+    }
+
+    String getName() {
+        return name;
+    }
+
+    String getSuperName() {
+        return superName;
+    }
+
+    byte[] getBytes() {
+        return bytes;
+    }
+
+    /**
+     * Methods as name + descriptor, e.g. "testBuyFuel(II)V"
+     */
+    Set<String> getMethods() {
+        return Collections.unmodifiableSet(code.keySet());
+    }
+
+    /**
+     * Whether any member carries TestNG's @Test
+     */
+    boolean isTestClass() {
+        for (int i = 1; i < tags.length; i++) {
+            if (tags[i] == UTF8 && "Lorg/testng/annotations/Test;".equals(values[i])) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Every class this class mentions, in its constant pool or in any descriptor
+     */
+    Set<String> getReferencedClasses() {
+        Set<String> classes = new LinkedHashSet<>();
+        for (int i = 1; i < tags.length; i++) {
+            if (tags[i] == CLASS) {
+                addClass(classes, className(i));
+            } else if (tags[i] == UTF8) {
+                Matcher matcher = DESCRIPTOR_CLASS.matcher((String) values[i]);
+                while (matcher.find()) {
+                    classes.add(matcher.group(1));
+                }
+            }
+        }
+        classes.remove(name);
+        return classes;
+    }
+
+    /**
+     * What one method's bytecode refers to, or null if the class has no such method
+     */
+    MethodDependencies getDependencies(String method) {
+        byte[] instructions = code.get(method);
+        if (instructions == null) {
+            return null;
+        }
+        return dependencies.computeIfAbsent(method, key -> analyse(instructions));
+    }
+
+    private MethodDependencies analyse(byte[] instructions) {
+        MethodDependencies result = new MethodDependencies();
+        result.code = instructions.clone();
+        int pc = 0;
+        while (pc < instructions.length) {
+            int opcode = instructions[pc] & 0xff;
+            switch (opcode) {
+                case 18: // ldc
+                    reference(result, instructions[pc + 1] & 0xff);
+                    result.code[pc + 1] = 0;
+                    pc += 2;
+                    break;
+                case 19: // ldc_w
+                case 20: // ldc2_w
+                case 178: // getstatic
+                case 179: // putstatic
+                case 180: // getfield
+                case 181: // putfield
+                case 182: // invokevirtual
+                case 183: // invokespecial
+                case 184: // invokestatic
+                case 187: // new
+                case 189: // anewarray
+                case 192: // checkcast
+                case 193: // instanceof
+                    reference(result, u2(instructions, pc + 1));
+                    clearIndex(result.code, pc);
+                    pc += 3;
+                    break;
+                case 185: // invokeinterface
+                case 186: // invokedynamic
+                    reference(result, u2(instructions, pc + 1));
+                    clearIndex(result.code, pc);
+                    pc += 5;
+                    break;
+                case 197: // multianewarray
+                    reference(result, u2(instructions, pc + 1));
+                    clearIndex(result.code, pc);
+                    pc += 4;
+                    break;
+                case 16: // bipush
+                case 188: // newarray
+                case 169: // ret
+                    pc += 2;
+                    break;
+                case 17: // sipush
+                case 132: // iinc
+                case 198: // ifnull
+                case 199: // ifnonnull
+                    pc += 3;
+                    break;
+                case 200: // goto_w
+                case 201: // jsr_w
+                    pc += 5;
+                    break;
+                case 170: { // tableswitch
+                    int aligned = (pc + 4) & ~3;
+                    int low = s4(instructions, aligned + 4);
+                    int high = s4(instructions, aligned + 8);
+                    pc = aligned + 12 + (high - low + 1) * 4;
+                    break;
+                }
+                case 171: { // lookupswitch
+                    int aligned = (pc + 4) & ~3;
+                    pc = aligned + 8 + s4(instructions, aligned + 4) * 8;
+                    break;
+                }
+                case 196: // wide
+                    pc += (instructions[pc + 1] & 0xff) == 132 ? 6 : 4;
+                    break;
+                default:
+                    if ((opcode >= 21 && opcode <= 25) || (opcode >= 54 && opcode <= 58)) {
+                        pc += 2; // local variable loads and stores
+                    } else if (opcode >= 153 && opcode <= 168) {
+                        pc += 3; // conditional branches, goto, jsr
+                    } else {
+                        pc += 1;
+                    }
+                    break;
+            }
+        }
+        return result;
+    }
+
+    private void reference(MethodDependencies result, int index) {
+        result.constants.add(resolve(index));
+        switch (tags[index]) {
+            case CLASS:
+                addClass(result.classes, className(index));
+                break;
+            case FIELD_REF:
+            case METHOD_REF:
+            case INTERFACE_METHOD_REF: {
+                String owner = className(first[index]);
+                if (owner.equals(name) && tags[index] != FIELD_REF) {
+                    result.calls.add(utf8(first[second[index]]) + utf8(second[second[index]]));
+                } else {
+                    addClass(result.classes, owner);
+                }
+                break;
+            }
+            case METHOD_HANDLE:
+                reference(result, second[index]);
+                break;
+            case INVOKE_DYNAMIC:
+            case DYNAMIC:
+                // Lambdas and method references: the target method is a bootstrap argument
+                for (int argument : bootstrapMethods[first[index]]) {
+                    reference(result, argument);
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Constant pool indices move whenever another method adds a constant, so they are blanked in
+     * the code that gets hashed; the constants they point at are recorded in order instead
+     */
+    private static void clearIndex(byte[] code, int pc) {
+        code[pc + 1] = 0;
+        code[pc + 2] = 0;
+    }
+
+    private static void addClass(Set<String> classes, String className) {
+        int dimensions = 0;
+        while (dimensions < className.length() && className.charAt(dimensions) == '[') {
+            dimensions++;
+        }
+        if (dimensions == 0) {
+            classes.add(className);
+        } else if (className.charAt(dimensions) == 'L') {
+            classes.add(className.substring(dimensions + 1, className.length() - 1));
+        }
+    }
+
+    /**
+     * Constant pool entry as text, so a changed literal or call target changes a fingerprint
+     * even when the bytecode referring to it is byte-for-byte the same
+     */
+    private String resolve(int index) {
+        switch (tags[index]) {
+            case UTF8:
+            case INTEGER:
+            case FLOAT:
+            case LONG:
+            case DOUBLE:
+                return String.valueOf(values[index]);
+            case CLASS:
+                return className(index);
+            case STRING:
+            case METHOD_TYPE:
+                return utf8(first[index]);
+            case FIELD_REF:
+            case METHOD_REF:
+            case INTERFACE_METHOD_REF:
+                return className(first[index]) + "." + resolve(second[index]);
+            case NAME_AND_TYPE:
+                return utf8(first[index]) + ":" + utf8(second[index]);
+            case METHOD_HANDLE:
+                return first[index] + "#" + resolve(second[index]);
+            case DYNAMIC:
+            case INVOKE_DYNAMIC:
+                return "indy:" + resolve(second[index]);
+            default:
+                return "#" + index;
+        }
+    }
+
+    private void readConstantPool(DataInputStream in) throws IOException {
+        int count = in.readUnsignedShort();
+        tags = new int[count];
+        first = new int[count];
+        second = new int[count];
+        values = new Object[count];
+        for (int i = 1; i < count; i++) {
+            int tag = in.readUnsignedByte();
+            tags[i] = tag;
+            switch (tag) {
+                case UTF8:
+                    values[i] = in.readUTF();
+                    break;
+                case INTEGER:
+                    values[i] = in.readInt();
+                    break;
+                case FLOAT:
+                    values[i] = in.readFloat();
+                    break;
+                case LONG:
+                    values[i] = in.readLong();
+                    i++;
+                    break;
+                case DOUBLE:
+                    values[i] = in.readDouble();
+                    i++;
+                    break;
+                case METHOD_HANDLE:
+                    first[i] = in.readUnsignedByte();
+                    second[i] = in.readUnsignedShort();
+                    break;
+                case FIELD_REF:
+                case METHOD_REF:
+                case INTERFACE_METHOD_REF:
+                case NAME_AND_TYPE:
+                case DYNAMIC:
+                case INVOKE_DYNAMIC:
+                    first[i] = in.readUnsignedShort();
+                    second[i] = in.readUnsignedShort();
+                    break;
+                default:
+                    // Class, String, MethodType, Module and Package hold a single index
+                    first[i] = in.readUnsignedShort();
+                    break;
+            }
+        }
+    }
+
+    private static void skipAttributes(DataInputStream in) throws IOException {
+        int attributes = in.readUnsignedShort();
+        for (int a = 0; a < attributes; a++) {
+            in.readUnsignedShort();
+            in.skipBytes(in.readInt());
+        }
+    }
+
+    private String utf8(int index) {
+        return (String) values[index];
+    }
+
+    private String className(int index) {
+        return utf8(first[index]);
+    }
+
+    private static int u2(byte[] bytes, int offset) {
+        return ((bytes[offset] & 0xff) << 8) | (bytes[offset + 1] & 0xff);
+    }
+
+    private static int s4(byte[] bytes, int offset) {
+        return (bytes[offset] << 24) | ((bytes[offset + 1] & 0xff) << 16)
+                | ((bytes[offset + 2] & 0xff) << 8) | (bytes[offset + 3] & 0xff);
+    }
+
+    /**
+     * Classes, same-class methods and constants referenced from one method's bytecode
+     */
+    static final class MethodDependencies {
+        private final Set<String> classes = new LinkedHashSet<>();
+        private final Set<String> calls = new LinkedHashSet<>();
+        private final List<String> constants = new ArrayList<>();
+        private byte[] code;
+
+        Set<String> getClasses() {
+            return classes;
+        }
+
+        /**
+         * Methods of the same class invoked or captured as lambdas, as name + descriptor
+         */
+        Set<String> getCalls() {
+            return calls;
+        }
+
+        List<String> getConstants() {
+            return constants;
+        }
+
+        /**
+         * The method's bytecode with constant pool indices blanked, empty for abstract and
+         * native methods
+         */
+        byte[] getCode() {
+            return code;
+        }
+    }
+}
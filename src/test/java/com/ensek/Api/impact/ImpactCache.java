@@ -0,0 +1,117 @@
+package com.ensek.Api.impact;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Last known outcome of each test method with the fingerprint it ran against, kept as JSON on
+ * disk between runs. Keys are "fully.qualified.Class#method".
+ */
+final class ImpactCache {
+
+    enum Status {
+        PASS, FAIL, SKIP;
+
+        /**
+         * Outcome over several invocations (data provider rows, or the same method in several
+         * &lt;test&gt; blocks): any failure wins, then any skip
+         */
+        Status merge(Status other) {
+            return other == null ? this : values()[Math.max(ordinal(), other.ordinal())];
+        }
+    }
+
+    static final class Entry {
+        private final String fingerprint;
+        private final Status status;
+        private final long finishedAt;
+
+        Entry(String fingerprint, Status status, long finishedAt) {
+            this.fingerprint = fingerprint;
+            this.status = status;
+            this.finishedAt = finishedAt;
+        }
+
+        String getFingerprint() {
+            return fingerprint;
+        }
+
+        Status getStatus() {
+            return status;
+        }
+
+        long getFinishedAt() {
+            return finishedAt;
+        }
+    }
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final Path file;
+    private final Map<String, Entry> entries = new TreeMap<>();
+
+    private ImpactCache(Path file) {
+        this.file = file;
+    }
+
+    /**
+     * Load the cache, starting empty if the file is missing or unreadable
+     */
+    static ImpactCache load(Path file) {
+        ImpactCache cache = new ImpactCache(file);
+        if (!Files.isRegularFile(file)) {
+            return cache;
+        }
+        try {
+            Iterator<Map.Entry<String, JsonNode>> methods = objectMapper.readTree(file.toFile()).path("methods").fields();
+            while (methods.hasNext()) {
+                Map.Entry<String, JsonNode> method = methods.next();
+                JsonNode node = method.getValue();
+                cache.entries.put(method.getKey(), new Entry(node.path("fingerprint").asText(),
+                        Status.valueOf(node.path("status").asText("FAIL")), node.path("finishedAt").asLong()));
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            // A corrupt cache only costs one full run
+            cache.entries.clear();
+        }
+        return cache;
+    }
+
+    Entry get(String method) {
+        return entries.get(method);
+    }
+
+    void put(String method, Entry entry) {
+        entries.put(method, entry);
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    /**
+     * Write through a temporary file so an interrupted run never leaves a half-written cache
+     */
+    void save() throws IOException {
+        ObjectNode root = objectMapper.createObjectNode();
+        ObjectNode methods = root.putObject("methods");
+        entries.forEach((method, entry) -> methods.putObject(method)
+                .put("fingerprint", entry.fingerprint)
+                .put("status", entry.status.name())
+                .put("finishedAt", entry.finishedAt));
+        Path parent = file.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path temporary = Files.createTempFile(parent, "impact", ".json");
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(temporary.toFile(), root);
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
@@ -0,0 +1,266 @@
+package com.ensek.Api.impact;
+
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.AfterGroups;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.AfterSuite;
+import org.testng.annotations.AfterTest;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeGroups;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.BeforeSuite;
+import org.testng.annotations.BeforeTest;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Fingerprints of everything a test method's outcome depends on that lives in this repository.
+ *
+ * A method's fingerprint covers:
+ * <ul>
+ *     <li>its own bytecode, and that of the data provider, configuration methods, constructors
+ *     and every method of the test class they call or capture as a lambda</li>
+ *     <li>the class files of every project class reachable from those methods, and from the
+ *     test class's superclasses, following references transitively</li>
+ *     <li>the test resources (config.properties, schemas, logback settings) and pom.xml</li>
+ * </ul>
+ * Editing a helper in DataUtils therefore changes the fingerprints of the tests that reach
+ * DataUtils and no others, while editing config.properties changes all of them.
+ */
+final class TestFingerprints {
+
+    private static final List<Class<? extends Annotation>> CONFIGURATION_ANNOTATIONS = Arrays.asList(
+            BeforeSuite.class, AfterSuite.class, BeforeTest.class, AfterTest.class, BeforeGroups.class,
+            AfterGroups.class, BeforeClass.class, AfterClass.class, BeforeMethod.class, AfterMethod.class);
+
+    private final ClassLoader loader;
+    private final List<String> projectPrefixes;
+    private final Map<String, ClassFile> classes = new HashMap<>();
+    private final Map<String, Set<String>> closures = new HashMap<>();
+    private String resourceFingerprint;
+
+    /**
+     * @param projectPackages packages whose classes are part of the code under fingerprint, e.g. "com.ensek"
+     */
+    TestFingerprints(ClassLoader loader, List<String> projectPackages) {
+        this.loader = loader;
+        this.projectPrefixes = projectPackages.stream()
+                .map(pkg -> pkg.trim().replace('.', '/') + "/")
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Fingerprint of one test method, as a hex SHA-256
+     */
+    String of(Method testMethod) {
+        Class<?> testClass = testMethod.getDeclaringClass();
+        MessageDigest digest = sha256();
+        update(digest, testMethod.getAnnotation(Test.class).toString());
+
+        ClassFile classFile = classFile(internalName(testClass));
+        Set<String> roots = new TreeSet<>();
+        roots.add(testMethod.getName());
+        roots.add("<init>");
+        roots.add("<clinit>");
+        Test test = testMethod.getAnnotation(Test.class);
+        boolean externalDataProvider = test.dataProviderClass() != Object.class;
+        if (!test.dataProvider().isEmpty() && !externalDataProvider) {
+            roots.add(dataProviderMethod(testClass, test.dataProvider()));
+        }
+        for (Method method : testClass.getDeclaredMethods()) {
+            if (CONFIGURATION_ANNOTATIONS.stream().anyMatch(method::isAnnotationPresent)) {
+                roots.add(method.getName());
+            }
+        }
+
+        // Methods of the test class reachable from the roots, then the project classes they touch
+        Set<String> reachedMethods = new TreeSet<>();
+        Set<String> reachedClasses = new TreeSet<>();
+        Deque<String> pending = new ArrayDeque<>();
+        for (String method : classFile.getMethods()) {
+            if (roots.contains(method.substring(0, method.indexOf('(')))) {
+                pending.add(method);
+            }
+        }
+        while (!pending.isEmpty()) {
+            String method = pending.poll();
+            ClassFile.MethodDependencies dependencies = classFile.getDependencies(method);
+            if (dependencies == null || !reachedMethods.add(method)) {
+                continue;
+            }
+            pending.addAll(dependencies.getCalls());
+            for (String referenced : dependencies.getClasses()) {
+                reachedClasses.addAll(closure(referenced));
+            }
+        }
+        if (externalDataProvider) {
+            reachedClasses.addAll(closure(internalName(test.dataProviderClass())));
+        }
+        String superName = classFile.getSuperName();
+        if (superName != null) {
+            reachedClasses.addAll(closure(superName));
+        }
+        // Other tests in the class only count through the methods they share with this one
+        reachedClasses.remove(classFile.getName());
+
+        for (String method : reachedMethods) {
+            ClassFile.MethodDependencies dependencies = classFile.getDependencies(method);
+            update(digest, method);
+            digest.update(dependencies.getCode());
+            dependencies.getConstants().forEach(constant -> update(digest, constant));
+        }
+        for (String reached : reachedClasses) {
+            update(digest, reached);
+            digest.update(classFile(reached).getBytes());
+        }
+        update(digest, resourceFingerprint());
+        return hex(digest.digest());
+    }
+
+    /**
+     * Names of the project classes reachable from the given class, including itself. Test
+     * classes are not followed, so a nested class pointing back at its test class does not pull
+     * in what every other test of that class uses.
+     */
+    private Set<String> closure(String className) {
+        if (!isProjectClass(className)) {
+            return Set.of();
+        }
+        Set<String> cached = closures.get(className);
+        if (cached != null) {
+            return cached;
+        }
+        Set<String> reached = new TreeSet<>();
+        Deque<String> pending = new ArrayDeque<>();
+        pending.add(className);
+        while (!pending.isEmpty()) {
+            String next = pending.poll();
+            if (!isProjectClass(next) || classFile(next) == null || classFile(next).isTestClass()
+                    || !reached.add(next)) {
+                continue;
+            }
+            pending.addAll(classFile(next).getReferencedClasses());
+            String superName = classFile(next).getSuperName();
+            if (superName != null) {
+                pending.add(superName);
+            }
+        }
+        closures.put(className, reached);
+        return reached;
+    }
+
+    /**
+     * Everything under the test resources output directory plus pom.xml, hashed once per run
+     */
+    private String resourceFingerprint() {
+        if (resourceFingerprint != null) {
+            return resourceFingerprint;
+        }
+        Map<String, byte[]> files = new TreeMap<>();
+        try {
+            URL config = loader.getResource("config.properties");
+            if (config != null && "file".equals(config.getProtocol())) {
+                Path root = Paths.get(config.toURI()).getParent();
+                try (Stream<Path> paths = Files.walk(root)) {
+                    for (Path path : (Iterable<Path>) paths::iterator) {
+                        if (Files.isRegularFile(path) && !path.toString().endsWith(".class")) {
+                            files.put(root.relativize(path).toString(), Files.readAllBytes(path));
+                        }
+                    }
+                }
+            }
+            Path pom = Paths.get("pom.xml");
+            if (Files.isRegularFile(pom)) {
+                files.put("pom.xml", Files.readAllBytes(pom));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to fingerprint test resources", e);
+        } catch (URISyntaxException e) {
+            throw new IllegalStateException("Unexpected test resource location", e);
+        }
+        MessageDigest digest = sha256();
+        files.forEach((name, content) -> {
+            update(digest, name);
+            digest.update(content);
+        });
+        resourceFingerprint = hex(digest.digest());
+        return resourceFingerprint;
+    }
+
+    private static String dataProviderMethod(Class<?> testClass, String dataProvider) {
+        for (Method method : testClass.getMethods()) {
+            DataProvider annotation = method.getAnnotation(DataProvider.class);
+            if (annotation != null && (dataProvider.equals(annotation.name())
+                    || (annotation.name().isEmpty() && dataProvider.equals(method.getName())))) {
+                return method.getName();
+            }
+        }
+        return dataProvider;
+    }
+
+    private boolean isProjectClass(String className) {
+        return projectPrefixes.stream().anyMatch(className::startsWith);
+    }
+
+    private ClassFile classFile(String className) {
+        if (classes.containsKey(className)) {
+            return classes.get(className);
+        }
+        try {
+            ClassFile classFile = ClassFile.load(className, loader);
+            classes.put(className, classFile);
+            return classFile;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read class " + className, e);
+        }
+    }
+
+    private static String internalName(Class<?> type) {
+        return type.getName().replace('.', '/');
+    }
+
+    private static void update(MessageDigest digest, String text) {
+        digest.update(text.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static String hex(byte[] bytes) {
+        StringBuilder text = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            text.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,159 @@
+package com.ensek.Api.impact;
+
+import org.testng.SkipException;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.testng.Assert.*;
+
+/**
+ * Offline checks of what does and does not change a test's fingerprint. Each case compiles a
+ * small fixture project before and after an edit and compares the fingerprints of its tests.
+ */
+public class TestFingerprintsTest {
+
+    private static final String HELPER = "package fixture;\n"
+            + "public class Helper {\n"
+            + "    public static String greet(String name) { return \"hello \" + name; }\n"
+            + "}\n";
+    private static final String OTHER = "package fixture;\n"
+            + "public class Other {\n"
+            + "    public static int answer() { return 42; }\n"
+            + "}\n";
+    private static final String SAMPLE_TEST = "package fixture;\n"
+            + "import org.testng.annotations.Test;\n"
+            + "public class SampleTest {\n"
+            + "%s"
+            + "    @Test public void usesHelper() { Helper.greet(\"%s\"); }\n"
+            + "    @Test public void usesOther() { Other.answer(); }\n"
+            + "}\n";
+
+    private JavaCompiler compiler;
+    private Path workDir;
+    private final List<URLClassLoader> loaders = new ArrayList<>();
+
+    @BeforeClass(alwaysRun = true)
+    public void setUp() throws IOException {
+        compiler = ToolProvider.getSystemJavaCompiler();
+        if (compiler == null) {
+            throw new SkipException("Fingerprint tests compile fixtures and need a JDK");
+        }
+        workDir = Files.createTempDirectory("fingerprints");
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void tearDown() throws IOException {
+        for (URLClassLoader loader : loaders) {
+            loader.close();
+        }
+        if (workDir != null) {
+            try (Stream<Path> paths = Files.walk(workDir)) {
+                paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+            }
+        }
+    }
+
+    @Test(groups = {"Unit"})
+    public void testSameClassesGiveSameFingerprint() throws Exception {
+        ClassLoader first = compile(HELPER, OTHER, sampleTest("", "a"));
+        ClassLoader second = compile(HELPER, OTHER, sampleTest("", "a"));
+
+        assertEquals(fingerprint(first, "usesHelper"), fingerprint(second, "usesHelper"));
+        assertEquals(fingerprint(first, "usesOther"), fingerprint(second, "usesOther"));
+        assertNotEquals(fingerprint(first, "usesHelper"), fingerprint(first, "usesOther"));
+    }
+
+    @Test(groups = {"Unit"})
+    public void testHelperEditChangesOnlyTestsThatReachIt() throws Exception {
+        ClassLoader before = compile(HELPER, OTHER, sampleTest("", "a"));
+        ClassLoader after = compile(HELPER.replace("hello ", "hi "), OTHER, sampleTest("", "a"));
+
+        assertNotEquals(fingerprint(before, "usesHelper"), fingerprint(after, "usesHelper"));
+        assertEquals(fingerprint(before, "usesOther"), fingerprint(after, "usesOther"));
+    }
+
+    @Test(groups = {"Unit"})
+    public void testLiteralEditChangesOnlyThatTest() throws Exception {
+        ClassLoader before = compile(HELPER, OTHER, sampleTest("", "a"));
+        ClassLoader after = compile(HELPER, OTHER, sampleTest("", "b"));
+
+        assertNotEquals(fingerprint(before, "usesHelper"), fingerprint(after, "usesHelper"));
+        assertEquals(fingerprint(before, "usesOther"), fingerprint(after, "usesOther"));
+    }
+
+    @Test(groups = {"Unit"})
+    public void testUnreachedMethodDoesNotChangeFingerprint() throws Exception {
+        // Declared first, so its constants shift every constant pool index the tests use
+        String unrelated = "    public void unrelated() { System.out.println(\"new constant\"); }\n";
+        ClassLoader before = compile(HELPER, OTHER, sampleTest("", "a"));
+        ClassLoader after = compile(HELPER, OTHER, sampleTest(unrelated, "a"));
+
+        assertEquals(fingerprint(before, "usesHelper"), fingerprint(after, "usesHelper"));
+        assertEquals(fingerprint(before, "usesOther"), fingerprint(after, "usesOther"));
+    }
+
+    @Test(groups = {"Unit"})
+    public void testConfigurationMethodChangesEveryTest() throws Exception {
+        String setUp = "    @org.testng.annotations.BeforeMethod public void setUp() { Other.answer(); }\n";
+        ClassLoader before = compile(HELPER, OTHER, sampleTest("", "a"));
+        ClassLoader after = compile(HELPER, OTHER, sampleTest(setUp, "a"));
+
+        assertNotEquals(fingerprint(before, "usesHelper"), fingerprint(after, "usesHelper"));
+        assertNotEquals(fingerprint(before, "usesOther"), fingerprint(after, "usesOther"));
+    }
+
+    private static String sampleTest(String extraMembers, String literal) {
+        return String.format(SAMPLE_TEST, extraMembers, literal);
+    }
+
+    private static String fingerprint(ClassLoader loader, String testMethod) throws Exception {
+        Class<?> testClass = loader.loadClass("fixture.SampleTest");
+        return new TestFingerprints(loader, List.of("fixture")).of(testClass.getMethod(testMethod));
+    }
+
+    /**
+     * Compile the fixture sources into a fresh directory and load them in a loader of their own
+     */
+    private ClassLoader compile(String helper, String other, String sampleTest) throws Exception {
+        Path dir = Files.createTempDirectory(workDir, "fixture");
+        Map<String, String> sources = new LinkedHashMap<>();
+        sources.put("Helper", helper);
+        sources.put("Other", other);
+        sources.put("SampleTest", sampleTest);
+        List<String> arguments = new ArrayList<>(List.of("-d", dir.toString(), "-cp", testNgLocation()));
+        for (Map.Entry<String, String> source : sources.entrySet()) {
+            Path file = dir.resolve("src").resolve("fixture").resolve(source.getKey() + ".java");
+            Files.createDirectories(file.getParent());
+            Files.writeString(file, source.getValue());
+            arguments.add(file.toString());
+        }
+        ByteArrayOutputStream errors = new ByteArrayOutputStream();
+        int status = compiler.run(null, null, errors, arguments.toArray(new String[0]));
+        assertEquals(status, 0, "Fixture did not compile: " + errors);
+
+        URLClassLoader loader = new URLClassLoader(new URL[]{dir.toUri().toURL()}, getClass().getClassLoader());
+        loaders.add(loader);
+        return loader;
+    }
+
+    private static String testNgLocation() throws Exception {
+        return Paths.get(Test.class.getProtectionDomain().getCodeSource().getLocation().toURI()).toString();
+    }
+}
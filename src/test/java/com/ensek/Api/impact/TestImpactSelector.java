@@ -0,0 +1,243 @@
+package com.ensek.Api.impact;
+
+import com.ensek.Api.utils.ConfigUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testng.IAnnotationTransformer;
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
+import org.testng.ITestListener;
+import org.testng.ITestResult;
+import org.testng.annotations.ITestAnnotation;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Test-impact-aware selection: re-runs only the test methods whose inputs changed since they
+ * last passed, and reuses the cached pass for the rest.
+ *
+ * A method runs when it has no cached result, its last result was not a pass, its
+ * {@link TestFingerprints fingerprint} changed, the cached pass is older than
+ * {@code impact.max.age.hours}, or it belongs to one of {@code impact.always.run.groups}. Every
+ * suite here talks to the live API, so that age limit and group list are the override for
+ * results that can change without any change in this repository; {@code -Dimpact.force=true}
+ * runs everything and refreshes the cache.
+ *
+ * Selection is closed over dependsOnMethods / dependsOnGroups in both directions: a selected
+ * test brings the tests it depends on (they build the state it checks, e.g. reset then buy) and
+ * the tests depending on it. Methods that are not selected are disabled, so they do not appear
+ * in the reports at all; the log lists them.
+ *
+ * Enabled with the impact Maven profile: {@code mvn test -Pimpact}.
+ */
+public class TestImpactSelector implements IAnnotationTransformer, ITestListener, ISuiteListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(TestImpactSelector.class);
+
+    private static ImpactCache cache;
+    private static TestFingerprints fingerprints;
+    private static final Map<Class<?>, Set<String>> selections = new HashMap<>();
+    private static final Map<String, String> currentFingerprints = new HashMap<>();
+    private static final Map<String, ImpactCache.Status> outcomes = new LinkedHashMap<>();
+
+    @Override
+    @SuppressWarnings("rawtypes")
+    public void transform(ITestAnnotation annotation, Class testClass, Constructor testConstructor, Method testMethod) {
+        if (testMethod == null) {
+            return;
+        }
+        if (!select(testMethod.getDeclaringClass()).contains(testMethod.getName())) {
+            annotation.setEnabled(false);
+        }
+    }
+
+    @Override
+    public void onTestSuccess(ITestResult result) {
+        record(result, ImpactCache.Status.PASS);
+    }
+
+    @Override
+    public void onTestFailure(ITestResult result) {
+        record(result, ImpactCache.Status.FAIL);
+    }
+
+    @Override
+    public void onTestFailedButWithinSuccessPercentage(ITestResult result) {
+        record(result, ImpactCache.Status.FAIL);
+    }
+
+    @Override
+    public void onTestSkipped(ITestResult result) {
+        record(result, ImpactCache.Status.SKIP);
+    }
+
+    @Override
+    public void onFinish(ISuite suite) {
+        synchronized (TestImpactSelector.class) {
+            if (cache == null || outcomes.isEmpty()) {
+                return;
+            }
+            long now = System.currentTimeMillis();
+            outcomes.forEach((key, status) -> {
+                String fingerprint = currentFingerprints.get(key);
+                if (fingerprint != null) {
+                    cache.put(key, new ImpactCache.Entry(fingerprint, status, now));
+                }
+            });
+            outcomes.clear();
+            try {
+                cache.save();
+                logger.info("Test impact cache updated: {} methods", cache.size());
+            } catch (IOException e) {
+                logger.warn("Could not save the test impact cache: {}", e.getMessage());
+            }
+        }
+    }
+
+    private static void record(ITestResult result, ImpactCache.Status status) {
+        String key = key(result.getMethod().getConstructorOrMethod().getMethod());
+        synchronized (TestImpactSelector.class) {
+            outcomes.merge(key, status, ImpactCache.Status::merge);
+        }
+    }
+
+    /**
+     * Names of the test methods of a class that should run, decided once per class
+     */
+    private static synchronized Set<String> select(Class<?> testClass) {
+        Set<String> selected = selections.get(testClass);
+        if (selected != null) {
+            return selected;
+        }
+        if (cache == null) {
+            cache = ImpactCache.load(cacheFile());
+            fingerprints = new TestFingerprints(TestImpactSelector.class.getClassLoader(),
+                    list(ConfigUtils.getProperty("impact.project.packages", "com.ensek")));
+        }
+        boolean force = Boolean.parseBoolean(setting("impact.force", "false"));
+        Set<String> alwaysRunGroups = new HashSet<>(list(setting("impact.always.run.groups", "")));
+        long maxAgeMillis = TimeUnit.HOURS.toMillis(ConfigUtils.getIntProperty("impact.max.age.hours", 24));
+        long now = System.currentTimeMillis();
+
+        Map<String, Method> tests = new LinkedHashMap<>();
+        for (Method method : testClass.getMethods()) {
+            if (method.isAnnotationPresent(Test.class)) {
+                tests.put(method.getName(), method);
+            }
+        }
+
+        selected = new TreeSet<>();
+        Map<String, String> reasons = new LinkedHashMap<>();
+        for (Method method : tests.values()) {
+            String key = key(method);
+            String fingerprint = fingerprints.of(method);
+            currentFingerprints.put(key, fingerprint);
+            ImpactCache.Entry entry = cache.get(key);
+            String reason = null;
+            if (force) {
+                reason = "forced";
+            } else if (entry == null) {
+                reason = "no cached result";
+            } else if (!entry.getFingerprint().equals(fingerprint)) {
+                reason = "inputs changed";
+            } else if (entry.getStatus() != ImpactCache.Status.PASS) {
+                reason = "last run " + entry.getStatus();
+            } else if (now - entry.getFinishedAt() > maxAgeMillis) {
+                reason = "cached pass expired";
+            } else if (Arrays.stream(method.getAnnotation(Test.class).groups()).anyMatch(alwaysRunGroups::contains)) {
+                reason = "always-run group";
+            }
+            if (reason != null) {
+                selected.add(method.getName());
+                reasons.put(method.getName(), reason);
+            }
+        }
+
+        // Keep dependency chains whole so a selected test never depends on a disabled one
+        boolean grew = true;
+        while (grew) {
+            grew = false;
+            for (Method method : tests.values()) {
+                for (String dependency : dependencies(method, tests)) {
+                    if (selected.contains(method.getName()) && selected.add(dependency)) {
+                        reasons.put(dependency, "needed by " + method.getName());
+                        grew = true;
+                    } else if (selected.contains(dependency) && selected.add(method.getName())) {
+                        reasons.put(method.getName(), "depends on " + dependency);
+                        grew = true;
+                    }
+                }
+            }
+        }
+
+        Set<String> reused = new TreeSet<>(tests.keySet());
+        reused.removeAll(selected);
+        logger.info("Test impact selection for {}: running {} of {} test methods", testClass.getSimpleName(),
+                selected.size(), tests.size());
+        reasons.forEach((method, reason) -> logger.info("  run    {} ({})", method, reason));
+        reused.forEach(method -> logger.info("  cached {} (unchanged, passed)", method));
+
+        Set<String> result = Collections.unmodifiableSet(selected);
+        selections.put(testClass, result);
+        return result;
+    }
+
+    /**
+     * Test methods of the same class that the given method depends on, by name or through groups
+     */
+    private static Set<String> dependencies(Method method, Map<String, Method> tests) {
+        Test test = method.getAnnotation(Test.class);
+        Set<String> dependencies = new TreeSet<>();
+        for (String dependency : test.dependsOnMethods()) {
+            dependencies.add(dependency.substring(dependency.lastIndexOf('.') + 1));
+        }
+        List<String> groups = Arrays.asList(test.dependsOnGroups());
+        if (!groups.isEmpty()) {
+            for (Method candidate : tests.values()) {
+                if (Arrays.stream(candidate.getAnnotation(Test.class).groups()).anyMatch(groups::contains)) {
+                    dependencies.add(candidate.getName());
+                }
+            }
+        }
+        dependencies.retainAll(tests.keySet());
+        return dependencies;
+    }
+
+    private static String key(Method method) {
+        return method.getDeclaringClass().getName() + "#" + method.getName();
+    }
+
+    private static Path cacheFile() {
+        return Paths.get(ConfigUtils.getProperty("impact.cache.file", ".test-impact/results.json"));
+    }
+
+    /**
+     * System property if set (mvn test -Pimpact -Dkey=value), otherwise config.properties
+     */
+    private static String setting(String key, String defaultValue) {
+        return System.getProperty(key, ConfigUtils.getProperty(key, defaultValue));
+    }
+
+    private static List<String> list(String value) {
+        return Arrays.stream(value.split(","))
+                .map(String::trim)
+                .filter(item -> !item.isEmpty())
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,324 @@
+package com.ensek.Api.load;
+
+import com.ensek.Api.metrics.LatencyHistogram;
+import com.ensek.Api.stub.EnsekStubServer;
+import com.ensek.Api.utils.ConfigUtils;
+import com.ensek.Api.utils.RestAssuredUtils;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Closed-loop capacity search: runs the load scenario at increasing concurrency until adding
+ * workers stops paying off, and reports the sustainable capacity.
+ *
+ * Each step is a full {@link LoadRunner} run with a rate of 0, so throughput is whatever the
+ * server delivers to that many back-to-back workers. A step is the knee when its throughput rose
+ * by less than tune.min.throughput.gain.percent over the previous step while its p99 rose by more
+ * than tune.max.p99.growth.percent: the extra workers only queue. A step that exceeds the error
+ * rate or p99 limit ends the search as well. The capacity is the step before the one that ended
+ * the search (or the last step if none did), and the recommended client settings are derived
+ * from it. The steps are logged and written to {@code target/load-reports}.
+ *
+ * Requests bypass the energy catalogue cache and the circuit breaker: cache hits and calls
+ * refused by an open circuit return at once, and would move the knee.
+ *
+ * Against the local stub (--stub) its stock is restored every second, so a long BUY step does
+ * not turn into a run of 409s; against the real API, keep steps short or reset between runs.
+ *
+ * Usage: CapacityTuner [--stub]
+ */
+public class CapacityTuner {
+
+    private static final Logger logger = LoggerFactory.getLogger(CapacityTuner.class);
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final LoadScenario template;
+    private int startConcurrency = ConfigUtils.getIntProperty("tune.start.concurrency", 1);
+    private int maxConcurrency = ConfigUtils.getIntProperty("tune.max.concurrency", 64);
+    private double stepFactor = Double.parseDouble(ConfigUtils.getProperty("tune.step.factor", "1.5"));
+    private int warmupSeconds = ConfigUtils.getIntProperty("tune.warmup.seconds", 5);
+    private double minThroughputGain = Double.parseDouble(ConfigUtils.getProperty("tune.min.throughput.gain.percent", "5"));
+    private double maxP99Growth = Double.parseDouble(ConfigUtils.getProperty("tune.max.p99.growth.percent", "20"));
+    private double maxErrorRate = Double.parseDouble(ConfigUtils.getProperty("tune.max.error.rate.percent", "1"));
+    private double p99LimitMillis = Double.parseDouble(ConfigUtils.getProperty("tune.p99.limit.ms", "0"));
+    private double headroom = Double.parseDouble(ConfigUtils.getProperty("tune.headroom.percent", "80"));
+    private EnsekStubServer stub;
+
+    public CapacityTuner(LoadScenario template) {
+        this.template = template;
+    }
+
+    /**
+     * Scenario from the load.* properties, with the endpoint and step duration from tune.*
+     */
+    public static LoadScenario scenarioFromConfig() {
+        LoadScenario scenario = LoadScenario.fromConfig();
+        scenario.setEndpoint(Endpoint.valueOf(ConfigUtils.getProperty("tune.endpoint", "BUY").toUpperCase()));
+        scenario.setDurationSeconds(ConfigUtils.getIntProperty("tune.step.seconds", 10));
+        scenario.setRatePerSecond(0);
+        return scenario;
+    }
+
+    /**
+     * Concurrency range to search, from {@code start} up to at most {@code max}
+     */
+    public CapacityTuner setConcurrencyRange(int start, int max) {
+        this.startConcurrency = start;
+        this.maxConcurrency = max;
+        return this;
+    }
+
+    /**
+     * Each step's concurrency is the previous one times this factor, and at least one more
+     */
+    public CapacityTuner setStepFactor(double stepFactor) {
+        this.stepFactor = stepFactor;
+        return this;
+    }
+
+    /**
+     * Discarded run at the start concurrency first, so the first step is not charged for JIT warm-up
+     */
+    public CapacityTuner setWarmupSeconds(int warmupSeconds) {
+        this.warmupSeconds = warmupSeconds;
+        return this;
+    }
+
+    /**
+     * Run against this stub, restoring its stock every second, instead of the scenario's base URL
+     */
+    public CapacityTuner setStub(EnsekStubServer stub) {
+        this.stub = stub;
+        return this;
+    }
+
+    /**
+     * Step up the concurrency until the knee, a limit or tune.max.concurrency
+     *
+     * @return every step run, the last one being the step that ended the search if any did
+     */
+    public List<Step> run() {
+        RestAssuredUtils.setupMeasurementConfig();
+        if (warmupSeconds > 0) {
+            LoadScenario warmup = scenarioFor(startConcurrency, "warmup");
+            warmup.setDurationSeconds(warmupSeconds);
+            runStep(warmup);
+        }
+
+        List<Step> steps = new ArrayList<>();
+        int concurrency = Math.max(1, startConcurrency);
+        while (concurrency <= maxConcurrency) {
+            Step step = new Step(concurrency, runStep(scenarioFor(concurrency, "c" + concurrency)));
+            Step previous = steps.isEmpty() ? null : steps.get(steps.size() - 1);
+            steps.add(step);
+            step.verdict = verdict(previous, step);
+            logger.info("Concurrency {}: {} req/s, p99 {} ms, errors {}%{}", concurrency,
+                    String.format("%.1f", step.getThroughputPerSecond()), String.format("%.2f", step.getP99Millis()),
+                    String.format("%.1f", step.getErrorRatePercent()), step.verdict == null ? "" : " - " + step.verdict);
+            if (step.verdict != null) {
+                break;
+            }
+            concurrency = Math.max(concurrency + 1, (int) Math.ceil(concurrency * stepFactor));
+        }
+        return steps;
+    }
+
+    /**
+     * Why this step ends the search, or null to carry on
+     */
+    private String verdict(Step previous, Step step) {
+        if (step.getErrorRatePercent() > maxErrorRate) {
+            return String.format("error rate above %.1f%%", maxErrorRate);
+        }
+        if (p99LimitMillis > 0 && step.getP99Millis() > p99LimitMillis) {
+            return String.format("p99 above %.0f ms", p99LimitMillis);
+        }
+        if (previous != null) {
+            step.throughputGainPercent = percentChange(previous.getThroughputPerSecond(), step.getThroughputPerSecond());
+            step.p99GrowthPercent = percentChange(previous.getP99Millis(), step.getP99Millis());
+            if (step.throughputGainPercent < minThroughputGain && step.p99GrowthPercent > maxP99Growth) {
+                return "knee";
+            }
+        }
+        return null;
+    }
+
+    private LoadScenario scenarioFor(int concurrency, String suffix) {
+        LoadScenario scenario = template.copy();
+        scenario.setName(template.getName() + "-" + suffix);
+        scenario.setConcurrency(concurrency);
+        scenario.setRatePerSecond(0);
+        scenario.setEnergyCacheEnabled(false);
+        if (stub != null) {
+            scenario.setBaseUrl(stub.getBaseUrl());
+        }
+        return scenario;
+    }
+
+    private LoadResult runStep(LoadScenario scenario) {
+        if (stub == null) {
+            return new LoadRunner(scenario).run();
+        }
+        stub.reset();
+        return new LoadRunner(scenario).run(snapshot -> stub.reset(), 1000);
+    }
+
+    /**
+     * The step to run at: the one before the step that ended the search, or the last one
+     */
+    public static Step capacity(List<Step> steps) {
+        if (steps.isEmpty()) {
+            return null;
+        }
+        Step last = steps.get(steps.size() - 1);
+        if (last.verdict == null) {
+            return last;
+        }
+        return steps.size() > 1 ? steps.get(steps.size() - 2) : null;
+    }
+
+    /**
+     * One line per step with throughput, errors, latency and the change from the previous step
+     */
+    public static String summary(List<Step> steps) {
+        StringBuilder text = new StringBuilder(String.format("%-11s %9s %8s %9s %8s %10s %10s %10s  %s",
+                "Concurrency", "Requests", "Errors", "Req/s", "Gain", "p50 (ms)", "p99 (ms)", "p99 rise", "Verdict"));
+        for (Step step : steps) {
+            LatencyHistogram latency = step.result.getCombinedLatency();
+            text.append(System.lineSeparator()).append(String.format("%-11d %9d %7.1f%% %9.1f %8s %10.2f %10.2f %10s  %s",
+                    step.concurrency, step.result.getTotalCount(), step.getErrorRatePercent(), step.getThroughputPerSecond(),
+                    change(step.throughputGainPercent), latency.getPercentileMillis(50), step.getP99Millis(),
+                    change(step.p99GrowthPercent), step.verdict == null ? "" : step.verdict));
+        }
+        return text.toString();
+    }
+
+    /**
+     * Sustainable capacity and the client settings to run at it
+     */
+    public String recommendation(List<Step> steps) {
+        Step capacity = capacity(steps);
+        if (capacity == null) {
+            return String.format("No sustainable capacity found: concurrency %d already failed (%s)",
+                    steps.get(0).concurrency, steps.get(0).verdict);
+        }
+        Step last = steps.get(steps.size() - 1);
+        String reason = last.verdict == null
+                ? String.format("no knee up to concurrency %d; raise tune.max.concurrency to search further", last.concurrency)
+                : String.format("concurrency %d: %s", last.concurrency, last.verdict);
+        return String.join(System.lineSeparator(),
+                String.format("Sustainable capacity: %.1f req/s at concurrency %d, p99 %.2f ms (search ended at %s)",
+                        capacity.getThroughputPerSecond(), capacity.concurrency, capacity.getP99Millis(), reason),
+                "Recommended client settings:",
+                String.format("  load.concurrency=%d", capacity.concurrency),
+                String.format("  load.rate.per.second=%.0f   (%.0f%% of capacity, open-loop)",
+                        Math.floor(capacity.getThroughputPerSecond() * headroom / 100), headroom));
+    }
+
+    private void writeReport(List<Step> steps) throws IOException {
+        ObjectNode report = objectMapper.createObjectNode();
+        report.set("scenario", objectMapper.valueToTree(template));
+        ArrayNode entries = report.putArray("steps");
+        for (Step step : steps) {
+            ObjectNode entry = entries.addObject();
+            entry.put("concurrency", step.concurrency);
+            entry.put("throughputPerSecond", step.getThroughputPerSecond());
+            entry.put("p99Millis", step.getP99Millis());
+            entry.put("verdict", step.verdict);
+            entry.set("result", step.result.toJson());
+        }
+        Step capacity = capacity(steps);
+        if (capacity != null) {
+            ObjectNode entry = report.putObject("capacity");
+            entry.put("concurrency", capacity.concurrency);
+            entry.put("throughputPerSecond", capacity.getThroughputPerSecond());
+            entry.put("p99Millis", capacity.getP99Millis());
+        }
+
+        Path file = Paths.get("target", "load-reports",
+                String.format("%s-capacity-%d.json", template.getName(), System.currentTimeMillis()));
+        Files.createDirectories(file.getParent());
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(file.toFile(), report);
+        logger.info("Capacity report written to {}", file);
+    }
+
+    private static double percentChange(double before, double after) {
+        return before == 0 ? 0.0 : (after - before) * 100.0 / before;
+    }
+
+    private static String change(Double percent) {
+        return percent == null ? "" : String.format("%+.1f%%", percent);
+    }
+
+    /**
+     * One concurrency level and its load result
+     */
+    public static class Step {
+
+        private final int concurrency;
+        private final LoadResult result;
+        private Double throughputGainPercent;
+        private Double p99GrowthPercent;
+        private String verdict;
+
+        Step(int concurrency, LoadResult result) {
+            this.concurrency = concurrency;
+            this.result = result;
+        }
+
+        public int getConcurrency() {
+            return concurrency;
+        }
+
+        public LoadResult getResult() {
+            return result;
+        }
+
+        public double getThroughputPerSecond() {
+            return result.getThroughputPerSecond();
+        }
+
+        public double getP99Millis() {
+            return result.getCombinedLatency().getPercentileMillis(99);
+        }
+
+        public double getErrorRatePercent() {
+            return result.getTotalCount() == 0 ? 0.0 : result.getTotalErrors() * 100.0 / result.getTotalCount();
+        }
+
+        /**
+         * Why the search stopped at this step ("knee" or a breached limit), null if it did not
+         */
+        public String getVerdict() {
+            return verdict;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        boolean useStub = Arrays.asList(args).contains("--stub");
+        CapacityTuner tuner = new CapacityTuner(scenarioFromConfig());
+        List<Step> steps;
+        if (useStub) {
+            try (EnsekStubServer stub = new EnsekStubServer(0, ConfigUtils.getIntProperty("stub.threads", 16)).start()) {
+                steps = tuner.setStub(stub).run();
+            }
+        } else {
+            steps = tuner.run();
+        }
+        tuner.writeReport(steps);
+        String summary = summary(steps) + System.lineSeparator() + tuner.recommendation(steps);
+        logger.info("Capacity search complete:{}{}", System.lineSeparator(), summary);
+        System.out.println(summary);
+    }
+}
@@ -0,0 +1,78 @@
+package com.ensek.Api.load;
+
+import com.ensek.Api.utils.ConfigUtils;
+import io.restassured.response.Response;
+import io.restassured.specification.RequestSpecification;
+
+import static io.restassured.RestAssured.given;
+
+/**
+ * ENSEK endpoints that a load scenario can drive. READ_THEN_BUY is a client flow rather than a
+ * single endpoint: it reads the catalogue, as a client checking stock would, then buys, and its
+ * latency covers both requests.
+ */
+public enum Endpoint {
+
+    ENERGY("GET", "/ENSEK/energy"),
+    ORDERS("GET", "/ENSEK/orders"),
+    BUY("PUT", "/ENSEK/buy/{id}/{quantity}"),
+    LOGIN("POST", "/ENSEK/login"),
+    RESET("POST", "/ENSEK/reset"),
+    READ_THEN_BUY("PUT", "/ENSEK/buy/{id}/{quantity}", "GET /ENSEK/energy, PUT /ENSEK/buy/{id}/{quantity}");
+
+    private final String method;
+    private final String path;
+    private final String label;
+
+    Endpoint(String method, String path) {
+        this(method, path, method + " " + path);
+    }
+
+    Endpoint(String method, String path, String label) {
+        this.method = method;
+        this.path = path;
+        this.label = label;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    /**
+     * Label used for this endpoint in histograms and reports, e.g. "PUT /ENSEK/buy/{id}/{quantity}"
+     */
+    public String getLabel() {
+        return label;
+    }
+
+    /**
+     * Send one request for this endpoint using the given specification
+     */
+    public Response send(RequestSpecification spec, LoadScenario scenario) {
+        RequestSpecification request = given().spec(spec).baseUri(scenario.getBaseUrl()).basePath("");
+        switch (this) {
+            case READ_THEN_BUY:
+                Response catalogue = given().spec(spec).baseUri(scenario.getBaseUrl()).basePath("")
+                        .get(ENERGY.path);
+                if (catalogue.getStatusCode() >= 400) {
+                    return catalogue;
+                }
+                request.pathParam("id", scenario.getFuelId()).pathParam("quantity", scenario.getQuantity());
+                break;
+            case BUY:
+                request.pathParam("id", scenario.getFuelId()).pathParam("quantity", scenario.getQuantity());
+                break;
+            case LOGIN:
+                request.body(String.format("{\"username\": \"%s\", \"password\": \"%s\"}",
+                        ConfigUtils.getTestUsername(), ConfigUtils.getTestPassword()));
+                break;
+            default:
+                break;
+        }
+        return request.request(method, path);
+    }
+}
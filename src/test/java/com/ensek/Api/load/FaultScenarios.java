@@ -0,0 +1,177 @@
+package com.ensek.Api.load;
+
+import com.ensek.Api.http.CircuitBreakerFilter;
+import com.ensek.Api.metrics.LatencyHistogram;
+import com.ensek.Api.stub.EnsekStubServer;
+import com.ensek.Api.stub.FaultProfile;
+import com.ensek.Api.utils.ConfigUtils;
+import com.ensek.Api.utils.RestAssuredUtils;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.restassured.specification.RequestSpecification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static io.restassured.RestAssured.given;
+
+/**
+ * Resilience benchmark: runs the same load against a local {@link EnsekStubServer} once per
+ * {@link FaultProfile} and compares throughput, errors and tail latency.
+ *
+ * Requests go through the full client stack the tests use, including the configured timeouts,
+ * the circuit breaker and Apache HttpClient's retry of dropped connections, so the numbers show
+ * how that stack behaves when the API slows down or fails. Calls refused by an open circuit are
+ * reported in their own column and left out of the request rate and latencies, which describe
+ * only the requests that were sent. Each profile gets a fresh stub seeded
+ * with orders and closed circuits, after one fault-free warm-up run. The comparison is logged and
+ * written to {@code target/load-reports}.
+ *
+ * Usage: FaultScenarios [profile ...]   (default: every named profile, plus "config" when stub.fault.enabled=true)
+ */
+public class FaultScenarios {
+
+    private static final Logger logger = LoggerFactory.getLogger(FaultScenarios.class);
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final LoadScenario template;
+    private final int stubThreads;
+    private int seedOrders = ConfigUtils.getIntProperty("fault.scenario.seed.orders", 100);
+    private int warmupSeconds = ConfigUtils.getIntProperty("fault.scenario.warmup.seconds", 5);
+
+    public FaultScenarios(LoadScenario template, int stubThreads) {
+        this.template = template;
+        this.stubThreads = stubThreads;
+    }
+
+    /**
+     * Orders placed on each fresh stub before the run, so listings have a body worth throttling
+     */
+    public FaultScenarios setSeedOrders(int seedOrders) {
+        this.seedOrders = seedOrders;
+        return this;
+    }
+
+    /**
+     * Fault-free load run first and discarded, so the first profile is not charged for JIT warm-up
+     */
+    public FaultScenarios setWarmupSeconds(int warmupSeconds) {
+        this.warmupSeconds = warmupSeconds;
+        return this;
+    }
+
+    /**
+     * Scenario from the load.* properties, with the endpoint and duration from fault.scenario.*
+     */
+    public static LoadScenario scenarioFromConfig() {
+        LoadScenario scenario = LoadScenario.fromConfig();
+        scenario.setEndpoint(Endpoint.valueOf(ConfigUtils.getProperty("fault.scenario.endpoint", "ORDERS").toUpperCase()));
+        scenario.setDurationSeconds(ConfigUtils.getIntProperty("fault.scenario.duration.seconds", 20));
+        return scenario;
+    }
+
+    /**
+     * Run the load once per profile, in order
+     */
+    public Map<FaultProfile, LoadResult> run(List<FaultProfile> profiles) throws IOException {
+        RestAssuredUtils.setupRestAssuredConfig();
+        if (warmupSeconds > 0) {
+            LoadScenario warmup = template.copy();
+            warmup.setDurationSeconds(warmupSeconds);
+            runProfile(FaultProfile.NONE, warmup, "warmup");
+        }
+        Map<FaultProfile, LoadResult> results = new LinkedHashMap<>();
+        for (FaultProfile profile : profiles) {
+            results.put(profile, runProfile(profile, template, profile.getName()));
+        }
+        CircuitBreakerFilter.getInstance().reset();
+        return results;
+    }
+
+    private LoadResult runProfile(FaultProfile profile, LoadScenario base, String suffix) throws IOException {
+        CircuitBreakerFilter.getInstance().reset();
+        try (EnsekStubServer stub = new EnsekStubServer(0, stubThreads).start()) {
+            seed(stub);
+            stub.setFaultProfile(profile);
+            LoadScenario scenario = base.copy();
+            scenario.setName(base.getName() + "-" + suffix);
+            scenario.setBaseUrl(stub.getBaseUrl());
+            scenario.setEnergyCacheEnabled(false);
+            return new LoadRunner(scenario).run();
+        }
+    }
+
+    private void seed(EnsekStubServer stub) {
+        RequestSpecification spec = RestAssuredUtils.createRequestSpecification(ConfigUtils.getAuthToken());
+        for (int i = 0; i < seedOrders; i++) {
+            given().spec(spec).baseUri(stub.getBaseUrl()).basePath("")
+                    .put("/ENSEK/buy/{id}/{quantity}", template.getFuelId(), 1)
+                    .then().statusCode(200);
+        }
+    }
+
+    /**
+     * One line per profile with throughput, error rate and latency percentiles
+     */
+    public static String summary(Map<FaultProfile, LoadResult> results) {
+        StringBuilder text = new StringBuilder(String.format("%-12s %9s %8s %13s %9s %10s %10s %10s %10s",
+                "Profile", "Requests", "Errors", "Short-circuit", "Req/s", "p50 (ms)", "p99 (ms)", "p99.9 (ms)", "Max (ms)"));
+        results.forEach((profile, result) -> {
+            LatencyHistogram latency = result.getCombinedLatency();
+            text.append(System.lineSeparator()).append(String.format("%-12s %9d %7.1f%% %13d %9.1f %10.2f %10.2f %10.2f %10.2f",
+                    profile.getName(), result.getTotalCount(),
+                    result.getTotalCount() == 0 ? 0.0 : result.getTotalErrors() * 100.0 / result.getTotalCount(),
+                    result.getTotalShortCircuited(), result.getThroughputPerSecond(), latency.getPercentileMillis(50), latency.getPercentileMillis(99),
+                    latency.getPercentileMillis(99.9), latency.getMaxMicros() / 1000.0));
+        });
+        return text.toString();
+    }
+
+    private void writeReport(Map<FaultProfile, LoadResult> results) throws IOException {
+        ObjectNode report = objectMapper.createObjectNode();
+        report.set("scenario", objectMapper.valueToTree(template));
+        ArrayNode profiles = report.putArray("profiles");
+        results.forEach((profile, result) -> {
+            ObjectNode entry = profiles.addObject();
+            entry.put("profile", profile.getName());
+            entry.put("faults", profile.toString());
+            entry.put("throughputPerSecond", result.getThroughputPerSecond());
+            entry.put("shortCircuited", result.getTotalShortCircuited());
+            entry.set("result", result.toJson());
+        });
+
+        Path file = Paths.get("target", "load-reports",
+                String.format("%s-faults-%d.json", template.getName(), System.currentTimeMillis()));
+        Files.createDirectories(file.getParent());
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(file.toFile(), report);
+        logger.info("Fault scenario report written to {}", file);
+    }
+
+    public static void main(String[] args) throws Exception {
+        List<String> names = new ArrayList<>(args.length > 0 ? Arrays.asList(args) : FaultProfile.NAMED_PROFILES);
+        if (args.length == 0 && ConfigUtils.getBooleanProperty("stub.fault.enabled", false)) {
+            names.add("config");
+        }
+        List<FaultProfile> profiles = new ArrayList<>();
+        for (String name : names) {
+            profiles.add(FaultProfile.named(name));
+        }
+
+        FaultScenarios scenarios = new FaultScenarios(scenarioFromConfig(), ConfigUtils.getIntProperty("stub.threads", 16));
+        Map<FaultProfile, LoadResult> results = scenarios.run(profiles);
+        scenarios.writeReport(results);
+        String summary = summary(results);
+        logger.info("Fault scenarios complete:{}{}", System.lineSeparator(), summary);
+        System.out.println(summary);
+    }
+}
@@ -0,0 +1,237 @@
+package com.ensek.Api.load;
+
+import com.ensek.Api.utils.ConfigUtils;
+import com.ensek.Api.utils.RestAssuredUtils;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Coordinator side of a distributed load run.
+ *
+ * Waits for the expected number of {@link LoadWorker}s (other JVMs on this or other nodes) to
+ * connect, gives each a share of the scenario's virtual users and rate, and once every worker
+ * has reported ready sends the start signal to all of them together. Cumulative snapshots streamed
+ * back by the workers are merged into a single live view and, at the end, a single report written
+ * to {@code target/load-reports}.
+ *
+ * Usage: LoadCoordinator [port] [workers] [--spawn-local]
+ * With --spawn-local the workers are started as child JVMs on this machine, which is the simplest
+ * way to exercise the multi-process path locally.
+ */
+public class LoadCoordinator {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoadCoordinator.class);
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final int port;
+    private final int workerCount;
+    private final LoadScenario scenario;
+    private final AtomicReferenceArray<LoadResult> latest;
+    private final List<Process> localWorkers = new ArrayList<>();
+
+    public LoadCoordinator(int port, int workerCount, LoadScenario scenario) {
+        this.port = port;
+        this.workerCount = workerCount;
+        this.scenario = scenario;
+        this.latest = new AtomicReferenceArray<>(workerCount);
+    }
+
+    /**
+     * Start {@code workerCount} workers as child JVMs using this JVM's classpath
+     */
+    public LoadCoordinator spawnLocalWorkers() throws IOException {
+        String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        Files.createDirectories(Paths.get("target", "logs"));
+        for (int i = 0; i < workerCount; i++) {
+            localWorkers.add(new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                    LoadWorker.class.getName(), "localhost", String.valueOf(port))
+                    .redirectErrorStream(true)
+                    .redirectOutput(new File("target/logs/load-worker-" + i + ".log"))
+                    .start());
+        }
+        logger.info("Spawned {} local worker JVMs", workerCount);
+        return this;
+    }
+
+    /**
+     * Run the distributed scenario and return the merged result
+     */
+    public LoadResult run() throws IOException, InterruptedException {
+        List<Connection> connections = new ArrayList<>();
+        try (ServerSocket server = new ServerSocket(port)) {
+            server.setSoTimeout((int) TimeUnit.SECONDS.toMillis(
+                    ConfigUtils.getIntProperty("load.coordinator.accept.timeout.seconds", 60)));
+            logger.info("Coordinator waiting for {} workers on port {}", workerCount, server.getLocalPort());
+            while (connections.size() < workerCount) {
+                try {
+                    Connection connection = new Connection(server.accept());
+                    JsonNode hello = LoadWorker.expect(connection.in, "hello");
+                    logger.info("Worker {} connected: {}", connections.size(), hello.path("worker").asText());
+                    connections.add(connection);
+                } catch (SocketTimeoutException e) {
+                    throw new IOException(String.format("Only %d of %d workers connected", connections.size(), workerCount), e);
+                }
+            }
+        }
+
+        if (workerCount > scenario.getConcurrency()) {
+            logger.warn("{} workers for {} virtual users: {} workers will stay idle", workerCount,
+                    scenario.getConcurrency(), workerCount - scenario.getConcurrency());
+        }
+        try {
+            // Users are numbered across the whole run, so no two workers share a data stream or token
+            int firstUser = 0;
+            for (int i = 0; i < workerCount; i++) {
+                LoadScenario share = scenario.share(i, workerCount);
+                LoadWorker.send(connections.get(i).out, LoadWorker.message("assign")
+                        .put("index", i)
+                        .put("count", workerCount)
+                        .put("firstUser", firstUser)
+                        .set("scenario", objectMapper.valueToTree(share)));
+                firstUser += share.getConcurrency();
+            }
+            for (Connection connection : connections) {
+                LoadWorker.expect(connection.in, "ready");
+            }
+
+            CountDownLatch done = new CountDownLatch(workerCount);
+            for (int i = 0; i < workerCount; i++) {
+                startReader(i, connections.get(i), done);
+            }
+            logger.info("All {} workers ready, starting: {}", workerCount, scenario);
+            for (Connection connection : connections) {
+                LoadWorker.send(connection.out, LoadWorker.message("start"));
+            }
+
+            long interval = ConfigUtils.getIntProperty("load.snapshot.interval.ms", 1000);
+            while (!done.await(interval, TimeUnit.MILLISECONDS)) {
+                LoadResult merged = merge();
+                logger.info("[{} workers] {} requests, {} errors, {} req/s, p99={}ms",
+                        workerCount, merged.getTotalCount(), merged.getTotalErrors(),
+                        String.format("%.1f", merged.getThroughputPerSecond()),
+                        String.format("%.2f", merged.getCombinedLatency().getPercentileMillis(99)));
+            }
+        } finally {
+            for (Connection connection : connections) {
+                connection.close();
+            }
+            for (Process process : localWorkers) {
+                process.waitFor(10, TimeUnit.SECONDS);
+                process.destroy();
+            }
+        }
+
+        LoadResult merged = merge();
+        writeReport(merged);
+        logger.info("Distributed run {} complete across {} workers:{}{}", scenario.getName(), workerCount,
+                System.lineSeparator(), merged.summary());
+        return merged;
+    }
+
+    private void startReader(int index, Connection connection, CountDownLatch done) {
+        Thread reader = new Thread(() -> {
+            try {
+                while (true) {
+                    JsonNode message = LoadWorker.receive(connection.in);
+                    String type = message.path("type").asText();
+                    latest.set(index, LoadResult.fromJson(message.path("result")));
+                    if ("done".equals(type)) {
+                        break;
+                    }
+                }
+            } catch (IOException e) {
+                logger.error("Lost worker {}: {}", index, e.getMessage());
+            } finally {
+                done.countDown();
+            }
+        }, "load-coordinator-reader-" + index);
+        reader.setDaemon(true);
+        reader.start();
+    }
+
+    private LoadResult merge() {
+        LoadResult merged = new LoadResult();
+        for (int i = 0; i < workerCount; i++) {
+            LoadResult result = latest.get(i);
+            if (result != null) {
+                merged.add(result);
+            }
+        }
+        return merged;
+    }
+
+    private void writeReport(LoadResult merged) throws IOException {
+        ObjectNode report = objectMapper.createObjectNode();
+        report.set("scenario", objectMapper.valueToTree(scenario));
+        report.put("workers", workerCount);
+        report.put("throughputPerSecond", merged.getThroughputPerSecond());
+        report.set("merged", merged.toJson());
+        ArrayNode perWorker = report.putArray("perWorker");
+        for (int i = 0; i < workerCount; i++) {
+            LoadResult result = latest.get(i);
+            perWorker.add(result != null ? result.toJson() : objectMapper.nullNode());
+        }
+
+        Path file = Paths.get("target", "load-reports",
+                String.format("%s-%dworkers-%d.json", scenario.getName(), workerCount, System.currentTimeMillis()));
+        Files.createDirectories(file.getParent());
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(file.toFile(), report);
+        logger.info("Load report written to {}", file);
+    }
+
+    public static void main(String[] args) throws Exception {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : ConfigUtils.getIntProperty("load.coordinator.port", 7711);
+        int workers = args.length > 1 ? Integer.parseInt(args[1]) : ConfigUtils.getIntProperty("load.workers", 2);
+        boolean spawnLocal = args.length > 2 && "--spawn-local".equals(args[2]);
+
+        RestAssuredUtils.setupMeasurementConfig();
+        LoadCoordinator coordinator = new LoadCoordinator(port, workers, LoadScenario.fromConfig());
+        if (spawnLocal) {
+            coordinator.spawnLocalWorkers();
+        }
+        System.out.println(coordinator.run().summary());
+    }
+
+    private static class Connection {
+        private final Socket socket;
+        private final BufferedReader in;
+        private final BufferedWriter out;
+
+        Connection(Socket socket) throws IOException {
+            this.socket = socket;
+            this.in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            this.out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8));
+        }
+
+        void close() {
+            try {
+                socket.close();
+            } catch (IOException ignored) {
+                // already closed by the worker
+            }
+        }
+    }
+}
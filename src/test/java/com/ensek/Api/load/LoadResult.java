@@ -0,0 +1,151 @@
+package com.ensek.Api.load;
+
+import com.ensek.Api.metrics.LatencyHistogram;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latencies and error counts of a load run, per endpoint label.
+ * Results from several workers merge with {@link #add}.
+ *
+ * Calls refused by an open circuit are counted apart: they never reached the server, so they
+ * are left out of the latencies, request counts and throughput.
+ */
+public class LoadResult {
+
+    private final ConcurrentMap<String, LatencyHistogram> latencies = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, LongAdder> errors = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, LongAdder> shortCircuited = new ConcurrentHashMap<>();
+    private volatile long elapsedMillis;
+
+    public void recordSuccess(String endpoint, long latencyNanos) {
+        histogram(endpoint).recordNanos(latencyNanos);
+    }
+
+    public void recordError(String endpoint, long latencyNanos) {
+        histogram(endpoint).recordNanos(latencyNanos);
+        errors.computeIfAbsent(endpoint, key -> new LongAdder()).increment();
+    }
+
+    public void recordShortCircuit(String endpoint) {
+        shortCircuited.computeIfAbsent(endpoint, key -> new LongAdder()).increment();
+    }
+
+    public LatencyHistogram histogram(String endpoint) {
+        return latencies.computeIfAbsent(endpoint, key -> new LatencyHistogram());
+    }
+
+    public Map<String, LatencyHistogram> getLatencies() {
+        return new TreeMap<>(latencies);
+    }
+
+    public long getErrors(String endpoint) {
+        LongAdder count = errors.get(endpoint);
+        return count != null ? count.sum() : 0;
+    }
+
+    public long getShortCircuited(String endpoint) {
+        LongAdder count = shortCircuited.get(endpoint);
+        return count != null ? count.sum() : 0;
+    }
+
+    public long getTotalShortCircuited() {
+        return shortCircuited.values().stream().mapToLong(LongAdder::sum).sum();
+    }
+
+    public long getTotalCount() {
+        return latencies.values().stream().mapToLong(LatencyHistogram::getCount).sum();
+    }
+
+    public long getTotalErrors() {
+        return errors.values().stream().mapToLong(LongAdder::sum).sum();
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public void setElapsedMillis(long elapsedMillis) {
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public double getThroughputPerSecond() {
+        return elapsedMillis == 0 ? 0.0 : getTotalCount() * 1000.0 / elapsedMillis;
+    }
+
+    /**
+     * Latency distribution over all endpoints
+     */
+    public LatencyHistogram getCombinedLatency() {
+        LatencyHistogram combined = new LatencyHistogram();
+        latencies.values().forEach(combined::add);
+        return combined;
+    }
+
+    /**
+     * Merge another result into this one; elapsed time is the longest of the two
+     */
+    public void add(LoadResult other) {
+        other.latencies.forEach((endpoint, histogram) -> histogram(endpoint).add(histogram));
+        other.errors.forEach((endpoint, count) -> errors.computeIfAbsent(endpoint, key -> new LongAdder()).add(count.sum()));
+        other.shortCircuited.forEach((endpoint, count) -> shortCircuited.computeIfAbsent(endpoint, key -> new LongAdder()).add(count.sum()));
+        elapsedMillis = Math.max(elapsedMillis, other.elapsedMillis);
+    }
+
+    public ObjectNode toJson() {
+        ObjectNode node = JsonNodeFactory.instance.objectNode();
+        node.put("elapsedMillis", elapsedMillis);
+        ObjectNode endpoints = node.putObject("endpoints");
+        getLatencies().forEach((endpoint, histogram) -> {
+            ObjectNode entry = endpoints.putObject(endpoint);
+            entry.put("errors", getErrors(endpoint));
+            entry.set("latencyMicros", histogram.toJson());
+        });
+        shortCircuited.forEach((endpoint, count) -> {
+            ObjectNode entry = endpoints.has(endpoint) ? (ObjectNode) endpoints.get(endpoint) : endpoints.putObject(endpoint);
+            entry.put("shortCircuited", count.sum());
+        });
+        return node;
+    }
+
+    public static LoadResult fromJson(JsonNode node) {
+        LoadResult result = new LoadResult();
+        result.elapsedMillis = node.path("elapsedMillis").asLong();
+        Iterator<Map.Entry<String, JsonNode>> endpoints = node.path("endpoints").fields();
+        while (endpoints.hasNext()) {
+            Map.Entry<String, JsonNode> entry = endpoints.next();
+            result.latencies.put(entry.getKey(), LatencyHistogram.fromJson(entry.getValue().path("latencyMicros")));
+            LongAdder count = new LongAdder();
+            count.add(entry.getValue().path("errors").asLong());
+            result.errors.put(entry.getKey(), count);
+            if (entry.getValue().has("shortCircuited")) {
+                LongAdder refused = new LongAdder();
+                refused.add(entry.getValue().path("shortCircuited").asLong());
+                result.shortCircuited.put(entry.getKey(), refused);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Multi-line, human readable summary
+     */
+    public String summary() {
+        StringBuilder summary = new StringBuilder(String.format("Total: %d requests, %d errors, %.1f req/s over %dms",
+                getTotalCount(), getTotalErrors(), getThroughputPerSecond(), elapsedMillis));
+        if (getTotalShortCircuited() > 0) {
+            summary.append(String.format(", %d short-circuited", getTotalShortCircuited()));
+        }
+        getLatencies().forEach((endpoint, histogram) -> summary.append(System.lineSeparator())
+                .append(String.format("  %-32s errors=%d %s", endpoint, getErrors(endpoint), histogram)));
+        return summary.toString();
+    }
+}
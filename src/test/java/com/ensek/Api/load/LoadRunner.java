@@ -0,0 +1,180 @@
+package com.ensek.Api.load;
+
+import com.ensek.Api.auth.TokenPool;
+import com.ensek.Api.data.TestDataGenerator;
+import com.ensek.Api.http.CircuitOpenException;
+import com.ensek.Api.http.EnergyCatalogueCache;
+import com.ensek.Api.metrics.LiveDashboard;
+import com.ensek.Api.utils.ConfigUtils;
+import com.ensek.Api.utils.RestAssuredUtils;
+import io.restassured.response.Response;
+import io.restassured.specification.RequestSpecification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Runs a {@link LoadScenario} in this JVM.
+ *
+ * With a target rate the run is open-loop: request i is due at start + i / rate and its latency
+ * is measured from that due time, so a server that falls behind is charged for the queueing it
+ * causes instead of silently lowering the offered load. With a rate of 0 each worker thread
+ * sends back to back (closed-loop) and latency is the plain service time.
+ *
+ * When the scenario enables it, the virtual users share the {@link EnergyCatalogueCache}, so
+ * catalogue reads only reach the server once per energy.cache.ttl.ms or after stock changed.
+ * Cache hits are then recorded under the same label as server responses, which is what a
+ * READ_THEN_BUY run wants to see but makes an ENERGY run measure the cache rather than the API.
+ */
+public class LoadRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoadRunner.class);
+
+    private final LoadScenario scenario;
+    private final int userOffset;
+    private final LoadResult result = new LoadResult();
+    private final AtomicLong ticket = new AtomicLong();
+    private volatile boolean stopped;
+    private volatile long startNanos;
+
+    public LoadRunner(LoadScenario scenario) {
+        this(scenario, 0);
+    }
+
+    /**
+     * @param userOffset index of this runner's first virtual user, so that runners in different
+     *                   JVMs draw different credentials from the token pool
+     */
+    public LoadRunner(LoadScenario scenario, int userOffset) {
+        this.scenario = scenario;
+        this.userOffset = userOffset;
+    }
+
+    /**
+     * Run the scenario to completion
+     */
+    public LoadResult run() {
+        return run(null, 0);
+    }
+
+    /**
+     * Run the scenario to completion, passing a cumulative snapshot of the results to the
+     * listener every {@code intervalMillis} from the calling thread
+     */
+    public LoadResult run(Consumer<LoadResult> snapshotListener, long intervalMillis) {
+        logger.info("Starting load run: {}", scenario);
+        LiveDashboard.startIfEnabled();
+        startNanos = System.nanoTime();
+        long endNanos = startNanos + TimeUnit.SECONDS.toNanos(scenario.getDurationSeconds());
+
+        List<Thread> workers = new ArrayList<>();
+        for (int i = 0; i < scenario.getConcurrency(); i++) {
+            int user = userOffset + i;
+            Thread worker = new Thread(() -> work(user, endNanos), "load-worker-" + user);
+            worker.setDaemon(true);
+            workers.add(worker);
+            worker.start();
+        }
+
+        for (Thread worker : workers) {
+            while (worker.isAlive()) {
+                try {
+                    worker.join(intervalMillis > 0 ? intervalMillis : 0);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    stop();
+                    break;
+                }
+                if (snapshotListener != null && worker.isAlive()) {
+                    snapshotListener.accept(snapshot());
+                }
+            }
+        }
+
+        LoadResult finalResult = snapshot();
+        logger.info("Finished load run {}: {}", scenario.getName(), finalResult.summary());
+        return finalResult;
+    }
+
+    /**
+     * Ask all worker threads to finish after their current request
+     */
+    public void stop() {
+        stopped = true;
+    }
+
+    /**
+     * Cumulative copy of the results so far
+     */
+    public LoadResult snapshot() {
+        LoadResult copy = new LoadResult();
+        copy.add(result);
+        copy.setElapsedMillis(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+        return copy;
+    }
+
+    private void work(int user, long endNanos) {
+        // One data stream per virtual user: reproducible, and distinct across workers and JVMs
+        TestDataGenerator.bindCurrent(TestDataGenerator.forStream(TestDataGenerator.USER_STREAMS + user));
+        RequestSpecification spec = RestAssuredUtils.createRequestSpecification(tokenFor(user));
+        if (scenario.isEnergyCacheEnabled()) {
+            spec = RestAssuredUtils.withEnergyCache(spec);
+        }
+        String label = scenario.getEndpoint().getLabel();
+        double rate = scenario.getRatePerSecond();
+        long intervalNanos = rate > 0 ? (long) (TimeUnit.SECONDS.toNanos(1) / rate) : 0;
+
+        while (!stopped) {
+            long due;
+            if (intervalNanos > 0) {
+                due = startNanos + ticket.getAndIncrement() * intervalNanos;
+                if (due >= endNanos) {
+                    return;
+                }
+                long wait;
+                while ((wait = due - System.nanoTime()) > 0 && !stopped) {
+                    LockSupport.parkNanos(wait);
+                }
+            } else {
+                due = System.nanoTime();
+                if (due >= endNanos) {
+                    return;
+                }
+            }
+
+            try {
+                Response response = scenario.getEndpoint().send(spec, scenario);
+                // REST Assured reads bodies lazily; read it here so latency covers the whole response
+                response.asByteArray();
+                long latency = System.nanoTime() - due;
+                if (response.getStatusCode() >= 400) {
+                    result.recordError(label, latency);
+                } else {
+                    result.recordSuccess(label, latency);
+                }
+            } catch (CircuitOpenException e) {
+                // Refused without a request; back off briefly rather than spin in closed-loop runs
+                result.recordShortCircuit(label);
+                if (intervalNanos == 0) {
+                    LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+                }
+            } catch (RuntimeException e) {
+                result.recordError(label, System.nanoTime() - due);
+                logger.debug("Load request failed: {}", e.getMessage());
+            }
+        }
+    }
+
+    private static String tokenFor(int user) {
+        if (ConfigUtils.getBooleanProperty("auth.login.enabled", false)) {
+            return TokenPool.getShared().tokenFor(user);
+        }
+        return ConfigUtils.getAuthToken();
+    }
+}
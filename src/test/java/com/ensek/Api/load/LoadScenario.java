@@ -0,0 +1,153 @@
+package com.ensek.Api.load;
+
+import com.ensek.Api.utils.ConfigUtils;
+
+/**
+ * Description of a load run: which endpoint to drive, how hard and for how long.
+ * A rate of 0 runs closed-loop, each worker thread sending its next request as soon as
+ * the previous one completes.
+ */
+public class LoadScenario {
+
+    private String name = "load";
+    private String baseUrl;
+    private Endpoint endpoint = Endpoint.BUY;
+    private double ratePerSecond;
+    private int durationSeconds = 30;
+    private int concurrency = 8;
+    private int fuelId = 1;
+    private int quantity = 1;
+    private boolean energyCacheEnabled;
+
+    public LoadScenario() {
+    }
+
+    /**
+     * Build a scenario from the load.* configuration properties
+     */
+    public static LoadScenario fromConfig() {
+        LoadScenario scenario = new LoadScenario();
+        scenario.setName(ConfigUtils.getProperty("load.name", "load"));
+        scenario.setBaseUrl(ConfigUtils.getProperty("load.base.url", ConfigUtils.getBaseUrl()));
+        scenario.setEndpoint(Endpoint.valueOf(ConfigUtils.getProperty("load.endpoint", "BUY").toUpperCase()));
+        scenario.setRatePerSecond(Double.parseDouble(ConfigUtils.getProperty("load.rate.per.second", "0")));
+        scenario.setDurationSeconds(ConfigUtils.getIntProperty("load.duration.seconds", 30));
+        scenario.setConcurrency(ConfigUtils.getIntProperty("load.concurrency", 8));
+        scenario.setFuelId(ConfigUtils.getIntProperty("load.fuel.id", ConfigUtils.getValidFuelId()));
+        scenario.setQuantity(ConfigUtils.getIntProperty("load.quantity", 1));
+        scenario.setEnergyCacheEnabled(ConfigUtils.getBooleanProperty("load.energy.cache.enabled", false));
+        return scenario;
+    }
+
+    /**
+     * The part of this scenario that one of {@code workerCount} workers should run: concurrency is
+     * divided evenly, with any remainder going to the lowest indexes, and the rate in proportion
+     * to it. With more workers than virtual users the extra workers get none and run nothing, so
+     * the shares always add up to this scenario.
+     */
+    public LoadScenario share(int workerIndex, int workerCount) {
+        LoadScenario share = copy();
+        int users = concurrency / workerCount + (workerIndex < concurrency % workerCount ? 1 : 0);
+        share.setConcurrency(users);
+        share.setRatePerSecond(concurrency > 0 ? ratePerSecond * users / concurrency : 0);
+        return share;
+    }
+
+    public LoadScenario copy() {
+        LoadScenario copy = new LoadScenario();
+        copy.setName(name);
+        copy.setBaseUrl(baseUrl);
+        copy.setEndpoint(endpoint);
+        copy.setRatePerSecond(ratePerSecond);
+        copy.setDurationSeconds(durationSeconds);
+        copy.setConcurrency(concurrency);
+        copy.setFuelId(fuelId);
+        copy.setQuantity(quantity);
+        copy.setEnergyCacheEnabled(energyCacheEnabled);
+        return copy;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getBaseUrl() {
+        return baseUrl;
+    }
+
+    public void setBaseUrl(String baseUrl) {
+        this.baseUrl = baseUrl;
+    }
+
+    public Endpoint getEndpoint() {
+        return endpoint;
+    }
+
+    public void setEndpoint(Endpoint endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    public double getRatePerSecond() {
+        return ratePerSecond;
+    }
+
+    public void setRatePerSecond(double ratePerSecond) {
+        this.ratePerSecond = ratePerSecond;
+    }
+
+    public int getDurationSeconds() {
+        return durationSeconds;
+    }
+
+    public void setDurationSeconds(int durationSeconds) {
+        this.durationSeconds = durationSeconds;
+    }
+
+    public int getConcurrency() {
+        return concurrency;
+    }
+
+    public void setConcurrency(int concurrency) {
+        this.concurrency = concurrency;
+    }
+
+    public int getFuelId() {
+        return fuelId;
+    }
+
+    public void setFuelId(int fuelId) {
+        this.fuelId = fuelId;
+    }
+
+    public int getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(int quantity) {
+        this.quantity = quantity;
+    }
+
+    /**
+     * Whether GET /ENSEK/energy goes through the shared catalogue cache, as a client that
+     * caches the catalogue would, instead of reaching the server every time
+     */
+    public boolean isEnergyCacheEnabled() {
+        return energyCacheEnabled;
+    }
+
+    public void setEnergyCacheEnabled(boolean energyCacheEnabled) {
+        this.energyCacheEnabled = energyCacheEnabled;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: %s against %s, rate=%s, concurrency=%d, duration=%ds",
+                name, endpoint.getLabel(), baseUrl,
+                ratePerSecond > 0 ? String.format("%.1f/s", ratePerSecond) : "closed-loop",
+                concurrency, durationSeconds);
+    }
+}
@@ -0,0 +1,55 @@
+package com.ensek.Api.load;
+
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.*;
+
+/**
+ * Offline checks of how a scenario is divided between distributed workers.
+ */
+public class LoadScenarioTest {
+
+    @Test(groups = {"Unit"})
+    public void testSharesAddUpToTheScenario() {
+        for (int concurrency = 1; concurrency <= 12; concurrency++) {
+            for (int workers = 1; workers <= 8; workers++) {
+                LoadScenario scenario = scenario(concurrency, 60);
+                int users = 0;
+                double rate = 0;
+                for (int i = 0; i < workers; i++) {
+                    LoadScenario share = scenario.share(i, workers);
+                    users += share.getConcurrency();
+                    rate += share.getRatePerSecond();
+                }
+                assertEquals(users, concurrency, concurrency + " users over " + workers + " workers");
+                assertEquals(rate, 60.0, 1e-9, concurrency + " users over " + workers + " workers");
+            }
+        }
+    }
+
+    @Test(groups = {"Unit"})
+    public void testRemainderGoesToLowestIndexesWithRateInProportion() {
+        LoadScenario scenario = scenario(5, 50);
+
+        assertEquals(scenario.share(0, 2).getConcurrency(), 3);
+        assertEquals(scenario.share(1, 2).getConcurrency(), 2);
+        assertEquals(scenario.share(0, 2).getRatePerSecond(), 30.0, 1e-9);
+        assertEquals(scenario.share(1, 2).getRatePerSecond(), 20.0, 1e-9);
+    }
+
+    @Test(groups = {"Unit"})
+    public void testSurplusWorkersGetNothing() {
+        LoadScenario scenario = scenario(2, 10);
+
+        assertEquals(scenario.share(1, 3).getConcurrency(), 1);
+        assertEquals(scenario.share(2, 3).getConcurrency(), 0);
+        assertEquals(scenario.share(2, 3).getRatePerSecond(), 0.0);
+    }
+
+    private static LoadScenario scenario(int concurrency, double ratePerSecond) {
+        LoadScenario scenario = new LoadScenario();
+        scenario.setConcurrency(concurrency);
+        scenario.setRatePerSecond(ratePerSecond);
+        return scenario;
+    }
+}
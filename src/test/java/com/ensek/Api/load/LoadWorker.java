@@ -0,0 +1,132 @@
+package com.ensek.Api.load;
+
+import com.ensek.Api.utils.ConfigUtils;
+import com.ensek.Api.utils.RestAssuredUtils;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.lang.management.ManagementFactory;
+import java.net.ConnectException;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Worker side of a distributed load run.
+ *
+ * Connects to a {@link LoadCoordinator}, receives its share of the scenario, reports ready,
+ * starts on the coordinator's signal and streams cumulative result snapshots back until done.
+ * Messages are newline-delimited JSON objects with a "type" field.
+ *
+ * Usage: LoadWorker &lt;coordinator host&gt; &lt;coordinator port&gt;
+ */
+public class LoadWorker {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoadWorker.class);
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final String host;
+    private final int port;
+
+    public LoadWorker(String host, int port) {
+        this.host = host;
+        this.port = port;
+    }
+
+    public void run() throws IOException {
+        try (Socket socket = connect();
+             BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+             BufferedWriter out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8))) {
+
+            String workerName = ManagementFactory.getRuntimeMXBean().getName();
+            send(out, message("hello").put("worker", workerName));
+
+            JsonNode assignment = expect(in, "assign");
+            int index = assignment.path("index").asInt();
+            int firstUser = assignment.path("firstUser").asInt();
+            LoadScenario share = objectMapper.treeToValue(assignment.path("scenario"), LoadScenario.class);
+            logger.info("Worker {} assigned share {} from user {}: {}", workerName, index, firstUser, share);
+
+            // Configured like an in-process load run; the share decides whether the cache is used
+            RestAssuredUtils.setupMeasurementConfig();
+            LoadRunner runner = new LoadRunner(share, firstUser);
+            send(out, message("ready"));
+            expect(in, "start");
+
+            long interval = ConfigUtils.getIntProperty("load.snapshot.interval.ms", 1000);
+            LoadResult result = runner.run(snapshot -> {
+                try {
+                    send(out, message("snapshot").set("result", snapshot.toJson()));
+                } catch (IOException e) {
+                    logger.warn("Lost connection to coordinator, stopping: {}", e.getMessage());
+                    runner.stop();
+                }
+            }, interval);
+            send(out, message("done").set("result", result.toJson()));
+        }
+    }
+
+    /**
+     * Connect to the coordinator, retrying while it is still starting up
+     */
+    private Socket connect() throws IOException {
+        long deadline = System.currentTimeMillis()
+                + ConfigUtils.getIntProperty("load.coordinator.accept.timeout.seconds", 60) * 1000L;
+        while (true) {
+            try {
+                return new Socket(host, port);
+            } catch (ConnectException e) {
+                if (System.currentTimeMillis() > deadline) {
+                    throw e;
+                }
+                try {
+                    Thread.sleep(200);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    throw e;
+                }
+            }
+        }
+    }
+
+    static ObjectNode message(String type) {
+        return objectMapper.createObjectNode().put("type", type);
+    }
+
+    static void send(BufferedWriter out, JsonNode message) throws IOException {
+        synchronized (out) {
+            out.write(objectMapper.writeValueAsString(message));
+            out.newLine();
+            out.flush();
+        }
+    }
+
+    static JsonNode receive(BufferedReader in) throws IOException {
+        String line = in.readLine();
+        if (line == null) {
+            throw new IOException("Connection closed");
+        }
+        return objectMapper.readTree(line);
+    }
+
+    static JsonNode expect(BufferedReader in, String type) throws IOException {
+        JsonNode message = receive(in);
+        if (!type.equals(message.path("type").asText())) {
+            throw new IOException("Expected '" + type + "' message but received: " + message);
+        }
+        return message;
+    }
+
+    public static void main(String[] args) throws IOException {
+        String host = args.length > 0 ? args[0] : ConfigUtils.getProperty("load.coordinator.host", "localhost");
+        int port = args.length > 1 ? Integer.parseInt(args[1]) : ConfigUtils.getIntProperty("load.coordinator.port", 7711);
+        new LoadWorker(host, port).run();
+    }
+}
@@ -0,0 +1,62 @@
+package com.ensek.Api.metrics;
+
+import io.restassured.specification.FilterableRequestSpecification;
+
+import java.net.URI;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Builds the endpoint labels used to group metrics, e.g. "PUT /ENSEK/buy/{id}/{quantity}".
+ * Numeric and identifier segments of concrete paths, and the variables of path templates, are
+ * collapsed so that every order or fuel ID lands in one series. A path with the shape of a known
+ * ENSEK endpoint is labelled with that endpoint's template, so a request gets the same label
+ * whether it is seen by a REST Assured filter (template or concrete path) or by the HTTP client
+ * (concrete path only); other variable segments are labelled "{}".
+ */
+public class EndpointLabels {
+
+    private static final Pattern VARIABLE_SEGMENT = Pattern.compile(
+            "-?\\d+|[0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{12}|[A-Z0-9_]{6,}|\\{[^/]*}");
+    private static final List<String> TEMPLATES = List.of(
+            "/ENSEK/buy/{id}/{quantity}",
+            "/ENSEK/orders/{orderId}");
+    private static final Map<String, String> TEMPLATE_BY_SHAPE = new HashMap<>();
+
+    static {
+        for (String template : TEMPLATES) {
+            TEMPLATE_BY_SHAPE.put(shapeOf(template), template);
+        }
+    }
+
+    public static String of(FilterableRequestSpecification requestSpec) {
+        String template = requestSpec.getUserDefinedPath();
+        if (template != null && template.contains("{")) {
+            return of(requestSpec.getMethod(), template);
+        }
+        return of(requestSpec.getMethod(), URI.create(requestSpec.getURI()).getRawPath());
+    }
+
+    public static String of(String method, String path) {
+        String shape = shapeOf(path);
+        return method + " " + TEMPLATE_BY_SHAPE.getOrDefault(shape, shape);
+    }
+
+    /**
+     * Path without its query string and with every variable segment replaced by "{}"
+     */
+    private static String shapeOf(String path) {
+        int query = path.indexOf('?');
+        String[] segments = (query >= 0 ? path.substring(0, query) : path).split("/");
+        StringBuilder shape = new StringBuilder();
+        for (int i = 1; i < segments.length; i++) {
+            shape.append('/').append(VARIABLE_SEGMENT.matcher(segments[i]).matches() ? "{}" : segments[i]);
+        }
+        if (segments.length <= 1) {
+            shape.append('/');
+        }
+        return shape.toString();
+    }
+}
@@ -0,0 +1,52 @@
+package com.ensek.Api.metrics;
+
+import com.ensek.Api.utils.TestReportUtils;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Reports the request phase timings recorded by the instrumented HTTP client when a suite
+ * finishes: a table in the test output and a JSON file in {@code target/load-reports} with the
+ * full histogram of every endpoint and phase.
+ *
+ * Registered in TestNG.xml. The figures cover every request the JVM has made so far, which for
+ * the usual one suite per JVM is the suite's own requests.
+ */
+public class HttpMetricsListener implements ISuiteListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(HttpMetricsListener.class);
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Override
+    public void onFinish(ISuite suite) {
+        PhaseTimingMetrics phases = PhaseTimingMetrics.getInstance();
+        if (phases.isEmpty()) {
+            return;
+        }
+        TestReportUtils.logPhaseTimings(suite.getName(), phases);
+        try {
+            writeReport(suite.getName(), phases);
+        } catch (IOException e) {
+            logger.warn("Could not write phase timing report: {}", e.getMessage());
+        }
+    }
+
+    private static void writeReport(String suiteName, PhaseTimingMetrics phases) throws IOException {
+        ObjectNode report = objectMapper.createObjectNode();
+        report.put("suite", suiteName);
+        report.set("endpoints", phases.toJson());
+        Path file = Paths.get("target", "load-reports", String.format("http-phases-%d.json", System.currentTimeMillis()));
+        Files.createDirectories(file.getParent());
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(file.toFile(), report);
+        logger.info("Phase timing report written to {}", file);
+    }
+}
@@ -0,0 +1,100 @@
+package com.ensek.Api.metrics;
+
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.*;
+
+/**
+ * Offline checks of the histogram's bucket math and of what survives merging and JSON.
+ */
+public class LatencyHistogramTest {
+
+    @Test(groups = {"Unit"})
+    public void testSmallValuesHaveExactBuckets() {
+        for (long value = 0; value < 128; value++) {
+            assertEquals(LatencyHistogram.valueOf(LatencyHistogram.indexOf(value)), value);
+        }
+    }
+
+    @Test(groups = {"Unit"})
+    public void testBucketsBoundTheirValuesWithinTwoPercent() {
+        int previous = LatencyHistogram.indexOf(127);
+        for (long value = 128; value < 1L << 40; value += 1 + value / 97) {
+            int index = LatencyHistogram.indexOf(value);
+            long upper = LatencyHistogram.valueOf(index);
+            assertTrue(upper >= value, "Bucket " + index + " ends below " + value);
+            assertTrue(upper - value <= value / 64, "Bucket " + index + " is too wide for " + value);
+            assertTrue(index >= previous, "Buckets out of order at " + value);
+            previous = index;
+        }
+    }
+
+    @Test(groups = {"Unit"})
+    public void testBucketEdges() {
+        int last = LatencyHistogram.indexOf(Long.MAX_VALUE);
+        for (int index = 128; index < last; index++) {
+            long upper = LatencyHistogram.valueOf(index);
+            assertEquals(LatencyHistogram.indexOf(upper), index);
+            assertEquals(LatencyHistogram.indexOf(upper + 1), index + 1);
+        }
+        assertEquals(LatencyHistogram.valueOf(last), Long.MAX_VALUE);
+    }
+
+    @Test(groups = {"Unit"})
+    public void testPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(histogram.getPercentileMicros(99), 0);
+        for (long micros = 1; micros <= 100; micros++) {
+            histogram.record(micros);
+        }
+        histogram.record(-5);
+
+        assertEquals(histogram.getCount(), 101);
+        assertEquals(histogram.getPercentileMicros(0), 0);
+        assertEquals(histogram.getPercentileMicros(50), 50);
+        assertEquals(histogram.getPercentileMicros(99), 99);
+        assertEquals(histogram.getPercentileMicros(100), 100);
+        assertEquals(histogram.getMaxMicros(), 100);
+        assertEquals(histogram.getMeanMicros(), 5050 / 101.0, 1e-9);
+    }
+
+    @Test(groups = {"Unit"})
+    public void testPercentileNeverExceedsMax() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(1_000_001);
+        assertEquals(histogram.getPercentileMicros(50), 1_000_001);
+    }
+
+    @Test(groups = {"Unit"})
+    public void testAddMergesEverySample() {
+        LatencyHistogram fast = new LatencyHistogram();
+        LatencyHistogram slow = new LatencyHistogram();
+        for (int i = 0; i < 90; i++) {
+            fast.record(10);
+        }
+        for (int i = 0; i < 10; i++) {
+            slow.recordNanos(5_000_000);
+        }
+
+        LatencyHistogram merged = fast.copy();
+        merged.add(slow);
+        assertEquals(fast.getCount(), 90, "copy must not share state");
+        assertEquals(merged.getCount(), 100);
+        assertEquals(merged.getPercentileMicros(90), 10);
+        assertEquals(merged.getPercentileMicros(91), 5000);
+        assertEquals(merged.getMaxMicros(), 5000);
+    }
+
+    @Test(groups = {"Unit"})
+    public void testJsonRoundTrip() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long micros = 1; micros < 10_000_000; micros *= 3) {
+            histogram.record(micros);
+        }
+
+        LatencyHistogram restored = LatencyHistogram.fromJson(histogram.toJson());
+        assertEquals(restored.toJson(), histogram.toJson());
+        assertEquals(restored.getPercentileMicros(75), histogram.getPercentileMicros(75));
+        assertEquals(restored.getMeanMicros(), histogram.getMeanMicros());
+    }
+}
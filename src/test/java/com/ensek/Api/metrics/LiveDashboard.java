@@ -0,0 +1,122 @@
+package com.ensek.Api.metrics;
+
+import com.ensek.Api.utils.ConfigUtils;
+import io.restassured.RestAssured;
+
+import java.io.PrintStream;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Periodic console summary of live request metrics: current requests per second, in-flight
+ * requests, p50/p99 latency and error rate per endpoint over the last interval.
+ * When attached to a terminal the table is redrawn in place; otherwise (CI logs, surefire)
+ * each interval is printed as a new block.
+ */
+public class LiveDashboard {
+
+    private static final String CURSOR_UP = "\u001B[%dA";
+    private static final String CLEAR_LINE = "\u001B[2K";
+    private static LiveDashboard running;
+
+    private final LiveMetricsFilter metrics;
+    private final long intervalMillis;
+    private final PrintStream out;
+    private final boolean redraw;
+    private final ScheduledExecutorService ticker;
+    private int linesPrinted;
+
+    public LiveDashboard(LiveMetricsFilter metrics, long intervalMillis, PrintStream out, boolean redraw) {
+        this.metrics = metrics;
+        this.intervalMillis = intervalMillis;
+        this.out = out;
+        this.redraw = redraw;
+        this.ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "live-dashboard");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Install the metrics filter globally and start printing, if dashboard.enabled is set.
+     * Safe to call more than once.
+     */
+    public static synchronized void startIfEnabled() {
+        if (running != null || !ConfigUtils.getBooleanProperty("dashboard.enabled", false)) {
+            return;
+        }
+        RestAssured.filters(LiveMetricsFilter.getInstance());
+        running = new LiveDashboard(LiveMetricsFilter.getInstance(),
+                ConfigUtils.getIntProperty("dashboard.interval.ms", 1000),
+                System.out, System.console() != null);
+        running.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(running::stop, "live-dashboard-shutdown"));
+    }
+
+    public void start() {
+        ticker.scheduleAtFixedRate(this::tick, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public void stop() {
+        ticker.shutdownNow();
+    }
+
+    void tick() {
+        Map<String, LiveMetricsFilter.IntervalSnapshot> snapshots = metrics.drainInterval();
+        if (snapshots.isEmpty()) {
+            return;
+        }
+        StringBuilder table = new StringBuilder();
+        if (redraw && linesPrinted > 0) {
+            table.append(String.format(CURSOR_UP, linesPrinted));
+        }
+
+        double seconds = intervalMillis / 1000.0;
+        long requests = 0;
+        long errors = 0;
+        long inFlight = 0;
+        LatencyHistogram combined = new LatencyHistogram();
+        int lines = 0;
+        line(table, String.format("%-36s %9s %9s %10s %10s %8s %10s",
+                "Endpoint", "RPS", "In-flight", "p50 (ms)", "p99 (ms)", "Errors", "Total"));
+        lines++;
+        for (Map.Entry<String, LiveMetricsFilter.IntervalSnapshot> entry : snapshots.entrySet()) {
+            LiveMetricsFilter.IntervalSnapshot snapshot = entry.getValue();
+            line(table, row(entry.getKey(), snapshot.getRequests(), seconds, snapshot.getInFlight(),
+                    snapshot.getLatency(), snapshot.getErrors(), snapshot.getTotalRequests()));
+            lines++;
+            requests += snapshot.getRequests();
+            errors += snapshot.getErrors();
+            inFlight += snapshot.getInFlight();
+            combined.add(snapshot.getLatency());
+        }
+        line(table, row("ALL", requests, seconds, inFlight, combined, errors,
+                snapshots.values().stream().mapToLong(LiveMetricsFilter.IntervalSnapshot::getTotalRequests).sum()));
+        lines++;
+        if (!redraw) {
+            table.append(System.lineSeparator());
+        }
+
+        linesPrinted = lines;
+        out.print(table);
+        out.flush();
+    }
+
+    private void line(StringBuilder table, String text) {
+        if (redraw) {
+            table.append(CLEAR_LINE);
+        }
+        table.append(text).append(System.lineSeparator());
+    }
+
+    private static String row(String endpoint, long requests, double seconds, long inFlight,
+                              LatencyHistogram latency, long errors, long total) {
+        double errorRate = requests == 0 ? 0.0 : errors * 100.0 / requests;
+        return String.format("%-36s %9.1f %9d %10.2f %10.2f %7.1f%% %10d",
+                endpoint, requests / seconds, inFlight, latency.getPercentileMillis(50),
+                latency.getPercentileMillis(99), errorRate, total);
+    }
+}
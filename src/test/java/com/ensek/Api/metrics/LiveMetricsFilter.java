@@ -0,0 +1,125 @@
+package com.ensek.Api.metrics;
+
+import io.restassured.filter.Filter;
+import io.restassured.filter.FilterContext;
+import io.restassured.response.Response;
+import io.restassured.specification.FilterableRequestSpecification;
+import io.restassured.specification.FilterableResponseSpecification;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * REST Assured filter feeding the {@link LiveDashboard}.
+ *
+ * Request threads only touch striped counters and a lock-free histogram, so the cost per request
+ * is a handful of uncontended atomic adds. The dashboard drains the per-interval counters on
+ * each tick via {@link #drainInterval()}.
+ */
+public class LiveMetricsFilter implements Filter {
+
+    private static final LiveMetricsFilter instance = new LiveMetricsFilter();
+
+    private final ConcurrentMap<String, EndpointMetrics> endpoints = new ConcurrentHashMap<>();
+
+    public static LiveMetricsFilter getInstance() {
+        return instance;
+    }
+
+    @Override
+    public Response filter(FilterableRequestSpecification requestSpec,
+                           FilterableResponseSpecification responseSpec,
+                           FilterContext ctx) {
+        EndpointMetrics metrics = endpoints.computeIfAbsent(EndpointLabels.of(requestSpec), key -> new EndpointMetrics());
+        metrics.inFlight.increment();
+        long start = System.nanoTime();
+        boolean error = true;
+        try {
+            Response response = ctx.next(requestSpec, responseSpec);
+            error = response.getStatusCode() >= 400;
+            return response;
+        } finally {
+            metrics.inFlight.decrement();
+            metrics.record(System.nanoTime() - start, error);
+        }
+    }
+
+    /**
+     * Swap out the counters of the interval that just ended and return them per endpoint
+     */
+    public Map<String, IntervalSnapshot> drainInterval() {
+        Map<String, IntervalSnapshot> snapshots = new TreeMap<>();
+        endpoints.forEach((endpoint, metrics) -> snapshots.put(endpoint, metrics.drain()));
+        return snapshots;
+    }
+
+    /**
+     * Counters for one endpoint over one dashboard interval
+     */
+    public static class IntervalSnapshot {
+        private final long requests;
+        private final long errors;
+        private final long inFlight;
+        private final long totalRequests;
+        private final LatencyHistogram latency;
+
+        IntervalSnapshot(long requests, long errors, long inFlight, long totalRequests, LatencyHistogram latency) {
+            this.requests = requests;
+            this.errors = errors;
+            this.inFlight = inFlight;
+            this.totalRequests = totalRequests;
+            this.latency = latency;
+        }
+
+        public long getRequests() {
+            return requests;
+        }
+
+        public long getErrors() {
+            return errors;
+        }
+
+        public long getInFlight() {
+            return inFlight;
+        }
+
+        public long getTotalRequests() {
+            return totalRequests;
+        }
+
+        public LatencyHistogram getLatency() {
+            return latency;
+        }
+    }
+
+    private static class EndpointMetrics {
+        private final LongAdder inFlight = new LongAdder();
+        private final LongAdder total = new LongAdder();
+        private final AtomicReference<Interval> interval = new AtomicReference<>(new Interval());
+
+        void record(long latencyNanos, boolean error) {
+            Interval current = interval.get();
+            current.latency.recordNanos(latencyNanos);
+            current.requests.increment();
+            if (error) {
+                current.errors.increment();
+            }
+            total.increment();
+        }
+
+        IntervalSnapshot drain() {
+            Interval ended = interval.getAndSet(new Interval());
+            return new IntervalSnapshot(ended.requests.sum(), ended.errors.sum(), inFlight.sum(), total.sum(), ended.latency);
+        }
+    }
+
+    private static class Interval {
+        private final LongAdder requests = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private final LatencyHistogram latency = new LatencyHistogram();
+    }
+}
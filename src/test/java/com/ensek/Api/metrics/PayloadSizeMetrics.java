@@ -0,0 +1,76 @@
+package com.ensek.Api.metrics;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-endpoint response payload sizes: bytes as received on the wire versus bytes after
+ * decoding, with the number of responses that arrived compressed.
+ */
+public class PayloadSizeMetrics {
+
+    private static final PayloadSizeMetrics instance = new PayloadSizeMetrics();
+
+    private final ConcurrentMap<String, EndpointSizes> endpoints = new ConcurrentHashMap<>();
+
+    public static PayloadSizeMetrics getInstance() {
+        return instance;
+    }
+
+    /**
+     * Record one fully read response body
+     *
+     * @param encoding Content-Encoding it arrived with, or null if none
+     */
+    public void record(String endpoint, String encoding, long wireBytes, long decodedBytes) {
+        EndpointSizes sizes = endpoints.computeIfAbsent(endpoint, key -> new EndpointSizes());
+        sizes.responses.increment();
+        sizes.wireBytes.add(wireBytes);
+        sizes.decodedBytes.add(decodedBytes);
+        if (encoding != null) {
+            sizes.compressed.increment();
+        }
+    }
+
+    public long getWireBytes(String endpoint) {
+        EndpointSizes sizes = endpoints.get(endpoint);
+        return sizes != null ? sizes.wireBytes.sum() : 0;
+    }
+
+    public long getDecodedBytes(String endpoint) {
+        EndpointSizes sizes = endpoints.get(endpoint);
+        return sizes != null ? sizes.decodedBytes.sum() : 0;
+    }
+
+    public void reset() {
+        endpoints.clear();
+    }
+
+    /**
+     * One line per endpoint with responses, wire and decoded kilobytes and the saving
+     */
+    public String summary() {
+        Map<String, EndpointSizes> sorted = new TreeMap<>(endpoints);
+        StringBuilder text = new StringBuilder(String.format("%-36s %9s %11s %12s %13s %8s",
+                "Endpoint", "Responses", "Compressed", "Wire (KB)", "Decoded (KB)", "Saved"));
+        for (Map.Entry<String, EndpointSizes> entry : sorted.entrySet()) {
+            EndpointSizes sizes = entry.getValue();
+            long wire = sizes.wireBytes.sum();
+            long decoded = sizes.decodedBytes.sum();
+            text.append(System.lineSeparator()).append(String.format("%-36s %9d %11d %12.1f %13.1f %7.1f%%",
+                    entry.getKey(), sizes.responses.sum(), sizes.compressed.sum(), wire / 1024.0, decoded / 1024.0,
+                    decoded == 0 ? 0.0 : (decoded - wire) * 100.0 / decoded));
+        }
+        return text.toString();
+    }
+
+    private static class EndpointSizes {
+        private final LongAdder responses = new LongAdder();
+        private final LongAdder compressed = new LongAdder();
+        private final LongAdder wireBytes = new LongAdder();
+        private final LongAdder decodedBytes = new LongAdder();
+    }
+}
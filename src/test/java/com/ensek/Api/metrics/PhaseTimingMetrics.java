@@ -0,0 +1,107 @@
+package com.ensek.Api.metrics;
+
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Per-endpoint latency histograms for each phase of a request: DNS lookup, TCP connect, TLS
+ * handshake, time to first byte and body transfer, plus any durations the server reported in
+ * Server-Timing headers (recorded as "server:&lt;name&gt;").
+ *
+ * DNS, connect and TLS are only recorded for requests that opened a new connection, so their
+ * counts show how often connections were established.
+ */
+public class PhaseTimingMetrics {
+
+    public static final String DNS = "dns";
+    public static final String CONNECT = "connect";
+    public static final String TLS = "tls";
+    public static final String TIME_TO_FIRST_BYTE = "ttfb";
+    public static final String TRANSFER = "transfer";
+    public static final String SERVER_PREFIX = "server:";
+
+    private static final List<String> CLIENT_PHASES = Arrays.asList(DNS, CONNECT, TLS, TIME_TO_FIRST_BYTE, TRANSFER);
+    private static final PhaseTimingMetrics instance = new PhaseTimingMetrics();
+
+    private final ConcurrentMap<String, ConcurrentMap<String, LatencyHistogram>> endpoints = new ConcurrentHashMap<>();
+
+    public static PhaseTimingMetrics getInstance() {
+        return instance;
+    }
+
+    public void record(String endpoint, String phase, long micros) {
+        endpoints.computeIfAbsent(endpoint, key -> new ConcurrentHashMap<>())
+                .computeIfAbsent(phase, key -> new LatencyHistogram())
+                .record(micros);
+    }
+
+    /**
+     * Histogram for one phase of one endpoint, or null if nothing was recorded
+     */
+    public LatencyHistogram getHistogram(String endpoint, String phase) {
+        Map<String, LatencyHistogram> phases = endpoints.get(endpoint);
+        return phases != null ? phases.get(phase) : null;
+    }
+
+    public void reset() {
+        endpoints.clear();
+    }
+
+    public boolean isEmpty() {
+        return endpoints.isEmpty();
+    }
+
+    /**
+     * Histograms (in microseconds) keyed by endpoint, then phase
+     */
+    public ObjectNode toJson() {
+        ObjectNode node = JsonNodeFactory.instance.objectNode();
+        for (Map.Entry<String, ConcurrentMap<String, LatencyHistogram>> endpoint : new TreeMap<>(endpoints).entrySet()) {
+            ObjectNode entry = node.putObject(endpoint.getKey());
+            for (String phase : orderedPhases(endpoint.getValue())) {
+                entry.set(phase, endpoint.getValue().get(phase).toJson());
+            }
+        }
+        return node;
+    }
+
+    /**
+     * One row per endpoint and phase, client phases first in request order
+     */
+    public String summary() {
+        StringBuilder text = new StringBuilder(String.format("%-36s %-16s %9s %10s %10s %10s",
+                "Endpoint", "Phase", "Count", "p50 (ms)", "p99 (ms)", "Mean (ms)"));
+        for (Map.Entry<String, ConcurrentMap<String, LatencyHistogram>> endpoint : new TreeMap<>(endpoints).entrySet()) {
+            for (String phase : orderedPhases(endpoint.getValue())) {
+                LatencyHistogram histogram = endpoint.getValue().get(phase);
+                text.append(System.lineSeparator()).append(String.format("%-36s %-16s %9d %10.2f %10.2f %10.2f",
+                        endpoint.getKey(), phase, histogram.getCount(), histogram.getPercentileMillis(50),
+                        histogram.getPercentileMillis(99), histogram.getMeanMicros() / 1000.0));
+            }
+        }
+        return text.toString();
+    }
+
+    private static List<String> orderedPhases(Map<String, LatencyHistogram> phases) {
+        List<String> ordered = new ArrayList<>();
+        for (String phase : CLIENT_PHASES) {
+            if (phases.containsKey(phase)) {
+                ordered.add(phase);
+            }
+        }
+        for (String phase : new TreeMap<>(phases).keySet()) {
+            if (!CLIENT_PHASES.contains(phase)) {
+                ordered.add(phase);
+            }
+        }
+        return ordered;
+    }
+}
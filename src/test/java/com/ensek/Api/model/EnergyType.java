@@ -0,0 +1,100 @@
+package com.ensek.Api.model;
+
+import com.ensek.Api.utils.ResponseBodyUtils;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.type.TypeReference;
+import io.restassured.response.Response;
+
+import java.util.List;
+
+/**
+ * One entry of the GET /ENSEK/energy listing
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class EnergyType {
+
+    private static final TypeReference<List<EnergyType>> LIST = new TypeReference<List<EnergyType>>() {
+    };
+
+    private int id;
+    private String name;
+    private String type;
+    @JsonProperty("unit_cost")
+    private double unitCost;
+    @JsonProperty("quantity_available")
+    private int quantityAvailable;
+    private String unit;
+
+    /**
+     * Bind a GET /ENSEK/energy response body
+     */
+    public static List<EnergyType> listFrom(Response response) {
+        return ResponseBodyUtils.read(response, LIST);
+    }
+
+    /**
+     * The entry with the given id, or null if the listing has none
+     */
+    public static EnergyType findById(List<EnergyType> energyTypes, int id) {
+        for (EnergyType energyType : energyTypes) {
+            if (energyType.id == id) {
+                return energyType;
+            }
+        }
+        return null;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public void setId(int id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public double getUnitCost() {
+        return unitCost;
+    }
+
+    public void setUnitCost(double unitCost) {
+        this.unitCost = unitCost;
+    }
+
+    public int getQuantityAvailable() {
+        return quantityAvailable;
+    }
+
+    public void setQuantityAvailable(int quantityAvailable) {
+        this.quantityAvailable = quantityAvailable;
+    }
+
+    public String getUnit() {
+        return unit;
+    }
+
+    public void setUnit(String unit) {
+        this.unit = unit;
+    }
+
+    @Override
+    public String toString() {
+        return name + " (" + id + "): " + quantityAvailable + " " + unit + " at " + unitCost;
+    }
+}
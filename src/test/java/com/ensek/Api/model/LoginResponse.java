@@ -0,0 +1,64 @@
+package com.ensek.Api.model;
+
+import com.ensek.Api.utils.ResponseBodyUtils;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.restassured.response.Response;
+
+/**
+ * Body of a successful POST /ENSEK/login
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class LoginResponse {
+
+    @JsonProperty("access_token")
+    private String accessToken;
+    @JsonProperty("token_type")
+    private String tokenType;
+    @JsonProperty("expires_in")
+    private Integer expiresIn;
+    @JsonProperty("user_id")
+    private String userId;
+
+    /**
+     * Bind a POST /ENSEK/login response body
+     */
+    public static LoginResponse from(Response response) {
+        return ResponseBodyUtils.read(response, LoginResponse.class);
+    }
+
+    public String getAccessToken() {
+        return accessToken;
+    }
+
+    public void setAccessToken(String accessToken) {
+        this.accessToken = accessToken;
+    }
+
+    public String getTokenType() {
+        return tokenType;
+    }
+
+    public void setTokenType(String tokenType) {
+        this.tokenType = tokenType;
+    }
+
+    /**
+     * Token lifetime in seconds, or null if the API did not say
+     */
+    public Integer getExpiresIn() {
+        return expiresIn;
+    }
+
+    public void setExpiresIn(Integer expiresIn) {
+        this.expiresIn = expiresIn;
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    public void setUserId(String userId) {
+        this.userId = userId;
+    }
+}
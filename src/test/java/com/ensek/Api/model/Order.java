@@ -0,0 +1,107 @@
+package com.ensek.Api.model;
+
+import com.ensek.Api.utils.ResponseBodyUtils;
+import com.fasterxml.jackson.annotation.JsonAlias;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.core.type.TypeReference;
+import io.restassured.response.Response;
+
+import java.util.List;
+
+/**
+ * One order from GET /ENSEK/orders or GET /ENSEK/orders/{orderId}.
+ *
+ * The live API names some fields differently from the documented schema ("id", "fuel" as a name
+ * and "time"); both spellings bind, so fuelId is null where only the fuel name is given.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class Order {
+
+    private static final TypeReference<List<Order>> LIST = new TypeReference<List<Order>>() {
+    };
+
+    @JsonAlias("id")
+    private String orderId;
+    private Integer fuelId;
+    private String fuel;
+    private int quantity;
+    @JsonAlias("time")
+    private String timestamp;
+    private String status;
+    private Double totalCost;
+
+    /**
+     * Bind a GET /ENSEK/orders response body
+     */
+    public static List<Order> listFrom(Response response) {
+        return ResponseBodyUtils.read(response, LIST);
+    }
+
+    /**
+     * Bind a GET /ENSEK/orders/{orderId} response body
+     */
+    public static Order from(Response response) {
+        return ResponseBodyUtils.read(response, Order.class);
+    }
+
+    public String getOrderId() {
+        return orderId;
+    }
+
+    public void setOrderId(String orderId) {
+        this.orderId = orderId;
+    }
+
+    public Integer getFuelId() {
+        return fuelId;
+    }
+
+    public void setFuelId(Integer fuelId) {
+        this.fuelId = fuelId;
+    }
+
+    public String getFuel() {
+        return fuel;
+    }
+
+    public void setFuel(String fuel) {
+        this.fuel = fuel;
+    }
+
+    public int getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(int quantity) {
+        this.quantity = quantity;
+    }
+
+    public String getTimestamp() {
+        return timestamp;
+    }
+
+    public void setTimestamp(String timestamp) {
+        this.timestamp = timestamp;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public Double getTotalCost() {
+        return totalCost;
+    }
+
+    public void setTotalCost(Double totalCost) {
+        this.totalCost = totalCost;
+    }
+
+    @Override
+    public String toString() {
+        return "Order " + orderId + ": " + quantity + " x " + (fuelId != null ? "fuel " + fuelId : fuel);
+    }
+}
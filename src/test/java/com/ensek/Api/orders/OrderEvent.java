@@ -0,0 +1,48 @@
+package com.ensek.Api.orders;
+
+/**
+ * A change in the orders listing seen by {@link OrdersWatcher}
+ */
+public class OrderEvent {
+
+    public enum Type { ADDED, REMOVED, CHANGED }
+
+    private final Type type;
+    private final String orderId;
+    private final int fuelId;
+    private final int quantity;
+
+    public OrderEvent(Type type, String orderId, int fuelId, int quantity) {
+        this.type = type;
+        this.orderId = orderId;
+        this.fuelId = fuelId;
+        this.quantity = quantity;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public String getOrderId() {
+        return orderId;
+    }
+
+    /**
+     * Fuel id, or {@link OrderListing#UNKNOWN_FUEL} if the listing does not carry one
+     */
+    public int getFuelId() {
+        return fuelId;
+    }
+
+    /**
+     * Quantity after the change; for REMOVED, the quantity the order last had
+     */
+    public int getQuantity() {
+        return quantity;
+    }
+
+    @Override
+    public String toString() {
+        return type + " " + orderId + " fuel=" + fuelId + " quantity=" + quantity;
+    }
+}
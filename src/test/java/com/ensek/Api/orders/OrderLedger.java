@@ -0,0 +1,192 @@
+package com.ensek.Api.orders;
+
+import java.util.Arrays;
+
+/**
+ * A set of orders keyed by order id, held in primitive arrays only.
+ *
+ * Order id characters are appended to one growing {@code char[]} arena and located through
+ * {@code idStarts}; fuel id and quantity sit in parallel {@code int[]}s. An open-addressing
+ * {@code int[]} table with linear probing maps an id to its entry, and a {@code long[]} bitset
+ * marks entries already seen during a reconciliation pass. Nothing is boxed, so a million
+ * UUID orders cost roughly 100 MB regardless of how many are looked up.
+ *
+ * Lookups take the id as a char range so that a streaming JSON parser can pass its own text
+ * buffer without creating a String.
+ */
+public class OrderLedger {
+
+    private static final int NOT_FOUND = -1;
+
+    private char[] idChars = new char[1024];
+    private int idCharsUsed;
+    private int[] idStarts = new int[33];
+    private int[] hashes = new int[32];
+    private int[] fuelIds = new int[32];
+    private int[] quantities = new int[32];
+    private long[] seen = new long[1];
+    private int size;
+    private int[] table = new int[64];
+
+    /**
+     * Add an order; returns false if the id is already in the ledger
+     */
+    public boolean add(String orderId, int fuelId, int quantity) {
+        return add(orderId.toCharArray(), 0, orderId.length(), fuelId, quantity);
+    }
+
+    /**
+     * Add an order whose id is the given char range; returns false if the id is already in the ledger
+     */
+    public synchronized boolean add(char[] chars, int offset, int length, int fuelId, int quantity) {
+        if (indexOf(chars, offset, length) != NOT_FOUND) {
+            return false;
+        }
+        int hash = hash(chars, offset, length);
+        ensureEntryCapacity(size + 1, length);
+        System.arraycopy(chars, offset, idChars, idCharsUsed, length);
+        idCharsUsed += length;
+        idStarts[size + 1] = idCharsUsed;
+        hashes[size] = hash;
+        fuelIds[size] = fuelId;
+        quantities[size] = quantity;
+        insert(size, hash);
+        size++;
+        return true;
+    }
+
+    /**
+     * Index of the entry with the given id, or -1
+     */
+    public synchronized int indexOf(char[] chars, int offset, int length) {
+        int hash = hash(chars, offset, length);
+        int mask = table.length - 1;
+        for (int slot = mix(hash) & mask; table[slot] != 0; slot = (slot + 1) & mask) {
+            int entry = table[slot] - 1;
+            if (hashes[entry] == hash && idEquals(entry, chars, offset, length)) {
+                return entry;
+            }
+        }
+        return NOT_FOUND;
+    }
+
+    public int indexOf(String orderId) {
+        return indexOf(orderId.toCharArray(), 0, orderId.length());
+    }
+
+    /**
+     * Index of the entry in this ledger with the same id as the given entry of another ledger, or -1
+     */
+    public int indexOf(OrderLedger other, int otherEntry) {
+        synchronized (other) {
+            int start = other.idStarts[otherEntry];
+            return indexOf(other.idChars, start, other.idStarts[otherEntry + 1] - start);
+        }
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    public synchronized int getFuelId(int entry) {
+        return fuelIds[entry];
+    }
+
+    public synchronized int getQuantity(int entry) {
+        return quantities[entry];
+    }
+
+    public synchronized String getOrderId(int entry) {
+        return new String(idChars, idStarts[entry], idStarts[entry + 1] - idStarts[entry]);
+    }
+
+    /**
+     * Mark an entry as seen; returns false if it was already marked
+     */
+    public synchronized boolean markSeen(int entry) {
+        long bit = 1L << entry;
+        int word = entry >>> 6;
+        boolean first = (seen[word] & bit) == 0;
+        seen[word] |= bit;
+        return first;
+    }
+
+    public synchronized boolean isSeen(int entry) {
+        return (seen[entry >>> 6] & (1L << entry)) != 0;
+    }
+
+    /**
+     * Index of the next entry at or after {@code from} that has not been seen, or -1
+     */
+    public synchronized int nextUnseen(int from) {
+        for (int entry = from; entry < size; entry++) {
+            int word = entry >>> 6;
+            long unseen = ~seen[word] & (-1L << entry);
+            if (unseen != 0) {
+                int candidate = (word << 6) + Long.numberOfTrailingZeros(unseen);
+                return candidate < size ? candidate : NOT_FOUND;
+            }
+            entry = (word << 6) + 63;
+        }
+        return NOT_FOUND;
+    }
+
+    /**
+     * Forget which entries were seen, ready for another reconciliation pass
+     */
+    public synchronized void clearSeen() {
+        Arrays.fill(seen, 0L);
+    }
+
+    private void insert(int entry, int hash) {
+        int mask = table.length - 1;
+        int slot = mix(hash) & mask;
+        while (table[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        table[slot] = entry + 1;
+    }
+
+    private void ensureEntryCapacity(int entries, int extraChars) {
+        if (idCharsUsed + extraChars > idChars.length) {
+            idChars = Arrays.copyOf(idChars, Math.max(idChars.length * 2, idCharsUsed + extraChars));
+        }
+        if (entries > hashes.length) {
+            int capacity = hashes.length * 2;
+            idStarts = Arrays.copyOf(idStarts, capacity + 1);
+            hashes = Arrays.copyOf(hashes, capacity);
+            fuelIds = Arrays.copyOf(fuelIds, capacity);
+            quantities = Arrays.copyOf(quantities, capacity);
+            seen = Arrays.copyOf(seen, (capacity + 63) >>> 6);
+        }
+        // Keep the table at most half full so probe sequences stay short
+        if (entries * 2 > table.length) {
+            table = new int[table.length * 2];
+            for (int entry = 0; entry < size; entry++) {
+                insert(entry, hashes[entry]);
+            }
+        }
+    }
+
+    private boolean idEquals(int entry, char[] chars, int offset, int length) {
+        int start = idStarts[entry];
+        return idStarts[entry + 1] - start == length
+                && Arrays.equals(idChars, start, start + length, chars, offset, offset + length);
+    }
+
+    private static int hash(char[] chars, int offset, int length) {
+        int hash = 0;
+        for (int i = offset; i < offset + length; i++) {
+            hash = 31 * hash + chars[i];
+        }
+        return hash;
+    }
+
+    /**
+     * Spread the String-style hash so that ids sharing a prefix do not cluster in the table
+     */
+    private static int mix(int hash) {
+        int mixed = hash * 0x9E3779B9;
+        return mixed ^ (mixed >>> 16);
+    }
+}
@@ -0,0 +1,82 @@
+package com.ensek.Api.orders;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Streaming reader for a {@code GET /ENSEK/orders} listing.
+ *
+ * Each order may name its id "orderId" or "id", and its fuel "fuelId" (reported) or "fuel"
+ * (a name, reported as {@link #UNKNOWN_FUEL}). Ids are handed to the visitor as a range of the
+ * parser's own character buffer, valid only for the duration of the call.
+ */
+public final class OrderListing {
+
+    /**
+     * Fuel id reported when an order does not carry a numeric one
+     */
+    public static final int UNKNOWN_FUEL = Integer.MIN_VALUE;
+
+    /**
+     * Quantity reported when an order does not carry one
+     */
+    public static final long UNKNOWN_QUANTITY = Long.MIN_VALUE;
+
+    private static final JsonFactory jsonFactory = new JsonFactory();
+
+    /**
+     * Receives one order of the listing
+     */
+    public interface OrderVisitor {
+        /**
+         * @param id id characters, or null if the order has no id
+         */
+        void order(char[] id, int offset, int length, long fuelId, long quantity);
+    }
+
+    private OrderListing() {
+    }
+
+    /**
+     * Parse a JSON array of orders, passing each one to the visitor; returns the number of orders
+     */
+    public static long parse(InputStream listing, OrderVisitor visitor) throws IOException {
+        long count = 0;
+        // The parser reuses its text buffer for later tokens, so the id is copied into this one
+        char[] idBuffer = new char[64];
+        try (JsonParser parser = jsonFactory.createParser(listing)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IOException("Orders listing is not a JSON array");
+            }
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                int idLength = -1;
+                long fuelId = UNKNOWN_FUEL;
+                long quantity = UNKNOWN_QUANTITY;
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String field = parser.currentName();
+                    JsonToken value = parser.nextToken();
+                    if (("orderId".equals(field) || "id".equals(field)) && value == JsonToken.VALUE_STRING) {
+                        idLength = parser.getTextLength();
+                        if (idLength > idBuffer.length) {
+                            idBuffer = new char[idLength * 2];
+                        }
+                        System.arraycopy(parser.getTextCharacters(), parser.getTextOffset(), idBuffer, 0, idLength);
+                    } else if ("fuelId".equals(field) && value == JsonToken.VALUE_NUMBER_INT) {
+                        fuelId = parser.getLongValue();
+                    } else if ("quantity".equals(field) && value == JsonToken.VALUE_NUMBER_INT) {
+                        quantity = parser.getLongValue();
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+                visitor.order(idLength >= 0 ? idBuffer : null, 0, Math.max(idLength, 0), fuelId, quantity);
+                count++;
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,119 @@
+package com.ensek.Api.orders;
+
+import com.ensek.Api.utils.ResponseBodyUtils;
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
+import io.restassured.response.Response;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Tracks every order the run places and checks them against a {@code GET /ENSEK/orders} listing.
+ *
+ * The listing is read with {@link OrderListing} in a single streaming pass: each order's id is
+ * looked up in the {@link OrderLedger} as a char range and its fuel id and quantity compared as
+ * primitives, so no tree or per-order objects are built. Orders listed by other users are
+ * counted but otherwise ignored.
+ */
+public class OrderReconciler {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderReconciler.class);
+    private static final OrderReconciler shared = new OrderReconciler();
+    private static final Pattern ORDER_ID_IN_MESSAGE = Pattern.compile("order\\s*id is ([^\\s.]+)", Pattern.CASE_INSENSITIVE);
+
+    /**
+     * Fuel id recorded for orders where it is not known; never compared
+     */
+    public static final int UNKNOWN_FUEL = OrderListing.UNKNOWN_FUEL;
+
+    private final OrderLedger ledger = new OrderLedger();
+
+    /**
+     * Reconciler shared by the tests of one run
+     */
+    public static OrderReconciler getShared() {
+        return shared;
+    }
+
+    /**
+     * Record an order placed by this run
+     */
+    public void record(int fuelId, int quantity, String orderId) {
+        if (!ledger.add(orderId, fuelId, quantity)) {
+            logger.warn("Order id {} was returned for more than one purchase", orderId);
+        }
+    }
+
+    /**
+     * Record the order from a successful buy response, whose message ends
+     * "Your orderid is &lt;id&gt;."; returns the order id, or null if the message has none
+     */
+    public String recordPurchase(int fuelId, int quantity, Response buyResponse) {
+        String message = buyResponse.jsonPath().getString("message");
+        Matcher matcher = ORDER_ID_IN_MESSAGE.matcher(message != null ? message : "");
+        if (!matcher.find()) {
+            logger.warn("No order id in buy response: {}", message);
+            return null;
+        }
+        record(fuelId, quantity, matcher.group(1));
+        return matcher.group(1);
+    }
+
+    /**
+     * Number of orders recorded so far
+     */
+    public int getRecordedCount() {
+        return ledger.size();
+    }
+
+    /**
+     * Diff the recorded orders against an orders listing response
+     */
+    public ReconciliationReport reconcile(Response ordersResponse) {
+        return ResponseBodyUtils.withBody(ordersResponse, body -> reconcile(new ByteBufferBackedInputStream(body)));
+    }
+
+    /**
+     * Diff the recorded orders against a JSON array of orders in the format read by {@link OrderListing}
+     */
+    public synchronized ReconciliationReport reconcile(InputStream listing) throws IOException {
+        ReconciliationReport report = new ReconciliationReport(ledger.size());
+        ledger.clearSeen();
+        OrderListing.parse(listing, (id, offset, length, fuelId, quantity) ->
+                reconcileOrder(id != null ? ledger.indexOf(id, offset, length) : -1, fuelId, quantity, report));
+        for (int entry = ledger.nextUnseen(0); entry >= 0; entry = ledger.nextUnseen(entry + 1)) {
+            report.addMissing(ledger.getOrderId(entry));
+        }
+        logger.info("Orders reconciliation: {}", report);
+        return report;
+    }
+
+    private void reconcileOrder(int entry, long fuelId, long quantity, ReconciliationReport report) {
+        report.countListed();
+        if (entry < 0) {
+            return;
+        }
+        if (!ledger.markSeen(entry)) {
+            report.addDuplicate(ledger.getOrderId(entry));
+            return;
+        }
+        int expectedFuel = ledger.getFuelId(entry);
+        int expectedQuantity = ledger.getQuantity(entry);
+        boolean fuelMatches = expectedFuel == UNKNOWN_FUEL || fuelId == UNKNOWN_FUEL || fuelId == expectedFuel;
+        if (fuelMatches && quantity == expectedQuantity) {
+            report.countMatched();
+        } else {
+            report.addMismatch(String.format("%s: expected fuel %s quantity %d, listed fuel %s quantity %s",
+                    ledger.getOrderId(entry), describe(expectedFuel), expectedQuantity, describe(fuelId),
+                    quantity == OrderListing.UNKNOWN_QUANTITY ? "missing" : String.valueOf(quantity)));
+        }
+    }
+
+    private static String describe(long fuelId) {
+        return fuelId == UNKNOWN_FUEL ? "?" : String.valueOf(fuelId);
+    }
+}
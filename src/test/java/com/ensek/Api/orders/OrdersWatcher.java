@@ -0,0 +1,212 @@
+package com.ensek.Api.orders;
+
+import com.ensek.Api.utils.ResponseBodyUtils;
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
+import io.restassured.response.Response;
+import io.restassured.specification.RequestSpecification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.zip.CRC32C;
+
+import static io.restassured.RestAssured.given;
+
+/**
+ * Polls {@code GET /ENSEK/orders} and reports what changed between polls as {@link OrderEvent}s.
+ *
+ * Each poll is a conditional request with the last ETag in If-None-Match, so an unchanged
+ * listing costs a 304 with no body. When the server sends no ETag, or a new ETag for identical
+ * content, the body is fingerprinted with CRC32C straight from the pooled buffer and only parsed
+ * when the fingerprint differs. A changed listing is parsed into an {@link OrderLedger} and diffed
+ * against the previous one; the first successful poll reports every listed order as ADDED.
+ *
+ * Listeners run on the polling thread and must not block.
+ */
+public class OrdersWatcher implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrdersWatcher.class);
+    private static final String ORDERS_PATH = "/ENSEK/orders";
+
+    private final RequestSpecification spec;
+    private final List<Consumer<OrderEvent>> listeners = new CopyOnWriteArrayList<>();
+    private final LongAdder polls = new LongAdder();
+    private final LongAdder notModified = new LongAdder();
+    private final LongAdder unchangedContent = new LongAdder();
+    private final LongAdder parsed = new LongAdder();
+    private final LongAdder bytesReceived = new LongAdder();
+    private ScheduledExecutorService poller;
+    private String etag;
+    private long fingerprint = -1;
+    private OrderLedger current;
+
+    /**
+     * @param spec request specification carrying the base URI and authorization
+     */
+    public OrdersWatcher(RequestSpecification spec) {
+        this.spec = spec;
+    }
+
+    public OrdersWatcher addListener(Consumer<OrderEvent> listener) {
+        listeners.add(listener);
+        return this;
+    }
+
+    /**
+     * Poll every {@code intervalMillis} on a background thread until closed
+     */
+    public synchronized OrdersWatcher start(long intervalMillis) {
+        if (poller == null) {
+            poller = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "orders-watcher");
+                thread.setDaemon(true);
+                return thread;
+            });
+            poller.scheduleWithFixedDelay(this::pollQuietly, 0, intervalMillis, TimeUnit.MILLISECONDS);
+        }
+        return this;
+    }
+
+    /**
+     * Poll once; returns the number of events emitted
+     */
+    public synchronized int poll() {
+        polls.increment();
+        RequestSpecification request = given().spec(spec);
+        if (etag != null) {
+            request.header("If-None-Match", etag);
+        }
+        Response response = request.get(ORDERS_PATH);
+
+        if (response.getStatusCode() == 304) {
+            notModified.increment();
+            return 0;
+        }
+        if (response.getStatusCode() != 200) {
+            throw new IllegalStateException("Orders listing returned HTTP " + response.getStatusCode());
+        }
+        String responseEtag = response.getHeader("ETag");
+        OrderLedger next = ResponseBodyUtils.withBody(response, this::parseIfChanged);
+        etag = responseEtag;
+        if (next == null) {
+            unchangedContent.increment();
+            return 0;
+        }
+        parsed.increment();
+        int events = diff(current, next);
+        current = next;
+        return events;
+    }
+
+    public long getPollCount() {
+        return polls.sum();
+    }
+
+    /**
+     * Polls answered with 304 Not Modified
+     */
+    public long getNotModifiedCount() {
+        return notModified.sum();
+    }
+
+    /**
+     * Polls that returned a body identical to the previous one, so it was not parsed
+     */
+    public long getUnchangedContentCount() {
+        return unchangedContent.sum();
+    }
+
+    /**
+     * Polls whose body was parsed and diffed
+     */
+    public long getParsedCount() {
+        return parsed.sum();
+    }
+
+    public long getBytesReceived() {
+        return bytesReceived.sum();
+    }
+
+    /**
+     * Number of orders in the last parsed listing
+     */
+    public synchronized int getOrderCount() {
+        return current != null ? current.size() : 0;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (poller != null) {
+            poller.shutdownNow();
+            poller = null;
+        }
+    }
+
+    private void pollQuietly() {
+        try {
+            poll();
+        } catch (RuntimeException e) {
+            logger.warn("Orders poll failed: {}", e.getMessage());
+        }
+    }
+
+    private OrderLedger parseIfChanged(ByteBuffer body) throws IOException {
+        bytesReceived.add(body.remaining());
+        CRC32C crc = new CRC32C();
+        crc.update(body.duplicate());
+        long bodyFingerprint = (long) body.remaining() << 32 | crc.getValue();
+        if (current != null && bodyFingerprint == fingerprint) {
+            return null;
+        }
+        OrderLedger ledger = new OrderLedger();
+        OrderListing.parse(new ByteBufferBackedInputStream(body), (id, offset, length, fuelId, quantity) -> {
+            if (id != null) {
+                ledger.add(id, offset, length, (int) fuelId, (int) Math.max(Integer.MIN_VALUE, quantity));
+            }
+        });
+        fingerprint = bodyFingerprint;
+        return ledger;
+    }
+
+    private int diff(OrderLedger previous, OrderLedger next) {
+        int events = 0;
+        for (int entry = 0; entry < next.size(); entry++) {
+            int before = previous != null ? previous.indexOf(next, entry) : -1;
+            if (before < 0) {
+                emit(OrderEvent.Type.ADDED, next, entry);
+                events++;
+            } else if (previous.getFuelId(before) != next.getFuelId(entry)
+                    || previous.getQuantity(before) != next.getQuantity(entry)) {
+                emit(OrderEvent.Type.CHANGED, next, entry);
+                events++;
+            }
+        }
+        if (previous != null) {
+            for (int entry = 0; entry < previous.size(); entry++) {
+                if (next.indexOf(previous, entry) < 0) {
+                    emit(OrderEvent.Type.REMOVED, previous, entry);
+                    events++;
+                }
+            }
+        }
+        return events;
+    }
+
+    private void emit(OrderEvent.Type type, OrderLedger ledger, int entry) {
+        if (listeners.isEmpty()) {
+            return;
+        }
+        OrderEvent event = new OrderEvent(type, ledger.getOrderId(entry), ledger.getFuelId(entry), ledger.getQuantity(entry));
+        for (Consumer<OrderEvent> listener : listeners) {
+            listener.accept(event);
+        }
+    }
+}
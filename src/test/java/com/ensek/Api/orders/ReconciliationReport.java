@@ -0,0 +1,117 @@
+package com.ensek.Api.orders;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Outcome of one {@link OrderReconciler} pass. Counts are exact; only the first
+ * {@link #SAMPLE_LIMIT} order ids of each problem kind are kept for reporting.
+ */
+public class ReconciliationReport {
+
+    public static final int SAMPLE_LIMIT = 20;
+
+    private final int recorded;
+    private long listed;
+    private int matched;
+    private int missing;
+    private int mismatched;
+    private int duplicated;
+    private final List<String> missingSamples = new ArrayList<>();
+    private final List<String> mismatchSamples = new ArrayList<>();
+    private final List<String> duplicateSamples = new ArrayList<>();
+
+    ReconciliationReport(int recorded) {
+        this.recorded = recorded;
+    }
+
+    void countListed() {
+        listed++;
+    }
+
+    void countMatched() {
+        matched++;
+    }
+
+    void addMissing(String orderId) {
+        missing++;
+        sample(missingSamples, orderId);
+    }
+
+    void addMismatch(String description) {
+        mismatched++;
+        sample(mismatchSamples, description);
+    }
+
+    void addDuplicate(String orderId) {
+        duplicated++;
+        sample(duplicateSamples, orderId);
+    }
+
+    /**
+     * True when every recorded order was listed exactly once with the expected fuel and quantity
+     */
+    public boolean isClean() {
+        return missing == 0 && mismatched == 0 && duplicated == 0;
+    }
+
+    public int getRecorded() {
+        return recorded;
+    }
+
+    public long getListed() {
+        return listed;
+    }
+
+    public int getMatched() {
+        return matched;
+    }
+
+    public int getMissing() {
+        return missing;
+    }
+
+    public int getMismatched() {
+        return mismatched;
+    }
+
+    public int getDuplicated() {
+        return duplicated;
+    }
+
+    public List<String> getMissingSamples() {
+        return Collections.unmodifiableList(missingSamples);
+    }
+
+    public List<String> getMismatchSamples() {
+        return Collections.unmodifiableList(mismatchSamples);
+    }
+
+    public List<String> getDuplicateSamples() {
+        return Collections.unmodifiableList(duplicateSamples);
+    }
+
+    private static void sample(List<String> samples, String value) {
+        if (samples.size() < SAMPLE_LIMIT) {
+            samples.add(value);
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder(String.format(
+                "recorded=%d listed=%d matched=%d missing=%d mismatched=%d duplicated=%d",
+                recorded, listed, matched, missing, mismatched, duplicated));
+        if (!missingSamples.isEmpty()) {
+            text.append(System.lineSeparator()).append(" missing: ").append(missingSamples);
+        }
+        for (String mismatch : mismatchSamples) {
+            text.append(System.lineSeparator()).append(" mismatch: ").append(mismatch);
+        }
+        if (!duplicateSamples.isEmpty()) {
+            text.append(System.lineSeparator()).append(" duplicated: ").append(duplicateSamples);
+        }
+        return text.toString();
+    }
+}
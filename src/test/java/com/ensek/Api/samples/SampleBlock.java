@@ -0,0 +1,148 @@
+package com.ensek.Api.samples;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A block of request samples stored column by column, the unit {@link SampleSink} writes and
+ * {@link SampleReader} reads.
+ *
+ * Layout, big-endian: int {@link #MAGIC}, int sample count, int dictionary entry count, the
+ * dictionary entries (byte kind, short id, short length, UTF-8 name) introducing endpoint labels
+ * and thread names first used in this block, then the columns: long[] start (epoch microseconds),
+ * int[] latency (microseconds), int[] bytes, short[] status, short[] endpoint id, short[] thread id.
+ * A sample costs 22 bytes.
+ */
+final class SampleBlock {
+
+    static final int MAGIC = 0x534D5042;
+    static final byte ENDPOINT = 0;
+    static final byte THREAD = 1;
+    static final int SAMPLE_BYTES = 8 + 4 + 4 + 2 + 2 + 2;
+
+    final long[] startMicros;
+    final int[] latencyMicros;
+    final int[] bytes;
+    final short[] status;
+    final short[] endpoint;
+    final short[] thread;
+    final List<DictionaryEntry> dictionary = new ArrayList<>();
+    int count;
+
+    SampleBlock(int capacity) {
+        startMicros = new long[capacity];
+        latencyMicros = new int[capacity];
+        bytes = new int[capacity];
+        status = new short[capacity];
+        endpoint = new short[capacity];
+        thread = new short[capacity];
+    }
+
+    int capacity() {
+        return startMicros.length;
+    }
+
+    void clear() {
+        count = 0;
+        dictionary.clear();
+    }
+
+    /**
+     * Encoded size of the block as it stands
+     */
+    int encodedSize() {
+        int size = 12 + count * SAMPLE_BYTES;
+        for (DictionaryEntry entry : dictionary) {
+            size += 5 + entry.name.getBytes(StandardCharsets.UTF_8).length;
+        }
+        return size;
+    }
+
+    void encode(ByteBuffer buffer) {
+        buffer.putInt(MAGIC).putInt(count).putInt(dictionary.size());
+        for (DictionaryEntry entry : dictionary) {
+            byte[] name = entry.name.getBytes(StandardCharsets.UTF_8);
+            buffer.put(entry.kind).putShort(entry.id).putShort((short) name.length).put(name);
+        }
+        for (int i = 0; i < count; i++) {
+            buffer.putLong(startMicros[i]);
+        }
+        for (int i = 0; i < count; i++) {
+            buffer.putInt(latencyMicros[i]);
+        }
+        for (int i = 0; i < count; i++) {
+            buffer.putInt(bytes[i]);
+        }
+        for (int i = 0; i < count; i++) {
+            buffer.putShort(status[i]);
+        }
+        for (int i = 0; i < count; i++) {
+            buffer.putShort(endpoint[i]);
+        }
+        for (int i = 0; i < count; i++) {
+            buffer.putShort(thread[i]);
+        }
+    }
+
+    /**
+     * The next block of the stream, or null at a clean end of file
+     */
+    static SampleBlock decode(DataInputStream in) throws IOException {
+        int magic;
+        try {
+            magic = in.readInt();
+        } catch (EOFException e) {
+            return null;
+        }
+        if (magic != MAGIC) {
+            throw new IOException(String.format("Not a sample block (magic %08x)", magic));
+        }
+        int count = in.readInt();
+        int entries = in.readInt();
+        SampleBlock block = new SampleBlock(count);
+        block.count = count;
+        for (int i = 0; i < entries; i++) {
+            byte kind = in.readByte();
+            short id = in.readShort();
+            byte[] name = new byte[in.readUnsignedShort()];
+            in.readFully(name);
+            block.dictionary.add(new DictionaryEntry(kind, id, new String(name, StandardCharsets.UTF_8)));
+        }
+        for (int i = 0; i < count; i++) {
+            block.startMicros[i] = in.readLong();
+        }
+        for (int i = 0; i < count; i++) {
+            block.latencyMicros[i] = in.readInt();
+        }
+        for (int i = 0; i < count; i++) {
+            block.bytes[i] = in.readInt();
+        }
+        for (int i = 0; i < count; i++) {
+            block.status[i] = in.readShort();
+        }
+        for (int i = 0; i < count; i++) {
+            block.endpoint[i] = in.readShort();
+        }
+        for (int i = 0; i < count; i++) {
+            block.thread[i] = in.readShort();
+        }
+        return block;
+    }
+
+    static final class DictionaryEntry {
+        final byte kind;
+        final short id;
+        final String name;
+
+        DictionaryEntry(byte kind, short id, String name) {
+            this.kind = kind;
+            this.id = id;
+            this.name = name;
+        }
+    }
+}
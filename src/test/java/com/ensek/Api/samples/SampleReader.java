@@ -0,0 +1,192 @@
+package com.ensek.Api.samples;
+
+import com.ensek.Api.metrics.LatencyHistogram;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedWriter;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+/**
+ * Reads the request sample files written by {@link SampleSink}.
+ *
+ * As a tool it prints count, errors, throughput, bytes and latency percentiles per endpoint, and
+ * can export the raw samples as CSV for a spreadsheet or notebook.
+ *
+ * Usage: SampleReader &lt;file.smp&gt; [--csv out.csv]
+ */
+public class SampleReader {
+
+    private final Path file;
+
+    public SampleReader(Path file) {
+        this.file = file;
+    }
+
+    /**
+     * Pass every sample in the file to the consumer, in the order they were written
+     */
+    public void forEach(Consumer<Sample> consumer) throws IOException {
+        Map<Short, String> endpoints = new HashMap<>();
+        Map<Short, String> threads = new HashMap<>();
+        try (InputStream stream = Files.newInputStream(file);
+             DataInputStream in = new DataInputStream(new BufferedInputStream(stream, 64 * 1024))) {
+            byte[] magic = new byte[SampleSink.MAGIC.length];
+            in.readFully(magic);
+            if (!Arrays.equals(magic, SampleSink.MAGIC)) {
+                throw new IOException("Not a request sample file: " + file);
+            }
+            SampleBlock block;
+            while ((block = SampleBlock.decode(in)) != null) {
+                for (SampleBlock.DictionaryEntry entry : block.dictionary) {
+                    (entry.kind == SampleBlock.ENDPOINT ? endpoints : threads).put(entry.id, entry.name);
+                }
+                for (int i = 0; i < block.count; i++) {
+                    consumer.accept(new Sample(block.startMicros[i], endpoints.get(block.endpoint[i]),
+                            block.status[i], block.latencyMicros[i], block.bytes[i], threads.get(block.thread[i])));
+                }
+            }
+        }
+    }
+
+    /**
+     * One line per endpoint: requests, errors (status 0 or 4xx/5xx), throughput over the file's time span,
+     * mean bytes and latency
+     */
+    public String summary() throws IOException {
+        Map<String, LatencyHistogram> latencies = new TreeMap<>();
+        Map<String, long[]> totals = new HashMap<>();
+        long[] span = {Long.MAX_VALUE, Long.MIN_VALUE};
+        forEach(sample -> {
+            latencies.computeIfAbsent(sample.getEndpoint(), key -> new LatencyHistogram()).record(sample.getLatencyMicros());
+            long[] total = totals.computeIfAbsent(sample.getEndpoint(), key -> new long[2]);
+            total[0] += sample.getStatus() == 0 || sample.getStatus() >= 400 ? 1 : 0;
+            total[1] += sample.getBytes();
+            span[0] = Math.min(span[0], sample.getStartMicros());
+            span[1] = Math.max(span[1], sample.getStartMicros() + sample.getLatencyMicros());
+        });
+        double seconds = span[1] > span[0] ? (span[1] - span[0]) / 1e6 : 0;
+        StringBuilder text = new StringBuilder(String.format("%-36s %9s %8s %9s %10s %10s %10s %10s",
+                "Endpoint", "Requests", "Errors", "Req/s", "Bytes", "p50 (ms)", "p99 (ms)", "Max (ms)"));
+        latencies.forEach((endpoint, latency) -> {
+            long[] total = totals.get(endpoint);
+            text.append(System.lineSeparator()).append(String.format("%-36s %9d %8d %9.1f %10d %10.2f %10.2f %10.2f",
+                    endpoint, latency.getCount(), total[0], seconds == 0 ? 0.0 : latency.getCount() / seconds,
+                    total[1] / latency.getCount(), latency.getPercentileMillis(50), latency.getPercentileMillis(99),
+                    latency.getMaxMicros() / 1000.0));
+        });
+        if (span[0] != Long.MAX_VALUE) {
+            text.append(System.lineSeparator()).append(String.format("From %s to %s (%.1f s)",
+                    Instant.ofEpochSecond(0, span[0] * 1000), Instant.ofEpochSecond(0, span[1] * 1000), seconds));
+        }
+        return text.toString();
+    }
+
+    /**
+     * Write every sample as a CSV row; returns the number of rows
+     */
+    public long exportCsv(Path csv) throws IOException {
+        long[] rows = {0};
+        try (BufferedWriter out = Files.newBufferedWriter(csv, StandardCharsets.UTF_8)) {
+            out.write("start_epoch_micros,endpoint,status,latency_micros,bytes,thread");
+            out.newLine();
+            IOException[] failure = {null};
+            forEach(sample -> {
+                if (failure[0] != null) {
+                    return;
+                }
+                try {
+                    out.write(sample.getStartMicros() + "," + quote(sample.getEndpoint()) + "," + sample.getStatus() + ","
+                            + sample.getLatencyMicros() + "," + sample.getBytes() + "," + quote(sample.getThread()));
+                    out.newLine();
+                    rows[0]++;
+                } catch (IOException e) {
+                    failure[0] = e;
+                }
+            });
+            if (failure[0] != null) {
+                throw failure[0];
+            }
+        }
+        return rows[0];
+    }
+
+    private static String quote(String value) {
+        return "\"" + String.valueOf(value).replace("\"", "\"\"") + "\"";
+    }
+
+    /**
+     * One response as recorded
+     */
+    public static final class Sample {
+        private final long startMicros;
+        private final String endpoint;
+        private final int status;
+        private final int latencyMicros;
+        private final int bytes;
+        private final String thread;
+
+        Sample(long startMicros, String endpoint, int status, int latencyMicros, int bytes, String thread) {
+            this.startMicros = startMicros;
+            this.endpoint = endpoint;
+            this.status = status;
+            this.latencyMicros = latencyMicros;
+            this.bytes = bytes;
+            this.thread = thread;
+        }
+
+        /**
+         * When the request was sent, in microseconds since the epoch
+         */
+        public long getStartMicros() {
+            return startMicros;
+        }
+
+        public String getEndpoint() {
+            return endpoint;
+        }
+
+        public int getStatus() {
+            return status;
+        }
+
+        public int getLatencyMicros() {
+            return latencyMicros;
+        }
+
+        /**
+         * Response body bytes as read by the client, after decompression
+         */
+        public int getBytes() {
+            return bytes;
+        }
+
+        public String getThread() {
+            return thread;
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.err.println("Usage: SampleReader <file.smp> [--csv out.csv]");
+            System.exit(2);
+        }
+        SampleReader reader = new SampleReader(Paths.get(args[0]));
+        if (args.length > 2 && "--csv".equals(args[1])) {
+            long rows = reader.exportCsv(Paths.get(args[2]));
+            System.out.println("Exported " + rows + " samples to " + args[2]);
+        }
+        System.out.println(reader.summary());
+    }
+}
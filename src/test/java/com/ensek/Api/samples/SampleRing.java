@@ -0,0 +1,95 @@
+package com.ensek.Api.samples;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded ring of samples between many request threads and the one writer thread.
+ *
+ * A producer claims a sequence number with a CAS on the head, fills the slot's columns and then
+ * publishes the slot by storing sequence + 1 in it; the consumer takes slots in order while they
+ * are published. Nothing blocks: when the writer has fallen a whole ring behind, the sample is
+ * dropped and counted instead of slowing the request thread.
+ */
+final class SampleRing {
+
+    private final int mask;
+    private final long[] startNanos;
+    private final long[] latencyNanos;
+    private final long[] bytes;
+    private final short[] status;
+    private final short[] endpoint;
+    private final short[] thread;
+    private final AtomicLongArray published;
+    private final AtomicLong head = new AtomicLong();
+    private final LongAdder dropped = new LongAdder();
+    private volatile long tail;
+
+    /**
+     * @param capacity rounded up to a power of two
+     */
+    SampleRing(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+        mask = size - 1;
+        startNanos = new long[size];
+        latencyNanos = new long[size];
+        bytes = new long[size];
+        status = new short[size];
+        endpoint = new short[size];
+        thread = new short[size];
+        published = new AtomicLongArray(size);
+    }
+
+    boolean offer(long start, long latency, long size, int statusCode, short endpointId, short threadId) {
+        long sequence;
+        do {
+            sequence = head.get();
+            if (sequence - tail > mask) {
+                dropped.increment();
+                return false;
+            }
+        } while (!head.compareAndSet(sequence, sequence + 1));
+        int slot = (int) sequence & mask;
+        startNanos[slot] = start;
+        latencyNanos[slot] = latency;
+        bytes[slot] = size;
+        status[slot] = (short) statusCode;
+        endpoint[slot] = endpointId;
+        thread[slot] = threadId;
+        published.lazySet(slot, sequence + 1);
+        return true;
+    }
+
+    /**
+     * Move published samples into the block until it is full or none are ready; consumer thread only
+     *
+     * @param nanosToEpochMicros epoch microseconds of nanoTime 0, to turn start times into timestamps
+     * @return the number of samples moved
+     */
+    int drainTo(SampleBlock block, long nanosToEpochMicros) {
+        long sequence = tail;
+        int moved = 0;
+        while (block.count < block.capacity()) {
+            int slot = (int) sequence & mask;
+            if (published.get(slot) != sequence + 1) {
+                break;
+            }
+            int i = block.count++;
+            block.startMicros[i] = nanosToEpochMicros + startNanos[slot] / 1000;
+            block.latencyMicros[i] = (int) Math.min(Integer.MAX_VALUE, latencyNanos[slot] / 1000);
+            block.bytes[i] = (int) Math.min(Integer.MAX_VALUE, bytes[slot]);
+            block.status[i] = status[slot];
+            block.endpoint[i] = endpoint[slot];
+            block.thread[i] = thread[slot];
+            sequence++;
+            moved++;
+        }
+        tail = sequence;
+        return moved;
+    }
+
+    long getDropped() {
+        return dropped.sum();
+    }
+}
@@ -0,0 +1,143 @@
+package com.ensek.Api.samples;
+
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.testng.Assert.*;
+
+/**
+ * Offline checks of the sample ring's ordering, capacity and drop accounting, and of the block
+ * encoding the writer thread produces from it.
+ */
+public class SampleRingTest {
+
+    @Test(groups = {"Unit"})
+    public void testDrainKeepsOfferOrderAndConvertsUnits() {
+        SampleRing ring = new SampleRing(8);
+        for (int i = 0; i < 5; i++) {
+            assertTrue(ring.offer(i * 1000L, (i + 1) * 2000L, 100 + i, 200 + i, (short) i, (short) 7));
+        }
+
+        SampleBlock block = new SampleBlock(16);
+        assertEquals(ring.drainTo(block, 1_000_000), 5);
+        assertEquals(block.count, 5);
+        for (int i = 0; i < 5; i++) {
+            assertEquals(block.startMicros[i], 1_000_000 + i);
+            assertEquals(block.latencyMicros[i], (i + 1) * 2);
+            assertEquals(block.bytes[i], 100 + i);
+            assertEquals(block.status[i], 200 + i);
+            assertEquals(block.endpoint[i], i);
+            assertEquals(block.thread[i], 7);
+        }
+        assertEquals(ring.drainTo(block, 0), 0, "Nothing left to drain");
+    }
+
+    @Test(groups = {"Unit"})
+    public void testCapacityRoundsUpAndFullRingDrops() {
+        SampleRing ring = new SampleRing(5);
+        for (int i = 0; i < 8; i++) {
+            assertTrue(ring.offer(i * 1000L, 1, 1, 200, (short) 0, (short) 0), "Offer " + i + " fits in 8 slots");
+        }
+        assertFalse(ring.offer(8000, 1, 1, 200, (short) 0, (short) 0));
+        assertFalse(ring.offer(9000, 1, 1, 200, (short) 0, (short) 0));
+        assertEquals(ring.getDropped(), 2);
+
+        SampleBlock block = new SampleBlock(3);
+        assertEquals(ring.drainTo(block, 0), 3);
+        assertTrue(ring.offer(10_000_000, 1, 1, 200, (short) 0, (short) 0), "Draining frees slots");
+        block.clear();
+        assertEquals(ring.drainTo(block, 0), 3);
+        assertEquals(block.startMicros[0], 3, "Drained in order after the first block");
+    }
+
+    @Test(groups = {"Unit"})
+    public void testClampsOversizedValues() {
+        SampleRing ring = new SampleRing(2);
+        ring.offer(0, Long.MAX_VALUE, Long.MAX_VALUE, 200, (short) 0, (short) 0);
+
+        SampleBlock block = new SampleBlock(1);
+        ring.drainTo(block, 0);
+        assertEquals(block.latencyMicros[0], Integer.MAX_VALUE);
+        assertEquals(block.bytes[0], Integer.MAX_VALUE);
+    }
+
+    @Test(groups = {"Unit"}, timeOut = 30_000)
+    public void testConcurrentProducersLoseNothingWhileDrained() throws Exception {
+        int producers = 4;
+        int perProducer = 50_000;
+        SampleRing ring = new SampleRing(1024);
+        ExecutorService pool = Executors.newFixedThreadPool(producers);
+        CountDownLatch done = new CountDownLatch(producers);
+        for (int p = 0; p < producers; p++) {
+            short thread = (short) p;
+            pool.execute(() -> {
+                for (int i = 0; i < perProducer; i++) {
+                    while (!ring.offer(i * 1000L, 0, 0, 200, (short) 0, thread)) {
+                        Thread.onSpinWait();
+                    }
+                }
+                done.countDown();
+            });
+        }
+
+        long[] lastStart = new long[producers];
+        Arrays.fill(lastStart, -1);
+        long drained = 0;
+        SampleBlock block = new SampleBlock(256);
+        while (drained < (long) producers * perProducer) {
+            block.clear();
+            ring.drainTo(block, 0);
+            for (int i = 0; i < block.count; i++) {
+                int thread = block.thread[i];
+                assertEquals(block.startMicros[i], lastStart[thread] + 1, "Producer " + thread + " out of order");
+                lastStart[thread] = block.startMicros[i];
+            }
+            drained += block.count;
+        }
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        pool.shutdown();
+        assertEquals(drained, (long) producers * perProducer);
+    }
+
+    @Test(groups = {"Unit"})
+    public void testBlockEncodingRoundTrip() throws IOException {
+        SampleBlock block = new SampleBlock(4);
+        block.dictionary.add(new SampleBlock.DictionaryEntry(SampleBlock.ENDPOINT, (short) 1, "GET /ENSEK/energy"));
+        block.dictionary.add(new SampleBlock.DictionaryEntry(SampleBlock.THREAD, (short) 2, "worker-ü"));
+        for (int i = 0; i < 3; i++) {
+            block.startMicros[i] = 1_700_000_000_000_000L + i;
+            block.latencyMicros[i] = 1000 * i;
+            block.bytes[i] = 10 * i;
+            block.status[i] = 200;
+            block.endpoint[i] = 1;
+            block.thread[i] = 2;
+        }
+        block.count = 3;
+
+        ByteBuffer buffer = ByteBuffer.allocate(block.encodedSize());
+        block.encode(buffer);
+        assertEquals(buffer.remaining(), 0, "encodedSize matches what encode writes");
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(buffer.array()));
+        SampleBlock decoded = SampleBlock.decode(in);
+
+        assertNotNull(decoded);
+        assertEquals(decoded.count, 3);
+        assertEquals(decoded.dictionary.size(), 2);
+        assertEquals(decoded.dictionary.get(1).name, "worker-ü");
+        for (int i = 0; i < 3; i++) {
+            assertEquals(decoded.startMicros[i], block.startMicros[i]);
+            assertEquals(decoded.latencyMicros[i], block.latencyMicros[i]);
+            assertEquals(decoded.bytes[i], block.bytes[i]);
+        }
+        assertNull(SampleBlock.decode(in), "Clean end of stream");
+    }
+}
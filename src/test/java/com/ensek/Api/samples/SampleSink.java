@@ -0,0 +1,222 @@
+package com.ensek.Api.samples;
+
+import com.ensek.Api.utils.ConfigUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Out-of-band record of every response: start time, endpoint, status, latency, body bytes and
+ * thread, written to a binary file for offline analysis with {@link SampleReader}. Requests that
+ * failed without a response are recorded too, with status 0.
+ *
+ * Request threads only claim a slot in a {@link SampleRing} and fill in a few primitives; a
+ * background writer thread drains the ring into column-wise {@link SampleBlock}s and appends
+ * them to the file through a FileChannel when a block is full or samples.flush.interval.ms has
+ * passed. If the writer falls a whole ring behind, samples are dropped and counted rather than
+ * slowing the run. Endpoint labels and thread names are stored once, in the block that first
+ * uses them.
+ *
+ * The file starts with {@link #MAGIC}, followed by blocks; it is complete once the sink is
+ * closed, which a shutdown hook does, but every block written before that can be read.
+ */
+public class SampleSink implements AutoCloseable {
+
+    public static final byte[] MAGIC = "ENSKSMP1".getBytes(StandardCharsets.US_ASCII);
+    private static final Logger logger = LoggerFactory.getLogger(SampleSink.class);
+    private static volatile SampleSink active;
+
+    private final Path file;
+    private final FileChannel channel;
+    private final SampleRing ring;
+    private final SampleBlock block;
+    private final long flushIntervalNanos;
+    private final long nanosToEpochMicros;
+    private final ConcurrentMap<String, Short> endpointIds = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Short, String> endpointNames = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Short, String> threadNames = new ConcurrentHashMap<>();
+    private final AtomicInteger nextEndpointId = new AtomicInteger();
+    private final AtomicInteger nextThreadId = new AtomicInteger();
+    private final ThreadLocal<Short> threadId;
+    private final boolean[] endpointWritten = new boolean[Short.MAX_VALUE + 1];
+    private final boolean[] threadWritten = new boolean[Short.MAX_VALUE + 1];
+    private final Thread writer;
+    private ByteBuffer buffer;
+    private volatile boolean closing;
+    private volatile long written;
+
+    public SampleSink(Path file, int ringSize, int blockSize, long flushIntervalMillis) throws IOException {
+        this.file = file;
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        channel.write(ByteBuffer.wrap(MAGIC));
+        ring = new SampleRing(ringSize);
+        block = new SampleBlock(blockSize);
+        buffer = ByteBuffer.allocateDirect(blockSize * SampleBlock.SAMPLE_BYTES + 64 * 1024);
+        flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis);
+        nanosToEpochMicros = TimeUnit.MILLISECONDS.toMicros(System.currentTimeMillis()) - System.nanoTime() / 1000;
+        threadId = ThreadLocal.withInitial(() -> {
+            short id = (short) Math.min(Short.MAX_VALUE, nextThreadId.getAndIncrement());
+            threadNames.putIfAbsent(id, Thread.currentThread().getName());
+            return id;
+        });
+        writer = new Thread(this::writeLoop, "sample-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Start the shared sink if samples.enabled is set, writing to a new file in samples.dir.
+     * Safe to call more than once.
+     */
+    public static synchronized void startIfEnabled() {
+        if (active != null || !ConfigUtils.getBooleanProperty("samples.enabled", false)) {
+            return;
+        }
+        Path file = Paths.get(ConfigUtils.getProperty("samples.dir", "target/samples"),
+                String.format("samples-%d.smp", System.currentTimeMillis()));
+        try {
+            SampleSink sink = new SampleSink(file,
+                    ConfigUtils.getIntProperty("samples.ring.size", 65536),
+                    ConfigUtils.getIntProperty("samples.block.size", 4096),
+                    ConfigUtils.getIntProperty("samples.flush.interval.ms", 1000));
+            Runtime.getRuntime().addShutdownHook(new Thread(sink::close, "sample-writer-shutdown"));
+            active = sink;
+            logger.info("Writing request samples to {}", file.toAbsolutePath());
+        } catch (IOException e) {
+            logger.warn("Request samples disabled, could not open {}: {}", file, e.getMessage());
+        }
+    }
+
+    /**
+     * The shared sink, or null when samples are not being recorded
+     */
+    public static SampleSink active() {
+        return active;
+    }
+
+    /**
+     * Record one response; never blocks
+     *
+     * @param startNanos   {@link System#nanoTime()} when the request was sent
+     * @param latencyNanos from sending to the end of the body
+     */
+    public void record(String endpoint, int status, long startNanos, long latencyNanos, long bytes) {
+        ring.offer(startNanos, latencyNanos, bytes, status, endpointId(endpoint), threadId.get());
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    public long getWritten() {
+        return written;
+    }
+
+    public long getDropped() {
+        return ring.getDropped();
+    }
+
+    private short endpointId(String endpoint) {
+        Short id = endpointIds.get(endpoint);
+        if (id != null) {
+            return id;
+        }
+        return endpointIds.computeIfAbsent(endpoint, key -> {
+            short next = (short) Math.min(Short.MAX_VALUE, nextEndpointId.getAndIncrement());
+            endpointNames.putIfAbsent(next, key);
+            return next;
+        });
+    }
+
+    private void writeLoop() {
+        long lastFlush = System.nanoTime();
+        while (true) {
+            boolean stopping = closing;
+            int moved = ring.drainTo(block, nanosToEpochMicros);
+            long now = System.nanoTime();
+            boolean due = block.count > 0 && now - lastFlush >= flushIntervalNanos;
+            if (block.count == block.capacity() || due || (stopping && block.count > 0)) {
+                writeBlock();
+                lastFlush = now;
+            }
+            if (stopping && moved == 0 && block.count == 0) {
+                return;
+            }
+            if (moved == 0) {
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+            }
+        }
+    }
+
+    private void writeBlock() {
+        for (int i = 0; i < block.count; i++) {
+            short endpoint = block.endpoint[i];
+            if (!endpointWritten[endpoint]) {
+                endpointWritten[endpoint] = true;
+                block.dictionary.add(new SampleBlock.DictionaryEntry(SampleBlock.ENDPOINT, endpoint, endpointNames.get(endpoint)));
+            }
+            short thread = block.thread[i];
+            if (!threadWritten[thread]) {
+                threadWritten[thread] = true;
+                block.dictionary.add(new SampleBlock.DictionaryEntry(SampleBlock.THREAD, thread, threadNames.get(thread)));
+            }
+        }
+        int size = block.encodedSize();
+        if (size > buffer.capacity()) {
+            buffer = ByteBuffer.allocateDirect(size);
+        }
+        buffer.clear();
+        block.encode(buffer);
+        buffer.flip();
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            written += block.count;
+        } catch (IOException e) {
+            logger.warn("Failed to write {} request samples to {}: {}", block.count, file, e.getMessage());
+        }
+        block.clear();
+    }
+
+    /**
+     * Write out everything recorded so far and close the file
+     */
+    @Override
+    public void close() {
+        if (closing) {
+            return;
+        }
+        closing = true;
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(10));
+            channel.force(false);
+            channel.close();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            logger.warn("Failed to close request sample file {}: {}", file, e.getMessage());
+        }
+        if (active == this) {
+            active = null;
+        }
+        logger.info("Request samples written to {}: {} samples, {} dropped", file, written, getDropped());
+    }
+}
@@ -0,0 +1,83 @@
+package com.ensek.Api.shard;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.TreeMap;
+
+/**
+ * How long each test method took in the last sharded run, kept as JSON on disk so the next run
+ * can balance shards by time rather than by method count. Keys are "fully.qualified.Class#method"
+ * and values cover every data provider row of the method.
+ */
+final class ShardDurations {
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final Path file;
+    private final Map<String, Long> millis = new TreeMap<>();
+
+    private ShardDurations(Path file) {
+        this.file = file;
+    }
+
+    /**
+     * Load the history, starting empty if the file is missing or unreadable
+     */
+    static ShardDurations load(Path file) {
+        ShardDurations durations = new ShardDurations(file);
+        if (!Files.isRegularFile(file)) {
+            return durations;
+        }
+        try {
+            Iterator<Map.Entry<String, JsonNode>> methods = objectMapper.readTree(file.toFile()).path("methods").fields();
+            while (methods.hasNext()) {
+                Map.Entry<String, JsonNode> method = methods.next();
+                durations.millis.put(method.getKey(), method.getValue().asLong());
+            }
+        } catch (IOException e) {
+            // Without history the shards are balanced by count for one run
+            durations.millis.clear();
+        }
+        return durations;
+    }
+
+    OptionalLong get(String method) {
+        Long value = millis.get(method);
+        return value == null ? OptionalLong.empty() : OptionalLong.of(value);
+    }
+
+    /**
+     * Mean over every method with history, used for methods that have none yet
+     */
+    OptionalLong getAverage() {
+        return millis.isEmpty() ? OptionalLong.empty()
+                : OptionalLong.of(Math.round(millis.values().stream().mapToLong(Long::longValue).average().orElse(0)));
+    }
+
+    void putAll(Map<String, Long> durations) {
+        millis.putAll(durations);
+    }
+
+    /**
+     * Write through a temporary file so an interrupted run never leaves a half-written history
+     */
+    void save() throws IOException {
+        ObjectNode root = objectMapper.createObjectNode();
+        ObjectNode methods = root.putObject("methods");
+        millis.forEach(methods::put);
+        Path parent = file.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path temporary = Files.createTempFile(parent, "durations", ".json");
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(temporary.toFile(), root);
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
@@ -0,0 +1,255 @@
+package com.ensek.Api.shard;
+
+import org.testng.annotations.Test;
+import org.testng.xml.XmlClass;
+import org.testng.xml.XmlInclude;
+import org.testng.xml.XmlSuite;
+import org.testng.xml.XmlTest;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Splits the test methods of a TestNG suite into shards of roughly equal duration.
+ *
+ * Each &lt;test&gt; block is expanded to the methods it would run (its classes, include and
+ * exclude groups, and method includes). Methods that must run in the same JVM are joined into
+ * one unit: dependsOnMethods / dependsOnGroups chains within a block, and every method named in
+ * the stateful list, across blocks, since they read or reset the shared API data. Units are then
+ * placed longest first on the least loaded shard, using the durations of the last sharded run.
+ */
+final class ShardPlanner {
+
+    /**
+     * One test method as selected by one &lt;test&gt; block
+     */
+    static final class Item {
+        private final int order;
+        private final XmlTest test;
+        private final Class<?> testClass;
+        private final Method method;
+        private final Set<String> groups;
+
+        private Item(int order, XmlTest test, Class<?> testClass, Method method, Set<String> groups) {
+            this.order = order;
+            this.test = test;
+            this.testClass = testClass;
+            this.method = method;
+            this.groups = groups;
+        }
+
+        String getKey() {
+            return testClass.getName() + "#" + method.getName();
+        }
+
+        XmlTest getTest() {
+            return test;
+        }
+
+        Method getMethod() {
+            return method;
+        }
+    }
+
+    static final class Shard {
+        private final int index;
+        private final List<Item> items = new ArrayList<>();
+        private long estimatedMillis;
+
+        private Shard(int index) {
+            this.index = index;
+        }
+
+        int getIndex() {
+            return index;
+        }
+
+        List<Item> getItems() {
+            return items;
+        }
+
+        long getEstimatedMillis() {
+            return estimatedMillis;
+        }
+    }
+
+    private final ShardDurations durations;
+    private final Set<String> statefulMethods;
+    private final long defaultMillis;
+
+    /**
+     * @param statefulMethods method names that always share a shard with each other
+     * @param defaultMillis   estimate for methods without history when there is no history at all
+     */
+    ShardPlanner(ShardDurations durations, Set<String> statefulMethods, long defaultMillis) {
+        this.durations = durations;
+        this.statefulMethods = statefulMethods;
+        this.defaultMillis = defaultMillis;
+    }
+
+    /**
+     * Up to shardCount shards, fewer when there are fewer units than that; never empty
+     */
+    List<Shard> plan(XmlSuite suite, int shardCount) {
+        List<Item> items = items(suite);
+        List<List<Item>> units = units(items);
+        long fallback = durations.getAverage().orElse(defaultMillis);
+        Map<List<Item>, Long> estimates = new LinkedHashMap<>();
+        for (List<Item> unit : units) {
+            estimates.put(unit, unit.stream().mapToLong(item -> durations.get(item.getKey()).orElse(fallback)).sum());
+        }
+
+        List<Shard> shards = new ArrayList<>();
+        PriorityQueue<Shard> leastLoaded = new PriorityQueue<>(
+                Comparator.comparingLong(Shard::getEstimatedMillis).thenComparingInt(Shard::getIndex));
+        for (int i = 0; i < Math.max(1, Math.min(shardCount, units.size())); i++) {
+            Shard shard = new Shard(i + 1);
+            shards.add(shard);
+            leastLoaded.add(shard);
+        }
+        units.sort(Comparator.comparingLong((List<Item> unit) -> estimates.get(unit)).reversed());
+        for (List<Item> unit : units) {
+            Shard shard = leastLoaded.poll();
+            shard.items.addAll(unit);
+            shard.estimatedMillis += estimates.get(unit);
+            leastLoaded.add(shard);
+        }
+        shards.forEach(shard -> shard.items.sort(Comparator.comparingInt(item -> item.order)));
+        return shards;
+    }
+
+    /**
+     * Suite running one shard's methods, with the original suite settings, listeners and
+     * &lt;test&gt; blocks. The blocks keep their groups so configuration methods are selected
+     * exactly as in the full suite; the method includes narrow the tests to the shard.
+     */
+    static XmlSuite suiteFor(XmlSuite original, Shard shard) {
+        XmlSuite suite = original.shallowCopy();
+        suite.setName(original.getName());
+        for (XmlTest originalTest : original.getTests()) {
+            Map<Class<?>, List<XmlInclude>> classes = new LinkedHashMap<>();
+            for (Item item : shard.items) {
+                if (item.test == originalTest) {
+                    classes.computeIfAbsent(item.testClass, type -> new ArrayList<>())
+                            .add(new XmlInclude(item.method.getName()));
+                }
+            }
+            if (classes.isEmpty()) {
+                continue;
+            }
+            XmlTest test = new XmlTest(suite);
+            test.setName(originalTest.getName());
+            test.setPreserveOrder(originalTest.getPreserveOrder());
+            test.setParameters(originalTest.getLocalParameters());
+            test.setIncludedGroups(originalTest.getIncludedGroups());
+            test.setExcludedGroups(originalTest.getExcludedGroups());
+            List<XmlClass> xmlClasses = new ArrayList<>();
+            classes.forEach((type, methods) -> {
+                XmlClass xmlClass = new XmlClass(type.getName(), false);
+                xmlClass.setIncludedMethods(methods);
+                xmlClasses.add(xmlClass);
+            });
+            test.setXmlClasses(xmlClasses);
+        }
+        return suite;
+    }
+
+    /**
+     * Methods each enabled &lt;test&gt; block runs. Only &lt;classes&gt; are supported, and
+     * method includes and excludes are matched by name rather than as patterns.
+     */
+    static List<Item> items(XmlSuite suite) {
+        List<Item> items = new ArrayList<>();
+        for (XmlTest test : suite.getTests()) {
+            if (!test.getXmlPackages().isEmpty()) {
+                throw new IllegalArgumentException("Sharding does not support <packages> in test " + test.getName());
+            }
+            Set<String> includedGroups = new HashSet<>(test.getIncludedGroups());
+            Set<String> excludedGroups = new HashSet<>(test.getExcludedGroups());
+            for (XmlClass xmlClass : test.getXmlClasses()) {
+                Class<?> testClass = xmlClass.getSupportClass();
+                Set<String> includedMethods = xmlClass.getIncludedMethods().stream()
+                        .map(XmlInclude::getName)
+                        .collect(Collectors.toSet());
+                Method[] methods = testClass.getMethods();
+                Arrays.sort(methods, Comparator.comparing(Method::getName));
+                for (Method method : methods) {
+                    Test annotation = method.getAnnotation(Test.class);
+                    if (annotation == null || !annotation.enabled()
+                            || (!includedMethods.isEmpty() && !includedMethods.contains(method.getName()))
+                            || xmlClass.getExcludedMethods().contains(method.getName())) {
+                        continue;
+                    }
+                    Set<String> groups = new HashSet<>(Arrays.asList(annotation.groups()));
+                    Test classAnnotation = testClass.getAnnotation(Test.class);
+                    if (classAnnotation != null) {
+                        groups.addAll(Arrays.asList(classAnnotation.groups()));
+                    }
+                    if ((includedGroups.isEmpty() || !Collections.disjoint(groups, includedGroups))
+                            && Collections.disjoint(groups, excludedGroups)) {
+                        items.add(new Item(items.size(), test, testClass, method, groups));
+                    }
+                }
+            }
+        }
+        return items;
+    }
+
+    /**
+     * Items grouped into units that must not be split across shards, in first-item order
+     */
+    private List<List<Item>> units(List<Item> items) {
+        int[] parent = IntStream.range(0, items.size()).toArray();
+        int stateful = -1;
+        for (int i = 0; i < items.size(); i++) {
+            Item item = items.get(i);
+            Test annotation = item.method.getAnnotation(Test.class);
+            Set<String> dependsOnMethods = Arrays.stream(annotation.dependsOnMethods())
+                    .map(name -> name.substring(name.lastIndexOf('.') + 1))
+                    .collect(Collectors.toSet());
+            List<String> dependsOnGroups = Arrays.asList(annotation.dependsOnGroups());
+            for (int j = 0; j < items.size(); j++) {
+                Item other = items.get(j);
+                if (other.test == item.test && (dependsOnMethods.contains(other.method.getName())
+                        || dependsOnGroups.stream().anyMatch(other.groups::contains))) {
+                    union(parent, i, j);
+                }
+            }
+            if (statefulMethods.contains(item.method.getName())) {
+                if (stateful < 0) {
+                    stateful = i;
+                } else {
+                    union(parent, stateful, i);
+                }
+            }
+        }
+        Map<Integer, List<Item>> units = new LinkedHashMap<>();
+        for (int i = 0; i < items.size(); i++) {
+            units.computeIfAbsent(find(parent, i), root -> new ArrayList<>()).add(items.get(i));
+        }
+        return new ArrayList<>(units.values());
+    }
+
+    private static int find(int[] parent, int i) {
+        while (parent[i] != i) {
+            parent[i] = parent[parent[i]];
+            i = parent[i];
+        }
+        return i;
+    }
+
+    private static void union(int[] parent, int a, int b) {
+        parent[find(parent, a)] = find(parent, b);
+    }
+}
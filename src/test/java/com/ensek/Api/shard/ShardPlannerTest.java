@@ -0,0 +1,157 @@
+package com.ensek.Api.shard;
+
+import org.testng.annotations.Test;
+import org.testng.xml.XmlClass;
+import org.testng.xml.XmlSuite;
+import org.testng.xml.XmlTest;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.testng.Assert.*;
+
+/**
+ * Offline checks of how {@link ShardPlanner} selects test methods, groups them into units that
+ * must share a JVM and balances the units across shards.
+ */
+public class ShardPlannerTest {
+
+    /**
+     * Stand-in test class; only read through reflection, never run
+     */
+    public static class Fixture {
+        @Test(groups = {"Flow"})
+        public void reset() {
+        }
+
+        @Test(groups = {"Flow"}, dependsOnMethods = "reset")
+        public void buy() {
+        }
+
+        @Test(groups = {"Flow"}, dependsOnMethods = "buy")
+        public void orders() {
+        }
+
+        @Test(groups = {"Read"})
+        public void energy() {
+        }
+
+        @Test(groups = {"Read"})
+        public void login() {
+        }
+
+        @Test(groups = {"Read"}, dependsOnGroups = "Flow")
+        public void audit() {
+        }
+
+        @Test(groups = {"Read"}, enabled = false)
+        public void disabled() {
+        }
+
+        @Test(groups = {"Other"})
+        public void elsewhere() {
+        }
+    }
+
+    @Test(groups = {"Unit"})
+    public void testItemsFollowGroupsAndEnabled() {
+        XmlSuite suite = suite(List.of("Read"));
+
+        Set<String> methods = ShardPlanner.items(suite).stream()
+                .map(item -> item.getMethod().getName())
+                .collect(Collectors.toSet());
+        assertEquals(methods, Set.of("energy", "login", "audit"));
+    }
+
+    @Test(groups = {"Unit"})
+    public void testDependencyChainStaysInOneShard() {
+        XmlSuite suite = suite(List.of("Flow", "Read"));
+
+        List<ShardPlanner.Shard> shards = planner(Set.of()).plan(suite, 6);
+        ShardPlanner.Shard flow = shardOf(shards, "reset");
+        assertSame(shardOf(shards, "buy"), flow);
+        assertSame(shardOf(shards, "orders"), flow);
+        // dependsOnGroups joins audit to every method of the Flow group
+        assertSame(shardOf(shards, "audit"), flow);
+        assertEquals(shards.size(), 3, "Flow chain, energy and login are the only units");
+    }
+
+    @Test(groups = {"Unit"})
+    public void testStatefulMethodsShareAShardAcrossBlocks() {
+        XmlSuite suite = new XmlSuite();
+        block(suite, "Reads", List.of("Read"));
+        block(suite, "Others", List.of("Other"));
+
+        List<ShardPlanner.Shard> shards = planner(Set.of("energy", "elsewhere")).plan(suite, 4);
+        assertSame(shardOf(shards, "elsewhere"), shardOf(shards, "energy"));
+        assertNotSame(shardOf(shards, "login"), shardOf(shards, "energy"));
+    }
+
+    @Test(groups = {"Unit"})
+    public void testUnitsAreBalancedByDuration() throws IOException {
+        Path history = Files.createTempFile("durations", ".json");
+        try {
+            String prefix = Fixture.class.getName() + "#";
+            Files.writeString(history, "{\"methods\": {"
+                    + "\"" + prefix + "energy\": 9000, "
+                    + "\"" + prefix + "login\": 1000, "
+                    + "\"" + prefix + "audit\": 2000}}");
+            XmlSuite suite = suite(List.of("Read"));
+
+            List<ShardPlanner.Shard> shards = new ShardPlanner(ShardDurations.load(history), Set.of(), 1).plan(suite, 2);
+            assertEquals(shards.size(), 2);
+            ShardPlanner.Shard longest = shardOf(shards, "energy");
+            assertEquals(longest.getItems().size(), 1, "The longest unit gets a shard of its own");
+            assertEquals(longest.getEstimatedMillis(), 9000);
+            assertEquals(shardOf(shards, "login").getEstimatedMillis(), 3000);
+        } finally {
+            Files.deleteIfExists(history);
+        }
+    }
+
+    @Test(groups = {"Unit"})
+    public void testNeverMoreShardsThanUnitsAndNeverNone() {
+        assertEquals(planner(Set.of()).plan(suite(List.of("Other")), 8).size(), 1);
+        assertEquals(planner(Set.of()).plan(suite(List.of("Missing")), 8).size(), 1);
+    }
+
+    @Test(groups = {"Unit"})
+    public void testShardSuiteKeepsOnlyItsMethods() {
+        XmlSuite suite = suite(List.of("Flow", "Read"));
+        List<ShardPlanner.Shard> shards = planner(Set.of()).plan(suite, 3);
+
+        XmlSuite shardSuite = ShardPlanner.suiteFor(suite, shardOf(shards, "energy"));
+        assertEquals(shardSuite.getTests().size(), 1);
+        assertEquals(ShardPlanner.items(shardSuite).stream()
+                .map(item -> item.getMethod().getName())
+                .collect(Collectors.toList()), List.of("energy"));
+    }
+
+    private static ShardPlanner planner(Set<String> statefulMethods) {
+        return new ShardPlanner(ShardDurations.load(Path.of("target", "no-such-durations.json")), statefulMethods, 1000);
+    }
+
+    private static XmlSuite suite(List<String> groups) {
+        XmlSuite suite = new XmlSuite();
+        block(suite, "Block", groups);
+        return suite;
+    }
+
+    private static void block(XmlSuite suite, String name, List<String> groups) {
+        XmlTest test = new XmlTest(suite);
+        test.setName(name);
+        test.setIncludedGroups(groups);
+        test.setXmlClasses(List.of(new XmlClass(Fixture.class)));
+    }
+
+    private static ShardPlanner.Shard shardOf(List<ShardPlanner.Shard> shards, String method) {
+        return shards.stream()
+                .filter(shard -> shard.getItems().stream().anyMatch(item -> item.getMethod().getName().equals(method)))
+                .findFirst()
+                .orElseThrow(() -> new AssertionError(method + " is in no shard"));
+    }
+}
@@ -0,0 +1,298 @@
+package com.ensek.Api.shard;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+import org.xml.sax.SAXException;
+
+import javax.xml.XMLConstants;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.transform.OutputKeys;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerException;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamResult;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Merges the reports written by each shard's TestNG run into the reports a single run would
+ * have written: testng-results.xml from XMLReporter and junitreports/TEST-*.xml from
+ * JUnitReportReporter.
+ */
+final class ShardReports {
+
+    static final String TESTNG_RESULTS = "testng-results.xml";
+    static final String JUNIT_REPORTS = "junitreports";
+
+    private static final String[] JUNIT_COUNTS = {"tests", "failures", "errors", "skipped", "ignored"};
+
+    private ShardReports() {
+    }
+
+    /**
+     * One testng-results.xml with every shard's suites, tests, classes and methods. Shards ran
+     * side by side, so suite and test times span from the earliest start to the latest finish.
+     * The root counts are recomputed from the merged methods; ignored is left at 0 because each
+     * shard ignores the methods given to the others.
+     *
+     * @return the merged document, or null if no shard wrote one
+     */
+    static Document mergeTestNgResults(List<Path> shardDirs) throws IOException {
+        Document merged = null;
+        for (Path dir : shardDirs) {
+            Path file = dir.resolve(TESTNG_RESULTS);
+            if (!Files.isRegularFile(file)) {
+                continue;
+            }
+            Document document = parse(file);
+            if (merged == null) {
+                merged = document;
+                continue;
+            }
+            for (Element suite : children(document.getDocumentElement(), "suite")) {
+                Element targetSuite = child(merged.getDocumentElement(), "suite", suite.getAttribute("name"));
+                if (targetSuite == null) {
+                    merged.getDocumentElement().appendChild(merged.importNode(suite, true));
+                    continue;
+                }
+                mergeSpan(targetSuite, suite);
+                mergeGroups(targetSuite, suite);
+                for (Element test : children(suite, "test")) {
+                    Element targetTest = child(targetSuite, "test", test.getAttribute("name"));
+                    if (targetTest == null) {
+                        targetSuite.appendChild(merged.importNode(test, true));
+                        continue;
+                    }
+                    mergeSpan(targetTest, test);
+                    for (Element testClass : children(test, "class")) {
+                        Element targetClass = child(targetTest, "class", testClass.getAttribute("name"));
+                        if (targetClass == null) {
+                            targetTest.appendChild(merged.importNode(testClass, true));
+                            continue;
+                        }
+                        for (Element method : children(testClass, "test-method")) {
+                            targetClass.appendChild(merged.importNode(method, true));
+                        }
+                    }
+                }
+            }
+        }
+        if (merged != null) {
+            Map<String, Integer> counts = new HashMap<>();
+            int total = 0;
+            for (Element method : elements(merged, "test-method")) {
+                if (!"true".equals(method.getAttribute("is-config"))) {
+                    counts.merge(method.getAttribute("status"), 1, Integer::sum);
+                    total++;
+                }
+            }
+            Element root = merged.getDocumentElement();
+            root.setAttribute("total", String.valueOf(total));
+            root.setAttribute("passed", String.valueOf(counts.getOrDefault("PASS", 0)));
+            root.setAttribute("failed", String.valueOf(counts.getOrDefault("FAIL", 0)));
+            root.setAttribute("skipped", String.valueOf(counts.getOrDefault("SKIP", 0)));
+            root.setAttribute("ignored", "0");
+        }
+        return merged;
+    }
+
+    /**
+     * One TEST-&lt;class&gt;.xml per test class, with the test cases of every shard and summed
+     * counts and time
+     *
+     * @return number of report files written
+     */
+    static int mergeJUnitReports(List<Path> shardDirs, Path targetDir) throws IOException {
+        Map<String, Document> merged = new TreeMap<>();
+        for (Path dir : shardDirs) {
+            Path reports = dir.resolve(JUNIT_REPORTS);
+            if (!Files.isDirectory(reports)) {
+                continue;
+            }
+            List<Path> files;
+            try (Stream<Path> paths = Files.list(reports)) {
+                files = paths.filter(path -> path.getFileName().toString().endsWith(".xml")).sorted()
+                        .collect(Collectors.toList());
+            }
+            for (Path file : files) {
+                Document document = parse(file);
+                Document target = merged.putIfAbsent(file.getFileName().toString(), document);
+                if (target == null) {
+                    continue;
+                }
+                Element targetSuite = target.getDocumentElement();
+                Element suite = document.getDocumentElement();
+                for (String count : JUNIT_COUNTS) {
+                    if (targetSuite.hasAttribute(count) || suite.hasAttribute(count)) {
+                        targetSuite.setAttribute(count, String.valueOf(
+                                intAttribute(targetSuite, count) + intAttribute(suite, count)));
+                    }
+                }
+                targetSuite.setAttribute("time", String.format(Locale.ROOT, "%.3f",
+                        doubleAttribute(targetSuite, "time") + doubleAttribute(suite, "time")));
+                for (Element testCase : children(suite, "testcase")) {
+                    targetSuite.appendChild(target.importNode(testCase, true));
+                }
+            }
+        }
+        Path reports = targetDir.resolve(JUNIT_REPORTS);
+        for (Map.Entry<String, Document> report : merged.entrySet()) {
+            write(report.getValue(), reports.resolve(report.getKey()));
+        }
+        return merged.size();
+    }
+
+    /**
+     * Time spent in each test method in a merged testng-results.xml, keyed "Class#method". Data
+     * provider rows are added up per &lt;test&gt; block; a method run by several blocks keeps
+     * its longest block.
+     */
+    static Map<String, Long> methodDurations(Document results) {
+        Map<String, Long> durations = new TreeMap<>();
+        for (Element test : elements(results, "test")) {
+            Map<String, Long> perTest = new HashMap<>();
+            for (Element testClass : children(test, "class")) {
+                for (Element method : children(testClass, "test-method")) {
+                    if (!"true".equals(method.getAttribute("is-config"))) {
+                        perTest.merge(testClass.getAttribute("name") + "#" + method.getAttribute("name"),
+                                (long) intAttribute(method, "duration-ms"), Long::sum);
+                    }
+                }
+            }
+            perTest.forEach((key, millis) -> durations.merge(key, millis, Math::max));
+        }
+        return durations;
+    }
+
+    static void write(Document document, Path file) throws IOException {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        try {
+            Transformer transformer = TransformerFactory.newInstance().newTransformer();
+            transformer.setOutputProperty(OutputKeys.INDENT, "yes");
+            transformer.setOutputProperty("{http://xml.apache.org/xslt}indent-amount", "2");
+            transformer.transform(new DOMSource(document), new StreamResult(file.toFile()));
+        } catch (TransformerException e) {
+            throw new IOException("Failed to write " + file, e);
+        }
+    }
+
+    private static Document parse(Path file) throws IOException {
+        try {
+            DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+            factory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
+            Document document = factory.newDocumentBuilder().parse(file.toFile());
+            stripIndentation(document.getDocumentElement());
+            return document;
+        } catch (ParserConfigurationException | SAXException e) {
+            throw new IOException("Failed to read " + file, e);
+        }
+    }
+
+    /**
+     * Drop the reporters' indentation so the merged document is indented once, consistently
+     */
+    private static void stripIndentation(Node node) {
+        Node child = node.getFirstChild();
+        while (child != null) {
+            Node next = child.getNextSibling();
+            if (child.getNodeType() == Node.TEXT_NODE && child.getTextContent().trim().isEmpty()) {
+                node.removeChild(child);
+            } else if (child.getNodeType() == Node.ELEMENT_NODE) {
+                stripIndentation(child);
+            }
+            child = next;
+        }
+    }
+
+    /**
+     * Earliest started-at, latest finished-at and the longer duration; TestNG's timestamps are
+     * UTC in a fixed-width format, so they compare as text
+     */
+    private static void mergeSpan(Element target, Element other) {
+        if (other.getAttribute("started-at").compareTo(target.getAttribute("started-at")) < 0) {
+            target.setAttribute("started-at", other.getAttribute("started-at"));
+        }
+        if (other.getAttribute("finished-at").compareTo(target.getAttribute("finished-at")) > 0) {
+            target.setAttribute("finished-at", other.getAttribute("finished-at"));
+        }
+        target.setAttribute("duration-ms", String.valueOf(
+                Math.max(intAttribute(target, "duration-ms"), intAttribute(other, "duration-ms"))));
+    }
+
+    private static void mergeGroups(Element targetSuite, Element suite) {
+        for (Element groups : children(suite, "groups")) {
+            List<Element> targetGroups = children(targetSuite, "groups");
+            Element target = targetGroups.isEmpty() ? null : targetGroups.get(0);
+            if (target == null) {
+                targetSuite.insertBefore(targetSuite.getOwnerDocument().importNode(groups, true), targetSuite.getFirstChild());
+                continue;
+            }
+            for (Element group : children(groups, "group")) {
+                Element targetGroup = child(target, "group", group.getAttribute("name"));
+                if (targetGroup == null) {
+                    target.appendChild(target.getOwnerDocument().importNode(group, true));
+                    continue;
+                }
+                for (Element method : children(group, "method")) {
+                    boolean present = children(targetGroup, "method").stream()
+                            .anyMatch(existing -> existing.getAttribute("class").equals(method.getAttribute("class"))
+                                    && existing.getAttribute("name").equals(method.getAttribute("name")));
+                    if (!present) {
+                        targetGroup.appendChild(target.getOwnerDocument().importNode(method, true));
+                    }
+                }
+            }
+        }
+    }
+
+    private static List<Element> children(Element parent, String tag) {
+        List<Element> children = new ArrayList<>();
+        for (Node child = parent.getFirstChild(); child != null; child = child.getNextSibling()) {
+            if (child.getNodeType() == Node.ELEMENT_NODE && tag.equals(child.getNodeName())) {
+                children.add((Element) child);
+            }
+        }
+        return children;
+    }
+
+    private static Element child(Element parent, String tag, String name) {
+        for (Element child : children(parent, tag)) {
+            if (name.equals(child.getAttribute("name"))) {
+                return child;
+            }
+        }
+        return null;
+    }
+
+    private static List<Element> elements(Document document, String tag) {
+        NodeList nodes = document.getElementsByTagName(tag);
+        List<Element> elements = new ArrayList<>(nodes.getLength());
+        for (int i = 0; i < nodes.getLength(); i++) {
+            elements.add((Element) nodes.item(i));
+        }
+        return elements;
+    }
+
+    private static int intAttribute(Element element, String name) {
+        String value = element.getAttribute(name);
+        return value.isEmpty() ? 0 : Integer.parseInt(value);
+    }
+
+    private static double doubleAttribute(Element element, String name) {
+        String value = element.getAttribute(name);
+        return value.isEmpty() ? 0 : Double.parseDouble(value);
+    }
+}
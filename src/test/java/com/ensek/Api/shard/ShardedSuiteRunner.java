@@ -0,0 +1,211 @@
+package com.ensek.Api.shard;
+
+import com.ensek.Api.data.TestDataGenerator;
+import com.ensek.Api.utils.ConfigUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testng.TestNG;
+import org.testng.xml.XmlSuite;
+import org.testng.xml.internal.Parser;
+import org.w3c.dom.Document;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Runs a TestNG suite split across forked JVMs, one per shard, and merges their reports.
+ *
+ * The {@link ShardPlanner} balances the shards by the method durations of the last sharded run
+ * and keeps the stateful reset / buy / orders chain together in one shard. Each shard gets its
+ * own suite file, log and report directory under {@code target/shards/shard-N}; when all of them
+ * have finished, testng-results.xml and junitreports are merged into {@code shard.reports.dir}
+ * and the durations are saved for the next plan.
+ *
+ * Usage: ShardedSuiteRunner [shardCount] [suite.xml]   (shard count 0: shard.count, then one per core)
+ */
+public class ShardedSuiteRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(ShardedSuiteRunner.class);
+
+    private final Path suiteFile;
+    private final int shardCount;
+    private final Path workDir = Paths.get("target", "shards");
+    private final Path reportsDir = Paths.get(ConfigUtils.getProperty("shard.reports.dir", "target/surefire-reports"));
+    private final Path durationsFile = Paths.get(ConfigUtils.getProperty("shard.durations.file", ".test-shards/durations.json"));
+    private final long timeoutMinutes = ConfigUtils.getIntProperty("shard.timeout.minutes", 30);
+
+    public ShardedSuiteRunner(Path suiteFile, int shardCount) {
+        this.suiteFile = suiteFile;
+        this.shardCount = shardCount;
+    }
+
+    /**
+     * Plan, run and merge
+     *
+     * @return true when every shard finished and no test failed
+     */
+    public boolean run() throws IOException, InterruptedException {
+        List<XmlSuite> suites = new ArrayList<>(new Parser(suiteFile.toString()).parseToList());
+        if (suites.size() != 1) {
+            throw new IllegalArgumentException("Sharding supports a single suite without suite-files: " + suiteFile);
+        }
+        XmlSuite suite = suites.get(0);
+        ShardDurations durations = ShardDurations.load(durationsFile);
+        ShardPlanner planner = new ShardPlanner(durations,
+                new HashSet<>(list(ConfigUtils.getProperty("shard.stateful.methods", ""))),
+                ConfigUtils.getIntProperty("shard.default.duration.ms", 1000));
+        List<ShardPlanner.Shard> shards = planner.plan(suite, shardCount);
+
+        List<Path> shardDirs = new ArrayList<>();
+        List<Process> processes = new ArrayList<>();
+        long started = System.nanoTime();
+        for (ShardPlanner.Shard shard : shards) {
+            Path dir = workDir.resolve("shard-" + shard.getIndex());
+            deleteRecursively(dir);
+            Files.createDirectories(dir);
+            Path shardSuite = dir.resolve("testng.xml");
+            Files.write(shardSuite, ShardPlanner.suiteFor(suite, shard).toXml().getBytes(StandardCharsets.UTF_8));
+            logger.info("Shard {}: {} test methods, estimated {} ms: {}", shard.getIndex(), shard.getItems().size(),
+                    shard.getEstimatedMillis(), shard.getItems().stream()
+                            .map(item -> item.getMethod().getName())
+                            .distinct()
+                            .collect(Collectors.joining(", ")));
+            shardDirs.add(dir);
+            processes.add(fork(dir, shardSuite, shard.getIndex()));
+        }
+
+        int[] exitCodes = new int[shards.size()];
+        boolean allFinished = true;
+        long deadline = System.nanoTime() + TimeUnit.MINUTES.toNanos(timeoutMinutes);
+        for (int i = 0; i < processes.size(); i++) {
+            Process process = processes.get(i);
+            if (!process.waitFor(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS)) {
+                logger.error("Shard {} did not finish within {} minutes; stopping it", i + 1, timeoutMinutes);
+                process.destroyForcibly().waitFor();
+                allFinished = false;
+            }
+            exitCodes[i] = process.exitValue();
+        }
+        long wallMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+
+        Document results = ShardReports.mergeTestNgResults(shardDirs);
+        int junitReports = ShardReports.mergeJUnitReports(shardDirs, reportsDir);
+        int failed = 0;
+        if (results != null) {
+            ShardReports.write(results, reportsDir.resolve(ShardReports.TESTNG_RESULTS));
+            failed = Integer.parseInt(results.getDocumentElement().getAttribute("failed"));
+            durations.putAll(ShardReports.methodDurations(results));
+            durations.save();
+            logger.info("Merged reports written to {}: {} ({} JUnit report files)", reportsDir,
+                    ShardReports.TESTNG_RESULTS, junitReports);
+        }
+
+        String summary = summary(shards, exitCodes, results, wallMillis);
+        logger.info("Sharded run complete:{}{}", System.lineSeparator(), summary);
+        System.out.println(summary);
+
+        boolean passed = allFinished && results != null && failed == 0;
+        for (int i = 0; i < exitCodes.length; i++) {
+            // TestNG exits with 1 for failures, 2 for skips and 8 when nothing ran; skips alone do not fail the build
+            if ((exitCodes[i] & ~2) != 0) {
+                logger.error("Shard {} exited with {}; see {}", i + 1, exitCodes[i],
+                        shardDirs.get(i).resolve("output.log"));
+                passed = false;
+            }
+        }
+        return passed;
+    }
+
+    /**
+     * Start TestNG for one shard in its own JVM, on this JVM's class path, with this run's data
+     * seed and its own range of data streams so that generated emails cannot collide between shards
+     */
+    private Process fork(Path dir, Path shardSuite, int shardIndex) throws IOException {
+        List<String> command = new ArrayList<>();
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(Arrays.asList(ConfigUtils.getProperty("shard.jvm.args", "").trim().split("\\s+")));
+        command.removeIf(String::isEmpty);
+        command.add("-Ddata.seed=" + TestDataGenerator.getRunSeed());
+        command.add("-Ddata.stream.base=" + ((long) shardIndex << 20));
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(TestNG.class.getName());
+        command.add("-usedefaultlisteners");
+        command.add("false");
+        command.add("-d");
+        command.add(dir.toString());
+        command.add(shardSuite.toString());
+        return new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(dir.resolve("output.log").toFile())
+                .start();
+    }
+
+    /**
+     * One line per shard with its methods, estimate and outcome, then the wall-clock total
+     */
+    static String summary(List<ShardPlanner.Shard> shards, int[] exitCodes, Document results, long wallMillis) {
+        Map<String, Long> actual = results == null ? Map.of() : ShardReports.methodDurations(results);
+        StringBuilder text = new StringBuilder(String.format("%-6s %8s %14s %14s %5s",
+                "Shard", "Methods", "Estimated (s)", "Measured (s)", "Exit"));
+        long measuredTotal = 0;
+        for (int i = 0; i < shards.size(); i++) {
+            ShardPlanner.Shard shard = shards.get(i);
+            long measured = shard.getItems().stream()
+                    .map(ShardPlanner.Item::getKey)
+                    .distinct()
+                    .mapToLong(key -> actual.getOrDefault(key, 0L))
+                    .sum();
+            measuredTotal += measured;
+            text.append(System.lineSeparator()).append(String.format("%-6d %8d %14.1f %14.1f %5d",
+                    shard.getIndex(), shard.getItems().size(), shard.getEstimatedMillis() / 1000.0,
+                    measured / 1000.0, exitCodes[i]));
+        }
+        text.append(System.lineSeparator()).append(String.format("Wall clock %.1f s for %.1f s of tests in %d JVMs",
+                wallMillis / 1000.0, measuredTotal / 1000.0, shards.size()));
+        return text.toString();
+    }
+
+    private static void deleteRecursively(Path dir) throws IOException {
+        if (!Files.exists(dir)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(dir)) {
+            for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    private static List<String> list(String value) {
+        return Arrays.stream(value.split(","))
+                .map(String::trim)
+                .filter(item -> !item.isEmpty())
+                .collect(Collectors.toList());
+    }
+
+    public static void main(String[] args) throws Exception {
+        int shardCount = args.length > 0 ? Integer.parseInt(args[0]) : 0;
+        if (shardCount <= 0) {
+            shardCount = ConfigUtils.getIntProperty("shard.count", 0);
+        }
+        if (shardCount <= 0) {
+            shardCount = Runtime.getRuntime().availableProcessors();
+        }
+        Path suiteFile = Paths.get(args.length > 1 ? args[1] : "TestNG.xml");
+        boolean passed = new ShardedSuiteRunner(suiteFile, shardCount).run();
+        System.exit(passed ? 0 : 1);
+    }
+}
@@ -0,0 +1,63 @@
+package com.ensek.Api.slo;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Service level objectives for a test method, checked over repeated invocations instead of a
+ * single timing.
+ *
+ * {@link SloListener} invokes the method {@link #invocations} times, or for
+ * {@link #durationSeconds} when that is set, on {@link #threads} threads, and records how long
+ * each invocation took and whether it threw. The test passes or fails on the objectives alone:
+ * latency percentiles, throughput in invocations per second and error rate. A failed invocation
+ * therefore only fails the test when it pushes the error rate over {@link #maxErrorRatePercent}.
+ *
+ * Latency and throughput limits of 0 are not checked. {@code @BeforeMethod} and
+ * {@code @AfterMethod} run once around all invocations, so with more than one thread the method
+ * must only read the state they set up.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface Slo {
+
+    /**
+     * Measured invocations, when {@link #durationSeconds} is 0
+     */
+    int invocations() default 20;
+
+    /**
+     * Keep invoking for this long instead of a fixed number of times
+     */
+    int durationSeconds() default 0;
+
+    /**
+     * Threads invoking the method concurrently
+     */
+    int threads() default 1;
+
+    /**
+     * Invocations before measuring, on the test thread; their errors are ignored
+     */
+    int warmup() default 0;
+
+    double p50Millis() default 0;
+
+    double p95Millis() default 0;
+
+    double p99Millis() default 0;
+
+    /**
+     * Lowest acceptable rate of invocations per second over the measured run
+     */
+    double minThroughputPerSecond() default 0;
+
+    /**
+     * Highest acceptable percentage of invocations that threw
+     */
+    double maxErrorRatePercent() default 0;
+}
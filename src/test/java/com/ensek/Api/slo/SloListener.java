@@ -0,0 +1,229 @@
+package com.ensek.Api.slo;
+
+import com.ensek.Api.http.EnergyCatalogueCache;
+import com.ensek.Api.metrics.LatencyHistogram;
+import com.ensek.Api.utils.ConfigUtils;
+import com.ensek.Api.utils.TestReportUtils;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testng.IHookCallBack;
+import org.testng.IHookable;
+import org.testng.IInvokedMethod;
+import org.testng.IInvokedMethodListener;
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
+import org.testng.ITestResult;
+import org.testng.Reporter;
+import org.testng.SkipException;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs {@link Slo} test methods repeatedly and decides pass or fail on their objectives.
+ *
+ * The first measured invocation goes through TestNG as usual; the others call the method
+ * directly, from worker threads when {@link Slo#threads} is above 1. Each invocation is timed
+ * from call to return, and one that throws counts as an error. Once the run is over the test's
+ * status is set from the objectives alone, with the breached ones as the failure message.
+ *
+ * Invocations bypass the {@link EnergyCatalogueCache}, so catalogue latencies are those of the
+ * server; any catalogue reads still answered from the cache during the run are reported with the
+ * result.
+ *
+ * Every result is logged with the test status through {@link TestReportUtils}, added to the
+ * test's reporter output (so it appears in the TestNG and JUnit XML reports), and summarised
+ * in a table and a JSON file in {@code target/load-reports} when the suite finishes.
+ *
+ * Registered in TestNG.xml; slo.enabled=false runs annotated tests once, like any other test.
+ */
+public class SloListener implements IHookable, IInvokedMethodListener, ISuiteListener {
+
+    public static final String RESULT_ATTRIBUTE = "slo.result";
+    private static final Logger logger = LoggerFactory.getLogger(SloListener.class);
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final ConcurrentLinkedQueue<SloResult> results = new ConcurrentLinkedQueue<>();
+
+    @Override
+    public void run(IHookCallBack callBack, ITestResult testResult) {
+        Method method = testResult.getMethod().getConstructorOrMethod().getMethod();
+        Slo slo = method.getAnnotation(Slo.class);
+        if (slo == null || !ConfigUtils.getBooleanProperty("slo.enabled", true)) {
+            callBack.runTestMethod(testResult);
+            return;
+        }
+        long servedFromCache = EnergyCatalogueCache.servedFromCache();
+        EnergyCatalogueCache.setBypassed(true);
+        try {
+            measure(slo, method, callBack, testResult);
+        } finally {
+            EnergyCatalogueCache.setBypassed(false);
+        }
+        SloResult result = (SloResult) testResult.getAttribute(RESULT_ATTRIBUTE);
+        if (result != null) {
+            result.setCacheHits(EnergyCatalogueCache.servedFromCache() - servedFromCache);
+            results.add(result);
+        }
+    }
+
+    private void measure(Slo slo, Method method, IHookCallBack callBack, ITestResult testResult) {
+        Object instance = testResult.getInstance();
+        Object[] parameters = callBack.getParameters();
+        for (int i = 0; i < slo.warmup(); i++) {
+            try {
+                invoke(method, instance, parameters);
+            } catch (Throwable e) {
+                logger.debug("Warm-up invocation of {} failed: {}", method.getName(), e.toString());
+            }
+        }
+
+        int threads = Math.max(1, slo.threads());
+        LatencyHistogram latency = new LatencyHistogram();
+        LongAdder errors = new LongAdder();
+        AtomicReference<Throwable> firstError = new AtomicReference<>();
+        AtomicInteger remaining = new AtomicInteger(slo.invocations());
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(slo.durationSeconds());
+
+        long start = System.nanoTime();
+        remaining.decrementAndGet();
+        callBack.runTestMethod(testResult);
+        latency.recordNanos(System.nanoTime() - start);
+        Throwable error = testResult.getThrowable();
+        if (error instanceof SkipException) {
+            return;
+        }
+        if (error != null) {
+            errors.increment();
+            firstError.compareAndSet(null, error);
+        }
+
+        Runnable worker = () -> {
+            EnergyCatalogueCache.setBypassed(true);
+            while (slo.durationSeconds() > 0 ? System.nanoTime() < deadline : remaining.getAndDecrement() > 0) {
+                long invocationStart = System.nanoTime();
+                try {
+                    invoke(method, instance, parameters);
+                    latency.recordNanos(System.nanoTime() - invocationStart);
+                } catch (Throwable e) {
+                    latency.recordNanos(System.nanoTime() - invocationStart);
+                    errors.increment();
+                    firstError.compareAndSet(null, e);
+                }
+            }
+        };
+        ExecutorService executor = threads > 1 ? Executors.newFixedThreadPool(threads - 1, runnable -> {
+            Thread thread = new Thread(runnable, "slo-" + method.getName());
+            thread.setDaemon(true);
+            return thread;
+        }) : null;
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 1; i < threads; i++) {
+                futures.add(executor.submit(worker));
+            }
+            worker.run();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            throw new IllegalStateException("SLO run of " + method.getName() + " failed", e);
+        } finally {
+            if (executor != null) {
+                executor.shutdownNow();
+            }
+        }
+
+        testResult.setAttribute(RESULT_ATTRIBUTE, new SloResult(testName(testResult), slo, latency, errors.sum(),
+                System.nanoTime() - start, firstError.get()));
+    }
+
+    private static void invoke(Method method, Object instance, Object[] parameters) throws Throwable {
+        try {
+            method.invoke(instance, parameters);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Set the status of an SLO test from its objectives, replacing that of the invocation that
+     * went through TestNG
+     */
+    @Override
+    public void afterInvocation(IInvokedMethod method, ITestResult testResult) {
+        if (!method.isTestMethod() || !(testResult.getAttribute(RESULT_ATTRIBUTE) instanceof SloResult)) {
+            return;
+        }
+        SloResult result = (SloResult) testResult.getAttribute(RESULT_ATTRIBUTE);
+        Reporter.log("SLO " + (result.isPassed() ? "met" : "breached") + ": " + result.summary());
+        if (result.isPassed()) {
+            testResult.setStatus(ITestResult.SUCCESS);
+            testResult.setThrowable(null);
+        } else {
+            AssertionError failure = new AssertionError(String.format("SLO breached for %s: %s (%s)",
+                    result.getTestName(), String.join("; ", result.getBreaches()), result.summary()));
+            if (result.getFirstError() != null) {
+                failure.initCause(result.getFirstError());
+            }
+            testResult.setStatus(ITestResult.FAILURE);
+            testResult.setThrowable(failure);
+        }
+    }
+
+    @Override
+    public void onStart(ISuite suite) {
+        results.clear();
+    }
+
+    @Override
+    public void onFinish(ISuite suite) {
+        if (results.isEmpty()) {
+            return;
+        }
+        List<SloResult> finished = new ArrayList<>(results);
+        TestReportUtils.logSloSummary(suite.getName(), finished);
+        try {
+            writeReport(suite.getName(), finished);
+        } catch (IOException e) {
+            logger.warn("Could not write SLO report: {}", e.getMessage());
+        }
+    }
+
+    private static void writeReport(String suiteName, List<SloResult> finished) throws IOException {
+        ObjectNode report = objectMapper.createObjectNode();
+        report.put("suite", suiteName);
+        ArrayNode tests = report.putArray("tests");
+        finished.forEach(result -> tests.add(result.toJson()));
+        Path file = Paths.get("target", "load-reports", String.format("slo-%d.json", System.currentTimeMillis()));
+        Files.createDirectories(file.getParent());
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(file.toFile(), report);
+        logger.info("SLO report written to {}", file);
+    }
+
+    private static String testName(ITestResult testResult) {
+        String name = testResult.getTestClass().getRealClass().getSimpleName() + "." + testResult.getMethod().getMethodName();
+        Object[] parameters = testResult.getParameters();
+        return parameters == null || parameters.length == 0 ? name : name + Arrays.toString(parameters);
+    }
+}
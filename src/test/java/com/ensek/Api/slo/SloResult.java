@@ -0,0 +1,146 @@
+package com.ensek.Api.slo;
+
+import com.ensek.Api.metrics.LatencyHistogram;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latencies and errors of the repeated invocations of one {@link Slo} test, and the objectives
+ * they breached
+ */
+public class SloResult {
+
+    private final String testName;
+    private final Slo slo;
+    private final LatencyHistogram latency;
+    private final long errors;
+    private final long elapsedNanos;
+    private final Throwable firstError;
+    private final List<String> breaches = new ArrayList<>();
+    private long cacheHits;
+
+    public SloResult(String testName, Slo slo, LatencyHistogram latency, long errors, long elapsedNanos,
+                     Throwable firstError) {
+        this.testName = testName;
+        this.slo = slo;
+        this.latency = latency;
+        this.errors = errors;
+        this.elapsedNanos = elapsedNanos;
+        this.firstError = firstError;
+        checkLatency(50, slo.p50Millis());
+        checkLatency(95, slo.p95Millis());
+        checkLatency(99, slo.p99Millis());
+        if (slo.minThroughputPerSecond() > 0 && getThroughputPerSecond() < slo.minThroughputPerSecond()) {
+            breaches.add(String.format("throughput %.1f/s < %.1f/s", getThroughputPerSecond(), slo.minThroughputPerSecond()));
+        }
+        if (getErrorRatePercent() > slo.maxErrorRatePercent()) {
+            breaches.add(String.format("error rate %.1f%% > %.1f%%", getErrorRatePercent(), slo.maxErrorRatePercent()));
+        }
+    }
+
+    private void checkLatency(double percentile, double limitMillis) {
+        double actual = latency.getPercentileMillis(percentile);
+        if (limitMillis > 0 && actual > limitMillis) {
+            breaches.add(String.format("p%.0f %.1f ms > %.1f ms", percentile, actual, limitMillis));
+        }
+    }
+
+    public String getTestName() {
+        return testName;
+    }
+
+    public long getInvocations() {
+        return latency.getCount();
+    }
+
+    public long getErrors() {
+        return errors;
+    }
+
+    public double getErrorRatePercent() {
+        return getInvocations() == 0 ? 0.0 : errors * 100.0 / getInvocations();
+    }
+
+    public double getThroughputPerSecond() {
+        return elapsedNanos == 0 ? 0.0 : getInvocations() * 1e9 / elapsedNanos;
+    }
+
+    public LatencyHistogram getLatency() {
+        return latency;
+    }
+
+    /**
+     * The first invocation that threw, or null
+     */
+    public Throwable getFirstError() {
+        return firstError;
+    }
+
+    /**
+     * Catalogue reads answered by the energy cache during the run; these never reached the server,
+     * so anything above 0 means the latencies are not all the endpoint's own
+     */
+    public long getCacheHits() {
+        return cacheHits;
+    }
+
+    public void setCacheHits(long cacheHits) {
+        this.cacheHits = cacheHits;
+    }
+
+    /**
+     * The objectives that were missed, e.g. "p95 812.0 ms &gt; 500.0 ms"; empty when the test passed
+     */
+    public List<String> getBreaches() {
+        return Collections.unmodifiableList(breaches);
+    }
+
+    public boolean isPassed() {
+        return breaches.isEmpty();
+    }
+
+    /**
+     * One line: invocations, threads, rate, errors and latency percentiles
+     */
+    public String summary() {
+        return String.format("%d invocations on %d thread(s) in %.2f s (%.1f/s), %d errors (%.1f%%), "
+                        + "p50 %.1f ms, p95 %.1f ms, p99 %.1f ms, max %.1f ms, %d cache hits",
+                getInvocations(), slo.threads(), TimeUnit.NANOSECONDS.toMillis(elapsedNanos) / 1000.0,
+                getThroughputPerSecond(), errors, getErrorRatePercent(), latency.getPercentileMillis(50),
+                latency.getPercentileMillis(95), latency.getPercentileMillis(99), latency.getMaxMicros() / 1000.0,
+                cacheHits);
+    }
+
+    public ObjectNode toJson() {
+        ObjectNode node = JsonNodeFactory.instance.objectNode();
+        node.put("test", testName);
+        node.put("passed", isPassed());
+        node.put("invocations", getInvocations());
+        node.put("threads", slo.threads());
+        node.put("elapsedMillis", TimeUnit.NANOSECONDS.toMillis(elapsedNanos));
+        node.put("throughputPerSecond", getThroughputPerSecond());
+        node.put("errors", errors);
+        node.put("errorRatePercent", getErrorRatePercent());
+        node.put("p50Millis", latency.getPercentileMillis(50));
+        node.put("p95Millis", latency.getPercentileMillis(95));
+        node.put("p99Millis", latency.getPercentileMillis(99));
+        node.put("cacheHits", cacheHits);
+        ObjectNode objectives = node.putObject("objectives");
+        objectives.put("p50Millis", slo.p50Millis());
+        objectives.put("p95Millis", slo.p95Millis());
+        objectives.put("p99Millis", slo.p99Millis());
+        objectives.put("minThroughputPerSecond", slo.minThroughputPerSecond());
+        objectives.put("maxErrorRatePercent", slo.maxErrorRatePercent());
+        breaches.forEach(node.putArray("breaches")::add);
+        if (firstError != null) {
+            node.put("firstError", String.valueOf(firstError));
+        }
+        node.set("latency", latency.toJson());
+        return node;
+    }
+}
@@ -0,0 +1,238 @@
+package com.ensek.Api.startup;
+
+import com.ensek.Api.utils.ConfigUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Pieces of a fast-starting test JVM: a class path of jars only, an AppCDS archive of the
+ * classes a previous run loaded, and the configured JVM options (C1 only by default).
+ *
+ * AppCDS cannot archive classes loaded from a directory, and refuses to start at all with a
+ * non-empty directory on the class path, so target/test-classes (and any other class directory)
+ * is packed into a jar under {@code target/fast-start} first. The archive is written by the JVM
+ * itself on exit (-XX:ArchiveClassesAtExit) the first time a class path is used, and reused
+ * (-XX:SharedArchiveFile) while the class path and its jars are unchanged.
+ *
+ * Dynamic archives need JDK 13. On JDK 11 and 12 the first run records the classes it loads
+ * (-XX:DumpLoadedClassList), the next one dumps a static archive from that list with
+ * -Xshare:dump before starting, and the runs after that reuse it as above.
+ */
+public final class FastStart {
+
+    private static final Logger logger = LoggerFactory.getLogger(FastStart.class);
+    private static final Path DIR = Paths.get("target", "fast-start");
+
+    private FastStart() {
+    }
+
+    /**
+     * Class path of the code running this, for a forked JVM. Under mvn exec:java the project class
+     * path is only known to the context class loader; java.class.path is Maven's own launcher.
+     */
+    public static String classPath() {
+        ClassLoader loader = Thread.currentThread().getContextClassLoader();
+        if (loader instanceof URLClassLoader) {
+            List<String> entries = new ArrayList<>();
+            for (URL url : ((URLClassLoader) loader).getURLs()) {
+                try {
+                    entries.add(Paths.get(url.toURI()).toString());
+                } catch (URISyntaxException | IllegalArgumentException e) {
+                    // Not a local file; a forked JVM could not use it either
+                }
+            }
+            return String.join(File.pathSeparator, entries);
+        }
+        return System.getProperty("java.class.path");
+    }
+
+    /**
+     * {@link #classPath()} with every class directory replaced by a jar of its contents. Jars are
+     * only rebuilt when a file in the directory is newer, so the archive stays valid between runs.
+     */
+    public static String packedClassPath() throws IOException {
+        List<String> entries = new ArrayList<>();
+        for (String entry : classPath().split(File.pathSeparator)) {
+            Path path = Paths.get(entry);
+            if (Files.isDirectory(path)) {
+                if (!isEmpty(path)) {
+                    entries.add(pack(path).toAbsolutePath().toString());
+                }
+            } else if (!entry.isEmpty()) {
+                entries.add(path.toAbsolutePath().toString());
+            }
+        }
+        return String.join(File.pathSeparator, entries);
+    }
+
+    /**
+     * Options to use the named AppCDS archive when it was written for this class path and is
+     * newer than every jar on it, otherwise to write it when the JVM exits (on JDK 11 and 12, to
+     * record the class list or dump the archive from it). Empty when fast.start.cds.enabled is
+     * false, or when the archive cannot be dumped.
+     */
+    public static List<String> cdsOptions(String classPath, String name) throws IOException {
+        if (!ConfigUtils.getBooleanProperty("fast.start.cds.enabled", true)) {
+            return new ArrayList<>();
+        }
+        return cdsOptions(classPath, name, Runtime.version().feature() >= 13);
+    }
+
+    /**
+     * @param dynamicArchive whether the JVM can write the archive on exit (JDK 13+); if not, a
+     *                       class list is recorded first and a static archive dumped from it
+     */
+    static List<String> cdsOptions(String classPath, String name, boolean dynamicArchive) throws IOException {
+        Path archive = DIR.resolve(name + ".jsa");
+        Path stamp = DIR.resolve(name + ".classpath");
+        if (isCurrent(archive, stamp, classPath)) {
+            return new ArrayList<>(List.of("-XX:SharedArchiveFile=" + archive));
+        }
+        Files.createDirectories(DIR);
+        Files.deleteIfExists(archive);
+        if (dynamicArchive) {
+            Files.writeString(stamp, classPath);
+            logger.info("No current AppCDS archive for {}; this run writes {}", name, archive);
+            return new ArrayList<>(List.of("-XX:ArchiveClassesAtExit=" + archive));
+        }
+
+        Path classList = DIR.resolve(name + ".classlist");
+        if (isCurrent(classList, stamp, classPath)) {
+            if (dumpStaticArchive(classPath, classList, archive)) {
+                return new ArrayList<>(List.of("-XX:SharedArchiveFile=" + archive));
+            }
+            logger.warn("Could not dump an AppCDS archive from {}; running without one", classList);
+            return new ArrayList<>();
+        }
+        Files.deleteIfExists(classList);
+        Files.writeString(stamp, classPath);
+        logger.info("No current class list for {}; this run records {} and the next dumps {} from it",
+                name, classList, archive);
+        return new ArrayList<>(List.of("-XX:DumpLoadedClassList=" + classList));
+    }
+
+    /**
+     * Dump a static archive of the listed classes in a JVM of its own; its output goes to a log
+     * next to the archive
+     */
+    private static boolean dumpStaticArchive(String classPath, Path classList, Path archive) throws IOException {
+        Path log = DIR.resolve(archive.getFileName() + ".dump.log");
+        List<String> command = List.of(Paths.get(System.getProperty("java.home"), "bin", "java").toString(),
+                "-Xshare:dump", "-XX:SharedClassListFile=" + classList, "-XX:SharedArchiveFile=" + archive,
+                "-cp", classPath);
+        logger.info("Dumping AppCDS archive {} from {}", archive, classList);
+        try {
+            Process process = new ProcessBuilder(command).redirectErrorStream(true).redirectOutput(log.toFile()).start();
+            return process.waitFor() == 0 && Files.isRegularFile(archive);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Whether the named archive exists and matches the class path, i.e. cdsOptions would use it
+     */
+    public static boolean hasArchive(String classPath, String name) throws IOException {
+        return isCurrent(DIR.resolve(name + ".jsa"), DIR.resolve(name + ".classpath"), classPath);
+    }
+
+    /**
+     * fast.start.jvm.args, split on whitespace
+     */
+    public static List<String> jvmOptions() {
+        return Arrays.stream(ConfigUtils.getProperty("fast.start.jvm.args", "-XX:TieredStopAtLevel=1").trim().split("\\s+"))
+                .filter(option -> !option.isEmpty())
+                .collect(Collectors.toCollection(ArrayList::new));
+    }
+
+    /**
+     * Command line running a main class with this JVM's java executable
+     */
+    public static List<String> javaCommand(List<String> options, String classPath, String mainClass, List<String> args) {
+        List<String> command = new ArrayList<>();
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(options);
+        command.add("-cp");
+        command.add(classPath);
+        command.add(mainClass);
+        command.addAll(args);
+        return command;
+    }
+
+    private static boolean isCurrent(Path archive, Path stamp, String classPath) throws IOException {
+        if (!Files.isRegularFile(archive) || !Files.isRegularFile(stamp) || !Files.readString(stamp).equals(classPath)) {
+            return false;
+        }
+        FileTime archived = Files.getLastModifiedTime(archive);
+        for (String entry : classPath.split(File.pathSeparator)) {
+            Path jar = Paths.get(entry);
+            if (Files.exists(jar) && Files.getLastModifiedTime(jar).compareTo(archived) > 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * target/fast-start/&lt;directory name&gt;.jar with the directory's files, rebuilt if any file
+     * or subdirectory (which changes when a file is removed) is newer
+     */
+    private static Path pack(Path directory) throws IOException {
+        Path jar = DIR.resolve(directory.toAbsolutePath().normalize().getFileName() + ".jar");
+        List<Path> paths;
+        try (Stream<Path> walk = Files.walk(directory)) {
+            paths = walk.sorted().collect(Collectors.toList());
+        }
+        List<Path> files = paths.stream().filter(Files::isRegularFile).collect(Collectors.toList());
+        if (Files.isRegularFile(jar)) {
+            FileTime packed = Files.getLastModifiedTime(jar);
+            boolean stale = false;
+            for (Path path : paths) {
+                if (Files.getLastModifiedTime(path).compareTo(packed) > 0) {
+                    stale = true;
+                    break;
+                }
+            }
+            if (!stale) {
+                return jar;
+            }
+        }
+        Files.createDirectories(DIR);
+        Path temporary = Files.createTempFile(DIR, "pack", ".jar");
+        try (JarOutputStream out = new JarOutputStream(Files.newOutputStream(temporary))) {
+            for (Path file : files) {
+                out.putNextEntry(new JarEntry(directory.relativize(file).toString().replace(File.separatorChar, '/')));
+                Files.copy(file, out);
+                out.closeEntry();
+            }
+        }
+        Files.move(temporary, jar, StandardCopyOption.REPLACE_EXISTING);
+        logger.info("Packed {} into {} ({} files)", directory, jar, files.size());
+        return jar;
+    }
+
+    private static boolean isEmpty(Path directory) throws IOException {
+        try (Stream<Path> children = Files.list(directory)) {
+            return children.findAny().isEmpty();
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.ensek.Api.startup;
+
+import com.ensek.Api.utils.ConfigUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testng.TestNG;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs TestNG in a fast-starting JVM (see {@link FastStart}), for short smoke runs where JVM
+ * startup and class loading are most of the time. The first run on a new class path writes the
+ * AppCDS archive as it exits; later runs start from it.
+ *
+ * Usage: FastStartRunner [TestNG arguments]   (default: fast.start.suite limited to the
+ * &lt;test&gt; blocks named in fast.start.tests, reports in target/surefire-reports)
+ */
+public class FastStartRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(FastStartRunner.class);
+    private static final String ARCHIVE = "testng";
+
+    public static void main(String[] args) throws Exception {
+        List<String> testngArgs = new ArrayList<>(List.of("-usedefaultlisteners", "false", "-d", "target/surefire-reports"));
+        if (args.length > 0) {
+            testngArgs.addAll(Arrays.asList(args));
+        } else {
+            String tests = ConfigUtils.getProperty("fast.start.tests", "").trim();
+            if (!tests.isEmpty()) {
+                testngArgs.add("-testnames");
+                testngArgs.add(tests);
+            }
+            testngArgs.add(ConfigUtils.getProperty("fast.start.suite", "TestNG.xml"));
+        }
+
+        String classPath = FastStart.packedClassPath();
+        List<String> options = FastStart.jvmOptions();
+        options.addAll(FastStart.cdsOptions(classPath, ARCHIVE));
+        logger.info("Fast-start test run with {}: {}", options, testngArgs);
+
+        long started = System.nanoTime();
+        int exitCode = new ProcessBuilder(FastStart.javaCommand(options, classPath, TestNG.class.getName(), testngArgs))
+                .inheritIO()
+                .start()
+                .waitFor();
+        logger.info("Fast-start test run finished in {} ms with exit code {}",
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started), exitCode);
+        // TestNG exits with 2 when tests were skipped; only failures fail the build
+        System.exit(exitCode & ~2);
+    }
+}
@@ -0,0 +1,146 @@
+package com.ensek.Api.startup;
+
+import com.ensek.Api.stub.EnsekStubServer;
+import com.ensek.Api.utils.ConfigUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to first request of a fresh test JVM, with and without the fast-start options.
+ *
+ * Each run forks a JVM running {@link StartupProbe} against a local {@link EnsekStubServer} and
+ * records how long after JVM start logging, RestAssured setup and the first response completed,
+ * plus the wall-clock time of the whole process. The modes are:
+ * <ul>
+ *     <li>default: the unpacked class path and no options, as mvn test runs today</li>
+ *     <li>appcds: packed class path with the probe's AppCDS archive</li>
+ *     <li>jvm-args: packed class path with fast.start.jvm.args (C1 only by default)</li>
+ *     <li>fast-start: both</li>
+ * </ul>
+ * Modes take turns within each iteration so drift on the machine affects them alike. The archive
+ * is written by one extra probe run first if it is missing or stale (on JDK 11 and 12 that run
+ * records the class list the archive is then dumped from).
+ *
+ * Usage: StartupBenchmark [iterations]   (default: startup.benchmark.iterations)
+ */
+public class StartupBenchmark {
+
+    private static final Logger logger = LoggerFactory.getLogger(StartupBenchmark.class);
+    private static final String ARCHIVE = "startup-probe";
+    private static final String[] STEPS = {"logging", "setup", "first"};
+
+    private final int iterations;
+
+    public StartupBenchmark(int iterations) {
+        this.iterations = iterations;
+    }
+
+    /**
+     * Milliseconds per step and mode, one value per iteration; "wall" is the whole process
+     */
+    public Map<String, Map<String, List<Long>>> run() throws IOException, InterruptedException {
+        Map<String, List<String>> modes = new LinkedHashMap<>();
+        String packed = FastStart.packedClassPath();
+        List<String> fastStart = new ArrayList<>(FastStart.jvmOptions());
+        try (EnsekStubServer stub = new EnsekStubServer(0, 4).start()) {
+            List<String> args = List.of(stub.getBaseUrl());
+            if (!FastStart.hasArchive(packed, ARCHIVE)) {
+                probe(FastStart.javaCommand(FastStart.cdsOptions(packed, ARCHIVE), packed, StartupProbe.class.getName(), args));
+            }
+            List<String> cds = FastStart.cdsOptions(packed, ARCHIVE);
+            fastStart.addAll(cds);
+            modes.put("default", FastStart.javaCommand(List.of(), FastStart.classPath(),
+                    StartupProbe.class.getName(), args));
+            modes.put("appcds", FastStart.javaCommand(cds, packed, StartupProbe.class.getName(), args));
+            modes.put("jvm-args", FastStart.javaCommand(FastStart.jvmOptions(), packed, StartupProbe.class.getName(), args));
+            modes.put("fast-start", FastStart.javaCommand(fastStart, packed, StartupProbe.class.getName(), args));
+
+            Map<String, Map<String, List<Long>>> results = new LinkedHashMap<>();
+            for (int i = 0; i < iterations; i++) {
+                for (Map.Entry<String, List<String>> mode : modes.entrySet()) {
+                    Map<String, Long> timings = probe(mode.getValue());
+                    Map<String, List<Long>> modeResults = results.computeIfAbsent(mode.getKey(), key -> new LinkedHashMap<>());
+                    timings.forEach((step, millis) -> modeResults.computeIfAbsent(step, key -> new ArrayList<>()).add(millis));
+                }
+                logger.info("Startup benchmark iteration {} of {} complete", i + 1, iterations);
+            }
+            return results;
+        }
+    }
+
+    /**
+     * Run one probe JVM and parse its result line; "wall" is measured here, from fork to exit
+     */
+    private static Map<String, Long> probe(List<String> command) throws IOException, InterruptedException {
+        long started = System.nanoTime();
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+        String result = null;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith(StartupProbe.RESULT_PREFIX)) {
+                    result = line;
+                }
+            }
+        }
+        int exitCode = process.waitFor();
+        long wall = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+        if (result == null || exitCode != 0) {
+            throw new IllegalStateException("Startup probe failed with exit code " + exitCode + ": " + command);
+        }
+        Map<String, Long> timings = new HashMap<>();
+        for (String field : result.substring(StartupProbe.RESULT_PREFIX.length()).trim().split(" ")) {
+            String[] pair = field.split("=");
+            timings.put(pair[0], Long.parseLong(pair[1]));
+        }
+        timings.keySet().retainAll(Arrays.asList(STEPS));
+        timings.put("wall", wall);
+        return timings;
+    }
+
+    /**
+     * Median per step and mode, in milliseconds since JVM start, with the saving against default
+     */
+    public static String summary(Map<String, Map<String, List<Long>>> results) {
+        StringBuilder text = new StringBuilder(String.format("%-12s %6s %14s %12s %15s %12s %9s",
+                "Mode", "Runs", "Logging (ms)", "Setup (ms)", "1st resp. (ms)", "Wall (ms)", "Saved"));
+        long baseline = median(results.getOrDefault("default", Map.of()).getOrDefault("first", List.of()));
+        results.forEach((mode, steps) -> {
+            long first = median(steps.get("first"));
+            text.append(System.lineSeparator()).append(String.format("%-12s %6d %14d %12d %15d %12d %8.1f%%",
+                    mode, steps.get("first").size(), median(steps.get("logging")), median(steps.get("setup")), first,
+                    median(steps.get("wall")), baseline == 0 ? 0.0 : (baseline - first) * 100.0 / baseline));
+        });
+        return text.toString();
+    }
+
+    private static long median(List<Long> values) {
+        if (values.isEmpty()) {
+            return 0;
+        }
+        List<Long> sorted = new ArrayList<>(values);
+        sorted.sort(null);
+        return sorted.get(sorted.size() / 2);
+    }
+
+    public static void main(String[] args) throws Exception {
+        int iterations = args.length > 0 ? Integer.parseInt(args[0])
+                : ConfigUtils.getIntProperty("startup.benchmark.iterations", 5);
+        Map<String, Map<String, List<Long>>> results = new StartupBenchmark(iterations).run();
+        String summary = summary(results);
+        logger.info("Startup benchmark complete:{}{}", System.lineSeparator(), summary);
+        System.out.println(summary);
+    }
+}
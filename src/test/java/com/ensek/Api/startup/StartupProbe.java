@@ -0,0 +1,44 @@
+package com.ensek.Api.startup;
+
+import com.ensek.Api.http.RequestSpecFactory;
+import com.ensek.Api.utils.ConfigUtils;
+import com.ensek.Api.utils.RestAssuredUtils;
+import io.restassured.specification.RequestSpecification;
+import org.slf4j.LoggerFactory;
+
+import java.lang.management.ManagementFactory;
+
+import static io.restassured.RestAssured.given;
+
+/**
+ * What a test JVM does before its first request, in the order a test class does it: logging,
+ * RestAssured setup, request specification, then one GET /ENSEK/energy. Prints one line with
+ * the milliseconds from JVM start to the end of each step, for {@link StartupBenchmark}.
+ *
+ * Usage: StartupProbe baseUrl
+ */
+public class StartupProbe {
+
+    static final String RESULT_PREFIX = "startup-probe";
+
+    public static void main(String[] args) {
+        long jvmStart = ManagementFactory.getRuntimeMXBean().getStartTime();
+        long main = System.currentTimeMillis() - jvmStart;
+
+        // No static logger here: logging initialisation is one of the measured steps
+        LoggerFactory.getLogger(StartupProbe.class).info("Startup probe against {}", args[0]);
+        long logging = System.currentTimeMillis() - jvmStart;
+
+        RestAssuredUtils.setupRestAssuredConfig();
+        RequestSpecification spec = RequestSpecFactory.withToken(ConfigUtils.getAuthToken());
+        long setup = System.currentTimeMillis() - jvmStart;
+
+        int status = given().spec(spec).baseUri(args[0]).basePath("")
+                .get("/ENSEK/energy")
+                .then().extract().response().statusCode();
+        long firstRequest = System.currentTimeMillis() - jvmStart;
+
+        System.out.printf("%s main=%d logging=%d setup=%d first=%d status=%d%n",
+                RESULT_PREFIX, main, logging, setup, firstRequest, status);
+    }
+}
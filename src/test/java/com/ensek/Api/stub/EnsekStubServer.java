@@ -0,0 +1,388 @@
+package com.ensek.Api.stub;
+
+import com.ensek.Api.utils.ConfigUtils;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Local in-memory stand-in for the {@code /ENSEK/*} API, following the request and response
+ * shapes in API_DOCUMENTATION.md. Used as a deterministic target for traffic replay and
+ * performance runs when the shared test environment is unavailable or must not be loaded.
+ *
+ * Latency, errors, dropped connections and slow bodies can be injected per resource with a
+ * {@link FaultProfile}, for measuring how the client stack copes with a struggling API.
+ *
+ * Usage: EnsekStubServer [port]   (then point base.url at http://localhost:&lt;port&gt;)
+ */
+public class EnsekStubServer implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(EnsekStubServer.class);
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+    private static final String JSON = "application/json; charset=utf-8";
+    private static final String STARTED_AT = "ensek.stub.startedAt";
+    private static final String BODY_RATE = "ensek.stub.bodyBytesPerSecond";
+
+    static {
+        // Without TCP_NODELAY the JDK server's separate header and body writes hit the
+        // Nagle/delayed-ACK interaction and every response takes ~40ms on loopback
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+    }
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final Set<String> validTokens = ConcurrentHashMap.newKeySet();
+    private final Map<Integer, EnergyType> energyTypes = new LinkedHashMap<>();
+    private final Map<String, Map<String, Object>> orders = new LinkedHashMap<>();
+    private final String etagPrefix = Long.toHexString(System.nanoTime());
+    private long ordersVersion;
+    private volatile FaultProfile faultProfile = FaultProfile.NONE;
+
+    public EnsekStubServer(int port, int threads) throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", port), 0);
+        executor = Executors.newFixedThreadPool(threads);
+        server.setExecutor(executor);
+        server.createContext("/ENSEK/", this::handle);
+        validTokens.add(ConfigUtils.getAuthToken());
+        reset();
+    }
+
+    public EnsekStubServer start() {
+        server.start();
+        logger.info("ENSEK stub server listening on {}", getBaseUrl());
+        return this;
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    public String getBaseUrl() {
+        return "http://localhost:" + getPort();
+    }
+
+    /**
+     * Inject the given faults into every request from now on; {@link FaultProfile#NONE} turns them off
+     */
+    public EnsekStubServer setFaultProfile(FaultProfile faultProfile) {
+        this.faultProfile = faultProfile;
+        logger.info("Stub fault profile {}", faultProfile);
+        return this;
+    }
+
+    public FaultProfile getFaultProfile() {
+        return faultProfile;
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+        try {
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Restore the initial energy catalogue and clear all orders
+     */
+    public synchronized void reset() {
+        energyTypes.clear();
+        energyTypes.put(1, new EnergyType(1, "Gas", "fossil", 0.34, 3000, "m³"));
+        energyTypes.put(2, new EnergyType(2, "Nuclear", "nuclear", 0.56, 0, "MW"));
+        energyTypes.put(3, new EnergyType(3, "Electric", "renewable", 0.47, 4322, "kWh"));
+        energyTypes.put(4, new EnergyType(4, "Oil", "fossil", 0.5, 20, "Litres"));
+        orders.clear();
+        ordersVersion++;
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        exchange.setAttribute(STARTED_AT, System.nanoTime());
+        try {
+            String method = exchange.getRequestMethod();
+            String[] segments = exchange.getRequestURI().getPath().split("/");
+            // segments: "", "ENSEK", resource, ...
+            String resource = segments.length > 2 ? segments[2] : "";
+
+            FaultProfile.Faults faults = faultProfile.forResource(resource);
+            if (!faults.isNone() && injectFaults(exchange, faults)) {
+                return;
+            }
+            if ("login".equals(resource) && "POST".equals(method)) {
+                login(exchange);
+                return;
+            }
+            if (!isAuthorized(exchange)) {
+                respond(exchange, 401, error("Unauthorized"));
+                return;
+            }
+            if ("reset".equals(resource) && "POST".equals(method)) {
+                reset();
+                respond(exchange, 200, message("Success"));
+            } else if ("energy".equals(resource) && "GET".equals(method)) {
+                respond(exchange, 200, energy());
+            } else if ("buy".equals(resource) && "PUT".equals(method) && segments.length == 5) {
+                buy(exchange, segments[3], segments[4]);
+            } else if ("orders".equals(resource) && "GET".equals(method) && segments.length == 3) {
+                listOrders(exchange);
+            } else if ("orders".equals(resource) && "GET".equals(method) && segments.length == 4) {
+                Map<String, Object> order = findOrder(segments[3]);
+                respond(exchange, order != null ? 200 : 404, order != null ? order : error("Order not found"));
+            } else {
+                respond(exchange, 404, error("Not found"));
+            }
+        } catch (RuntimeException e) {
+            logger.error("Stub server failed to handle {} {}", exchange.getRequestMethod(), exchange.getRequestURI(), e);
+            respond(exchange, 500, error("Internal server error"));
+        }
+    }
+
+    /**
+     * Delay the request and roll for a reset or an error; true if the request was answered
+     */
+    private boolean injectFaults(HttpExchange exchange, FaultProfile.Faults faults) throws IOException {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long delay = faults.getLatency().sampleMillis(random);
+        if (delay > 0) {
+            try {
+                TimeUnit.MILLISECONDS.sleep(delay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                exchange.close();
+                return true;
+            }
+        }
+        if (faults.getResetRate() > 0 && random.nextDouble() * 100 < faults.getResetRate()) {
+            // Closing before any response is sent drops the connection under the client
+            exchange.close();
+            return true;
+        }
+        if (faults.getErrorRate() > 0 && random.nextDouble() * 100 < faults.getErrorRate()) {
+            respond(exchange, faults.getErrorStatus(), error("Injected fault"));
+            return true;
+        }
+        if (faults.getBodyBytesPerSecond() > 0) {
+            exchange.setAttribute(BODY_RATE, faults.getBodyBytesPerSecond());
+        }
+        return false;
+    }
+
+    private boolean isAuthorized(HttpExchange exchange) {
+        String header = exchange.getRequestHeaders().getFirst("Authorization");
+        return header != null && header.startsWith("Bearer ") && validTokens.contains(header.substring(7));
+    }
+
+    private void login(HttpExchange exchange) throws IOException {
+        JsonNode body;
+        try (InputStream in = exchange.getRequestBody()) {
+            body = objectMapper.readTree(in);
+        } catch (IOException e) {
+            body = null;
+        }
+        String username = body != null ? body.path("username").asText("") : "";
+        String password = body != null ? body.path("password").asText("") : "";
+        if (username.isEmpty() || password.isEmpty()) {
+            respond(exchange, 400, error("Username and password are required"));
+            return;
+        }
+        if (!username.equals(ConfigUtils.getTestUsername()) || !password.equals(ConfigUtils.getTestPassword())) {
+            respond(exchange, 401, error("Unauthorized"));
+            return;
+        }
+        String token = UUID.randomUUID().toString();
+        validTokens.add(token);
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("access_token", token);
+        response.put("token_type", "Bearer");
+        response.put("expires_in", 3600);
+        response.put("user_id", username);
+        respond(exchange, 200, response);
+    }
+
+    private void buy(HttpExchange exchange, String idSegment, String quantitySegment) throws IOException {
+        int id;
+        int quantity;
+        try {
+            id = Integer.parseInt(idSegment);
+            quantity = Integer.parseInt(quantitySegment);
+        } catch (NumberFormatException e) {
+            respond(exchange, 400, error("Fuel id and quantity must be integers"));
+            return;
+        }
+        if (quantity <= 0) {
+            respond(exchange, 400, error("Quantity must be positive"));
+            return;
+        }
+
+        String orderId;
+        synchronized (this) {
+            EnergyType energyType = energyTypes.get(id);
+            if (energyType == null) {
+                respond(exchange, 404, error("Unknown fuel id " + id));
+                return;
+            }
+            if (quantity > energyType.quantityAvailable) {
+                respond(exchange, 409, error("Insufficient stock for fuel id " + id));
+                return;
+            }
+            energyType.quantityAvailable -= quantity;
+            orderId = UUID.randomUUID().toString();
+            Map<String, Object> order = new LinkedHashMap<>();
+            order.put("orderId", orderId);
+            order.put("fuelId", id);
+            order.put("quantity", quantity);
+            order.put("timestamp", Instant.now().toString());
+            order.put("status", "COMPLETE");
+            order.put("totalCost", quantity * energyType.unitCost);
+            orders.put(orderId, order);
+            ordersVersion++;
+        }
+        respond(exchange, 200, message(String.format("You have purchased %d units. Your orderid is %s.", quantity, orderId)));
+    }
+
+    private synchronized List<Map<String, Object>> energy() {
+        List<Map<String, Object>> result = new ArrayList<>();
+        for (EnergyType energyType : energyTypes.values()) {
+            result.add(energyType.toMap());
+        }
+        return result;
+    }
+
+    /**
+     * The listing carries an ETag that changes with every purchase or reset, and a matching
+     * If-None-Match gets 304 with no body
+     */
+    private void listOrders(HttpExchange exchange) throws IOException {
+        List<Map<String, Object>> listing;
+        String etag;
+        synchronized (this) {
+            listing = new ArrayList<>(orders.values());
+            etag = "\"" + etagPrefix + "-" + ordersVersion + "\"";
+        }
+        exchange.getResponseHeaders().set("ETag", etag);
+        if (etag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+            addServerTiming(exchange);
+            exchange.sendResponseHeaders(304, -1);
+            exchange.close();
+            return;
+        }
+        respond(exchange, 200, listing);
+    }
+
+    private synchronized Map<String, Object> findOrder(String orderId) {
+        return orders.get(orderId);
+    }
+
+    private static void respond(HttpExchange exchange, int status, Object body) throws IOException {
+        byte[] bytes = objectMapper.writeValueAsBytes(body);
+        exchange.getResponseHeaders().set("Content-Type", JSON);
+        exchange.getResponseHeaders().set("Vary", "Accept-Encoding");
+        addServerTiming(exchange);
+        String acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+        if (acceptEncoding != null && acceptEncoding.contains("gzip")) {
+            exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+            exchange.sendResponseHeaders(status, 0);
+            try (OutputStream out = new GZIPOutputStream(responseBody(exchange), 8192)) {
+                out.write(bytes);
+            }
+            return;
+        }
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = responseBody(exchange)) {
+            out.write(bytes);
+        }
+    }
+
+    private static OutputStream responseBody(HttpExchange exchange) {
+        Object bytesPerSecond = exchange.getAttribute(BODY_RATE);
+        return bytesPerSecond instanceof Long
+                ? new ThrottledOutputStream(exchange.getResponseBody(), (Long) bytesPerSecond)
+                : exchange.getResponseBody();
+    }
+
+    /**
+     * Time spent handling the request, up to the response headers, as Server-Timing "app"
+     */
+    private static void addServerTiming(HttpExchange exchange) {
+        Object startedAt = exchange.getAttribute(STARTED_AT);
+        if (startedAt instanceof Long) {
+            double millis = (System.nanoTime() - (Long) startedAt) / 1_000_000.0;
+            exchange.getResponseHeaders().set("Server-Timing", String.format(Locale.ROOT, "app;dur=%.3f", millis));
+        }
+    }
+
+    private static Map<String, Object> message(String text) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("message", text);
+        return body;
+    }
+
+    private static Map<String, Object> error(String text) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("error", text);
+        body.put("message", text);
+        return body;
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : ConfigUtils.getIntProperty("stub.port", 8080);
+        EnsekStubServer stub = new EnsekStubServer(port, ConfigUtils.getIntProperty("stub.threads", 16)).start();
+        if (ConfigUtils.getBooleanProperty("stub.fault.enabled", false)) {
+            stub.setFaultProfile(FaultProfile.named(ConfigUtils.getProperty("stub.fault.profile", "config")));
+        }
+        Runtime.getRuntime().addShutdownHook(new Thread(stub::close, "stub-server-shutdown"));
+    }
+
+    private static class EnergyType {
+        private final int id;
+        private final String name;
+        private final String type;
+        private final double unitCost;
+        private int quantityAvailable;
+        private final String unit;
+
+        EnergyType(int id, String name, String type, double unitCost, int quantityAvailable, String unit) {
+            this.id = id;
+            this.name = name;
+            this.type = type;
+            this.unitCost = unitCost;
+            this.quantityAvailable = quantityAvailable;
+            this.unit = unit;
+        }
+
+        Map<String, Object> toMap() {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("id", id);
+            map.put("name", name);
+            map.put("type", type);
+            map.put("unit_cost", unitCost);
+            map.put("quantity_available", quantityAvailable);
+            map.put("unit", unit);
+            return map;
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package com.ensek.Api.stub;
+
+import com.ensek.Api.utils.ConfigUtils;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Faults the {@link EnsekStubServer} injects, with defaults for every resource and optional
+ * overrides for individual resources ("login", "energy", "buy", "orders", "reset").
+ *
+ * Each request first waits for a latency sample, then may have its connection closed without a
+ * response (a reset, as the client sees it) or get an error status instead of being handled.
+ * Bodies of the remaining responses can be throttled to a fixed byte rate.
+ *
+ * Besides the {@code config} profile read from {@code stub.fault.*}, a few named profiles cover
+ * the usual failure modes; see {@link #named(String)}.
+ */
+public class FaultProfile {
+
+    public static final FaultProfile NONE = new FaultProfile("none", Faults.NONE);
+    public static final List<String> RESOURCES = Collections.unmodifiableList(
+            Arrays.asList("login", "energy", "buy", "orders", "reset"));
+    public static final List<String> NAMED_PROFILES = Collections.unmodifiableList(
+            Arrays.asList("none", "latency", "errors", "resets", "slow-body", "degraded"));
+
+    private final String name;
+    private final Faults defaults;
+    private final Map<String, Faults> resources = new LinkedHashMap<>();
+
+    public FaultProfile(String name, Faults defaults) {
+        this.name = name;
+        this.defaults = defaults;
+    }
+
+    /**
+     * Use different faults for one resource
+     */
+    public FaultProfile override(String resource, Faults faults) {
+        resources.put(resource, faults);
+        return this;
+    }
+
+    /**
+     * One of {@link #NAMED_PROFILES}, or "config" for the profile in config.properties
+     */
+    public static FaultProfile named(String name) {
+        switch (name) {
+            case "none":
+                return NONE;
+            case "latency":
+                return new FaultProfile(name, new Faults(LatencyDistribution.lognormal(50, 0.8), 0, 503, 0, 0));
+            case "errors":
+                return new FaultProfile(name, new Faults(LatencyDistribution.NONE, 10, 503, 0, 0));
+            case "resets":
+                return new FaultProfile(name, new Faults(LatencyDistribution.NONE, 0, 503, 5, 0));
+            case "slow-body":
+                return new FaultProfile(name, new Faults(LatencyDistribution.NONE, 0, 503, 0, 16 * 1024));
+            case "degraded":
+                return new FaultProfile(name, new Faults(LatencyDistribution.lognormal(100, 1.0), 5, 503, 1, 0))
+                        .override("buy", new Faults(LatencyDistribution.lognormal(250, 1.2), 10, 500, 1, 0));
+            case "config":
+                return fromConfig();
+            default:
+                throw new IllegalArgumentException("Unknown fault profile '" + name + "', expected one of "
+                        + NAMED_PROFILES + " or config");
+        }
+    }
+
+    /**
+     * Build a profile from stub.fault.*, with stub.fault.&lt;resource&gt;.* overriding any key per resource
+     */
+    public static FaultProfile fromConfig() {
+        FaultProfile profile = new FaultProfile("config", Faults.fromConfig("stub.fault."));
+        for (String resource : RESOURCES) {
+            Faults faults = Faults.fromConfig("stub.fault." + resource + ".");
+            if (!faults.equals(profile.defaults)) {
+                profile.override(resource, faults);
+            }
+        }
+        return profile;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Faults forResource(String resource) {
+        return resources.getOrDefault(resource, defaults);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder(name).append(": ").append(defaults);
+        resources.forEach((resource, faults) -> text.append("; ").append(resource).append(": ").append(faults));
+        return text.toString();
+    }
+
+    /**
+     * Faults for one resource; rates are percentages of requests
+     */
+    public static class Faults {
+        public static final Faults NONE = new Faults(LatencyDistribution.NONE, 0, 503, 0, 0);
+
+        private final LatencyDistribution latency;
+        private final double errorRate;
+        private final int errorStatus;
+        private final double resetRate;
+        private final long bodyBytesPerSecond;
+
+        /**
+         * @param bodyBytesPerSecond response body rate limit, 0 for unthrottled
+         */
+        public Faults(LatencyDistribution latency, double errorRate, int errorStatus, double resetRate,
+                      long bodyBytesPerSecond) {
+            if (errorRate < 0 || errorRate > 100 || resetRate < 0 || resetRate > 100) {
+                throw new IllegalArgumentException("Fault rates are percentages between 0 and 100");
+            }
+            this.latency = latency;
+            this.errorRate = errorRate;
+            this.errorStatus = errorStatus;
+            this.resetRate = resetRate;
+            this.bodyBytesPerSecond = bodyBytesPerSecond;
+        }
+
+        /**
+         * Read the fault keys under a prefix, falling back to the stub.fault.* defaults
+         */
+        static Faults fromConfig(String prefix) {
+            return new Faults(
+                    LatencyDistribution.parse(property(prefix, "latency", "none")),
+                    Double.parseDouble(property(prefix, "error.rate", "0")),
+                    Integer.parseInt(property(prefix, "error.status", "503")),
+                    Double.parseDouble(property(prefix, "reset.rate", "0")),
+                    Long.parseLong(property(prefix, "body.bytes.per.second", "0")));
+        }
+
+        private static String property(String prefix, String key, String defaultValue) {
+            return ConfigUtils.getProperty(prefix + key, ConfigUtils.getProperty("stub.fault." + key, defaultValue));
+        }
+
+        public boolean isNone() {
+            return latency.isNone() && errorRate == 0 && resetRate == 0 && bodyBytesPerSecond == 0;
+        }
+
+        public LatencyDistribution getLatency() {
+            return latency;
+        }
+
+        public double getErrorRate() {
+            return errorRate;
+        }
+
+        public int getErrorStatus() {
+            return errorStatus;
+        }
+
+        public double getResetRate() {
+            return resetRate;
+        }
+
+        public long getBodyBytesPerSecond() {
+            return bodyBytesPerSecond;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (this == other) {
+                return true;
+            }
+            if (!(other instanceof Faults)) {
+                return false;
+            }
+            Faults faults = (Faults) other;
+            return latency.toString().equals(faults.latency.toString()) && errorRate == faults.errorRate
+                    && errorStatus == faults.errorStatus && resetRate == faults.resetRate
+                    && bodyBytesPerSecond == faults.bodyBytesPerSecond;
+        }
+
+        @Override
+        public int hashCode() {
+            return latency.toString().hashCode() * 31 + (int) bodyBytesPerSecond;
+        }
+
+        @Override
+        public String toString() {
+            if (isNone()) {
+                return "no faults";
+            }
+            return String.format("latency=%s errors=%s%% (%d) resets=%s%% body=%s", latency, errorRate, errorStatus,
+                    resetRate, bodyBytesPerSecond > 0 ? bodyBytesPerSecond + " B/s" : "unthrottled");
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.ensek.Api.stub;
+
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Added latency for injected faults, written as a short spec:
+ * <ul>
+ *     <li>{@code none}</li>
+ *     <li>{@code fixed:<ms>}</li>
+ *     <li>{@code uniform:<min ms>:<max ms>}</li>
+ *     <li>{@code exponential:<mean ms>}</li>
+ *     <li>{@code lognormal:<median ms>:<sigma>} - a long right tail, closest to real service latency</li>
+ * </ul>
+ * Samples are capped at {@link #MAX_MILLIS} so a wide lognormal cannot stall a stub thread indefinitely.
+ */
+public final class LatencyDistribution {
+
+    public static final LatencyDistribution NONE = new LatencyDistribution("none", 0, 0);
+    public static final long MAX_MILLIS = 120_000;
+
+    private final String kind;
+    private final double first;
+    private final double second;
+
+    private LatencyDistribution(String kind, double first, double second) {
+        this.kind = kind;
+        this.first = first;
+        this.second = second;
+    }
+
+    public static LatencyDistribution fixed(long millis) {
+        return new LatencyDistribution("fixed", millis, 0);
+    }
+
+    public static LatencyDistribution uniform(long minMillis, long maxMillis) {
+        return new LatencyDistribution("uniform", minMillis, maxMillis);
+    }
+
+    public static LatencyDistribution exponential(double meanMillis) {
+        return new LatencyDistribution("exponential", meanMillis, 0);
+    }
+
+    public static LatencyDistribution lognormal(double medianMillis, double sigma) {
+        return new LatencyDistribution("lognormal", medianMillis, sigma);
+    }
+
+    public static LatencyDistribution parse(String spec) {
+        String[] parts = spec.trim().toLowerCase(Locale.ROOT).split(":");
+        try {
+            switch (parts[0]) {
+                case "":
+                case "none":
+                    return NONE;
+                case "fixed":
+                    return fixed(Long.parseLong(parts[1]));
+                case "uniform":
+                    return uniform(Long.parseLong(parts[1]), Long.parseLong(parts[2]));
+                case "exponential":
+                    return exponential(Double.parseDouble(parts[1]));
+                case "lognormal":
+                    return lognormal(Double.parseDouble(parts[1]), Double.parseDouble(parts[2]));
+                default:
+                    break;
+            }
+        } catch (ArrayIndexOutOfBoundsException | NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid latency spec: " + spec, e);
+        }
+        throw new IllegalArgumentException("Unknown latency distribution: " + spec);
+    }
+
+    public boolean isNone() {
+        return this == NONE;
+    }
+
+    public long sampleMillis(Random random) {
+        double millis;
+        switch (kind) {
+            case "fixed":
+                millis = first;
+                break;
+            case "uniform":
+                millis = first + random.nextDouble() * (second - first);
+                break;
+            case "exponential":
+                millis = -first * Math.log(1 - random.nextDouble());
+                break;
+            case "lognormal":
+                millis = first * Math.exp(second * random.nextGaussian());
+                break;
+            default:
+                return 0;
+        }
+        return Math.max(0, Math.min(MAX_MILLIS, Math.round(millis)));
+    }
+
+    @Override
+    public String toString() {
+        switch (kind) {
+            case "fixed":
+                return String.format(Locale.ROOT, "fixed:%.0f", first);
+            case "uniform":
+                return String.format(Locale.ROOT, "uniform:%.0f:%.0f", first, second);
+            case "exponential":
+                return String.format(Locale.ROOT, "exponential:%s", first);
+            case "lognormal":
+                return String.format(Locale.ROOT, "lognormal:%s:%s", first, second);
+            default:
+                return kind;
+        }
+    }
+}
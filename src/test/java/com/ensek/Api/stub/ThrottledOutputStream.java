@@ -0,0 +1,61 @@
+package com.ensek.Api.stub;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes through at no more than a fixed number of bytes per second, flushing each slice so the
+ * client receives the body as a slow trickle rather than in one late burst
+ */
+class ThrottledOutputStream extends FilterOutputStream {
+
+    private static final int SLICES_PER_SECOND = 10;
+
+    private final long bytesPerSecond;
+    private final int sliceBytes;
+    private final long startNanos = System.nanoTime();
+    private long written;
+
+    ThrottledOutputStream(OutputStream out, long bytesPerSecond) {
+        super(out);
+        this.bytesPerSecond = bytesPerSecond;
+        this.sliceBytes = (int) Math.max(1, Math.min(64 * 1024, bytesPerSecond / SLICES_PER_SECOND));
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        write(new byte[]{(byte) b}, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] buffer, int offset, int length) throws IOException {
+        while (length > 0) {
+            int slice = Math.min(length, sliceBytes);
+            pace();
+            out.write(buffer, offset, slice);
+            out.flush();
+            written += slice;
+            offset += slice;
+            length -= slice;
+        }
+    }
+
+    /**
+     * Wait until the bytes already written are within budget for the time elapsed
+     */
+    private void pace() throws IOException {
+        long dueNanos = startNanos + written * TimeUnit.SECONDS.toNanos(1) / bytesPerSecond;
+        long waitNanos = dueNanos - System.nanoTime();
+        if (waitNanos > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(waitNanos);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while throttling response body");
+            }
+        }
+    }
+}
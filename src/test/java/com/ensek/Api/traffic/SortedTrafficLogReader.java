@@ -0,0 +1,96 @@
+package com.ensek.Api.traffic;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+
+/**
+ * Streams the records of a traffic log in the order the requests were sent.
+ *
+ * The writer appends exchanges as they complete, so a slow request is logged after faster ones
+ * that started later. But a request logged after one that completed at time T started no earlier
+ * than T minus the longest latency in the log, so records only need to be held back within that
+ * window: they wait in a small heap ordered by offset and are released once no record still to
+ * be read can start before them. A first pass over the log, which skips the bodies, finds the
+ * longest latency. Memory is bounded by the requests sent within one longest latency of each
+ * other, not by the size of the log.
+ */
+public class SortedTrafficLogReader implements Iterator<TrafficRecord>, Closeable {
+
+    /**
+     * Allowance for exchanges completing in one order and reaching the writer's lock in another
+     */
+    private static final long SLACK_MICROS = 1_000_000;
+
+    private final TrafficLogReader source;
+    private final long windowMicros;
+    private final PriorityQueue<Entry> pending = new PriorityQueue<>(
+            Comparator.comparingLong((Entry entry) -> entry.record.getOffsetMicros())
+                    .thenComparingLong(entry -> entry.sequence));
+    private long sequence;
+    private long releasedBeforeMicros = Long.MIN_VALUE;
+
+    public SortedTrafficLogReader(Path file) throws IOException {
+        this.windowMicros = longestLatencyMicros(file) + SLACK_MICROS;
+        this.source = new TrafficLogReader(file);
+    }
+
+    @Override
+    public boolean hasNext() {
+        while ((pending.isEmpty() || pending.peek().record.getOffsetMicros() >= releasedBeforeMicros)
+                && source.hasNext()) {
+            TrafficRecord record = source.next();
+            pending.add(new Entry(record, sequence++));
+            releasedBeforeMicros = Math.max(releasedBeforeMicros,
+                    record.getOffsetMicros() + record.getLatencyMicros() - windowMicros);
+        }
+        return !pending.isEmpty();
+    }
+
+    @Override
+    public TrafficRecord next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return pending.poll().record;
+    }
+
+    /**
+     * Number of records currently held back for reordering
+     */
+    int getPendingCount() {
+        return pending.size();
+    }
+
+    @Override
+    public void close() throws IOException {
+        source.close();
+    }
+
+    private static long longestLatencyMicros(Path file) throws IOException {
+        long longest = 0;
+        try (TrafficLogReader reader = new TrafficLogReader(file, true)) {
+            while (reader.hasNext()) {
+                longest = Math.max(longest, reader.next().getLatencyMicros());
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        return longest;
+    }
+
+    private static final class Entry {
+        private final TrafficRecord record;
+        private final long sequence;
+
+        Entry(TrafficRecord record, long sequence) {
+            this.record = record;
+            this.sequence = sequence;
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package com.ensek.Api.traffic;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Streaming reader for logs written by {@link TrafficLogWriter}.
+ * Sessions appended to the same file are laid end to end on a single timeline, so the
+ * idle time between two recording runs is not replayed. A truncated trailing entry
+ * (e.g. from a killed JVM) ends iteration instead of failing it.
+ */
+public class TrafficLogReader implements Iterator<TrafficRecord>, Closeable {
+
+    private final InputStream in;
+    private final boolean skipBodies;
+    private long sessionBaseMicros;
+    private long lastOffsetMicros;
+    private TrafficRecord next;
+    private boolean finished;
+
+    public TrafficLogReader(Path file) throws IOException {
+        this(file, false);
+    }
+
+    /**
+     * @param skipBodies return every record with null bodies, without reading them into memory
+     */
+    TrafficLogReader(Path file, boolean skipBodies) throws IOException {
+        this.skipBodies = skipBodies;
+        in = new BufferedInputStream(Files.newInputStream(file), 64 * 1024);
+        byte[] header = in.readNBytes(TrafficLogWriter.MAGIC.length);
+        if (!Arrays.equals(header, TrafficLogWriter.MAGIC)) {
+            in.close();
+            throw new IOException("Not a traffic log: " + file);
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next == null && !finished) {
+            try {
+                next = readNext();
+            } catch (EOFException e) {
+                next = null;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            finished = next == null;
+        }
+        return next != null;
+    }
+
+    @Override
+    public TrafficRecord next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        TrafficRecord record = next;
+        next = null;
+        return record;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    private TrafficRecord readNext() throws IOException {
+        while (true) {
+            int tag = in.read();
+            if (tag == -1) {
+                return null;
+            }
+            if (tag == TrafficLogWriter.SESSION_TAG) {
+                readVarLong(in);
+                sessionBaseMicros = lastOffsetMicros;
+            } else if (tag == TrafficLogWriter.RECORD_TAG) {
+                return readRecord();
+            } else {
+                throw new IOException("Corrupt traffic log: unexpected tag " + tag);
+            }
+        }
+    }
+
+    private TrafficRecord readRecord() throws IOException {
+        long offset = sessionBaseMicros + readVarLong(in);
+        String method = readMethod();
+        String path = readString();
+        int headerCount = (int) readVarLong(in);
+        List<String[]> headers = new ArrayList<>(headerCount);
+        for (int i = 0; i < headerCount; i++) {
+            headers.add(new String[]{readString(), readString()});
+        }
+        byte[] requestBody = readBody();
+        int status = (int) readVarLong(in);
+        long latency = readVarLong(in);
+        byte[] responseBody = readBody();
+        lastOffsetMicros = Math.max(lastOffsetMicros, offset);
+        return new TrafficRecord(offset, method, path, headers, requestBody, status, latency, responseBody);
+    }
+
+    private String readMethod() throws IOException {
+        int code = readByte();
+        if (code == TrafficLogWriter.CUSTOM_METHOD) {
+            return readString();
+        }
+        if (code >= TrafficLogWriter.METHODS.length) {
+            throw new IOException("Corrupt traffic log: unknown method code " + code);
+        }
+        return TrafficLogWriter.METHODS[code];
+    }
+
+    private String readString() throws IOException {
+        return new String(readBytes(), StandardCharsets.UTF_8);
+    }
+
+    private byte[] readBody() throws IOException {
+        if (!skipBodies) {
+            return readBytes();
+        }
+        long remaining = readVarLong(in);
+        while (remaining > 0) {
+            long skipped = in.skip(remaining);
+            if (skipped <= 0) {
+                readByte();
+                skipped = 1;
+            }
+            remaining -= skipped;
+        }
+        return null;
+    }
+
+    private byte[] readBytes() throws IOException {
+        int length = (int) readVarLong(in);
+        byte[] value = in.readNBytes(length);
+        if (value.length != length) {
+            throw new EOFException();
+        }
+        return value;
+    }
+
+    private int readByte() throws IOException {
+        int value = in.read();
+        if (value == -1) {
+            throw new EOFException();
+        }
+        return value;
+    }
+
+    static long readVarLong(InputStream in) throws IOException {
+        long value = 0;
+        int shift = 0;
+        while (true) {
+            int b = in.read();
+            if (b == -1) {
+                throw new EOFException();
+            }
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+            shift += 7;
+            if (shift > 63) {
+                throw new IOException("Corrupt traffic log: varint too long");
+            }
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package com.ensek.Api.traffic;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.testng.Assert.*;
+
+/**
+ * Offline checks of the binary traffic log: varint encoding, a write/read round trip of every
+ * field, truncated logs, appended sessions and streaming replay ordering.
+ */
+public class TrafficLogTest {
+
+    private Path log;
+
+    @BeforeMethod(alwaysRun = true)
+    public void setUp() throws IOException {
+        log = Files.createTempFile("traffic", ".bin");
+        Files.delete(log);
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(log);
+    }
+
+    @Test(groups = {"Unit"})
+    public void testVarLongRoundTrip() throws IOException {
+        long[] values = {0, 1, 127, 128, 16383, 16384, Integer.MAX_VALUE, 1L << 35, Long.MAX_VALUE, -1};
+        int[] sizes = {1, 1, 1, 2, 2, 3, 5, 6, 9, 10};
+        for (int i = 0; i < values.length; i++) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            TrafficLogWriter.writeVarLong(out, values[i]);
+            assertEquals(out.size(), sizes[i], "Encoded size of " + values[i]);
+            assertEquals(TrafficLogReader.readVarLong(new ByteArrayInputStream(out.toByteArray())), values[i]);
+        }
+    }
+
+    @Test(groups = {"Unit"})
+    public void testRecordRoundTrip() throws IOException {
+        List<String[]> headers = new ArrayList<>();
+        headers.add(new String[]{"Authorization", TrafficRecorder.TOKEN_PLACEHOLDER});
+        headers.add(new String[]{"X-Note", "café ☃"});
+        byte[] binary = new byte[300];
+        for (int i = 0; i < binary.length; i++) {
+            binary[i] = (byte) i;
+        }
+        List<TrafficRecord> written = List.of(
+                new TrafficRecord(0, "GET", "/ENSEK/energy", null, null, 200, 15, "[]".getBytes(StandardCharsets.UTF_8)),
+                new TrafficRecord(1_500_000, "PUT", "/ENSEK/buy/1/10?x=y", headers, new byte[0], 400, 200_000, binary),
+                new TrafficRecord(3_000_000_000L, "PURGE", "/", headers, binary, 599, Long.MAX_VALUE, null));
+        try (TrafficLogWriter writer = new TrafficLogWriter(log)) {
+            for (TrafficRecord record : written) {
+                writer.append(record);
+            }
+        }
+
+        List<TrafficRecord> read = readAll();
+        assertEquals(read.size(), written.size());
+        for (int i = 0; i < written.size(); i++) {
+            assertSameRecord(read.get(i), written.get(i));
+        }
+    }
+
+    @Test(groups = {"Unit"})
+    public void testTruncatedEntryEndsIteration() throws IOException {
+        try (TrafficLogWriter writer = new TrafficLogWriter(log)) {
+            writer.append(new TrafficRecord(10, "GET", "/ENSEK/orders", null, null, 200, 5, null));
+            writer.append(new TrafficRecord(20, "GET", "/ENSEK/orders", null, null, 200, 5, new byte[100]));
+        }
+        try (FileChannel channel = FileChannel.open(log, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 10);
+        }
+
+        List<TrafficRecord> read = readAll();
+        assertEquals(read.size(), 1);
+        assertEquals(read.get(0).getOffsetMicros(), 10);
+    }
+
+    @Test(groups = {"Unit"})
+    public void testAppendedSessionsFollowEachOther() throws IOException {
+        try (TrafficLogWriter writer = new TrafficLogWriter(log)) {
+            writer.append(new TrafficRecord(100, "GET", "/a", null, null, 200, 5, null));
+            writer.append(new TrafficRecord(700, "GET", "/b", null, null, 200, 5, null));
+        }
+        try (TrafficLogWriter writer = new TrafficLogWriter(log)) {
+            writer.append(new TrafficRecord(50, "GET", "/c", null, null, 200, 5, null));
+        }
+
+        List<TrafficRecord> read = readAll();
+        assertEquals(read.size(), 3);
+        assertEquals(read.get(2).getPath(), "/c");
+        assertEquals(read.get(2).getOffsetMicros(), 750, "Second session starts where the first ended");
+    }
+
+    @Test(groups = {"Unit"})
+    public void testSortedReaderOrdersByOffset() throws IOException {
+        try (TrafficLogWriter writer = new TrafficLogWriter(log)) {
+            // In completion order: the slow /a started first but finished last
+            writer.append(new TrafficRecord(500, "GET", "/b", null, null, 200, 10, null));
+            writer.append(new TrafficRecord(700, "GET", "/c", null, null, 200, 10, new byte[10]));
+            writer.append(new TrafficRecord(100, "GET", "/a", null, null, 200, 900, null));
+        }
+
+        List<TrafficRecord> sorted = new ArrayList<>();
+        try (SortedTrafficLogReader reader = new SortedTrafficLogReader(log)) {
+            reader.forEachRemaining(sorted::add);
+        }
+        assertEquals(sorted.size(), 3);
+        assertEquals(sorted.get(0).getPath(), "/a");
+        assertEquals(sorted.get(1).getPath(), "/b");
+        assertEquals(sorted.get(2).getPath(), "/c");
+        assertEquals(sorted.get(2).getResponseBody().length, 10, "Bodies are read on the second pass");
+    }
+
+    @Test(groups = {"Unit"})
+    public void testSortedReaderHoldsBackOnlyTheLatencyWindow() throws IOException {
+        // One request every 10 ms, each taking 50 ms except every 100th, which takes 2 s;
+        // appended in completion order as the recorder does
+        List<TrafficRecord> sent = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            long latency = i % 100 == 0 ? 2_000_000 : 50_000;
+            sent.add(new TrafficRecord(i * 10_000L, "GET", "/" + i, null, null, 200, latency, null));
+        }
+        List<TrafficRecord> completed = new ArrayList<>(sent);
+        completed.sort(Comparator.comparingLong(record -> record.getOffsetMicros() + record.getLatencyMicros()));
+        try (TrafficLogWriter writer = new TrafficLogWriter(log)) {
+            for (TrafficRecord record : completed) {
+                writer.append(record);
+            }
+        }
+
+        int maxPending = 0;
+        long previousOffset = -1;
+        int count = 0;
+        try (SortedTrafficLogReader reader = new SortedTrafficLogReader(log)) {
+            while (reader.hasNext()) {
+                maxPending = Math.max(maxPending, reader.getPendingCount());
+                TrafficRecord record = reader.next();
+                assertTrue(record.getOffsetMicros() > previousOffset, "Out of order at " + record.getPath());
+                previousOffset = record.getOffsetMicros();
+                count++;
+            }
+        }
+        assertEquals(count, sent.size());
+        // 2 s window plus 1 s slack at one request per 10 ms, give or take the batch being read
+        assertTrue(maxPending <= 320, "Held back " + maxPending + " records");
+    }
+
+    @Test(groups = {"Unit"}, expectedExceptions = IOException.class)
+    public void testRejectsOtherFiles() throws IOException {
+        Files.write(log, "not a traffic log".getBytes(StandardCharsets.US_ASCII));
+        new TrafficLogReader(log).close();
+    }
+
+    private List<TrafficRecord> readAll() throws IOException {
+        List<TrafficRecord> records = new ArrayList<>();
+        try (TrafficLogReader reader = new TrafficLogReader(log)) {
+            reader.forEachRemaining(records::add);
+        }
+        return records;
+    }
+
+    private static void assertSameRecord(TrafficRecord actual, TrafficRecord expected) {
+        assertEquals(actual.getOffsetMicros(), expected.getOffsetMicros());
+        assertEquals(actual.getMethod(), expected.getMethod());
+        assertEquals(actual.getPath(), expected.getPath());
+        assertEquals(actual.getHeaders().size(), expected.getHeaders().size());
+        for (int i = 0; i < expected.getHeaders().size(); i++) {
+            assertEquals(actual.getHeaders().get(i), expected.getHeaders().get(i));
+        }
+        assertEquals(actual.getRequestBody(), expected.getRequestBody());
+        assertEquals(actual.getStatusCode(), expected.getStatusCode());
+        assertEquals(actual.getLatencyMicros(), expected.getLatencyMicros());
+        assertEquals(actual.getResponseBody(), expected.getResponseBody());
+    }
+}
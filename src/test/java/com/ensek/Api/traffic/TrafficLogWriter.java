@@ -0,0 +1,121 @@
+package com.ensek.Api.traffic;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Append-only writer for the binary traffic log.
+ *
+ * Layout: an 8 byte file header ({@link #MAGIC}) followed by tagged entries. Every time a
+ * writer is opened it appends a session entry ({@link #SESSION_TAG}, epoch millis); exchange
+ * entries ({@link #RECORD_TAG}) store their start offset from that session in microseconds.
+ * Integers are unsigned LEB128 varints and strings/bodies are length-prefixed, so a typical
+ * bodiless exchange costs a few dozen bytes.
+ */
+public class TrafficLogWriter implements Closeable {
+
+    static final byte[] MAGIC = "ENSKTRF1".getBytes(StandardCharsets.US_ASCII);
+    static final int SESSION_TAG = 'S';
+    static final int RECORD_TAG = 'R';
+    static final String[] METHODS = {"GET", "POST", "PUT", "DELETE", "PATCH", "HEAD", "OPTIONS"};
+    static final int CUSTOM_METHOD = 0xFF;
+
+    private final OutputStream out;
+    private final long sessionStartNanos;
+
+    public TrafficLogWriter(Path file) throws IOException {
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        boolean newFile = !Files.exists(file) || Files.size(file) == 0;
+        out = new BufferedOutputStream(Files.newOutputStream(file,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND), 64 * 1024);
+        if (newFile) {
+            out.write(MAGIC);
+        }
+        out.write(SESSION_TAG);
+        writeVarLong(out, System.currentTimeMillis());
+        sessionStartNanos = System.nanoTime();
+    }
+
+    /**
+     * Offset of the given {@link System#nanoTime()} value from the start of this session, in microseconds
+     */
+    public long offsetMicros(long nanoTime) {
+        return Math.max(0, (nanoTime - sessionStartNanos) / 1000);
+    }
+
+    /**
+     * Append one exchange. Safe to call from multiple threads; each entry is encoded off-lock
+     * and written as a single block.
+     */
+    public void append(TrafficRecord record) throws IOException {
+        ByteArrayOutputStream entry = new ByteArrayOutputStream(64 + record.getRequestBody().length
+                + record.getResponseBody().length);
+        entry.write(RECORD_TAG);
+        writeVarLong(entry, record.getOffsetMicros());
+        writeMethod(entry, record.getMethod());
+        writeString(entry, record.getPath());
+        writeVarLong(entry, record.getHeaders().size());
+        for (String[] header : record.getHeaders()) {
+            writeString(entry, header[0]);
+            writeString(entry, header[1]);
+        }
+        writeBytes(entry, record.getRequestBody());
+        writeVarLong(entry, record.getStatusCode());
+        writeVarLong(entry, record.getLatencyMicros());
+        writeBytes(entry, record.getResponseBody());
+
+        synchronized (out) {
+            entry.writeTo(out);
+        }
+    }
+
+    public void flush() throws IOException {
+        synchronized (out) {
+            out.flush();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (out) {
+            out.close();
+        }
+    }
+
+    private static void writeMethod(OutputStream out, String method) throws IOException {
+        for (int i = 0; i < METHODS.length; i++) {
+            if (METHODS[i].equalsIgnoreCase(method)) {
+                out.write(i);
+                return;
+            }
+        }
+        out.write(CUSTOM_METHOD);
+        writeString(out, method);
+    }
+
+    private static void writeString(OutputStream out, String value) throws IOException {
+        writeBytes(out, value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void writeBytes(OutputStream out, byte[] value) throws IOException {
+        writeVarLong(out, value.length);
+        out.write(value);
+    }
+
+    static void writeVarLong(OutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+}
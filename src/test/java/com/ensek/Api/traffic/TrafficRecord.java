@@ -0,0 +1,71 @@
+package com.ensek.Api.traffic;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A single captured request/response exchange.
+ * Offsets are in microseconds from the start of the recording timeline.
+ */
+public class TrafficRecord {
+
+    private final long offsetMicros;
+    private final String method;
+    private final String path;
+    private final List<String[]> headers;
+    private final byte[] requestBody;
+    private final int statusCode;
+    private final long latencyMicros;
+    private final byte[] responseBody;
+
+    public TrafficRecord(long offsetMicros, String method, String path, List<String[]> headers,
+                         byte[] requestBody, int statusCode, long latencyMicros, byte[] responseBody) {
+        this.offsetMicros = offsetMicros;
+        this.method = method;
+        this.path = path;
+        this.headers = headers != null ? headers : Collections.emptyList();
+        this.requestBody = requestBody != null ? requestBody : new byte[0];
+        this.statusCode = statusCode;
+        this.latencyMicros = latencyMicros;
+        this.responseBody = responseBody != null ? responseBody : new byte[0];
+    }
+
+    public long getOffsetMicros() {
+        return offsetMicros;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    /**
+     * Raw path and query string, e.g. {@code /ENSEK/buy/1/10}
+     */
+    public String getPath() {
+        return path;
+    }
+
+    /**
+     * Request headers as name/value pairs, with the configured access token replaced by
+     * {@link TrafficRecorder#TOKEN_PLACEHOLDER} and other credentials redacted
+     */
+    public List<String[]> getHeaders() {
+        return headers;
+    }
+
+    public byte[] getRequestBody() {
+        return requestBody;
+    }
+
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    public long getLatencyMicros() {
+        return latencyMicros;
+    }
+
+    public byte[] getResponseBody() {
+        return responseBody;
+    }
+}
@@ -0,0 +1,151 @@
+package com.ensek.Api.traffic;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.restassured.filter.Filter;
+import io.restassured.filter.FilterContext;
+import io.restassured.http.Header;
+import io.restassured.response.Response;
+import io.restassured.specification.FilterableRequestSpecification;
+import io.restassured.specification.FilterableResponseSpecification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * REST Assured filter that appends every exchange passing through it to a {@link TrafficLogWriter}.
+ * No credential reaches the log: a bearer token the server accepted, whether the configured one
+ * or one minted by the token pool, is replaced by {@link #TOKEN_PLACEHOLDER} so replays can
+ * substitute their own. Any other Authorization credential, i.e. another scheme or a bearer token
+ * answered with 401 (the invalid tokens of the negative tests), is replaced by {@link #REDACTED},
+ * which a replay sends as is and so is still rejected. The password and access token in login
+ * bodies become {@link #PASSWORD_PLACEHOLDER} and {@link #REDACTED}. Recording failures are logged
+ * and never fail the request.
+ */
+public class TrafficRecorder implements Filter {
+
+    public static final String TOKEN_PLACEHOLDER = "Bearer ${token}";
+    public static final String PASSWORD_PLACEHOLDER = "${password}";
+    public static final String REDACTED = "${redacted}";
+    private static final Logger logger = LoggerFactory.getLogger(TrafficRecorder.class);
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final TrafficLogWriter writer;
+    private final boolean captureBodies;
+
+    public TrafficRecorder(Path logFile, boolean captureBodies) throws IOException {
+        this.writer = new TrafficLogWriter(logFile);
+        this.captureBodies = captureBodies;
+        Runtime.getRuntime().addShutdownHook(new Thread(this::close, "traffic-recorder-shutdown"));
+        logger.info("Recording API traffic to {}", logFile.toAbsolutePath());
+    }
+
+    @Override
+    public Response filter(FilterableRequestSpecification requestSpec,
+                           FilterableResponseSpecification responseSpec,
+                           FilterContext ctx) {
+        long start = System.nanoTime();
+        Response response = ctx.next(requestSpec, responseSpec);
+        long latencyMicros = (System.nanoTime() - start) / 1000;
+
+        try {
+            String path = pathOf(requestSpec.getURI());
+            boolean login = path.endsWith("/login");
+            writer.append(new TrafficRecord(
+                    writer.offsetMicros(start),
+                    requestSpec.getMethod(),
+                    path,
+                    headersOf(requestSpec, response.getStatusCode() != 401),
+                    captureBodies ? redact(bodyOf(requestSpec.getBody()), login, "password", PASSWORD_PLACEHOLDER) : null,
+                    response.getStatusCode(),
+                    latencyMicros,
+                    captureBodies ? redact(response.asByteArray(), login, "access_token", REDACTED) : null));
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Failed to record {} {}: {}", requestSpec.getMethod(), requestSpec.getURI(), e.getMessage());
+        }
+        return response;
+    }
+
+    /**
+     * Flush and close the underlying log
+     */
+    public void close() {
+        try {
+            writer.close();
+        } catch (IOException e) {
+            logger.warn("Failed to close traffic log", e);
+        }
+    }
+
+    private static String pathOf(String uri) {
+        URI parsed = URI.create(uri);
+        String path = parsed.getRawPath();
+        return parsed.getRawQuery() != null ? path + "?" + parsed.getRawQuery() : path;
+    }
+
+    /**
+     * @param tokenAccepted whether the server accepted the request's bearer token, if it had one
+     */
+    private static List<String[]> headersOf(FilterableRequestSpecification requestSpec, boolean tokenAccepted) {
+        List<String[]> headers = new ArrayList<>();
+        for (Header header : requestSpec.getHeaders()) {
+            String value = header.getValue();
+            if ("Authorization".equalsIgnoreCase(header.getName())) {
+                value = tokenAccepted && isBearer(value) ? TOKEN_PLACEHOLDER : redactCredentials(value);
+            }
+            headers.add(new String[]{header.getName(), value});
+        }
+        return headers;
+    }
+
+    static boolean isBearer(String authorization) {
+        return authorization.trim().regionMatches(true, 0, "Bearer ", 0, 7);
+    }
+
+    /**
+     * Authorization value with its scheme kept and its credentials replaced, e.g.
+     * {@code Bearer ${redacted}}
+     */
+    static String redactCredentials(String authorization) {
+        String trimmed = authorization.trim();
+        int space = trimmed.indexOf(' ');
+        return space < 0 ? REDACTED : trimmed.substring(0, space + 1) + REDACTED;
+    }
+
+    /**
+     * A login body with the named top-level field replaced; anything else, or a body that is not
+     * a JSON object, is returned as is
+     */
+    static byte[] redact(byte[] body, boolean login, String field, String replacement) {
+        if (!login || body == null || body.length == 0) {
+            return body;
+        }
+        try {
+            JsonNode json = objectMapper.readTree(body);
+            if (json instanceof ObjectNode && json.has(field)) {
+                ((ObjectNode) json).put(field, replacement);
+                return objectMapper.writeValueAsBytes(json);
+            }
+        } catch (IOException e) {
+            // Not JSON, so not a credential this knows how to find
+        }
+        return body;
+    }
+
+    private static byte[] bodyOf(Object body) {
+        if (body == null) {
+            return null;
+        }
+        if (body instanceof byte[]) {
+            return (byte[]) body;
+        }
+        return body.toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
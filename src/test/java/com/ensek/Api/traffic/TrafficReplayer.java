@@ -0,0 +1,240 @@
+package com.ensek.Api.traffic;
+
+import com.ensek.Api.utils.ConfigUtils;
+import io.restassured.response.Response;
+import io.restassured.specification.RequestSpecification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import static io.restassured.RestAssured.given;
+
+/**
+ * Replays a traffic log against a target base URI.
+ *
+ * Requests are dispatched in the order they were sent during recording (the log holds them in
+ * completion order, see {@link SortedTrafficLogReader}) at their recorded offsets divided by
+ * the speed factor (1x reproduces the recorded inter-arrival gaps, Nx compresses them, max sends
+ * back to back). With a concurrency of 1 each request completes before the next is sent; higher
+ * values let overlapping requests from the recording overlap again. Recorded uses of the
+ * configured access token and login password are sent with the replayer's own instead.
+ *
+ * Usage: TrafficReplayer &lt;log file&gt; [base uri] [speed: 1x | 5x | max] [concurrency]
+ */
+public class TrafficReplayer {
+
+    private static final Logger logger = LoggerFactory.getLogger(TrafficReplayer.class);
+
+    private final String baseUri;
+    private final String authToken;
+    private final String password;
+    private final double speed;
+    private final int concurrency;
+
+    public TrafficReplayer(String baseUri, String authToken, String password, double speed, int concurrency) {
+        if (concurrency < 1) {
+            throw new IllegalArgumentException("Concurrency must be at least 1");
+        }
+        this.baseUri = baseUri;
+        this.authToken = authToken;
+        this.password = password;
+        this.speed = speed;
+        this.concurrency = concurrency;
+    }
+
+    /**
+     * Parse a speed such as "1x", "2.5x", "3" or "max" into a factor; "max" is infinite
+     */
+    public static double parseSpeed(String value) {
+        String normalized = value.trim().toLowerCase();
+        if ("max".equals(normalized)) {
+            return Double.POSITIVE_INFINITY;
+        }
+        if (normalized.endsWith("x")) {
+            normalized = normalized.substring(0, normalized.length() - 1);
+        }
+        double factor = Double.parseDouble(normalized);
+        if (factor <= 0) {
+            throw new IllegalArgumentException("Replay speed must be positive: " + value);
+        }
+        return factor;
+    }
+
+    /**
+     * Replay every exchange in the log and wait for all of them to complete
+     */
+    public ReplaySummary replay(Path logFile) throws IOException {
+        ReplaySummary summary = new ReplaySummary();
+        ExecutorService executor = concurrency > 1 ? Executors.newFixedThreadPool(concurrency) : null;
+        long replayStart = System.nanoTime();
+
+        try (SortedTrafficLogReader records = new SortedTrafficLogReader(logFile)) {
+            while (records.hasNext()) {
+                TrafficRecord record = records.next();
+                waitUntil(replayStart, record.getOffsetMicros());
+                if (executor != null) {
+                    executor.execute(() -> send(record, summary));
+                } else {
+                    send(record, summary);
+                }
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            if (executor != null) {
+                executor.shutdown();
+                awaitQuietly(executor);
+            }
+        }
+
+        summary.elapsedNanos = System.nanoTime() - replayStart;
+        logger.info("Replayed {} requests from {} in {} ms: {} status mismatches, {} errors",
+                summary.getSent(), logFile, summary.getElapsedMillis(),
+                summary.getStatusMismatches(), summary.getErrors());
+        return summary;
+    }
+
+    private void waitUntil(long replayStart, long offsetMicros) {
+        if (Double.isInfinite(speed)) {
+            return;
+        }
+        long target = replayStart + (long) (offsetMicros * 1000 / speed);
+        long remaining;
+        while ((remaining = target - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+
+    private void send(TrafficRecord record, ReplaySummary summary) {
+        long start = System.nanoTime();
+        try {
+            Response response = buildRequest(record).request(record.getMethod(), record.getPath());
+            summary.record(record.getStatusCode(), response.getStatusCode(), System.nanoTime() - start);
+        } catch (RuntimeException e) {
+            summary.errors.increment();
+            logger.warn("Replay of {} {} failed: {}", record.getMethod(), record.getPath(), e.getMessage());
+        }
+    }
+
+    private RequestSpecification buildRequest(TrafficRecord record) {
+        RequestSpecification request = given()
+                .noFiltersOfType(TrafficRecorder.class)
+                .baseUri(baseUri)
+                .basePath("")
+                .urlEncodingEnabled(false);
+        for (String[] header : record.getHeaders()) {
+            if ("Content-Type".equalsIgnoreCase(header[0])) {
+                request.contentType(header[1]);
+            } else if ("Authorization".equalsIgnoreCase(header[0]) && TrafficRecorder.TOKEN_PLACEHOLDER.equals(header[1])) {
+                if (authToken != null) {
+                    request.header("Authorization", "Bearer " + authToken);
+                }
+            } else if (!"Content-Length".equalsIgnoreCase(header[0]) && !"Host".equalsIgnoreCase(header[0])) {
+                request.header(header[0], header[1]);
+            }
+        }
+        if (record.getRequestBody().length > 0) {
+            request.body(withPassword(record.getRequestBody()));
+        }
+        return request;
+    }
+
+    private byte[] withPassword(byte[] body) {
+        String placeholder = "\"" + TrafficRecorder.PASSWORD_PLACEHOLDER + "\"";
+        String text = new String(body, StandardCharsets.UTF_8);
+        if (password == null || !text.contains(placeholder)) {
+            return body;
+        }
+        String quoted = "\"" + password.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+        return text.replace(placeholder, quoted).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static void awaitQuietly(ExecutorService executor) {
+        try {
+            executor.awaitTermination(1, TimeUnit.HOURS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: TrafficReplayer <log file> [base uri] [speed: 1x | 5x | max] [concurrency]");
+            System.exit(2);
+        }
+        String baseUri = args.length > 1 ? args[1] : ConfigUtils.getBaseUrl();
+        double speed = parseSpeed(args.length > 2 ? args[2] : ConfigUtils.getProperty("traffic.replay.speed", "1x"));
+        int concurrency = args.length > 3 ? Integer.parseInt(args[3])
+                : ConfigUtils.getIntProperty("traffic.replay.concurrency", 1);
+
+        ReplaySummary summary = new TrafficReplayer(baseUri, ConfigUtils.getAuthToken(), ConfigUtils.getTestPassword(),
+                speed, concurrency)
+                .replay(Paths.get(args[0]));
+        System.out.println(summary);
+    }
+
+    /**
+     * Outcome of a replay run
+     */
+    public static class ReplaySummary {
+        private final LongAdder sent = new LongAdder();
+        private final LongAdder statusMismatches = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder totalLatencyNanos = new LongAdder();
+        private final AtomicLong maxLatencyNanos = new AtomicLong();
+        private volatile long elapsedNanos;
+
+        void record(int recordedStatus, int replayedStatus, long latencyNanos) {
+            sent.increment();
+            if (recordedStatus != replayedStatus) {
+                statusMismatches.increment();
+            }
+            totalLatencyNanos.add(latencyNanos);
+            maxLatencyNanos.accumulateAndGet(latencyNanos, Math::max);
+        }
+
+        public long getSent() {
+            return sent.sum();
+        }
+
+        public long getStatusMismatches() {
+            return statusMismatches.sum();
+        }
+
+        public long getErrors() {
+            return errors.sum();
+        }
+
+        public long getElapsedMillis() {
+            return TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+        }
+
+        public double getAverageLatencyMillis() {
+            long n = sent.sum();
+            return n == 0 ? 0.0 : totalLatencyNanos.sum() / 1_000_000.0 / n;
+        }
+
+        public double getMaxLatencyMillis() {
+            return maxLatencyNanos.get() / 1_000_000.0;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Replay: Sent: %d, Status mismatches: %d, Errors: %d, Elapsed: %dms, "
+                            + "Avg latency: %.2fms, Max latency: %.2fms",
+                    getSent(), getStatusMismatches(), getErrors(), getElapsedMillis(),
+                    getAverageLatencyMillis(), getMaxLatencyMillis());
+        }
+    }
+}
@@ -0,0 +1,229 @@
+package com.ensek.Api.utils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.restassured.response.Response;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Predicate;
+
+/**
+ * Utility class for checking every element of a large JSON array response.
+ *
+ * The array is split into chunks that are validated as a {@link RecursiveTask} on a
+ * {@link ForkJoinPool}, and each element is checked against every rule rather than stopping at
+ * the first failure, in the spirit of TestNG's SoftAssert. Partial results are merged in index
+ * order, so the reported sample of failures is the same however the work was split.
+ */
+public class BulkValidationUtils {
+
+    private static final int CHUNK_SIZE = ConfigUtils.getIntProperty("validation.bulk.chunk.size", 4096);
+    private static final int FAILURE_SAMPLE_LIMIT = ConfigUtils.getIntProperty("validation.bulk.failure.samples", 25);
+    private static final ForkJoinPool pool = createPool(ConfigUtils.getIntProperty("validation.bulk.parallelism", 0));
+
+    /**
+     * A named check applied to each array element
+     */
+    public static class Rule {
+        private final String name;
+        private final Predicate<JsonNode> check;
+
+        public Rule(String name, Predicate<JsonNode> check) {
+            this.name = name;
+            this.check = check;
+        }
+
+        public String getName() {
+            return name;
+        }
+    }
+
+    /**
+     * Elements must be objects with all of the given fields present and non-null
+     */
+    public static Rule requireFields(String... fields) {
+        return new Rule("has fields " + Arrays.toString(fields), element -> {
+            for (String field : fields) {
+                JsonNode value = element.get(field);
+                if (value == null || value.isNull()) {
+                    return false;
+                }
+            }
+            return true;
+        });
+    }
+
+    /**
+     * A numeric field must be zero or more; elements without the field pass
+     */
+    public static Rule nonNegative(String field) {
+        return new Rule(field + " >= 0", element -> {
+            JsonNode value = element.get(field);
+            return value == null || value.isNull() || (value.isNumber() && value.asDouble() >= 0);
+        });
+    }
+
+    /**
+     * A numeric field must lie within [min, max]; elements without the field pass
+     */
+    public static Rule inRange(String field, double min, double max) {
+        return new Rule(String.format("%s in [%s, %s]", field, min, max), element -> {
+            JsonNode value = element.get(field);
+            return value == null || value.isNull()
+                    || (value.isNumber() && value.asDouble() >= min && value.asDouble() <= max);
+        });
+    }
+
+    /**
+     * Validate every element of a JSON array against the rules
+     */
+    public static Result validate(JsonNode array, Rule... rules) {
+        if (array == null || !array.isArray()) {
+            throw new IllegalArgumentException("Bulk validation needs a JSON array, got "
+                    + (array == null ? "nothing" : array.getNodeType()));
+        }
+        List<Rule> ruleList = Arrays.asList(rules);
+        if (array.size() <= CHUNK_SIZE) {
+            return new ChunkTask(array, ruleList, 0, array.size()).compute();
+        }
+        return pool.invoke(new ChunkTask(array, ruleList, 0, array.size()));
+    }
+
+    /**
+     * Validate every element of a JSON array response body against the rules
+     */
+    public static Result validate(Response response, Rule... rules) {
+        return validate(ResponseBodyUtils.readTree(response), rules);
+    }
+
+    /**
+     * Validate and fail with every broken rule and a sample of failing elements
+     */
+    public static Result assertAllValid(Response response, Rule... rules) {
+        Result result = validate(response, rules);
+        if (!result.isValid()) {
+            throw new AssertionError("Bulk validation failed: " + result);
+        }
+        return result;
+    }
+
+    private static ForkJoinPool createPool(int parallelism) {
+        return parallelism > 0 ? new ForkJoinPool(parallelism) : ForkJoinPool.commonPool();
+    }
+
+    /**
+     * Aggregated outcome of a bulk validation
+     */
+    public static class Result {
+        private long elements;
+        private long failedElements;
+        private final Map<String, Long> failuresByRule = new LinkedHashMap<>();
+        private final List<String> samples = new ArrayList<>();
+
+        void fail(int index, Rule rule) {
+            failuresByRule.merge(rule.getName(), 1L, Long::sum);
+            if (samples.size() < FAILURE_SAMPLE_LIMIT) {
+                samples.add(String.format("[%d] %s", index, rule.getName()));
+            }
+        }
+
+        /**
+         * Fold in the result for the chunk that follows this one
+         */
+        Result merge(Result next) {
+            elements += next.elements;
+            failedElements += next.failedElements;
+            next.failuresByRule.forEach((rule, count) -> failuresByRule.merge(rule, count, Long::sum));
+            for (String sample : next.samples) {
+                if (samples.size() >= FAILURE_SAMPLE_LIMIT) {
+                    break;
+                }
+                samples.add(sample);
+            }
+            return this;
+        }
+
+        public boolean isValid() {
+            return failedElements == 0;
+        }
+
+        public long getElementCount() {
+            return elements;
+        }
+
+        public long getFailedElementCount() {
+            return failedElements;
+        }
+
+        public Map<String, Long> getFailuresByRule() {
+            return Collections.unmodifiableMap(failuresByRule);
+        }
+
+        /**
+         * The first failures in index order, as "[index] rule"
+         */
+        public List<String> getFailureSamples() {
+            return Collections.unmodifiableList(samples);
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder text = new StringBuilder(String.format("%d of %d elements failed", failedElements, elements));
+            failuresByRule.forEach((rule, count) ->
+                    text.append(System.lineSeparator()).append(" - ").append(rule).append(": ").append(count));
+            if (!samples.isEmpty()) {
+                text.append(System.lineSeparator()).append(" first failures: ").append(samples);
+            }
+            return text.toString();
+        }
+    }
+
+    private static class ChunkTask extends RecursiveTask<Result> {
+        private static final long serialVersionUID = 1L;
+
+        private final JsonNode array;
+        private final List<Rule> rules;
+        private final int from;
+        private final int to;
+
+        ChunkTask(JsonNode array, List<Rule> rules, int from, int to) {
+            this.array = array;
+            this.rules = rules;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Result compute() {
+            if (to - from > CHUNK_SIZE) {
+                int middle = (from + to) >>> 1;
+                ChunkTask right = new ChunkTask(array, rules, middle, to);
+                right.fork();
+                Result left = new ChunkTask(array, rules, from, middle).compute();
+                return left.merge(right.join());
+            }
+            Result result = new Result();
+            for (int index = from; index < to; index++) {
+                JsonNode element = array.get(index);
+                boolean failed = false;
+                for (Rule rule : rules) {
+                    if (!rule.check.test(element)) {
+                        result.fail(index, rule);
+                        failed = true;
+                    }
+                }
+                result.elements++;
+                if (failed) {
+                    result.failedElements++;
+                }
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.ensek.Api.utils;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Generator library for lazy TestNG data providers.
+ * Every generator returns a {@link Stream} of parameter rows so that large input
+ * spaces are only materialised one row at a time as TestNG pulls from the iterator.
+ */
+public class DataProviderUtils {
+
+    /**
+     * Wrap a row stream as the {@code Iterator<Object[]>} expected by a lazy data provider,
+     * deferring building it until TestNG starts iterating
+     */
+    public static Iterator<Object[]> lazy(Supplier<Stream<Object[]>> rows) {
+        return new Iterator<Object[]>() {
+            private Iterator<Object[]> delegate;
+
+            @Override
+            public boolean hasNext() {
+                return delegate().hasNext();
+            }
+
+            @Override
+            public Object[] next() {
+                return delegate().next();
+            }
+
+            private Iterator<Object[]> delegate() {
+                if (delegate == null) {
+                    delegate = rows.get().iterator();
+                }
+                return delegate;
+            }
+        };
+    }
+
+    /**
+     * Fuel IDs known to exist, starting from the configured valid fuel ID
+     */
+    public static IntStream validFuelIds() {
+        int first = ConfigUtils.getValidFuelId();
+        return IntStream.range(first, first + ConfigUtils.getIntProperty("fuel.id.valid.count", 3));
+    }
+
+    /**
+     * Fuel IDs that should be rejected by the buy endpoint
+     */
+    public static IntStream invalidFuelIds() {
+        return IntStream.of(ConfigUtils.getInvalidFuelId(), 0, Integer.MIN_VALUE).distinct();
+    }
+
+    /**
+     * Quantities on and around the accepted range
+     */
+    public static IntStream quantityBoundaries() {
+        return IntStream.of(ConfigUtils.getZeroQuantity(), 1, ConfigUtils.getValidQuantity(),
+                ConfigUtils.getExcessQuantity(), Integer.MAX_VALUE).distinct();
+    }
+
+    /**
+     * Quantities that should be rejected by the buy endpoint, zero included
+     */
+    public static IntStream invalidQuantities() {
+        return IntStream.of(ConfigUtils.getInvalidQuantity(), ConfigUtils.getZeroQuantity(), -1, Integer.MIN_VALUE).distinct();
+    }
+
+    /**
+     * Cartesian product of fuel IDs and quantities, generated lazily
+     */
+    public static Stream<Object[]> buyRows(Supplier<IntStream> fuelIds, Supplier<IntStream> quantities) {
+        return fuelIds.get().boxed()
+                .flatMap(fuelId -> quantities.get().mapToObj(quantity -> new Object[]{fuelId, quantity}));
+    }
+
+    /**
+     * Unbounded stream of seeded random buy rows drawn from the valid fuel IDs and (1..maxQuantity)
+     */
+    public static Stream<Object[]> randomBuyRows(long seed, int maxQuantity) {
+        int[] fuelIds = validFuelIds().toArray();
+        SplittableRandom random = new SplittableRandom(seed);
+        return Stream.generate(() -> new Object[]{
+                fuelIds[random.nextInt(fuelIds.length)],
+                random.nextInt(1, maxQuantity + 1)
+        });
+    }
+
+    /**
+     * Every combination of the configured, a wrong and a blank username and password, paired with
+     * the expected status code: 400 when either field is blank, 200 for the configured pair, 401 otherwise
+     */
+    public static Stream<Object[]> credentialPermutations() {
+        List<String> passwords = Arrays.asList(ConfigUtils.getTestPassword(), "invalidPassword", "");
+        return Stream.of(ConfigUtils.getTestUsername(), "invalidUser", "")
+                .flatMap(username -> passwords.stream()
+                        .map(password -> new Object[]{username, password, expectedLoginStatus(username, password)}));
+    }
+
+    /**
+     * Number of extra seeded random rows to append to the buy data provider
+     */
+    public static int getRandomRowCount() {
+        return ConfigUtils.getIntProperty("dataprovider.random.rows", 0);
+    }
+
+    public static long getSeed() {
+        return Long.parseLong(ConfigUtils.getProperty("dataprovider.seed", "20240101"));
+    }
+
+    private static int expectedLoginStatus(String username, String password) {
+        if (username.isEmpty() || password.isEmpty()) {
+            return 400;
+        }
+        return ConfigUtils.getTestUsername().equals(username) && ConfigUtils.getTestPassword().equals(password) ? 200 : 401;
+    }
+}
@@ -1,5 +1,7 @@
 package com.ensek.Api.utils;
 
+import com.ensek.Api.data.TestDataGenerator;
+import com.ensek.Api.model.EnergyType;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import io.restassured.response.Response;
@@ -9,7 +11,6 @@ import org.slf4j.LoggerFactory;
 import java.io.IOException;
 import java.util.List;
 import java.util.Map;
-import java.util.Random;
 
 /**
  * Utility class for data manipulation and extraction from API responses
@@ -18,7 +19,6 @@ public class DataUtils {
 
     private static final Logger logger = LoggerFactory.getLogger(DataUtils.class);
     private static final ObjectMapper objectMapper = new ObjectMapper();
-    private static final Random random = new Random();
 
     /**
      * Get response value as string using JsonPath
@@ -118,48 +118,38 @@ public class DataUtils {
     }
 
     /**
-     * Generate random string of specified length
+     * Generate random string of specified length from this thread's seeded generator
      */
     public static String generateRandomString(int length) {
-        String chars = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789";
-        StringBuilder sb = new StringBuilder();
-        for (int i = 0; i < length; i++) {
-            sb.append(chars.charAt(random.nextInt(chars.length())));
-        }
-        return sb.toString();
+        return TestDataGenerator.current().nextString(length);
     }
 
     /**
-     * Generate random email address
+     * Generate an email address that is unique within the run
      */
     public static String generateRandomEmail() {
-        return "test." + generateRandomString(8) + "@example.com";
+        return TestDataGenerator.current().nextEmail();
     }
 
     /**
-     * Generate random password with specified length
+     * Generate random password with specified length from this thread's seeded generator
      */
     public static String generateRandomPassword(int length) {
-        String chars = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789!@#$%^&*";
-        StringBuilder password = new StringBuilder();
-        for (int i = 0; i < length; i++) {
-            password.append(chars.charAt(random.nextInt(chars.length())));
-        }
-        return password.toString();
+        return TestDataGenerator.current().nextPassword(length);
     }
 
     /**
      * Find energy type by ID from energy list response
      */
-    public static Map<String, Object> findEnergyTypeById(Response response, int energyId) {
-        List<Map<String, Object>> energyTypes = getResponseValueAsList(response, "$");
-        if (energyTypes != null) {
-            for (Map<String, Object> energyType : energyTypes) {
-                Integer id = (Integer) energyType.get("id");
-                if (id != null && id == energyId) {
-                    return energyType;
-                }
+    public static EnergyType findEnergyTypeById(Response response, int energyId) {
+        try {
+            EnergyType energyType = EnergyType.findById(EnergyType.listFrom(response), energyId);
+            if (energyType != null) {
+                return energyType;
             }
+        } catch (Exception e) {
+            logger.error("Failed to read energy types from response", e);
+            return null;
         }
         logger.warn("Energy type with ID {} not found in response", energyId);
         return null;
@@ -169,9 +159,9 @@ public class DataUtils {
      * Get available quantity for a specific energy type
      */
     public static Integer getAvailableQuantityForEnergyType(Response response, int energyId) {
-        Map<String, Object> energyType = findEnergyTypeById(response, energyId);
+        EnergyType energyType = findEnergyTypeById(response, energyId);
         if (energyType != null) {
-            return (Integer) energyType.get("quantity_available");
+            return energyType.getQuantityAvailable();
         }
         return null;
     }
@@ -193,17 +183,8 @@ public class DataUtils {
      * Extract error message from response
      */
     public static String extractErrorMessage(Response response) {
-        // Try common error message fields
-        String[] errorFields = {"message", "error", "errorMessage", "detail", "details"};
-        
-        for (String field : errorFields) {
-            String errorMessage = getResponseValueAsString(response, field);
-            if (errorMessage != null && !errorMessage.trim().isEmpty()) {
-                return errorMessage;
-            }
-        }
-        
-        // If no standard error field found, return the full response body
-        return response.asString();
+        // Try common error message fields, parsing the body once from a pooled buffer;
+        // if no standard error field is found the full response body is returned
+        return ResponseBodyUtils.readFirstText(response, "message", "error", "errorMessage", "detail", "details");
     }
 }
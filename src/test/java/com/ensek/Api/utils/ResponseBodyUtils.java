@@ -0,0 +1,138 @@
+package com.ensek.Api.utils;
+
+import com.ensek.Api.http.ByteBufferPool;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import io.restassured.response.Response;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Utility class for reading API response bodies without String copies.
+ *
+ * The body stream is drained into a pooled direct {@link ByteBuffer} and Jackson parses straight
+ * from that buffer, so a large {@code /ENSEK/orders} listing costs one off-heap copy that is
+ * reused by the next request, instead of a byte array plus a String plus Jackson's own copy.
+ *
+ * These methods consume the body: if REST Assured has not buffered it yet (no {@code then()},
+ * {@code jsonPath()} or {@code asString()} before), it cannot be read a second time afterwards.
+ *
+ * The mapper has the Blackbird module registered, so binding to the typed models in
+ * {@code com.ensek.Api.model} goes through generated accessors rather than reflection.
+ */
+public class ResponseBodyUtils {
+
+    private static final Logger logger = LoggerFactory.getLogger(ResponseBodyUtils.class);
+    private static final ObjectMapper objectMapper = new ObjectMapper().registerModule(new BlackbirdModule());
+    private static final int TRANSFER_CHUNK = 8192;
+    private static final ThreadLocal<byte[]> transferChunk = ThreadLocal.withInitial(() -> new byte[TRANSFER_CHUNK]);
+    private static final ByteBufferPool bufferPool = new ByteBufferPool(
+            ConfigUtils.getIntProperty("response.buffer.initial.kb", 64) * 1024,
+            ConfigUtils.getIntProperty("response.buffer.pool.size", 16),
+            ConfigUtils.getIntProperty("response.buffer.max.pooled.kb", 4096) * 1024);
+
+    /**
+     * Something that reads a body held in a direct buffer positioned at its first byte
+     */
+    public interface BodyReader<T> {
+        T read(ByteBuffer body) throws IOException;
+    }
+
+    /**
+     * Load the response body into a pooled buffer, hand it to the reader and return the buffer
+     * to the pool. The buffer must not escape the reader.
+     */
+    public static <T> T withBody(Response response, BodyReader<T> reader) {
+        ByteBuffer buffer = bufferPool.acquire(contentLength(response));
+        try (InputStream body = response.asInputStream()) {
+            byte[] chunk = transferChunk.get();
+            int read;
+            while (body != null && (read = body.read(chunk)) != -1) {
+                if (buffer.remaining() < read) {
+                    buffer = bufferPool.grow(buffer, buffer.position() + read);
+                }
+                buffer.put(chunk, 0, read);
+            }
+            buffer.flip();
+            return reader.read(buffer);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read response body", e);
+        } finally {
+            bufferPool.release(buffer);
+        }
+    }
+
+    /**
+     * Parse the response body into a tree
+     */
+    public static JsonNode readTree(Response response) {
+        return withBody(response, ResponseBodyUtils::parseTree);
+    }
+
+    /**
+     * Bind the response body to the given type
+     */
+    public static <T> T read(Response response, Class<T> type) {
+        return withBody(response, body -> objectMapper.readValue(new ByteBufferBackedInputStream(body), type));
+    }
+
+    /**
+     * Bind the response body to the given generic type, e.g. a list of orders
+     */
+    public static <T> T read(Response response, TypeReference<T> type) {
+        return withBody(response, body -> objectMapper.readValue(new ByteBufferBackedInputStream(body), type));
+    }
+
+    /**
+     * First non-blank text among the given top-level fields of a JSON object body; the whole
+     * body decoded as text if none is present or the body is not JSON
+     */
+    public static String readFirstText(Response response, String... fields) {
+        return withBody(response, body -> {
+            try {
+                JsonNode tree = parseTree(body.duplicate());
+                for (String field : fields) {
+                    JsonNode value = tree.get(field);
+                    if (value != null && !value.isNull() && !value.asText().trim().isEmpty()) {
+                        return value.asText();
+                    }
+                }
+            } catch (IOException e) {
+                logger.debug("Response body is not JSON: {}", e.getMessage());
+            }
+            return StandardCharsets.UTF_8.decode(body).toString();
+        });
+    }
+
+    /**
+     * Shared buffer pool, exposed for allocation measurements
+     */
+    public static ByteBufferPool getBufferPool() {
+        return bufferPool;
+    }
+
+    private static JsonNode parseTree(ByteBuffer body) throws IOException {
+        return objectMapper.readTree(new ByteBufferBackedInputStream(body));
+    }
+
+    private static int contentLength(Response response) {
+        String header = response.getHeader("Content-Length");
+        if (header == null) {
+            return 0;
+        }
+        try {
+            return Integer.parseInt(header.trim());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
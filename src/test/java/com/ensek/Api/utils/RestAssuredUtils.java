@@ -1,35 +1,116 @@
 package com.ensek.Api.utils;
 
+import com.ensek.Api.http.CircuitBreakerFilter;
+import com.ensek.Api.http.EnergyCatalogueCache;
+import com.ensek.Api.http.InstrumentedHttpClient;
+import com.ensek.Api.http.RequestSpecFactory;
+import com.ensek.Api.metrics.LiveDashboard;
+import com.ensek.Api.samples.SampleSink;
+import com.ensek.Api.traffic.TrafficRecorder;
 import io.restassured.RestAssured;
 import io.restassured.builder.RequestSpecBuilder;
 import io.restassured.config.HttpClientConfig;
 import io.restassured.config.RestAssuredConfig;
+import io.restassured.filter.Filter;
 import io.restassured.specification.RequestSpecification;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
 /**
- * Utility class for RestAssured configuration and common request specifications
+ * Utility class for RestAssured configuration and common request specifications.
+ * The token and header specifications handed out here are fresh copies of the cached templates
+ * in {@link RequestSpecFactory}, so a caller may modify its copy freely.
  */
 public class RestAssuredUtils {
 
     private static final Logger logger = LoggerFactory.getLogger(RestAssuredUtils.class);
     private static final String INVALID_TOKEN = "INVALID_ACCESS_TOKEN";
     private static RequestSpecification baseRequestSpec;
+    private static TrafficRecorder trafficRecorder;
+    private static boolean configured;
 
     /**
-     * Setup RestAssured with base configuration
+     * Setup RestAssured with base configuration, once per JVM: every test class calls this from
+     * its setup, and rebuilding the Groovy-backed configuration each time only adds startup cost
      */
-    public static void setupRestAssuredConfig() {
+    public static synchronized void setupRestAssuredConfig() {
+        configure(true);
+    }
+
+    /**
+     * Setup for measuring the API itself, e.g. capacity searches: the same client configuration,
+     * but without the energy catalogue cache and the circuit breaker, which answer requests
+     * without sending them. Removes both if an earlier setup installed them.
+     */
+    public static synchronized void setupMeasurementConfig() {
+        configure(false);
+        List<Filter> filters = new ArrayList<>();
+        for (Filter filter : RestAssured.filters()) {
+            if (!(filter instanceof EnergyCatalogueCache) && !(filter instanceof CircuitBreakerFilter)) {
+                filters.add(filter);
+            }
+        }
+        RestAssured.replaceFiltersWith(filters);
+    }
+
+    private static void configure(boolean interceptors) {
+        if (configured) {
+            return;
+        }
         // Configure timeouts and other settings
-        RestAssured.config = RestAssuredConfig.config()
-                .httpClient(HttpClientConfig.httpClientConfig()
-                        .setParam("http.connection.timeout", ConfigUtils.getDefaultTimeout() * 1000)
-                        .setParam("http.socket.timeout", ConfigUtils.getDefaultTimeout() * 1000));
+        HttpClientConfig httpClientConfig = HttpClientConfig.httpClientConfig()
+                .setParam("http.connection.timeout", ConfigUtils.getDefaultTimeout() * 1000)
+                .setParam("http.socket.timeout", ConfigUtils.getDefaultTimeout() * 1000);
+        // Negotiate and decode compressed responses ourselves and time each phase of every request
+        RestAssured.config = InstrumentedHttpClient.configure(RestAssuredConfig.config(), httpClientConfig);
+
+        // Cache hits and short-circuited calls never reach the recorder or the wire
+        if (interceptors && ConfigUtils.getBooleanProperty("energy.cache.enabled", false)) {
+            installFilter(EnergyCatalogueCache.getInstance());
+        }
+        if (interceptors && ConfigUtils.getBooleanProperty("circuit.enabled", true)) {
+            installFilter(CircuitBreakerFilter.getInstance());
+        }
+        if (ConfigUtils.getBooleanProperty("traffic.record.enabled", false)) {
+            installFilter(getTrafficRecorder());
+        }
+        LiveDashboard.startIfEnabled();
+        SampleSink.startIfEnabled();
+        configured = true;
         
         logger.info("RestAssured configuration setup completed");
     }
 
+    /**
+     * Add a global filter unless it is already installed, since every test class runs the setup
+     */
+    private static synchronized void installFilter(Filter filter) {
+        if (!RestAssured.filters().contains(filter)) {
+            RestAssured.filters(filter);
+        }
+    }
+
+    /**
+     * Get the shared traffic recorder, opening the configured log on first use
+     */
+    public static synchronized TrafficRecorder getTrafficRecorder() {
+        if (trafficRecorder == null) {
+            try {
+                trafficRecorder = new TrafficRecorder(
+                        Paths.get(ConfigUtils.getProperty("traffic.record.file", "target/traffic/ensek-traffic.bin")),
+                        ConfigUtils.getBooleanProperty("traffic.record.bodies", true));
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to open traffic log", e);
+            }
+        }
+        return trafficRecorder;
+    }
+
     /**
      * Setup base request specification with provided parameters
      */
@@ -52,15 +133,23 @@ public class RestAssuredUtils {
     }
 
     /**
-     * Create a request specification with the given auth token
+     * Get a request specification for the given auth token; each call returns a new copy
      */
     public static RequestSpecification createRequestSpecification(String authToken) {
-        return new RequestSpecBuilder()
-                .addHeader("Authorization", "Bearer " + authToken)
-                .addHeader("Content-Type", "application/json")
-                .addHeader("Accept", "application/json")
-                .addHeader("User-Agent", "Ensek-API-Test-Suite/1.0")
-                .build();
+        return RequestSpecFactory.withToken(authToken);
+    }
+
+    /**
+     * Copy of the specification whose catalogue reads go through the shared
+     * {@link EnergyCatalogueCache}, or the specification itself when the setup already installed
+     * the cache for every request
+     */
+    public static RequestSpecification withEnergyCache(RequestSpecification requestSpec) {
+        EnergyCatalogueCache cache = EnergyCatalogueCache.getInstance();
+        if (RestAssured.filters().contains(cache)) {
+            return requestSpec;
+        }
+        return new RequestSpecBuilder().addRequestSpecification(requestSpec).addFilter(cache).build();
     }
 
     /**
@@ -88,11 +177,7 @@ public class RestAssuredUtils {
      * Get a RequestSpecification object without any authorization header
      */
     public static RequestSpecification getRequestSpecificationWithoutAuth() {
-        return new RequestSpecBuilder()
-                .addHeader("Content-Type", "application/json")
-                .addHeader("Accept", "application/json")
-                .addHeader("User-Agent", "Ensek-API-Test-Suite/1.0")
-                .build();
+        return RequestSpecFactory.withoutAuth();
     }
 
     /**
@@ -101,19 +186,15 @@ public class RestAssuredUtils {
     public static RequestSpecification getRequestSpecificationWithCustomHeaders(String authToken, 
                                                                                String contentType, 
                                                                                String accept) {
-        return new RequestSpecBuilder()
-                .addHeader("Authorization", "Bearer " + authToken)
-                .addHeader("Content-Type", contentType)
-                .addHeader("Accept", accept)
-                .addHeader("User-Agent", "Ensek-API-Test-Suite/1.0")
-                .build();
+        return RequestSpecFactory.get(authToken, contentType, accept);
     }
 
     /**
      * Reset RestAssured to default configuration
      */
-    public static void resetRestAssured() {
+    public static synchronized void resetRestAssured() {
         RestAssured.reset();
+        configured = false;
         logger.info("RestAssured configuration reset to defaults");
     }
 }
@@ -0,0 +1,131 @@
+package com.ensek.Api.utils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.fge.jackson.JsonLoader;
+import com.github.fge.jsonschema.core.exceptions.ProcessingException;
+import com.github.fge.jsonschema.core.report.ProcessingMessage;
+import com.github.fge.jsonschema.core.report.ProcessingReport;
+import com.github.fge.jsonschema.main.JsonSchema;
+import com.github.fge.jsonschema.main.JsonSchemaFactory;
+import io.restassured.response.Response;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Utility class for validating API responses against the JSON schemas in {@code schemas/}.
+ * Each schema is loaded and compiled once and the compiled form is shared across threads;
+ * response bodies are parsed straight from their byte stream into a tree without an
+ * intermediate String copy.
+ */
+public class SchemaValidationUtils {
+
+    private static final Logger logger = LoggerFactory.getLogger(SchemaValidationUtils.class);
+    private static final String SCHEMA_DIRECTORY = "/schemas/";
+    private static final JsonSchemaFactory schemaFactory = JsonSchemaFactory.byDefault();
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+    private static final ConcurrentMap<String, JsonSchema> compiledSchemas = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<String, ValidationStats> validationStats = new ConcurrentHashMap<>();
+
+    public static final String ENERGY = "energy";
+    public static final String ORDERS = "orders";
+    public static final String ORDER = "order";
+    public static final String LOGIN = "login";
+
+    /**
+     * Get the compiled schema for the given name, compiling it on first use
+     */
+    public static JsonSchema getSchema(String schemaName) {
+        return compiledSchemas.computeIfAbsent(schemaName, SchemaValidationUtils::compileSchema);
+    }
+
+    /**
+     * Validate a JSON document read from the given stream
+     */
+    public static ProcessingReport validate(InputStream body, String schemaName) {
+        JsonSchema schema = getSchema(schemaName);
+        long start = System.nanoTime();
+        try {
+            JsonNode document = objectMapper.readTree(body);
+            return schema.validate(document, true);
+        } catch (IOException | ProcessingException e) {
+            throw new RuntimeException("Failed to validate response against schema: " + schemaName, e);
+        } finally {
+            statsFor(schemaName).record(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Validate the body of an API response
+     */
+    public static ProcessingReport validate(Response response, String schemaName) {
+        return validate(response.asInputStream(), schemaName);
+    }
+
+    /**
+     * Assert that the body of an API response matches the named schema
+     */
+    public static void assertMatchesSchema(Response response, String schemaName) {
+        ProcessingReport report = validate(response, schemaName);
+        if (!report.isSuccess()) {
+            StringBuilder failures = new StringBuilder();
+            for (ProcessingMessage message : report) {
+                failures.append(System.lineSeparator()).append(" - ").append(message.getMessage());
+            }
+            throw new AssertionError("Response does not match schema '" + schemaName + "':" + failures);
+        }
+    }
+
+    /**
+     * Average time spent parsing and validating a response for the given schema, in microseconds.
+     * This cost is paid after the response has been received and is not part of response.getTime().
+     */
+    public static double getAverageValidationMicros(String schemaName) {
+        ValidationStats stats = validationStats.get(schemaName);
+        return stats != null ? stats.averageMicros() : 0.0;
+    }
+
+    /**
+     * Number of responses validated against the given schema
+     */
+    public static long getValidationCount(String schemaName) {
+        ValidationStats stats = validationStats.get(schemaName);
+        return stats != null ? stats.count.sum() : 0L;
+    }
+
+    private static JsonSchema compileSchema(String schemaName) {
+        String resource = SCHEMA_DIRECTORY + schemaName + ".json";
+        try {
+            JsonSchema schema = schemaFactory.getJsonSchema(JsonLoader.fromResource(resource));
+            logger.info("Compiled JSON schema: {}", resource);
+            return schema;
+        } catch (IOException | ProcessingException e) {
+            throw new RuntimeException("Failed to load JSON schema: " + resource, e);
+        }
+    }
+
+    private static ValidationStats statsFor(String schemaName) {
+        return validationStats.computeIfAbsent(schemaName, name -> new ValidationStats());
+    }
+
+    private static class ValidationStats {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+
+        void record(long nanos) {
+            count.increment();
+            totalNanos.add(nanos);
+        }
+
+        double averageMicros() {
+            long n = count.sum();
+            return n == 0 ? 0.0 : totalNanos.sum() / 1000.0 / n;
+        }
+    }
+}
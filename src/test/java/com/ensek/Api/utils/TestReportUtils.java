@@ -1,5 +1,8 @@
 package com.ensek.Api.utils;
 
+import com.ensek.Api.metrics.PhaseTimingMetrics;
+import com.ensek.Api.slo.SloListener;
+import com.ensek.Api.slo.SloResult;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.testng.ITestContext;
@@ -7,6 +10,7 @@ import org.testng.ITestResult;
 
 import java.text.SimpleDateFormat;
 import java.util.Date;
+import java.util.List;
 
 /**
  * Utility class for test reporting and logging
@@ -28,6 +32,14 @@ public class TestReportUtils {
         System.out.println(logMessage);
         logger.info(logMessage);
         
+        // Log the repeated-invocation measurements of @Slo tests
+        Object slo = result.getAttribute(SloListener.RESULT_ATTRIBUTE);
+        if (slo instanceof SloResult) {
+            String sloMessage = "  SLO: " + ((SloResult) slo).summary();
+            System.out.println(sloMessage);
+            logger.info(sloMessage);
+        }
+        
         // Log failure details if test failed
         if (result.getStatus() == ITestResult.FAILURE && result.getThrowable() != null) {
             logger.error("Failure details for test {}: {}", testName, result.getThrowable().getMessage());
@@ -55,6 +67,29 @@ public class TestReportUtils {
         System.out.println("=== " + summary + " ===");
     }
     
+    public static void logSloSummary(String suiteName, List<SloResult> results) {
+        StringBuilder table = new StringBuilder(String.format("SLO results for %s:", suiteName));
+        table.append(System.lineSeparator()).append(String.format("%-48s %8s %7s %9s %9s %9s %9s %10s  %s",
+                "Test", "Calls", "Errors", "Calls/s", "p50 (ms)", "p95 (ms)", "p99 (ms)", "Cache hits", "Verdict"));
+        for (SloResult result : results) {
+            table.append(System.lineSeparator()).append(String.format("%-48s %8d %7d %9.1f %9.1f %9.1f %9.1f %10d  %s",
+                    result.getTestName(), result.getInvocations(), result.getErrors(), result.getThroughputPerSecond(),
+                    result.getLatency().getPercentileMillis(50), result.getLatency().getPercentileMillis(95),
+                    result.getLatency().getPercentileMillis(99), result.getCacheHits(),
+                    result.isPassed() ? "met" : "BREACHED: " + String.join("; ", result.getBreaches())));
+        }
+        
+        logger.info(table.toString());
+        System.out.println(table);
+    }
+    
+    public static void logPhaseTimings(String suiteName, PhaseTimingMetrics phases) {
+        String table = String.format("Request phase timings for %s:%s%s", suiteName, System.lineSeparator(), phases.summary());
+        
+        logger.info(table);
+        System.out.println(table);
+    }
+    
     public static void logApiRequest(String method, String endpoint, int statusCode) {
         String logMessage = String.format("API Request: %s %s -> Status: %d", method, endpoint, statusCode);
         logger.info(logMessage);
@@ -1,5 +1,7 @@
 package com.ensek.Api.utils;
 
+import com.ensek.Api.data.TestDataGenerator;
+
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
@@ -12,6 +14,6 @@ public class TestUtilities {
     }
 
     public static int generateRandomNumber(int min, int max) {
-        return min + (int) (Math.random() * (max - min + 1));
+        return TestDataGenerator.current().nextInt(min, max + 1);
     }
 }